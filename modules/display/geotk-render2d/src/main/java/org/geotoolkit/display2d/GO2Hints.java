@@ -18,6 +18,7 @@ package org.geotoolkit.display2d;
 
 import java.awt.RenderingHints.Key;
 import java.awt.image.ColorModel;
+import java.util.concurrent.ExecutorService;
 import org.geotoolkit.display.HintKey;
 import org.geotoolkit.display2d.container.stateless.StatelessMapItemJ2D;
 import org.geotoolkit.factory.Hints;
@@ -143,6 +144,38 @@ public final class GO2Hints extends Static {
      */
     public static final Key KEY_PARALLAL_BUFFER = new NamedKey(Boolean.class, "GO2 - Parallal Buffer");
 
+    /**
+     * When the symbol rendering order is activated, each symbolizer depth is recorded
+     * in a display list and replayed on the canvas instead of being painted in a
+     * buffered image of the canvas size. This hint gives the maximum memory in bytes
+     * used by the display lists of a layer, once exceeded the remaining depths fall
+     * back on buffered images. A value of zero disables display lists.
+     *
+     * Default value is {@link #DISPLAY_LIST_MEMORY_DEFAULT}.
+     */
+    public static final Key KEY_DISPLAY_LIST_MEMORY = new NamedKey(Number.class, "GO2 - Display list memory");
+
+    /**
+     * Configure the portrayal service to split images in square partitions of the
+     * given size in pixels, partitions are rendered in parallel by the executor given
+     * with {@link #KEY_PARTITION_EXECUTOR} and each one only queries the data in its
+     * own area. Partitioning is not used when portrayal extensions are defined,
+     * when layers have graphic builders or when layer styles
+     * contain text symbolizers, labels being placed on the complete image. Raster
+     * styles stretched with the image statistics are partitioned only if the coverage
+     * statistics are available.
+     *
+     * Default value is null : no partitioning.
+     */
+    public static final Key KEY_PARTITION_SIZE = new NamedKey(Integer.class, "GO2 - Partition size");
+
+    /**
+     * Executor used to render partitions when {@link #KEY_PARTITION_SIZE} is set.
+     *
+     * Default value is null : partitions are rendered in the calling thread.
+     */
+    public static final Key KEY_PARTITION_EXECUTOR = new NamedKey(ExecutorService.class, "GO2 - Partition executor");
+
     /**
      * When the raster symbolizer requieres an elevation model and the MapLayer
      * does not define any then a rendering engine search for a default one in the
@@ -187,6 +220,11 @@ public final class GO2Hints extends Static {
     public static final Boolean VIEW_TILE_ON  = Boolean.TRUE;
     public static final Boolean VIEW_TILE_OFF = Boolean.FALSE;
 
+    /**
+     * 32Mb, a 4096x4096 ARGB buffered image requieres 64Mb.
+     */
+    public static final Long DISPLAY_LIST_MEMORY_DEFAULT = 32L*1024*1024;
+
     /**
      * A value of 1.3 looks like the best average generalisation.
      * Values between 1 and 2.5 give a fair rendering.
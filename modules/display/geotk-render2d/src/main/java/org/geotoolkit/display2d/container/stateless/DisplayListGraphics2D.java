@@ -0,0 +1,771 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2018, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.display2d.container.stateless;
+
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Image;
+import java.awt.Paint;
+import java.awt.Polygon;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.Stroke;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Arc2D;
+import java.awt.geom.Area;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.geom.NoninvertibleTransformException;
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
+import java.awt.geom.RoundRectangle2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.BufferedImageOp;
+import java.awt.image.ColorModel;
+import java.awt.image.ImageObserver;
+import java.awt.image.RenderedImage;
+import java.awt.image.SampleModel;
+import java.awt.image.renderable.RenderableImage;
+import java.text.AttributedCharacterIterator;
+import java.text.AttributedString;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Graphics recording painting operations in a display list.
+ * <br>
+ * Shapes are copied in compact paths and graphic states are shared between
+ * consecutive operations, the list is then replayed on the target graphics
+ * with {@link #flush(java.awt.Graphics2D) }. Recorded bytes are taken from a
+ * memory budget shared by several display lists, when the budget is exhausted
+ * or when an operation can not be replayed without an isolated layer
+ * (composite other then source over, clear, xor mode) the recorded operations
+ * are painted in a buffered image and the following operations are painted
+ * directly in this image.
+ * <br>
+ * Images and glyph vectors are recorded by reference.
+ * This class is not thread safe.
+ *
+ * @author Johann Sorel (Geomatys)
+ * @module
+ */
+final class DisplayListGraphics2D extends Graphics2D {
+
+    /**
+     * Approximate size of a recorded operation, without data.
+     */
+    private static final long OPERATION_SIZE = 64;
+
+    private interface Operation {
+        void paint(Graphics2D g);
+    }
+
+    private static final class Entry {
+        private final State state;
+        private final Operation operation;
+
+        private Entry(final State state, final Operation operation) {
+            this.state = state;
+            this.operation = operation;
+        }
+    }
+
+    /**
+     * Graphic state, instances are never modified once used by an entry.
+     */
+    private static final class State {
+        private AffineTransform transform;
+        private Paint paint;
+        private Stroke stroke;
+        private Composite composite;
+        private Font font;
+        private Color background;
+        private RenderingHints hints;
+        /** Clip in device space. */
+        private Shape clip;
+
+        private State copy() {
+            final State copy = new State();
+            copy.transform = new AffineTransform(transform);
+            copy.paint = paint;
+            copy.stroke = stroke;
+            copy.composite = composite;
+            copy.font = font;
+            copy.background = background;
+            copy.hints = (RenderingHints) hints.clone();
+            copy.clip = clip;
+            return copy;
+        }
+
+        private void apply(final Graphics2D g, final AffineTransform base, final Shape baseClip) {
+            g.setTransform(base);
+            g.setClip(baseClip);
+            if (clip != null) g.clip(clip);
+            g.transform(transform);
+            g.setRenderingHints(hints);
+            g.setPaint(paint);
+            g.setStroke(stroke);
+            g.setComposite(composite);
+            g.setFont(font);
+            g.setBackground(background);
+        }
+    }
+
+    /**
+     * Recording shared by a graphics and all graphics created from it.
+     */
+    private static final class Recording {
+        private final AtomicLong budget;
+        private final ColorModel cm;
+        private final SampleModel sm;
+        private final List<Entry> entries = new ArrayList<>();
+        private long size = 0;
+        private BufferedImage image;
+        private Graphics2D imageGraphics;
+        private State imageState;
+        private Graphics2D scratch;
+
+        private Recording(final AtomicLong budget, final ColorModel cm, final SampleModel sm) {
+            this.budget = budget;
+            this.cm = cm;
+            this.sm = sm;
+        }
+
+        private void release() {
+            budget.addAndGet(size);
+            size = 0;
+            entries.clear();
+        }
+
+        private Graphics2D scratch() {
+            if (scratch == null) {
+                scratch = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+            }
+            return scratch;
+        }
+    }
+
+    private final Recording recording;
+    private State state;
+    /** True if the state is used by a recorded entry and must be copied before changes. */
+    private boolean shared = false;
+
+    /**
+     * @param budget memory budget in bytes, shared by all display lists of a rendering
+     * @param cm color model of the buffered image created when the budget is exhausted
+     * @param sm sample model of the buffered image created when the budget is exhausted
+     */
+    DisplayListGraphics2D(final AtomicLong budget, final ColorModel cm, final SampleModel sm) {
+        this.recording = new Recording(budget, cm, sm);
+        this.state = new State();
+        state.transform = new AffineTransform();
+        state.paint = Color.WHITE;
+        state.stroke = new BasicStroke();
+        state.composite = AlphaComposite.SrcOver;
+        state.font = new Font(Font.DIALOG, Font.PLAIN, 12);
+        state.background = Color.BLACK;
+        state.hints = new RenderingHints(null);
+    }
+
+    private DisplayListGraphics2D(final Recording recording, final State state) {
+        this.recording = recording;
+        this.state = state;
+    }
+
+    /**
+     * @return true if the budget has been exceeded and operations are painted in a buffered image.
+     */
+    boolean isBuffered() {
+        return recording.image != null;
+    }
+
+    /**
+     * Paint the recorded operations or the buffered image on the given graphics
+     * and release the memory. The graphics transform is used as the device
+     * transform of this display list.
+     *
+     * @param target graphics to paint in
+     */
+    void flush(final Graphics2D target) {
+        final Recording r = recording;
+        if (r.image != null) {
+            r.imageGraphics.dispose();
+            target.drawImage(r.image, 0, 0, null);
+            StatelessMapItemJ2D.recycleBufferedImage(r.image);
+            r.image = null;
+            r.imageGraphics = null;
+        } else if (!r.entries.isEmpty()) {
+            final AffineTransform base = target.getTransform();
+            final Shape baseClip = target.getClip();
+            final RenderingHints hints = target.getRenderingHints();
+            final Paint paint = target.getPaint();
+            final Stroke stroke = target.getStroke();
+            final Composite composite = target.getComposite();
+            final Font font = target.getFont();
+            final Color background = target.getBackground();
+
+            replay(r.entries, target, base, baseClip);
+
+            target.setTransform(base);
+            target.setClip(baseClip);
+            target.setRenderingHints(hints);
+            target.setPaint(paint);
+            target.setStroke(stroke);
+            target.setComposite(composite);
+            target.setFont(font);
+            target.setBackground(background);
+        }
+        r.release();
+        if (r.scratch != null) {
+            r.scratch.dispose();
+            r.scratch = null;
+        }
+    }
+
+    private static void replay(final List<Entry> entries, final Graphics2D g,
+            final AffineTransform base, final Shape baseClip) {
+        State applied = null;
+        for (int i = 0, n = entries.size(); i < n; i++) {
+            final Entry entry = entries.get(i);
+            if (entry.state != applied) {
+                applied = entry.state;
+                applied.apply(g, base, baseClip);
+            }
+            entry.operation.paint(g);
+        }
+    }
+
+    /**
+     * Paint all operations recorded so far in a buffered image, following operations
+     * will be painted directly in it.
+     */
+    private void switchToBuffer() {
+        final Recording r = recording;
+        r.image = StatelessMapItemJ2D.createBufferedImage(r.cm, r.sm);
+        r.imageGraphics = r.image.createGraphics();
+        replay(r.entries, r.imageGraphics, new AffineTransform(), null);
+        r.imageState = r.entries.isEmpty() ? null : r.entries.get(r.entries.size()-1).state;
+        r.release();
+    }
+
+    /**
+     * Record an operation or paint it in the buffered image.
+     *
+     * @param operation operation to record
+     * @param bytes approximate memory used by the operation
+     * @param isolated true if the operation requieres an isolated layer to be painted
+     */
+    private void record(final Operation operation, final long bytes, boolean isolated) {
+        final Recording r = recording;
+        if (r.image == null) {
+            isolated |= !(state.composite instanceof AlphaComposite)
+                     || ((AlphaComposite) state.composite).getRule() != AlphaComposite.SRC_OVER;
+            if (isolated || r.budget.addAndGet(-bytes) < 0) {
+                if (!isolated) r.budget.addAndGet(bytes);
+                switchToBuffer();
+            } else {
+                r.entries.add(new Entry(state, operation));
+                r.size += bytes;
+                shared = true;
+                return;
+            }
+        }
+        if (r.imageState != state) {
+            state.apply(r.imageGraphics, new AffineTransform(), null);
+            r.imageState = state;
+            shared = true;
+        }
+        operation.paint(r.imageGraphics);
+    }
+
+    /**
+     * @return state which can be modified
+     */
+    private State edit() {
+        if (shared) {
+            state = state.copy();
+            shared = false;
+        }
+        return state;
+    }
+
+    /**
+     * Copy the shape in a compact path, float precision is used when
+     * coordinates are in display units.
+     */
+    private void recordShape(final Shape shape, final boolean fill) {
+        final PathIterator ite = shape.getPathIterator(null);
+        final boolean single = state.transform.isIdentity();
+        final Path2D path = single ? new Path2D.Float(ite.getWindingRule()) : new Path2D.Double(ite.getWindingRule());
+        final double[] coords = new double[6];
+        long nbPoints = 0;
+        for (; !ite.isDone(); ite.next()) {
+            switch (ite.currentSegment(coords)) {
+                case PathIterator.SEG_MOVETO :
+                    path.moveTo(coords[0], coords[1]); nbPoints += 1; break;
+                case PathIterator.SEG_LINETO :
+                    path.lineTo(coords[0], coords[1]); nbPoints += 1; break;
+                case PathIterator.SEG_QUADTO :
+                    path.quadTo(coords[0], coords[1], coords[2], coords[3]); nbPoints += 2; break;
+                case PathIterator.SEG_CUBICTO :
+                    path.curveTo(coords[0], coords[1], coords[2], coords[3], coords[4], coords[5]); nbPoints += 3; break;
+                case PathIterator.SEG_CLOSE :
+                    path.closePath(); break;
+            }
+        }
+        final long bytes = OPERATION_SIZE + nbPoints * (single ? 9 : 17);
+        if (fill) {
+            record((Graphics2D g) -> g.fill(path), bytes, false);
+        } else {
+            record((Graphics2D g) -> g.draw(path), bytes, false);
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // painting operations /////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public void draw(final Shape s) {
+        recordShape(s, false);
+    }
+
+    @Override
+    public void fill(final Shape s) {
+        recordShape(s, true);
+    }
+
+    @Override
+    public boolean drawImage(final Image img, final AffineTransform xform, final ImageObserver obs) {
+        final AffineTransform trs = (xform == null) ? null : new AffineTransform(xform);
+        record((Graphics2D g) -> g.drawImage(img, trs, obs), OPERATION_SIZE, false);
+        return true;
+    }
+
+    @Override
+    public void drawImage(final BufferedImage img, final BufferedImageOp op, final int x, final int y) {
+        record((Graphics2D g) -> g.drawImage(img, op, x, y), OPERATION_SIZE, false);
+    }
+
+    @Override
+    public void drawRenderedImage(final RenderedImage img, final AffineTransform xform) {
+        final AffineTransform trs = new AffineTransform(xform);
+        record((Graphics2D g) -> g.drawRenderedImage(img, trs), OPERATION_SIZE, false);
+    }
+
+    @Override
+    public void drawRenderableImage(final RenderableImage img, final AffineTransform xform) {
+        final AffineTransform trs = new AffineTransform(xform);
+        record((Graphics2D g) -> g.drawRenderableImage(img, trs), OPERATION_SIZE, false);
+    }
+
+    @Override
+    public boolean drawImage(final Image img, final int x, final int y, final ImageObserver observer) {
+        record((Graphics2D g) -> g.drawImage(img, x, y, observer), OPERATION_SIZE, false);
+        return true;
+    }
+
+    @Override
+    public boolean drawImage(final Image img, final int x, final int y, final int width, final int height,
+            final ImageObserver observer) {
+        record((Graphics2D g) -> g.drawImage(img, x, y, width, height, observer), OPERATION_SIZE, false);
+        return true;
+    }
+
+    @Override
+    public boolean drawImage(final Image img, final int x, final int y, final Color bgcolor,
+            final ImageObserver observer) {
+        record((Graphics2D g) -> g.drawImage(img, x, y, bgcolor, observer), OPERATION_SIZE, false);
+        return true;
+    }
+
+    @Override
+    public boolean drawImage(final Image img, final int x, final int y, final int width, final int height,
+            final Color bgcolor, final ImageObserver observer) {
+        record((Graphics2D g) -> g.drawImage(img, x, y, width, height, bgcolor, observer), OPERATION_SIZE, false);
+        return true;
+    }
+
+    @Override
+    public boolean drawImage(final Image img, final int dx1, final int dy1, final int dx2, final int dy2,
+            final int sx1, final int sy1, final int sx2, final int sy2, final ImageObserver observer) {
+        record((Graphics2D g) -> g.drawImage(img, dx1, dy1, dx2, dy2, sx1, sy1, sx2, sy2, observer),
+                OPERATION_SIZE, false);
+        return true;
+    }
+
+    @Override
+    public boolean drawImage(final Image img, final int dx1, final int dy1, final int dx2, final int dy2,
+            final int sx1, final int sy1, final int sx2, final int sy2, final Color bgcolor,
+            final ImageObserver observer) {
+        record((Graphics2D g) -> g.drawImage(img, dx1, dy1, dx2, dy2, sx1, sy1, sx2, sy2, bgcolor, observer),
+                OPERATION_SIZE, false);
+        return true;
+    }
+
+    @Override
+    public void drawString(final String str, final int x, final int y) {
+        drawString(str, (float) x, (float) y);
+    }
+
+    @Override
+    public void drawString(final String str, final float x, final float y) {
+        record((Graphics2D g) -> g.drawString(str, x, y), OPERATION_SIZE + 2L * str.length(), false);
+    }
+
+    @Override
+    public void drawString(final AttributedCharacterIterator iterator, final int x, final int y) {
+        drawString(iterator, (float) x, (float) y);
+    }
+
+    @Override
+    public void drawString(final AttributedCharacterIterator iterator, final float x, final float y) {
+        final AttributedString str = new AttributedString(iterator);
+        final long bytes = OPERATION_SIZE + 4L * (iterator.getEndIndex() - iterator.getBeginIndex());
+        record((Graphics2D g) -> g.drawString(str.getIterator(), x, y), bytes, false);
+    }
+
+    @Override
+    public void drawGlyphVector(final GlyphVector gv, final float x, final float y) {
+        record((Graphics2D g) -> g.drawGlyphVector(gv, x, y), OPERATION_SIZE * 4, false);
+    }
+
+    @Override
+    public void copyArea(final int x, final int y, final int width, final int height, final int dx, final int dy) {
+        record((Graphics2D g) -> g.copyArea(x, y, width, height, dx, dy), OPERATION_SIZE, true);
+    }
+
+    @Override
+    public void clearRect(final int x, final int y, final int width, final int height) {
+        record((Graphics2D g) -> g.clearRect(x, y, width, height), OPERATION_SIZE, true);
+    }
+
+    @Override
+    public void drawLine(final int x1, final int y1, final int x2, final int y2) {
+        draw(new Line2D.Float(x1, y1, x2, y2));
+    }
+
+    @Override
+    public void fillRect(final int x, final int y, final int width, final int height) {
+        fill(new Rectangle(x, y, width, height));
+    }
+
+    @Override
+    public void drawRoundRect(final int x, final int y, final int width, final int height,
+            final int arcWidth, final int arcHeight) {
+        draw(new RoundRectangle2D.Float(x, y, width, height, arcWidth, arcHeight));
+    }
+
+    @Override
+    public void fillRoundRect(final int x, final int y, final int width, final int height,
+            final int arcWidth, final int arcHeight) {
+        fill(new RoundRectangle2D.Float(x, y, width, height, arcWidth, arcHeight));
+    }
+
+    @Override
+    public void drawOval(final int x, final int y, final int width, final int height) {
+        draw(new Ellipse2D.Float(x, y, width, height));
+    }
+
+    @Override
+    public void fillOval(final int x, final int y, final int width, final int height) {
+        fill(new Ellipse2D.Float(x, y, width, height));
+    }
+
+    @Override
+    public void drawArc(final int x, final int y, final int width, final int height,
+            final int startAngle, final int arcAngle) {
+        draw(new Arc2D.Float(x, y, width, height, startAngle, arcAngle, Arc2D.OPEN));
+    }
+
+    @Override
+    public void fillArc(final int x, final int y, final int width, final int height,
+            final int startAngle, final int arcAngle) {
+        fill(new Arc2D.Float(x, y, width, height, startAngle, arcAngle, Arc2D.PIE));
+    }
+
+    @Override
+    public void drawPolyline(final int[] xPoints, final int[] yPoints, final int nPoints) {
+        if (nPoints <= 0) return;
+        final Path2D.Float path = new Path2D.Float();
+        path.moveTo(xPoints[0], yPoints[0]);
+        for (int i = 1; i < nPoints; i++) {
+            path.lineTo(xPoints[i], yPoints[i]);
+        }
+        draw(path);
+    }
+
+    @Override
+    public void drawPolygon(final int[] xPoints, final int[] yPoints, final int nPoints) {
+        draw(new Polygon(xPoints, yPoints, nPoints));
+    }
+
+    @Override
+    public void fillPolygon(final int[] xPoints, final int[] yPoints, final int nPoints) {
+        fill(new Polygon(xPoints, yPoints, nPoints));
+    }
+
+    @Override
+    public void setPaintMode() {
+        record((Graphics2D g) -> g.setPaintMode(), 0, false);
+    }
+
+    @Override
+    public void setXORMode(final Color c1) {
+        record((Graphics2D g) -> g.setXORMode(c1), 0, true);
+    }
+
+    @Override
+    public boolean hit(final Rectangle rect, Shape s, final boolean onStroke) {
+        if (onStroke) {
+            s = state.stroke.createStrokedShape(s);
+        }
+        s = state.transform.createTransformedShape(s);
+        if (state.clip != null && !state.clip.intersects(rect)) {
+            return false;
+        }
+        return s.intersects(rect);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // graphic state ///////////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public Graphics create() {
+        shared = true;
+        final DisplayListGraphics2D copy = new DisplayListGraphics2D(recording, state);
+        copy.shared = true;
+        return copy;
+    }
+
+    @Override
+    public void dispose() {
+    }
+
+    @Override
+    public GraphicsConfiguration getDeviceConfiguration() {
+        return recording.scratch().getDeviceConfiguration();
+    }
+
+    @Override
+    public FontMetrics getFontMetrics(final Font f) {
+        final Graphics2D scratch = recording.scratch();
+        scratch.setRenderingHints(state.hints);
+        scratch.setTransform(state.transform);
+        return scratch.getFontMetrics(f);
+    }
+
+    @Override
+    public FontRenderContext getFontRenderContext() {
+        return new FontRenderContext(state.transform,
+                state.hints.get(RenderingHints.KEY_TEXT_ANTIALIASING),
+                state.hints.get(RenderingHints.KEY_FRACTIONALMETRICS));
+    }
+
+    @Override
+    public void setComposite(final Composite comp) {
+        if (comp != null) edit().composite = comp;
+    }
+
+    @Override
+    public Composite getComposite() {
+        return state.composite;
+    }
+
+    @Override
+    public void setPaint(final Paint paint) {
+        if (paint != null) edit().paint = paint;
+    }
+
+    @Override
+    public Paint getPaint() {
+        return state.paint;
+    }
+
+    @Override
+    public Color getColor() {
+        return (state.paint instanceof Color) ? (Color) state.paint : null;
+    }
+
+    @Override
+    public void setColor(final Color c) {
+        setPaint(c);
+    }
+
+    @Override
+    public void setStroke(final Stroke s) {
+        if (s != null) edit().stroke = s;
+    }
+
+    @Override
+    public Stroke getStroke() {
+        return state.stroke;
+    }
+
+    @Override
+    public void setFont(final Font font) {
+        if (font != null) edit().font = font;
+    }
+
+    @Override
+    public Font getFont() {
+        return state.font;
+    }
+
+    @Override
+    public void setBackground(final Color color) {
+        edit().background = color;
+    }
+
+    @Override
+    public Color getBackground() {
+        return state.background;
+    }
+
+    @Override
+    public void setRenderingHint(final RenderingHints.Key hintKey, final Object hintValue) {
+        edit().hints.put(hintKey, hintValue);
+    }
+
+    @Override
+    public Object getRenderingHint(final RenderingHints.Key hintKey) {
+        return state.hints.get(hintKey);
+    }
+
+    @Override
+    public void setRenderingHints(final Map<?, ?> hints) {
+        final State s = edit();
+        s.hints = new RenderingHints(null);
+        s.hints.putAll(hints);
+    }
+
+    @Override
+    public void addRenderingHints(final Map<?, ?> hints) {
+        edit().hints.putAll(hints);
+    }
+
+    @Override
+    public RenderingHints getRenderingHints() {
+        return (RenderingHints) state.hints.clone();
+    }
+
+    @Override
+    public void translate(final int x, final int y) {
+        edit().transform.translate(x, y);
+    }
+
+    @Override
+    public void translate(final double tx, final double ty) {
+        edit().transform.translate(tx, ty);
+    }
+
+    @Override
+    public void rotate(final double theta) {
+        edit().transform.rotate(theta);
+    }
+
+    @Override
+    public void rotate(final double theta, final double x, final double y) {
+        edit().transform.rotate(theta, x, y);
+    }
+
+    @Override
+    public void scale(final double sx, final double sy) {
+        edit().transform.scale(sx, sy);
+    }
+
+    @Override
+    public void shear(final double shx, final double shy) {
+        edit().transform.shear(shx, shy);
+    }
+
+    @Override
+    public void transform(final AffineTransform tx) {
+        edit().transform.concatenate(tx);
+    }
+
+    @Override
+    public void setTransform(final AffineTransform tx) {
+        edit().transform.setTransform(tx);
+    }
+
+    @Override
+    public AffineTransform getTransform() {
+        return new AffineTransform(state.transform);
+    }
+
+    @Override
+    public void clip(final Shape s) {
+        if (s == null) {
+            edit().clip = null;
+            return;
+        }
+        final Shape device = state.transform.createTransformedShape(s);
+        if (state.clip == null) {
+            edit().clip = device;
+        } else {
+            final Area area = new Area(state.clip);
+            area.intersect(new Area(device));
+            edit().clip = area;
+        }
+    }
+
+    @Override
+    public void setClip(final Shape clip) {
+        edit().clip = (clip == null) ? null : state.transform.createTransformedShape(clip);
+    }
+
+    @Override
+    public void setClip(final int x, final int y, final int width, final int height) {
+        setClip(new Rectangle(x, y, width, height));
+    }
+
+    @Override
+    public void clipRect(final int x, final int y, final int width, final int height) {
+        clip(new Rectangle(x, y, width, height));
+    }
+
+    @Override
+    public Shape getClip() {
+        if (state.clip == null) return null;
+        try {
+            return state.transform.createInverse().createTransformedShape(state.clip);
+        } catch (NoninvertibleTransformException ex) {
+            return null;
+        }
+    }
+
+    @Override
+    public Rectangle getClipBounds() {
+        final Shape clip = getClip();
+        return (clip == null) ? null : clip.getBounds();
+    }
+
+}
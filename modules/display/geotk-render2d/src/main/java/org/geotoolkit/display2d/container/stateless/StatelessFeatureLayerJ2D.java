@@ -30,6 +30,7 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -1271,8 +1272,11 @@ public class StatelessFeatureLayerJ2D extends StatelessMapLayerJ2D<FeatureMapLay
     }
 
     /**
-     * Render by symbol index order in a single pass, this results in creating a buffered image
-     * for each symbolizer depth, the maximum number of buffer is the maximum number of symbolizer a rule contain.
+     * Render by symbol index order in a single pass, each symbolizer depth is recorded in a
+     * display list, or in a buffered image when the display list memory is exceeded.
+     * The maximum number of depth is the maximum number of symbolizer a rule contain.
+     *
+     * @see GO2Hints#KEY_DISPLAY_LIST_MEMORY
      */
     private  void renderBySymbolIndexInRule(final FeatureSet candidates,final GraphicIterator statefullIterator,
             final RenderingContext2D context, final CachedRule[] rules)
@@ -1289,7 +1293,13 @@ public class StatelessFeatureLayerJ2D extends StatelessMapLayerJ2D<FeatureMapLay
         final SampleModel sm = cm.createCompatibleSampleModel(originalBuffer.getWidth(), originalBuffer.getHeight());
         final RenderingContext2D originalContext = context;
 
-        final List<BufferedImage> images = new ArrayList<>();
+        final Object memoryHint = canvas.getRenderingHint(GO2Hints.KEY_DISPLAY_LIST_MEMORY);
+        final long displayListMemory = (memoryHint instanceof Number) ?
+                ((Number) memoryHint).longValue() : GO2Hints.DISPLAY_LIST_MEMORY_DEFAULT;
+        final AtomicLong budget = new AtomicLong(displayListMemory);
+
+        //buffered image or display list graphics for each symbolizer depth
+        final List<Object> images = new ArrayList<>();
         final List<RenderingContext2D> ctxs = new ArrayList<>();
         images.add(originalBuffer);
         ctxs.add(context);
@@ -1311,9 +1321,15 @@ public class StatelessFeatureLayerJ2D extends StatelessMapLayerJ2D<FeatureMapLay
 
             if(len > images.size()){
                 for(int k=images.size();k<len;k++){
-                    final BufferedImage layer = createBufferedImage(cm, sm);
-                    images.add(k, layer);
-                    ctxs.add(k, context.create( ((Graphics2D)layer.getGraphics()) ));
+                    if(displayListMemory > 0){
+                        final DisplayListGraphics2D layer = new DisplayListGraphics2D(budget, cm, sm);
+                        images.add(k, layer);
+                        ctxs.add(k, context.create(layer));
+                    }else{
+                        final BufferedImage layer = createBufferedImage(cm, sm);
+                        images.add(k, layer);
+                        ctxs.add(k, context.create( ((Graphics2D)layer.getGraphics()) ));
+                    }
                 }
             }
 
@@ -1395,9 +1411,13 @@ public class StatelessFeatureLayerJ2D extends StatelessMapLayerJ2D<FeatureMapLay
         final Graphics2D g = originalContext.getGraphics();
         g.setComposite(ALPHA_COMPOSITE_1F);
         for(int i=1;i<images.size();i++){
-            final Image img = images.get(i);
-            g.drawImage(img, 0, 0, null);
-            recycleBufferedImage((BufferedImage)img);
+            final Object img = images.get(i);
+            if(img instanceof DisplayListGraphics2D){
+                ((DisplayListGraphics2D) img).flush(g);
+            }else{
+                g.drawImage((Image) img, 0, 0, null);
+                recycleBufferedImage((BufferedImage)img);
+            }
         }
     }
 
@@ -250,6 +250,11 @@ public final class DefaultPortrayalService implements PortrayalService{
 
     public static BufferedImage portray(final CanvasDef canvasDef, final SceneDef sceneDef, final ViewDef viewDef) throws PortrayalException{
 
+        final int partitionSize = PartitionedPortrayal.getPartitionSize(canvasDef, sceneDef);
+        if(partitionSize > 0){
+            return PartitionedPortrayal.portray(canvasDef, sceneDef, viewDef, partitionSize);
+        }
+
         final Envelope contextEnv = viewDef.getEnvelope();
         final CoordinateReferenceSystem crs = contextEnv.getCoordinateReferenceSystem();
 
@@ -0,0 +1,253 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2018, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.display2d.service;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.NoninvertibleTransformException;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import org.geotoolkit.display.PortrayalException;
+import org.geotoolkit.display2d.GO2Hints;
+import org.geotoolkit.display2d.canvas.J2DCanvasBuffered;
+import org.geotoolkit.factory.Hints;
+import org.geotoolkit.metadata.ImageStatistics;
+import org.geotoolkit.map.CoverageMapLayer;
+import org.geotoolkit.map.MapContext;
+import org.geotoolkit.map.MapLayer;
+import org.geotoolkit.storage.coverage.GridCoverageResource;
+import org.opengis.metadata.content.CoverageDescription;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.style.ColorMap;
+import org.opengis.style.ContrastEnhancement;
+import org.opengis.style.ContrastMethod;
+import org.opengis.style.FeatureTypeStyle;
+import org.opengis.style.RasterSymbolizer;
+import org.opengis.style.Rule;
+import org.opengis.style.Style;
+import org.opengis.style.Symbolizer;
+import org.opengis.style.TextSymbolizer;
+
+/**
+ * Portray a scene by splitting the canvas in square partitions rendered in parallel.
+ * <br>
+ * Each partition has its own canvas and rendering context using the objective to display
+ * transform of the full canvas translated to the partition origin, layers are therefore
+ * queried only on the partition envelope. Partitions are copied in the result image
+ * once rendered.
+ * <br>
+ * Labels must be placed on the complete canvas, scenes with text symbolizers are therefore not partitioned.
+ * Raster styles stretched with the coverage statistics are partitioned only if the statistics
+ * are available for the complete coverage, they are computed before partitioning.
+ * <br>
+ * Partitions are rendered by the executor given in the {@link GO2Hints#KEY_PARTITION_EXECUTOR} hint,
+ * the calling thread also renders pending partitions.
+ *
+ * @author Johann Sorel (Geomatys)
+ * @module
+ * @see GO2Hints#KEY_PARTITION_SIZE
+ */
+final class PartitionedPortrayal {
+
+    private PartitionedPortrayal(){}
+
+    /**
+     * @return partition size from the hints, or 0 if the scene can not be partitioned.
+     */
+    static int getPartitionSize(final CanvasDef canvasDef, final SceneDef sceneDef) {
+        final Hints hints = sceneDef.getHints();
+        final Object value = (hints != null) ? hints.get(GO2Hints.KEY_PARTITION_SIZE) : null;
+        if (!(value instanceof Number)) return 0;
+        final int size = ((Number) value).intValue();
+        final Dimension dim = canvasDef.getDimension();
+        if (size <= 0 || (dim.width <= size && dim.height <= size)) return 0;
+
+        //extensions may add decorations which would be repeated in each partition
+        final List<PortrayalExtension> extensions = sceneDef.extensions();
+        if (extensions != null) {
+            for (PortrayalExtension ext : extensions) {
+                if (ext != null) return 0;
+            }
+        }
+
+        final MapContext context = sceneDef.getContext();
+        if (context != null) {
+            for (MapLayer layer : context.layers()) {
+                if (!canPartition(layer)) return 0;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Check the layer rendering does not depend on the complete canvas.
+     * Statistics of coverage layers are computed here, once for the whole scene.
+     *
+     * @return false if the layer must be rendered on the complete canvas.
+     */
+    private static boolean canPartition(final MapLayer layer) {
+        //custom graphics may place labels or decorations on the complete canvas
+        if (!layer.graphicBuilders().isEmpty()) return false;
+
+        final List<Symbolizer> symbolizers = new ArrayList<>();
+        collectSymbolizers(layer.getStyle(), symbolizers);
+        collectSymbolizers(layer.getSelectionStyle(), symbolizers);
+
+        //coverage layers without style are rendered with the default raster style
+        boolean needStatistics = (layer instanceof CoverageMapLayer) && layer.getStyle() == null;
+        for (Symbolizer symbolizer : symbolizers) {
+            //labels are placed on the complete canvas, they would be clipped or repeated at partition seams
+            if (symbolizer instanceof TextSymbolizer) return false;
+
+            if (symbolizer instanceof RasterSymbolizer) {
+                final RasterSymbolizer rs = (RasterSymbolizer) symbolizer;
+                //histogram and normalize enhancements are computed on the rendered image
+                final ContrastEnhancement ce = rs.getContrastEnhancement();
+                if (ce != null && (ContrastMethod.HISTOGRAM.equals(ce.getMethod())
+                                || ContrastMethod.NORMALIZE.equals(ce.getMethod()))) return false;
+                //raster styles without color map are stretched using the coverage statistics
+                final ColorMap colorMap = rs.getColorMap();
+                needStatistics |= (colorMap == null || colorMap.getFunction() == null);
+            }
+        }
+
+        //statistics computed on each partition image would give each partition its own stretch,
+        //the coverage description statistics are computed once on the complete coverage and cached
+        if (needStatistics && layer instanceof CoverageMapLayer) {
+            final GridCoverageResource ref = ((CoverageMapLayer) layer).getCoverageReference();
+            final CoverageDescription desc = (ref != null) ? ref.getCoverageDescription() : null;
+            if (desc == null || ImageStatistics.transform(desc) == null) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Add all symbolizers of given style in the list.
+     */
+    private static void collectSymbolizers(final Style style, final List<Symbolizer> symbolizers) {
+        if (style == null) return;
+        for (FeatureTypeStyle fts : style.featureTypeStyles()) {
+            for (Rule rule : fts.rules()) {
+                symbolizers.addAll(rule.symbolizers());
+            }
+        }
+    }
+
+    static BufferedImage portray(final CanvasDef canvasDef, final SceneDef sceneDef, final ViewDef viewDef,
+            final int partitionSize) throws PortrayalException {
+
+        final Dimension dim = canvasDef.getDimension();
+        final CoordinateReferenceSystem crs = viewDef.getEnvelope().getCoordinateReferenceSystem();
+        final Hints hints = sceneDef.getHints();
+
+        //compute the transform of the complete canvas
+        final J2DCanvasBuffered full = new J2DCanvasBuffered(crs, dim, hints);
+        DefaultPortrayalService.prepareCanvas(full, canvasDef, sceneDef, viewDef);
+        final AffineTransform objToDisp = full.getObjectiveToDisplay();
+        full.dispose();
+
+        //all partitions must use the same color model
+        ColorModel cm = (ColorModel) hints.get(GO2Hints.KEY_COLOR_MODEL);
+        if (cm == null) {
+            final Color bg = canvasDef.getBackground();
+            cm = (bg != null && bg.getAlpha() == 255) ?
+                    new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB).getColorModel() :
+                    ColorModel.getRGBdefault();
+        }
+        final BufferedImage result = new BufferedImage(cm,
+                cm.createCompatibleWritableRaster(dim.width, dim.height), cm.isAlphaPremultiplied(), null);
+
+        final Hints partitionHints = new Hints(hints);
+        partitionHints.remove(GO2Hints.KEY_PARTITION_SIZE);
+        partitionHints.remove(GO2Hints.KEY_PARTITION_EXECUTOR);
+        partitionHints.put(GO2Hints.KEY_COLOR_MODEL, cm);
+        final SceneDef partitionScene = new SceneDef(sceneDef.getContext(), partitionHints);
+
+        //without executor all partitions are rendered in the calling thread
+        final Object executor = hints.get(GO2Hints.KEY_PARTITION_EXECUTOR);
+
+        final List<FutureTask<Object>> tasks = new ArrayList<>();
+        for (int y = 0; y < dim.height; y += partitionSize) {
+            for (int x = 0; x < dim.width; x += partitionSize) {
+                final Rectangle area = new Rectangle(x, y,
+                        Math.min(partitionSize, dim.width - x),
+                        Math.min(partitionSize, dim.height - y));
+                final FutureTask<Object> task = new FutureTask<>(() -> {
+                    final CanvasDef partitionDef = new CanvasDef(area.getSize(), canvasDef.getBackground(), canvasDef.isStretchImage());
+                    final BufferedImage image = portray(partitionDef, partitionScene, viewDef, objToDisp, area);
+                    result.getRaster().setRect(area.x, area.y, image.getRaster());
+                    return null;
+                });
+                tasks.add(task);
+                if (executor instanceof ExecutorService) {
+                    ((ExecutorService) executor).execute(task);
+                }
+            }
+        }
+
+        //help rendering, this also avoid dead locks if the executor is saturated
+        for (FutureTask<Object> task : tasks) {
+            task.run();
+        }
+        try {
+            for (FutureTask<Object> task : tasks) {
+                task.get();
+            }
+        } catch (InterruptedException ex) {
+            throw new PortrayalException(ex);
+        } catch (ExecutionException ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof PortrayalException) throw (PortrayalException) cause;
+            throw new PortrayalException(cause);
+        }
+        return result;
+    }
+
+    /**
+     * Render a single partition.
+     */
+    private static BufferedImage portray(final CanvasDef canvasDef, final SceneDef sceneDef, final ViewDef viewDef,
+            final AffineTransform objToDisp, final Rectangle area) throws PortrayalException {
+        final CoordinateReferenceSystem crs = viewDef.getEnvelope().getCoordinateReferenceSystem();
+        final J2DCanvasBuffered canvas = new J2DCanvasBuffered(crs, area.getSize(), sceneDef.getHints());
+        try {
+            DefaultPortrayalService.prepareCanvas(canvas, canvasDef, sceneDef, viewDef);
+
+            //use the complete canvas transform, translated to the partition origin
+            final AffineTransform target = AffineTransform.getTranslateInstance(-area.x, -area.y);
+            target.concatenate(objToDisp);
+            final AffineTransform change = canvas.getObjectiveToDisplay().createInverse();
+            change.concatenate(target);
+            canvas.applyTransform(change);
+
+            canvas.repaint();
+            return canvas.getSnapShot();
+        } catch (NoninvertibleTransformException ex) {
+            throw new PortrayalException(ex);
+        } finally {
+            canvas.dispose();
+        }
+    }
+
+}
@@ -0,0 +1,211 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2018, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+
+package org.geotoolkit.display2d.style.labeling.candidate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.sis.util.ArgumentChecks;
+
+/**
+ * Uniform grid over the display bounds of placed point candidates.
+ * <br>
+ * Collision tests only compare a candidate with the candidates registered in
+ * the grid cells covered by its bounds, instead of all placed candidates.
+ * The grid is not bounded, candidates outside the canvas are accepted.
+ * This class is not thread safe.
+ *
+ * @author Johann Sorel (Geomatys)
+ * @module
+ */
+public class LabelCollisionIndex {
+
+    /**
+     * Margin added around candidate bounds, covers rounding differences with
+     * {@link LabelingUtilities#intersects(PointCandidate, PointCandidate) }.
+     */
+    private static final double MARGIN = 1.0;
+
+    private final double cellSize;
+    private final Map<Long,List<Entry>> cells = new HashMap<>();
+    private int size = 0;
+
+    /**
+     * @param cellSize grid cell size in display units, should be close to
+     *        the size of a label, must be strictly positive.
+     */
+    public LabelCollisionIndex(final double cellSize) {
+        ArgumentChecks.ensureStrictlyPositive("cellSize", cellSize);
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * @return number of candidates in the index
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Test if the given candidate intersects a candidate of the index.
+     *
+     * @param candidate candidate to test
+     * @return true if the candidate overlaps a candidate already in the index
+     */
+    public boolean intersects(final PointCandidate candidate) {
+        return intersects(new Entry(candidate));
+    }
+
+    /**
+     * Add the candidate in the index, no collision test is made.
+     *
+     * @param candidate candidate to add
+     */
+    public void add(final PointCandidate candidate) {
+        add(new Entry(candidate));
+    }
+
+    /**
+     * Add the candidate in the index only if it does not overlap a candidate
+     * already in the index.
+     *
+     * @param candidate candidate to place
+     * @return true if the candidate has been added
+     */
+    public boolean place(final PointCandidate candidate) {
+        final Entry entry = new Entry(candidate);
+        if (intersects(entry)) {
+            return false;
+        }
+        add(entry);
+        return true;
+    }
+
+    /**
+     * Remove all candidates.
+     */
+    public void clear() {
+        cells.clear();
+        size = 0;
+    }
+
+    private boolean intersects(final Entry entry) {
+        final int minX = cell(entry.minX);
+        final int maxX = cell(entry.maxX);
+        final int minY = cell(entry.minY);
+        final int maxY = cell(entry.maxY);
+        for (int x = minX; x <= maxX; x++) {
+            for (int y = minY; y <= maxY; y++) {
+                final List<Entry> lst = cells.get(key(x, y));
+                if (lst == null) continue;
+                for (int i = 0, n = lst.size(); i < n; i++) {
+                    final Entry other = lst.get(i);
+                    if (entry.overlaps(other)
+                            && LabelingUtilities.intersects(entry.candidate, other.candidate)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private void add(final Entry entry) {
+        final int minX = cell(entry.minX);
+        final int maxX = cell(entry.maxX);
+        final int minY = cell(entry.minY);
+        final int maxY = cell(entry.maxY);
+        for (int x = minX; x <= maxX; x++) {
+            for (int y = minY; y <= maxY; y++) {
+                List<Entry> lst = cells.get(key(x, y));
+                if (lst == null) {
+                    lst = new ArrayList<>(4);
+                    cells.put(key(x, y), lst);
+                }
+                lst.add(entry);
+            }
+        }
+        size++;
+    }
+
+    private int cell(final double ordinate) {
+        return (int) Math.floor(ordinate / cellSize);
+    }
+
+    private static Long key(final int x, final int y) {
+        return (((long) x) << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Candidate with the axis aligned bounds of its rotated label.
+     */
+    private static final class Entry {
+
+        private final PointCandidate candidate;
+        private final double minX;
+        private final double minY;
+        private final double maxX;
+        private final double maxY;
+
+        private Entry(final PointCandidate candidate) {
+            this.candidate = candidate;
+
+            //label rectangle relative to the corrected anchor, before rotation
+            final double x0 = 0;
+            final double x1 = candidate.width;
+            final double y0 = -candidate.upper;
+            final double y1 = candidate.lower;
+            final double rotation = Math.toRadians(candidate.getDescriptor().getRotation());
+            final double cx = candidate.getCorrectedX();
+            final double cy = candidate.getCorrectedY();
+
+            if (rotation == 0) {
+                minX = cx + x0 - MARGIN;
+                maxX = cx + x1 + MARGIN;
+                minY = cy + y0 - MARGIN;
+                maxY = cy + y1 + MARGIN;
+            } else {
+                final double cos = Math.cos(rotation);
+                final double sin = Math.sin(rotation);
+                final double[] xs = {x0, x1, x0, x1};
+                final double[] ys = {y0, y0, y1, y1};
+                double mix = Double.POSITIVE_INFINITY, miy = Double.POSITIVE_INFINITY;
+                double max = Double.NEGATIVE_INFINITY, may = Double.NEGATIVE_INFINITY;
+                for (int i = 0; i < 4; i++) {
+                    final double x = xs[i]*cos - ys[i]*sin;
+                    final double y = xs[i]*sin + ys[i]*cos;
+                    mix = Math.min(mix, x);
+                    max = Math.max(max, x);
+                    miy = Math.min(miy, y);
+                    may = Math.max(may, y);
+                }
+                minX = cx + mix - MARGIN;
+                maxX = cx + max + MARGIN;
+                minY = cy + miy - MARGIN;
+                maxY = cy + may + MARGIN;
+            }
+        }
+
+        private boolean overlaps(final Entry other) {
+            return minX <= other.maxX && other.minX <= maxX
+                && minY <= other.maxY && other.minY <= maxY;
+        }
+    }
+
+}
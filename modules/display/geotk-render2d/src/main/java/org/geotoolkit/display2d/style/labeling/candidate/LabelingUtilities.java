@@ -20,6 +20,7 @@ package org.geotoolkit.display2d.style.labeling.candidate;
 import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.geom.AffineTransform;
+import java.awt.geom.Path2D;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
@@ -212,17 +213,16 @@ public class LabelingUtilities {
         if(rect.intersectsLine(p4.getX(), p4.getY(), p3.getX(), p3.getY())) return true;
         if(rect.intersectsLine(p3.getX(), p3.getY(), p1.getX(), p1.getY())) return true;
 
-        //check that the polygon is not contained in the other
-        double minx = Math.min( Math.min(p1.getX(), p2.getX()), Math.min(p3.getX(), p4.getX()) );
-        double maxx = Math.max( Math.max(p1.getX(), p2.getX()), Math.max(p3.getX(), p4.getX()) );
-        double miny = Math.min( Math.min(p1.getY(), p2.getY()), Math.min(p3.getY(), p4.getY()) );
-        double maxy = Math.max( Math.max(p1.getY(), p2.getY()), Math.max(p3.getY(), p4.getY()) );
+        //check that the label1 is not contained in the label2
+        //the label2 bounding box can not be used since it may be rotated
+        final Path2D label2Shape = new Path2D.Double();
+        label2Shape.moveTo(p1.getX(), p1.getY());
+        label2Shape.lineTo(p3.getX(), p3.getY());
+        label2Shape.lineTo(p4.getX(), p4.getY());
+        label2Shape.lineTo(p2.getX(), p2.getY());
+        label2Shape.closePath();
 
-        if(minx <=0 && maxx >= label1.width && miny <=0 && maxy >= label1Height){
-            return true;
-        }
-
-        return false;
+        return label2Shape.contains(0, 0);
     }
 
     public static boolean intersects(final LinearCandidate linear, final PointCandidate point){
@@ -19,9 +19,11 @@ package org.geotoolkit.display2d.style.labeling.decimate;
 import java.awt.Graphics2D;
 import java.awt.RenderingHints;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
-import java.util.SortedSet;
-import java.util.TreeSet;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import org.geotoolkit.display2d.canvas.RenderingContext2D;
 import org.geotoolkit.display2d.style.labeling.DefaultLabelRenderer;
 import org.geotoolkit.display2d.style.labeling.LabelDescriptor;
@@ -29,22 +31,48 @@ import org.geotoolkit.display2d.style.labeling.LabelLayer;
 import org.geotoolkit.display2d.style.labeling.LinearLabelDescriptor;
 import org.geotoolkit.display2d.style.labeling.PointLabelDescriptor;
 import org.geotoolkit.display2d.style.labeling.candidate.Candidate;
-import org.geotoolkit.display2d.style.labeling.candidate.LabelingUtilities;
+import org.geotoolkit.display2d.style.labeling.candidate.LabelCollisionIndex;
 import org.geotoolkit.display2d.style.labeling.candidate.LinearCandidate;
 import org.geotoolkit.display2d.style.labeling.candidate.PointCandidate;
 
 /**
  * Label renderer that apply a simple decimation on labels to remove all
  * overlaping labels and labels partly visible on the map edges.
+ * <br>
+ * Candidates are generated when labels are added, possibly from several threads,
+ * and placed when labels are portrayed : by layer priority, the first layer
+ * having the highest priority, using a {@link LabelCollisionIndex}.
  *
  * @author Johann Sorel (Geomatys)
  * @module
  */
 public class DecimationLabelRenderer extends DefaultLabelRenderer{
 
-    private final SortedSet<Candidate> candidates = new TreeSet<Candidate>(LabelingUtilities.XY_COMPARATOR);
+    /**
+     * Size of the collision grid cells, in pixels.
+     */
+    private static final double CELL_SIZE = 64;
 
-    private final List<LabelLayer> layers = new ArrayList<LabelLayer>();
+    /**
+     * Placement order : highest priority first, then from top to bottom and
+     * left to right so the result does not depend on generation order.
+     */
+    private static final Comparator<Candidate> PLACEMENT_ORDER = new Comparator<Candidate>() {
+        @Override
+        public int compare(Candidate c1, Candidate c2) {
+            final int diff = Integer.compare(c2.getPriority(), c1.getPriority());
+            if(diff != 0) return diff;
+            if(c1 instanceof PointCandidate && c2 instanceof PointCandidate){
+                final PointCandidate pc1 = (PointCandidate) c1;
+                final PointCandidate pc2 = (PointCandidate) c2;
+                final int d = Float.compare(pc1.y, pc2.y);
+                return (d != 0) ? d : Float.compare(pc1.x, pc2.x);
+            }
+            return 0;
+        }
+    };
+
+    private final List<DecimateLabelLayer> layers = new ArrayList<DecimateLabelLayer>();
 
     private PointLabelCandidateRenderer pointRenderer;
     private LinearLabelCandidateRenderer LinearRenderer;
@@ -80,7 +108,9 @@ public class DecimationLabelRenderer extends DefaultLabelRenderer{
      */
     @Override
     public void append(final LabelLayer layer) {
-        layers.add(layer);
+        if(layer instanceof DecimateLabelLayer){
+            layers.add((DecimateLabelLayer) layer);
+        }
     }
 
     /**
@@ -92,52 +122,62 @@ public class DecimationLabelRenderer extends DefaultLabelRenderer{
         //enable antialiasing for labels
         g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
-        //paint the remaining candidates
+        //collect candidates, priority is in the order of the layers provided.
+        final List<Candidate> candidates = new ArrayList<Candidate>();
+        int priority = layers.size();
+        for(DecimateLabelLayer layer : layers){
+            for(Candidate candidate : layer.candidates){
+                candidate.setPriority(priority);
+                candidates.add(candidate);
+            }
+            layer.candidates.clear();
+            priority--;
+        }
+        layers.clear();
+
+        //place candidates by priority, overlapping point labels are removed
+        candidates.sort(PLACEMENT_ORDER);
+        final LabelCollisionIndex index = new LabelCollisionIndex(CELL_SIZE);
+        final List<Candidate> placed = new ArrayList<Candidate>(candidates.size());
         for(Candidate candidate : candidates){
+            if(candidate instanceof PointCandidate){
+                if(index.place((PointCandidate) candidate)){
+                    placed.add(candidate);
+                }
+            }else{
+                placed.add(candidate);
+            }
+        }
+
+        //paint the remaining candidates
+        for(Candidate candidate : placed){
             if(candidate instanceof PointCandidate){
                 pointRenderer.render(candidate);
             }else if(candidate instanceof LinearCandidate){
                 LinearRenderer.render(candidate);
             }
         }
-
-        layers.clear();
-    }
-
-    private List<Candidate> optimize(List<Candidate> candidates){
-        candidates = LabelingUtilities.clipOutofBounds(context,candidates);
-        candidates = LabelingUtilities.sortByXY(candidates);
-        return candidates;
     }
 
     private class DecimateLabelLayer implements LabelLayer{
 
+        /**
+         * Generated candidates, labels may be added concurrently.
+         */
+        private final Queue<Candidate> candidates = new ConcurrentLinkedQueue<Candidate>();
+
         private final List<LabelDescriptor> labels = new ArrayList<LabelDescriptor>(){
 
             @Override
             public boolean add(LabelDescriptor label) {
+                Candidate[] cs = null;
                 if(label instanceof PointLabelDescriptor){
-                    final Candidate[] pcs = pointRenderer.generateCandidat((PointLabelDescriptor) label);
-                    if(pcs == null) return true;
-                    for(Candidate c : pcs){
-                        final PointCandidate pc = (PointCandidate) c;
-                        pc.setPriority(1);
-                        synchronized(candidates){
-                            if(!LabelingUtilities.intersects(pc,candidates)){
-                                candidates.add(pc);
-                            }else{
-                            }
-                        }
-                    }
+                    cs = pointRenderer.generateCandidat((PointLabelDescriptor) label);
                 }else if(label instanceof LinearLabelDescriptor){
-                    final Candidate[] lcs = LinearRenderer.generateCandidat((LinearLabelDescriptor) label);
-                    for(Candidate c : lcs){
-                        final LinearCandidate lc = (LinearCandidate) c;
-                        lc.setPriority(1);
-                        synchronized(candidates){
-                            candidates.add(lc);
-                        }
-                    }
+                    cs = LinearRenderer.generateCandidat((LinearLabelDescriptor) label);
+                }
+                if(cs != null){
+                    candidates.addAll(Arrays.asList(cs));
                 }
                 return true;
             }
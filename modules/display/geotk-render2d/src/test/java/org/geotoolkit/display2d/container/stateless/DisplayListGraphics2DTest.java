@@ -0,0 +1,129 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2018, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.display2d.container.stateless;
+
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.SampleModel;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test display list gives the same result as painting in a buffered image.
+ *
+ * @author Johann Sorel (Geomatys)
+ * @module
+ */
+public class DisplayListGraphics2DTest extends org.geotoolkit.test.TestBase {
+
+    private static final int WIDTH = 120;
+    private static final int HEIGHT = 80;
+
+    private static void paint(final Graphics2D g) {
+        g.setStroke(new BasicStroke(6));
+        g.setColor(Color.BLUE);
+        g.draw(new Line2D.Double(0, 0, 120, 80));
+        g.setColor(new Color(255, 0, 0, 128));
+        g.fill(new Ellipse2D.Double(20, 10, 50, 40));
+        g.translate(30, 20);
+        g.setColor(Color.GREEN);
+        g.fillRect(10, 10, 20, 20);
+        g.drawString("test", 5, 40);
+    }
+
+    /**
+     * Paint in a layer then composite it like the buffered mode does.
+     */
+    private static BufferedImage expected() {
+        final BufferedImage layer = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        final Graphics2D lg = layer.createGraphics();
+        paint(lg);
+        lg.dispose();
+        final BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        final Graphics2D g = image.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, WIDTH, HEIGHT);
+        g.setComposite(AlphaComposite.SrcOver);
+        g.drawImage(layer, 0, 0, null);
+        g.dispose();
+        return image;
+    }
+
+    private static BufferedImage replayed(final long budget, final boolean expectBuffered) {
+        final ColorModel cm = ColorModel.getRGBdefault();
+        final SampleModel sm = cm.createCompatibleSampleModel(WIDTH, HEIGHT);
+        final DisplayListGraphics2D list = new DisplayListGraphics2D(new AtomicLong(budget), cm, sm);
+        paint(list);
+        assertEquals(expectBuffered, list.isBuffered());
+
+        final BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        final Graphics2D g = image.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, WIDTH, HEIGHT);
+        g.setComposite(AlphaComposite.SrcOver);
+        list.flush(g);
+        g.dispose();
+        return image;
+    }
+
+    private static void assertSameImage(final BufferedImage expected, final BufferedImage result) {
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                final int e = expected.getRGB(x, y);
+                final int r = result.getRGB(x, y);
+                for (int b = 0; b < 32; b += 8) {
+                    //allow rounding differences of alpha compositing
+                    assertTrue("pixel " + x + " " + y, Math.abs(((e >>> b) & 0xFF) - ((r >>> b) & 0xFF)) <= 2);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testReplay() {
+        assertSameImage(expected(), replayed(1024 * 1024, false));
+    }
+
+    @Test
+    public void testBudgetExceeded() {
+        assertSameImage(expected(), replayed(150, true));
+    }
+
+    @Test
+    public void testIsolatedComposite() {
+        final ColorModel cm = ColorModel.getRGBdefault();
+        final SampleModel sm = cm.createCompatibleSampleModel(WIDTH, HEIGHT);
+        final AtomicLong budget = new AtomicLong(1024 * 1024);
+        final DisplayListGraphics2D list = new DisplayListGraphics2D(budget, cm, sm);
+        list.fillRect(0, 0, 10, 10);
+        assertFalse(list.isBuffered());
+        assertTrue(budget.get() < 1024 * 1024);
+        list.setComposite(AlphaComposite.Clear);
+        list.fillRect(0, 0, 5, 5);
+        assertTrue(list.isBuffered());
+        assertEquals(1024 * 1024, budget.get());
+    }
+
+}
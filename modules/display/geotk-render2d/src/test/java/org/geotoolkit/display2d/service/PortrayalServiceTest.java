@@ -38,6 +38,8 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import javax.imageio.ImageIO;
 
 import javax.measure.Unit;
@@ -48,6 +50,7 @@ import org.opengis.filter.expression.Expression;
 import org.opengis.style.ChannelSelection;
 import org.opengis.style.ColorMap;
 import org.opengis.style.ContrastEnhancement;
+import org.opengis.style.ContrastMethod;
 import org.opengis.style.Description;
 import org.opengis.style.OverlapBehavior;
 import org.opengis.style.RasterSymbolizer;
@@ -60,6 +63,7 @@ import org.opengis.style.GraphicalSymbol;
 import org.opengis.style.Mark;
 import org.opengis.style.PointSymbolizer;
 import org.opengis.style.Stroke;
+import org.opengis.style.TextSymbolizer;
 
 import org.apache.sis.geometry.GeneralEnvelope;
 import org.apache.sis.internal.referencing.GeodeticObjectBuilder;
@@ -596,6 +600,170 @@ public class PortrayalServiceTest extends org.geotoolkit.test.TestBase {
     }
 
 
+    /**
+     * Test rendering by partitions gives the same image.
+     */
+    @Test
+    public void testPartitionedRendering() throws Exception{
+        final List<GraphicalSymbol> symbols = new ArrayList<>();
+        final Stroke stroke = SF.stroke(Color.BLACK, 0);
+        final Fill fill = SF.fill(Color.RED);
+        final Mark mark = SF.mark(MARK_SQUARE, fill, stroke);
+        symbols.add(mark);
+        final Graphic graphic = SF.graphic(symbols, LITERAL_ONE_FLOAT, FF.literal(12), LITERAL_ONE_FLOAT, DEFAULT_ANCHOR_POINT, DEFAULT_DISPLACEMENT);
+        final PointSymbolizer symbolizer = SF.pointSymbolizer("mySymbol",(String)null,DEFAULT_DESCRIPTION, Units.POINT, graphic);
+
+        final CoordinateReferenceSystem crs = CommonCRS.WGS84.normalizedGeographic();
+        final FeatureTypeBuilder ftb = new FeatureTypeBuilder();
+        ftb.setName("test");
+        ftb.addAttribute(Point.class).setName("geom").setCRS(crs).addRole(AttributeRole.DEFAULT_GEOMETRY);
+        final FeatureType ft = ftb.build();
+        final List<Feature> features = new ArrayList<>();
+        for(int x=-170;x<=170;x+=17){
+            for(int y=-80;y<=80;y+=13){
+                final Feature feature = ft.newInstance();
+                final Point pt = GF.createPoint(new Coordinate(x, y));
+                JTS.setCRS(pt, crs);
+                feature.setPropertyValue("geom", pt);
+                features.add(feature);
+            }
+        }
+
+        final FeatureCollection col = FeatureStoreUtilities.collection(ft, features);
+        final MapContext context = MapBuilder.createContext();
+        context.layers().add(MapBuilder.createFeatureLayer(col,SF.style(symbolizer)));
+
+        final GeneralEnvelope env = new GeneralEnvelope(crs);
+        env.setRange(0, -180, 180);
+        env.setRange(1, -90, 90);
+
+        final Hints hints = new Hints(GO2Hints.KEY_COLOR_MODEL, ColorModel.getRGBdefault());
+        final BufferedImage expected = DefaultPortrayalService.portray(
+                new CanvasDef(new Dimension(360, 180), Color.WHITE),
+                new SceneDef(context, hints),
+                new ViewDef(env));
+
+        hints.put(GO2Hints.KEY_PARTITION_SIZE, 50);
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            //in the calling thread, then with an executor
+            for (int i=0;i<2;i++) {
+                if (i == 1) hints.put(GO2Hints.KEY_PARTITION_EXECUTOR, executor);
+                final BufferedImage result = DefaultPortrayalService.portray(
+                        new CanvasDef(new Dimension(360, 180), Color.WHITE),
+                        new SceneDef(context, hints),
+                        new ViewDef(env));
+
+                assertEquals(expected.getWidth(), result.getWidth());
+                assertEquals(expected.getHeight(), result.getHeight());
+                for(int y=0;y<expected.getHeight();y++){
+                    for(int x=0;x<expected.getWidth();x++){
+                        assertEquals(expected.getRGB(x, y), result.getRGB(x, y));
+                    }
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Test rendering with a label crossing partitions seams gives the same image.
+     */
+    @Test
+    public void testPartitionedRenderingLabel() throws Exception{
+        final CoordinateReferenceSystem crs = CommonCRS.WGS84.normalizedGeographic();
+        final FeatureTypeBuilder ftb = new FeatureTypeBuilder();
+        ftb.setName("test");
+        ftb.addAttribute(Point.class).setName("geom").setCRS(crs).addRole(AttributeRole.DEFAULT_GEOMETRY);
+        final FeatureType ft = ftb.build();
+        final Feature feature = ft.newInstance();
+        final Point pt = GF.createPoint(new Coordinate(0, 0));
+        JTS.setCRS(pt, crs);
+        feature.setPropertyValue("geom", pt);
+
+        //label centered at pixel 180, crossing the seams at 150 and 200
+        final TextSymbolizer symbolizer = SF.textSymbolizer("mySymbol", (String)null, DEFAULT_DESCRIPTION, Units.POINT,
+                FF.literal("A LABEL CROSSING PARTITIONS"), SF.font(14), SF.pointPlacement(), SF.halo(Color.WHITE, 0), SF.fill(Color.BLUE));
+
+        final FeatureCollection col = FeatureStoreUtilities.collection(feature);
+        final MapContext context = MapBuilder.createContext();
+        context.layers().add(MapBuilder.createFeatureLayer(col,SF.style(symbolizer)));
+
+        final GeneralEnvelope env = new GeneralEnvelope(crs);
+        env.setRange(0, -180, 180);
+        env.setRange(1, -90, 90);
+
+        final Hints hints = new Hints(GO2Hints.KEY_COLOR_MODEL, ColorModel.getRGBdefault());
+        final BufferedImage expected = DefaultPortrayalService.portray(
+                new CanvasDef(new Dimension(360, 180), Color.WHITE),
+                new SceneDef(context, hints),
+                new ViewDef(env));
+
+        hints.put(GO2Hints.KEY_PARTITION_SIZE, 50);
+        final BufferedImage result = DefaultPortrayalService.portray(
+                new CanvasDef(new Dimension(360, 180), Color.WHITE),
+                new SceneDef(context, hints),
+                new ViewDef(env));
+
+        boolean found = false;
+        for(int y=0;y<expected.getHeight();y++){
+            for(int x=0;x<expected.getWidth();x++){
+                assertEquals(expected.getRGB(x, y), result.getRGB(x, y));
+                found |= (x < 150 || x >= 200) && expected.getRGB(x, y) == Color.BLUE.getRGB();
+            }
+        }
+        assertTrue("label should cross partitions", found);
+    }
+
+    /**
+     * Test a coverage stretched with statistics is rendered by partitions without seams,
+     * statistics are those of the complete coverage.
+     */
+    @Test
+    public void testPartitionedRenderingCoverage() throws Exception{
+        final float[][] matrix = new float[180][360];
+        for(int y=0;y<180;y++){
+            for(int x=0;x<360;x++){
+                matrix[y][x] = x * 10 + y;
+            }
+        }
+        final GeneralEnvelope env = new GeneralEnvelope(CommonCRS.WGS84.normalizedGeographic());
+        env.setRange(0, -180, 180);
+        env.setRange(1, -90, 90);
+        final GridCoverageBuilder gcb = new GridCoverageBuilder();
+        gcb.setEnvelope(env);
+        gcb.setRenderedImage(matrix);
+        final CoverageMapLayer layer = MapBuilder.createCoverageLayer(gcb.getGridCoverage2D(), SF.style(SF.rasterSymbolizer()), "gradient");
+        final MapContext context = MapBuilder.createContext();
+        context.layers().add(layer);
+
+        final Hints hints = new Hints(GO2Hints.KEY_COLOR_MODEL, ColorModel.getRGBdefault());
+        final CanvasDef canvas = new CanvasDef(new Dimension(360, 180), Color.WHITE);
+        final BufferedImage expected = DefaultPortrayalService.portray(canvas, new SceneDef(context, hints), new ViewDef(env));
+
+        hints.put(GO2Hints.KEY_PARTITION_SIZE, 50);
+        assertEquals(50, PartitionedPortrayal.getPartitionSize(canvas, new SceneDef(context, hints)));
+        final BufferedImage result = DefaultPortrayalService.portray(canvas, new SceneDef(context, hints), new ViewDef(env));
+
+        for(int y=0;y<expected.getHeight();y++){
+            for(int x=0;x<expected.getWidth();x++){
+                final int e = expected.getRGB(x, y);
+                final int r = result.getRGB(x, y);
+                for(int shift=0;shift<32;shift+=8){
+                    assertEquals(((e >>> shift) & 0xFF), ((r >>> shift) & 0xFF), 2);
+                }
+            }
+        }
+
+        //normalization is computed on the rendered image, the scene is not partitioned
+        final RasterSymbolizer normalized = SF.rasterSymbolizer("normalized", (String)null, DEFAULT_DESCRIPTION, Units.POINT, LITERAL_ONE_FLOAT,
+                (ChannelSelection)null, (OverlapBehavior)null, (ColorMap)null,
+                SF.contrastEnhancement(LITERAL_ONE_FLOAT, ContrastMethod.NORMALIZE), (ShadedRelief)null, (Symbolizer)null);
+        layer.setStyle(SF.style(normalized));
+        assertEquals(0, PartitionedPortrayal.getPartitionSize(canvas, new SceneDef(context, hints)));
+    }
+
     private void testRendering(final MapLayer layer) throws TransformException, PortrayalException{
         final StopOnErrorMonitor monitor = new StopOnErrorMonitor();
 
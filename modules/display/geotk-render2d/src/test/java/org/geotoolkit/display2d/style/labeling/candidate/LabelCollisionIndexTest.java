@@ -0,0 +1,73 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2018, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.display2d.style.labeling.candidate;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.geotoolkit.display2d.style.labeling.DefaultPointLabelDescriptor;
+import org.geotoolkit.display2d.style.labeling.PointLabelDescriptor;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test the label collision grid gives the same results as a linear scan.
+ *
+ * @author Johann Sorel (Geomatys)
+ * @module
+ */
+public class LabelCollisionIndexTest extends org.geotoolkit.test.TestBase {
+
+    private static PointCandidate candidate(final float x, final float y, final int width, final float rotation) {
+        final PointLabelDescriptor desc = new DefaultPointLabelDescriptor("label",
+                new Font("Dialog", Font.PLAIN, 12), Color.BLACK, 0, null, 0, 0, 0, 0, rotation, null, null);
+        return new PointCandidate(desc, width, 10, 3, x, y);
+    }
+
+    @Test
+    public void testSimpleCollision() {
+        final LabelCollisionIndex index = new LabelCollisionIndex(64);
+        assertTrue(index.place(candidate(10, 20, 50, 0)));
+        assertFalse(index.place(candidate(40, 25, 50, 0)));
+        assertTrue(index.place(candidate(70, 25, 50, 0)));
+        assertTrue(index.place(candidate(10, 40, 50, 0)));
+        assertFalse(index.intersects(candidate(500, 500, 50, 0)));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    public void testSameResultsAsLinearScan() {
+        final Random random = new Random(42);
+        final LabelCollisionIndex index = new LabelCollisionIndex(32);
+        final List<PointCandidate> placed = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            final float rotation = (i % 3 == 0) ? random.nextFloat() * 360 : 0;
+            final PointCandidate pc = candidate(
+                    random.nextFloat() * 1000 - 100,
+                    random.nextFloat() * 1000 - 100,
+                    5 + random.nextInt(120), rotation);
+            final boolean expected = !LabelingUtilities.intersects(pc, placed);
+            assertEquals(expected, index.place(pc));
+            if (expected) placed.add(pc);
+        }
+        assertEquals(placed.size(), index.size());
+    }
+
+}
@@ -23,9 +23,14 @@ import org.opengis.filter.expression.PropertyName;
 import static org.apache.sis.util.ArgumentChecks.*;
 import org.geotoolkit.filter.binding.Binding;
 import org.geotoolkit.filter.binding.Bindings;
+import org.opengis.feature.Feature;
 import org.opengis.feature.FeatureType;
+import org.opengis.feature.PropertyNotFoundException;
 
 /**
+ * Property name with a value accessor resolved once for a target class.
+ * When the target is a feature and the property is a plain name of the expected
+ * type, values are read directly from the feature without going through bindings.
  *
  * @author Johann Sorel (Geomatys)
  */
@@ -35,12 +40,37 @@ class CachedPropertyName extends AbstractExpression implements PropertyName{
 
     private final Binding accessor;
 
+    /**
+     * True if the property value can be read directly from the feature.
+     */
+    private final boolean direct;
+
     CachedPropertyName(final String property, final Class clazz, final FeatureType expectedType) {
         ensureNonNull("property name", property);
         this.property = property;
 
         final Binding fallacc = Bindings.getBinding(clazz,property);
         this.accessor = fallacc;
+
+        boolean isDirect = false;
+        if (expectedType != null && clazz != null && Feature.class.isAssignableFrom(clazz) && isPlainName(property)) {
+            try {
+                expectedType.getProperty(property);
+                isDirect = true;
+            } catch (PropertyNotFoundException ex) {
+                //not a property of the type, use the binding
+            }
+        }
+        this.direct = isDirect;
+    }
+
+    /**
+     * Test if given path is a plain property name, not an xpath or identifier.
+     */
+    private static boolean isPlainName(final String property) {
+        if (property.isEmpty()) return false;
+        final char c = property.charAt(0);
+        return c != '/' && c != '*' && c != '{' && c != '.' && c != '@';
     }
 
     /**
@@ -56,6 +86,13 @@ class CachedPropertyName extends AbstractExpression implements PropertyName{
      */
     @Override
     public Object evaluate(final Object candidate) {
+        if (direct && candidate instanceof Feature) {
+            try {
+                return ((Feature) candidate).getPropertyValue(property);
+            } catch (PropertyNotFoundException ex) {
+                return null;
+            }
+        }
         return accessor.get(candidate, property, null);
     }
 
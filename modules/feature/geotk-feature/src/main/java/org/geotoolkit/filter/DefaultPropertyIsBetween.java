@@ -87,6 +87,17 @@ public class DefaultPropertyIsBetween implements PropertyIsBetween,Serializable{
             return false;
         }
 
+        if(value instanceof Number){
+            //fast path, numbers are compared as doubles without converters
+            final Object down = lower.evaluate(feature);
+            final Object up = upper.evaluate(feature);
+            if(down instanceof Number && up instanceof Number){
+                final double test = ((Number)value).doubleValue();
+                return Double.compare(((Number)down).doubleValue(), test) < 0
+                    && Double.compare(((Number)up).doubleValue(), test) >= 0;
+            }
+        }
+
         Class<?> valueClass = value.getClass();
 
         if(Number.class.isAssignableFrom(valueClass)){
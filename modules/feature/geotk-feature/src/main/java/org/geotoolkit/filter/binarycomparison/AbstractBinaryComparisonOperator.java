@@ -39,6 +39,9 @@ import org.opengis.filter.expression.Expression;
 public abstract class AbstractBinaryComparisonOperator<E extends Expression,F extends Expression>
                                                 implements BinaryComparisonOperator,Serializable{
 
+    private static final int INTEGRAL = 1;
+    private static final int FLOATING = 2;
+
     protected final E left;
     protected final F right;
     protected final boolean match;
@@ -152,6 +155,19 @@ public abstract class AbstractBinaryComparisonOperator<E extends Expression,F ex
 
     protected Integer compare(Object objleft, Object objright){
 
+        //fast path, numbers of the same kind are compared as primitives without converters
+        final int kind = numberKind(objleft);
+        if(kind != 0 && kind == numberKind(objright)){
+            if(kind == INTEGRAL){
+                return Long.compare(((Number)objleft).longValue(), ((Number)objright).longValue());
+            }else if(objleft instanceof Float){
+                //right value is converted to the left value class, a float
+                return Float.compare((Float)objleft, ((Number)objright).floatValue());
+            }else{
+                return Double.compare(((Number)objleft).doubleValue(), ((Number)objright).doubleValue());
+            }
+        }
+
         if(!(objleft instanceof Comparable)){
             return null;
         }
@@ -198,6 +214,21 @@ public abstract class AbstractBinaryComparisonOperator<E extends Expression,F ex
     }
 
 
+    /**
+     * Get the kind of primitive number wrapped by given object.
+     *
+     * @return {@link #INTEGRAL}, {@link #FLOATING} or 0 if object is not a primitive wrapper number.
+     */
+    private static int numberKind(final Object candidate){
+        if(candidate instanceof Integer || candidate instanceof Long
+        || candidate instanceof Short || candidate instanceof Byte){
+            return INTEGRAL;
+        }else if(candidate instanceof Double || candidate instanceof Float){
+            return FLOATING;
+        }
+        return 0;
+    }
+
     @Override
     public int hashCode() {
         int hash = 7;
@@ -18,6 +18,7 @@
 package org.geotoolkit.filter.binaryspatial;
 
 import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
 
 import java.io.Serializable;
 import java.util.logging.Level;
@@ -80,6 +81,11 @@ public abstract class AbstractBinarySpatialOperator<E extends Expression,F exten
     protected final E left;
     protected final F right;
 
+    /**
+     * Literal operand prepared for repeated evaluations, created on first use.
+     */
+    private transient volatile PreparedLiteral preparedLiteral;
+
     protected AbstractBinarySpatialOperator(final E left, final F right){
         ensureNonNull("left", left);
         ensureNonNull("right", right);
@@ -103,6 +109,61 @@ public abstract class AbstractBinarySpatialOperator<E extends Expression,F exten
         return right;
     }
 
+    /**
+     * Get the literal operand geometry prepared for repeated evaluations.
+     * The literal geometry is computed only once and reprojected once per
+     * crs of the other operand.
+     *
+     * @return prepared literal, {@link PreparedLiteral#NONE} if no operand is a literal
+     */
+    PreparedLiteral getPreparedLiteral(){
+        PreparedLiteral prepared = preparedLiteral;
+        if(prepared == null){
+            prepared = PreparedLiteral.create(left, right);
+            preparedLiteral = prepared;
+        }
+        return prepared;
+    }
+
+    /**
+     * Evaluate the filter with the literal operand prepared once.
+     *
+     * @param object object on which the other operand is evaluated
+     * @param literal prepared literal operand, not {@link PreparedLiteral#NONE}
+     * @return result of {@link #relate(org.locationtech.jts.geom.prep.PreparedGeometry, org.locationtech.jts.geom.Geometry, boolean) }
+     */
+    final boolean evaluate(final Object object, final PreparedLiteral literal){
+        if(literal.isEmpty()){
+            return false;
+        }
+        final Geometry geom = toGeometry(object, literal.isRight() ? left : right);
+        if(geom == null){
+            return false;
+        }
+
+        final Object[] values;
+        try {
+            values = literal.toSameCRS(geom);
+        } catch (FactoryException | TransformException ex) {
+            LOGGER.log(Level.WARNING, null, ex);
+            return false;
+        }
+        return relate((PreparedGeometry) values[1], (Geometry) values[0], literal.isRight());
+    }
+
+    /**
+     * Test the filter relation between the prepared literal and the other operand,
+     * both geometries are in the same crs. Must be overridden by operators using
+     * {@link #evaluate(java.lang.Object, org.geotoolkit.filter.binaryspatial.PreparedLiteral) }.
+     *
+     * @param literal prepared literal operand
+     * @param other other operand geometry
+     * @param literalIsRight true if the literal is the right operand
+     */
+    boolean relate(final PreparedGeometry literal, final Geometry other, final boolean literalIsRight){
+        throw new UnsupportedOperationException("Prepared literals are not supported by " + getClass().getSimpleName());
+    }
+
     protected static Unit toUnit(final String str){
         return Units.valueOf(str);
     }
@@ -184,13 +245,31 @@ public abstract class AbstractBinarySpatialOperator<E extends Expression,F exten
     protected static Object[] toSameCRS(final Geometry leftGeom, final Geometry rightGeom, final Unit unit)
             throws NoSuchAuthorityCodeException, FactoryException, TransformException{
 
-        final CoordinateReferenceSystem leftCRS = JTS.findCoordinateReferenceSystem(leftGeom);
-        final CoordinateReferenceSystem rightCRS = JTS.findCoordinateReferenceSystem(rightGeom);
+        final Object[] match = findMatchingCRS(
+                JTS.findCoordinateReferenceSystem(leftGeom),
+                JTS.findCoordinateReferenceSystem(rightGeom), unit);
+        final MathTransform leftTrs = (MathTransform) match[0];
+        final MathTransform rightTrs = (MathTransform) match[1];
+        return new Object[]{
+            (leftTrs == null) ? leftGeom : JTS.transform(leftGeom, leftTrs),
+            (rightTrs == null) ? rightGeom : JTS.transform(rightGeom, rightTrs),
+            match[2]};
+    }
+
+    /**
+     * Find the crs in which geometries must be compared, the matching crs
+     * will be compatible with the requested unit.
+     * return Array[leftTransform, rightTransform, matchingCRS], a transform is null
+     * if the geometry does not need to be reprojected, matchingCRS is null if both
+     * crs are undefined.
+     */
+    static Object[] findMatchingCRS(final CoordinateReferenceSystem leftCRS, final CoordinateReferenceSystem rightCRS,
+            final Unit unit) throws NoSuchAuthorityCodeException, FactoryException, TransformException{
 
         if(leftCRS == null && rightCRS == null){
             //bother geometries doesn't have a defined SRID, we assume that both
             //are in the same CRS
-            return new Object[]{leftGeom, rightGeom, null};
+            return new Object[]{null, null, null};
         } else if (leftCRS == null || rightCRS == null || Utilities.equalsIgnoreMetadata(leftCRS, rightCRS)) {
             //both are in the same CRS
 
@@ -198,18 +277,13 @@ public abstract class AbstractBinarySpatialOperator<E extends Expression,F exten
 
             if(geomCRS.getCoordinateSystem().getAxis(0).getUnit().isCompatible(unit)){
                 //the geometries crs is compatible with the requested unit, nothing to reproject
-                return new Object[]{leftGeom,rightGeom,geomCRS};
+                return new Object[]{null, null, geomCRS};
             }else{
                 //the crs unit is not compatible, we must reproject both geometries to a more appropriate crs
                 if(Units.METRE.isCompatible(unit)){
                     //in that case we reproject to mercator EPSG:3395
                     final MathTransform trs = CRS.findOperation(geomCRS, MERCATOR, null).getMathTransform();
-
-                    return new Object[]{
-                        JTS.transform(leftGeom,trs),
-                        JTS.transform(rightGeom,trs),
-                        MERCATOR};
-
+                    return new Object[]{trs, trs, MERCATOR};
                 }else{
                     //we can not find a matching projection in this case
                     throw new TransformException("Could not find a matching CRS for both geometries for unit :" + unit);
@@ -219,38 +293,25 @@ public abstract class AbstractBinarySpatialOperator<E extends Expression,F exten
         }else{
             //both have different CRS, try to find the most appropriate crs amoung both
 
-            final CoordinateReferenceSystem matchingCRS;
-            final Geometry leftMatch;
-            final Geometry rightMatch;
-
             if(leftCRS.getCoordinateSystem().getAxis(0).getUnit().isCompatible(unit)){
-                matchingCRS = leftCRS;
-                final MathTransform trs = CRS.findOperation(rightCRS, matchingCRS, null).getMathTransform();
-                rightMatch = JTS.transform(rightGeom, trs);
-                leftMatch = leftGeom;
+                final MathTransform trs = CRS.findOperation(rightCRS, leftCRS, null).getMathTransform();
+                return new Object[]{null, trs, leftCRS};
             }else if(rightCRS.getCoordinateSystem().getAxis(0).getUnit().isCompatible(unit)){
-                matchingCRS = rightCRS;
-                final MathTransform trs = CRS.findOperation(leftCRS, matchingCRS, null).getMathTransform();
-                leftMatch = JTS.transform(leftGeom, trs);
-                rightMatch = rightGeom;
+                final MathTransform trs = CRS.findOperation(leftCRS, rightCRS, null).getMathTransform();
+                return new Object[]{trs, null, rightCRS};
             }else{
                 //the crs unit is not compatible, we must reproject both geometries to a more appropriate crs
                 if(Units.METRE.isCompatible(unit)){
                     //in that case we reproject to mercator EPSG:3395
-                    matchingCRS = MERCATOR;
-
-                    MathTransform trs = CRS.findOperation(leftCRS, matchingCRS, null).getMathTransform();
-                    leftMatch = JTS.transform(leftGeom, trs);
-                    trs = CRS.findOperation(rightCRS, matchingCRS, null).getMathTransform();
-                    rightMatch = JTS.transform(rightGeom, trs);
-
+                    return new Object[]{
+                        CRS.findOperation(leftCRS, MERCATOR, null).getMathTransform(),
+                        CRS.findOperation(rightCRS, MERCATOR, null).getMathTransform(),
+                        MERCATOR};
                 }else{
                     //we can not find a matching projection in this case
                     throw new TransformException("Could not find a matching CRS for both geometries for unit :" + unit);
                 }
             }
-
-            return new Object[]{leftMatch,rightMatch,matchingCRS};
         }
 
     }
@@ -71,22 +71,36 @@ public class DefaultDWithin extends AbstractBinarySpatialOperator<Expression,Exp
      */
     @Override
     public boolean evaluate(final Object object) {
-        final Geometry leftGeom = toGeometry(object, left);
-        final Geometry rightGeom = toGeometry(object, right);
-
-        if(leftGeom == null || rightGeom == null){
-            return false;
-        }
+        final PreparedLiteral literal = getPreparedLiteral();
 
         try {
-            final Object[] values = toSameCRS(leftGeom, rightGeom, unit);
+            final Object[] values;
+            if (literal == PreparedLiteral.NONE) {
+                final Geometry leftGeom = toGeometry(object, left);
+                final Geometry rightGeom = toGeometry(object, right);
+
+                if(leftGeom == null || rightGeom == null){
+                    return false;
+                }
+                values = toSameCRS(leftGeom, rightGeom, unit);
+            } else {
+                //the literal operand is converted and reprojected only once
+                if(literal.isEmpty()){
+                    return false;
+                }
+                final Geometry geom = toGeometry(object, literal.isRight() ? left : right);
+                if(geom == null){
+                    return false;
+                }
+                values = literal.toSameCRS(geom, unit);
+            }
 
+            final Geometry leftMatch = (Geometry) values[0];
+            final Geometry rightMatch = (Geometry) values[1];
             if(values[2] == null){
                 //no matching crs was found, assume both have the same and valid unit
-                return leftGeom.isWithinDistance(rightGeom, distance);
+                return leftMatch.isWithinDistance(rightMatch, distance);
             }else{
-                final Geometry leftMatch = (Geometry) values[0];
-                final Geometry rightMatch = (Geometry) values[1];
                 final CoordinateReferenceSystem crs = (CoordinateReferenceSystem) values[2];
                 final UnitConverter converter = unit.getConverterTo(crs.getCoordinateSystem().getAxis(0).getUnit());
 
@@ -19,6 +19,7 @@ package org.geotoolkit.filter.binaryspatial;
 
 import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
 
 import java.util.logging.Level;
 import org.geotoolkit.util.StringUtilities;
@@ -46,6 +47,11 @@ public class DefaultIntersect extends AbstractBinarySpatialOperator<Expression,E
      */
     @Override
     public boolean evaluate(final Object object) {
+        final PreparedLiteral literal = getPreparedLiteral();
+        if (literal != PreparedLiteral.NONE) {
+            return evaluate(object, literal);
+        }
+
         Geometry leftGeom = toGeometry(object, left);
         Geometry rightGeom = toGeometry(object, right);
 
@@ -73,6 +79,16 @@ public class DefaultIntersect extends AbstractBinarySpatialOperator<Expression,E
         return false;
     }
 
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    boolean relate(final PreparedGeometry literal, final Geometry other, final boolean literalIsRight) {
+        final Envelope envOther = other.getEnvelopeInternal();
+        final Envelope envLiteral = literal.getGeometry().getEnvelopeInternal();
+        return envOther.intersects(envLiteral) && literal.intersects(other);
+    }
+
     /**
      * {@inheritDoc }
      */
@@ -0,0 +1,194 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2018, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.filter.binaryspatial;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import javax.measure.Unit;
+import org.apache.sis.referencing.CRS;
+import org.apache.sis.util.Utilities;
+import org.geotoolkit.geometry.jts.JTS;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+import org.opengis.filter.expression.Expression;
+import org.opengis.filter.expression.Literal;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.TransformException;
+import org.opengis.util.FactoryException;
+
+/**
+ * Literal operand of a binary spatial operator, prepared for repeated evaluations.
+ * <br>
+ * The literal geometry is converted and wrapped in a JTS {@link PreparedGeometry} once.
+ * Reprojections follow the same rules as {@link AbstractBinarySpatialOperator#toSameCRS}
+ * but transforms and reprojected literals are cached for each crs of the other operand.
+ * Instances are thread safe.
+ *
+ * @author Johann Sorel (Geomatys)
+ * @module
+ */
+final class PreparedLiteral {
+
+    /**
+     * Used when no operand is a literal.
+     */
+    static final PreparedLiteral NONE = new PreparedLiteral(null, false);
+
+    /**
+     * Maximum number of crs for which reprojections are cached.
+     */
+    private static final int MAX_CACHED_CRS = 16;
+
+    /**
+     * Cache key for geometries without crs.
+     */
+    private static final Object NO_CRS = new Object();
+
+    private final boolean isRight;
+    private final Geometry geometry;
+    private final PreparedGeometry prepared;
+    private final CoordinateReferenceSystem crs;
+
+    /**
+     * Array[otherTransform, preparedLiteral] for each crs of the other operand.
+     */
+    private final Map<CoordinateReferenceSystem,Object[]> cache = createCache();
+
+    /**
+     * Array[otherTransform, literalGeometry, matchingCRS] for each crs of the other operand.
+     */
+    private final Map<Object,Object[]> unitCache = createCache();
+
+    /**
+     * Create a synchronized map removing the least recently used entry above {@link #MAX_CACHED_CRS} entries.
+     */
+    private static <K> Map<K,Object[]> createCache() {
+        return Collections.synchronizedMap(new LinkedHashMap<K,Object[]>(MAX_CACHED_CRS, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<K,Object[]> eldest) {
+                return size() > MAX_CACHED_CRS;
+            }
+        });
+    }
+
+    private PreparedLiteral(final Geometry geometry, final boolean isRight) {
+        this.isRight = isRight;
+        this.geometry = geometry;
+        CoordinateReferenceSystem geomCrs = null;
+        PreparedGeometry geomPrepared = null;
+        if (geometry != null) {
+            try {
+                geomCrs = JTS.findCoordinateReferenceSystem(geometry);
+                geomPrepared = PreparedGeometryFactory.prepare(geometry);
+            } catch (FactoryException ex) {
+                //filter can not be evaluated
+                AbstractBinarySpatialOperator.LOGGER.log(Level.WARNING, null, ex);
+            }
+        }
+        this.crs = geomCrs;
+        this.prepared = geomPrepared;
+    }
+
+    /**
+     * Prepare the literal operand, if any, the right one is used if both are literals.
+     */
+    static PreparedLiteral create(final Expression left, final Expression right) {
+        if (right instanceof Literal) {
+            return new PreparedLiteral(AbstractBinarySpatialOperator.toGeometry(null, right), true);
+        } else if (left instanceof Literal) {
+            return new PreparedLiteral(AbstractBinarySpatialOperator.toGeometry(null, left), false);
+        }
+        return NONE;
+    }
+
+    /**
+     * @return true if the literal is the right operand.
+     */
+    boolean isRight() {
+        return isRight;
+    }
+
+    /**
+     * @return true if the literal could not be converted to a geometry
+     *         or if its crs is invalid, the filter can never match in this case.
+     */
+    boolean isEmpty() {
+        return prepared == null;
+    }
+
+    /**
+     * Reproject the other operand geometry and the literal to the same crs if needed and if possible.
+     * return Array[otherGeometry, preparedLiteral];
+     */
+    Object[] toSameCRS(final Geometry other) throws FactoryException, TransformException {
+        final CoordinateReferenceSystem otherCRS = JTS.findCoordinateReferenceSystem(other);
+
+        if (crs == null || otherCRS == null) {
+            //one or bother geometries doesn't have a defined SRID, we assume that both
+            //are in the same CRS
+            return new Object[]{other, prepared};
+        }
+
+        Object[] entry = cache.get(otherCRS);
+        if (entry == null) {
+            if (Utilities.equalsIgnoreMetadata(crs, otherCRS)) {
+                entry = new Object[]{null, prepared};
+            } else if (isRight) {
+                //the right operand is reprojected, only once for each crs
+                final MathTransform trs = CRS.findOperation(crs, otherCRS, null).getMathTransform();
+                entry = new Object[]{null, PreparedGeometryFactory.prepare(JTS.transform(geometry, trs))};
+            } else {
+                entry = new Object[]{CRS.findOperation(otherCRS, crs, null).getMathTransform(), prepared};
+            }
+            cache.put(otherCRS, entry);
+        }
+
+        final MathTransform trs = (MathTransform) entry[0];
+        return new Object[]{(trs == null) ? other : JTS.transform(other, trs), entry[1]};
+    }
+
+    /**
+     * Reproject the other operand geometry and the literal in a crs compatible with the requested unit.
+     * return Array[otherGeometry, literalGeometry, matchingCRS];
+     */
+    Object[] toSameCRS(final Geometry other, final Unit unit) throws FactoryException, TransformException {
+        final CoordinateReferenceSystem otherCRS = JTS.findCoordinateReferenceSystem(other);
+        final Object key = (otherCRS == null) ? NO_CRS : otherCRS;
+
+        Object[] entry = unitCache.get(key);
+        if (entry == null) {
+            final Object[] match = isRight ?
+                    AbstractBinarySpatialOperator.findMatchingCRS(otherCRS, crs, unit) :
+                    AbstractBinarySpatialOperator.findMatchingCRS(crs, otherCRS, unit);
+            final MathTransform otherTrs = (MathTransform) match[isRight ? 0 : 1];
+            final MathTransform literalTrs = (MathTransform) match[isRight ? 1 : 0];
+            entry = new Object[]{
+                otherTrs,
+                (literalTrs == null) ? geometry : JTS.transform(geometry, literalTrs),
+                match[2]};
+            unitCache.put(key, entry);
+        }
+
+        final MathTransform trs = (MathTransform) entry[0];
+        return new Object[]{(trs == null) ? other : JTS.transform(other, trs), entry[1], entry[2]};
+    }
+
+}
@@ -17,13 +17,34 @@
 
 package org.geotoolkit.filter.visitor;
 
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.Date;
+import org.apache.sis.util.ObjectConverters;
+import org.apache.sis.util.UnconvertibleObjectException;
 import org.geotoolkit.filter.FilterUtilities;
+import org.opengis.feature.AttributeType;
 import org.opengis.feature.FeatureType;
+import org.opengis.feature.PropertyNotFoundException;
+import org.opengis.feature.PropertyType;
+import org.opengis.filter.BinaryComparisonOperator;
+import org.opengis.filter.PropertyIsBetween;
+import org.opengis.filter.PropertyIsGreaterThan;
+import org.opengis.filter.PropertyIsGreaterThanOrEqualTo;
+import org.opengis.filter.PropertyIsLessThan;
+import org.opengis.filter.PropertyIsLessThanOrEqualTo;
+import org.opengis.filter.expression.Expression;
+import org.opengis.filter.expression.Literal;
 import org.opengis.filter.expression.PropertyName;
 
 /**
  * Simplify and prepare the filter against a given target class.
  * All propertyName expression will be prepared against it.
+ * <p>
+ * When an expected feature type is given, literals compared to a property
+ * are converted once to the property value class, instead of being converted
+ * on each evaluation.
+ * </p>
  *
  * @author Johann Sorel (Geomatys)
  */
@@ -42,4 +63,102 @@ public class PrepareFilterVisitor extends SimplifyingFilterVisitor{
         return FilterUtilities.prepare(expression, clazz, expectedType);
     }
 
+    @Override
+    public Object visit(final PropertyIsBetween filter, final Object extraData) {
+        final Expression expr = visit(filter.getExpression(), extraData);
+        Expression lower = visit(filter.getLowerBoundary(), extraData);
+        Expression upper = visit(filter.getUpperBoundary(), extraData);
+        Class valueClass = getValueClass(filter.getExpression());
+        if (valueClass != null && Number.class.isAssignableFrom(valueClass)) {
+            //numbers are compared as doubles
+            valueClass = Double.class;
+        }
+        lower = convert(lower, valueClass, extraData);
+        upper = convert(upper, valueClass, extraData);
+        return getFactory(extraData).between(expr, lower, upper);
+    }
+
+    @Override
+    public Object visit(final PropertyIsGreaterThan filter, final Object extraData) {
+        final Expression[] exps = prepare(filter, extraData);
+        return getFactory(extraData).greater(exps[0], exps[1], filter.isMatchingCase(), filter.getMatchAction());
+    }
+
+    @Override
+    public Object visit(final PropertyIsGreaterThanOrEqualTo filter, final Object extraData) {
+        final Expression[] exps = prepare(filter, extraData);
+        return getFactory(extraData).greaterOrEqual(exps[0], exps[1], filter.isMatchingCase(), filter.getMatchAction());
+    }
+
+    @Override
+    public Object visit(final PropertyIsLessThan filter, final Object extraData) {
+        final Expression[] exps = prepare(filter, extraData);
+        return getFactory(extraData).less(exps[0], exps[1], filter.isMatchingCase(), filter.getMatchAction());
+    }
+
+    @Override
+    public Object visit(final PropertyIsLessThanOrEqualTo filter, final Object extraData) {
+        final Expression[] exps = prepare(filter, extraData);
+        return getFactory(extraData).lessOrEqual(exps[0], exps[1], filter.isMatchingCase(), filter.getMatchAction());
+    }
+
+    /**
+     * Prepare comparison expressions, a literal on the right side of a property
+     * is converted to the property value class. Values are converted to the left
+     * operand class when compared, so the result is unchanged.
+     */
+    private Expression[] prepare(final BinaryComparisonOperator filter, final Object extraData) {
+        final Expression expr1 = visit(filter.getExpression1(), extraData);
+        Expression expr2 = visit(filter.getExpression2(), extraData);
+        expr2 = convert(expr2, getValueClass(filter.getExpression1()), extraData);
+        return new Expression[]{expr1, expr2};
+    }
+
+    /**
+     * Get the class of the values of given property in the expected type.
+     *
+     * @return value class or null if it is unknown, values are multiple or the class is not final
+     */
+    private Class getValueClass(final Expression exp) {
+        if (expectedType == null || !(exp instanceof PropertyName)) {
+            return null;
+        }
+        final PropertyType type;
+        try {
+            type = expectedType.getProperty(((PropertyName) exp).getPropertyName());
+        } catch (PropertyNotFoundException ex) {
+            return null;
+        }
+        if (type instanceof AttributeType && ((AttributeType) type).getMaximumOccurs() == 1) {
+            final Class valueClass = ((AttributeType) type).getValueClass();
+            //values of a subclass would be converted differently
+            if (Modifier.isFinal(valueClass.getModifiers()) && Comparable.class.isAssignableFrom(valueClass)) {
+                return valueClass;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Convert a literal to the given class.
+     *
+     * @return converted literal or the original expression if conversion is not possible
+     */
+    private Expression convert(final Expression exp, final Class valueClass, final Object extraData) {
+        if (valueClass == null || !(exp instanceof Literal)) {
+            return exp;
+        }
+        final Object value = ((Literal) exp).getValue();
+        if (value == null || valueClass.isInstance(value) || value instanceof Collection || value instanceof Date) {
+            return exp;
+        }
+        final Object converted;
+        try {
+            converted = ObjectConverters.convert(value, valueClass);
+        } catch (UnconvertibleObjectException ex) {
+            return exp;
+        }
+        return (converted == null) ? exp : getFactory(extraData).literal(converted);
+    }
+
 }
@@ -21,6 +21,14 @@ import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.LinearRing;
 
+import java.util.Collections;
+import java.util.Map;
+import org.apache.sis.referencing.CRS;
+import org.apache.sis.referencing.CommonCRS;
+import org.geotoolkit.geometry.jts.JTS;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.operation.MathTransform;
+
 import org.junit.Test;
 
 import org.opengis.filter.spatial.BBOX;
@@ -262,4 +270,38 @@ public class BinarySpatialTest extends org.geotoolkit.test.TestBase {
 
     }
 
+    @Test
+    public void testPreparedLiteralReprojection() throws Exception {
+        final CoordinateReferenceSystem crs84 = CommonCRS.WGS84.normalizedGeographic();
+        final CoordinateReferenceSystem mercator = CRS.forCode("EPSG:3395");
+        final MathTransform trs = CRS.findOperation(crs84, mercator, null).getMathTransform();
+
+        final Geometry literal = (Geometry) GEOM_CONTAINS.clone();
+        JTS.setCRS(literal, crs84);
+
+        final Geometry inside = JTS.transform(GF.createPoint(new Coordinate(5, 5)), trs);
+        JTS.setCRS(inside, mercator);
+        final Geometry outside = JTS.transform(GF.createPoint(new Coordinate(30, 5)), trs);
+        JTS.setCRS(outside, mercator);
+        final Map<String,Object> candidateIn = Collections.singletonMap("testGeometry", inside);
+        final Map<String,Object> candidateOut = Collections.singletonMap("testGeometry", outside);
+
+        final Intersects intersectRight = FF.intersects(FF.property("testGeometry"), FF.literal(literal));
+        final Intersects intersectLeft = FF.intersects(FF.literal(literal), FF.property("testGeometry"));
+        final Within within = FF.within(FF.property("testGeometry"), FF.literal(literal));
+        final Contains contains = FF.contains(FF.literal(literal), FF.property("testGeometry"));
+
+        //evaluate several times, literal is reprojected only on first evaluation
+        for (int i = 0; i < 3; i++) {
+            assertTrue(intersectRight.evaluate(candidateIn));
+            assertFalse(intersectRight.evaluate(candidateOut));
+            assertTrue(intersectLeft.evaluate(candidateIn));
+            assertFalse(intersectLeft.evaluate(candidateOut));
+            assertTrue(within.evaluate(candidateIn));
+            assertFalse(within.evaluate(candidateOut));
+            assertTrue(contains.evaluate(candidateIn));
+            assertFalse(contains.evaluate(candidateOut));
+        }
+    }
+
 }
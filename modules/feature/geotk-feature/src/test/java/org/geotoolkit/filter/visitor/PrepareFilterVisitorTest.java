@@ -0,0 +1,115 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2018, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.filter.visitor;
+
+import org.geotoolkit.filter.FilterUtilities;
+import org.junit.Test;
+import org.opengis.feature.Feature;
+import org.opengis.filter.Filter;
+import org.opengis.filter.MatchAction;
+import org.opengis.filter.PropertyIsLessThan;
+import org.opengis.filter.expression.Literal;
+import static org.geotoolkit.test.Assert.*;
+import static org.geotoolkit.filter.FilterTestConstants.*;
+
+/**
+ * Test prepare filter visitor.
+ *
+ * @author Johann Sorel (Geomatys)
+ */
+public class PrepareFilterVisitorTest extends org.geotoolkit.test.TestBase {
+
+    @Test
+    public void testLiteralConversion(){
+        final Filter filter = FF.less(FF.property("testInteger"), FF.literal("200"));
+        final Filter prepared = FilterUtilities.prepare(filter, Feature.class, FEATURE_TYPE_1);
+
+        assertTrue(prepared instanceof PropertyIsLessThan);
+        final Object value = ((Literal) ((PropertyIsLessThan) prepared).getExpression2()).getValue();
+        assertEquals(Integer.valueOf(200), value);
+        assertTrue(prepared.evaluate(FEATURE_1));
+    }
+
+    @Test
+    public void testSameResults(){
+        final Filter[] filters = new Filter[]{
+            FF.equals(FF.property("testInteger"), FF.literal(101)),
+            FF.equals(FF.property("testInteger"), FF.literal(101l)),
+            FF.equal(FF.property("testString"), FF.literal("TEST STRING DATA"), false, MatchAction.ANY),
+            FF.notEqual(FF.property("testDouble"), FF.literal("101")),
+            FF.less(FF.property("testLong"), FF.literal("99")),
+            FF.lessOrEqual(FF.property("testShort"), FF.literal(101)),
+            FF.greater(FF.property("testFloat"), FF.literal(100)),
+            FF.greaterOrEqual(FF.property("testString"), FF.literal("test")),
+            FF.greater(FF.literal(200), FF.property("testInteger")),
+            FF.between(FF.property("testInteger"), FF.literal("100"), FF.literal(102)),
+            FF.between(FF.property("testString"), FF.literal("a"), FF.literal("z")),
+            FF.between(FF.property("testFloat"), FF.literal(100), FF.literal(102.5)),
+            FF.less(FF.property("testLong"), FF.literal(102)),
+            FF.greaterOrEqual(FF.property("testShort"), FF.literal(101l)),
+            FF.and(FF.greater(FF.property("testByte"), FF.literal(1)), FF.like(FF.property("testString"), "test*")),
+            FF.or(FF.isNull(FF.property("testNull")), FF.less(FF.property("testInteger"), FF.literal(0))),
+            FF.less(FF.property("datetime1"), FF.literal(new java.util.Date())),
+            FF.equals(FF.property("unknownProperty"), FF.literal(1))
+        };
+
+        for (Filter filter : filters) {
+            final Filter prepared = FilterUtilities.prepare(filter, Feature.class, FEATURE_TYPE_1);
+            assertEquals(filter.toString(), filter.evaluate(FEATURE_1), prepared.evaluate(FEATURE_1));
+        }
+    }
+
+    /**
+     * Float properties are compared with double literals at float precision.
+     */
+    @Test
+    public void testFloatPrecision(){
+        final Feature feature = FEATURE_TYPE_1.newInstance();
+        feature.setPropertyValue("testFloat", 0.1f);
+        final Filter[] filters = new Filter[]{
+            FF.lessOrEqual(FF.property("testFloat"), FF.literal(0.1)),
+            FF.greaterOrEqual(FF.property("testFloat"), FF.literal(0.1)),
+            FF.lessOrEqual(FF.literal(0.1f), FF.literal(0.1))
+        };
+
+        for (Filter filter : filters) {
+            final Filter prepared = FilterUtilities.prepare(filter, Feature.class, FEATURE_TYPE_1);
+            assertTrue(filter.toString(), filter.evaluate(feature));
+            assertTrue(filter.toString(), prepared.evaluate(feature));
+        }
+    }
+
+    /**
+     * Prepared numeric filters must match the same features as the original filter.
+     */
+    @Test
+    public void testSameResultsOnFeatures(){
+        final Filter filter = FF.and(
+                FF.greaterOrEqual(FF.property("testInteger"), FF.literal("100")),
+                FF.or(FF.less(FF.property("testDouble"), FF.literal(500)),
+                      FF.between(FF.property("testInteger"), FF.literal(8000), FF.literal(9000))));
+        final Filter prepared = FilterUtilities.prepare(filter, Feature.class, FEATURE_TYPE_1);
+
+        for (int i=0; i<10000; i++) {
+            final Feature feature = FEATURE_TYPE_1.newInstance();
+            feature.setPropertyValue("testInteger", i);
+            feature.setPropertyValue("testDouble", i / 10d);
+            assertEquals(String.valueOf(i), filter.evaluate(feature), prepared.evaluate(feature));
+        }
+    }
+
+}
@@ -20,8 +20,10 @@ import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.CoordinateSequence;
 import org.locationtech.jts.geom.CoordinateSequenceFactory;
 import org.locationtech.jts.geom.impl.CoordinateArraySequenceFactory;
+import org.locationtech.jts.geom.impl.PackedCoordinateSequence;
 import java.util.Arrays;
 
+import org.geotoolkit.geometry.jts.coordinatesequence.LiteCoordinateSequence;
 import org.opengis.geometry.MismatchedDimensionException;
 import org.opengis.referencing.operation.MathTransform;
 import org.opengis.referencing.operation.TransformException;
@@ -32,7 +34,12 @@ import org.opengis.referencing.operation.TransformException;
  * means that caller are immediately notified if a transformation fails).
  * <p>
  * This transformer support {@linkplain MathTransform math transform} with up to 3 source
- * or target dimensions. This transformer is not thread-safe.
+ * or target dimensions. {@link LiteCoordinateSequence} and {@link PackedCoordinateSequence.Double}
+ * sequences matching the transform dimensions are transformed in a single call and
+ * the result has the same sequence type, other sequences are created with the
+ * {@link CoordinateSequenceFactory}.
+ * <p>
+ * This transformer is thread-safe if the math transform is.
  *
  * @module
  * @since 2.1
@@ -47,18 +54,18 @@ public class CoordinateSequenceMathTransformer implements CoordinateSequenceTran
      */
     static final CoordinateSequenceFactory DEFAULT_CS_FACTORY = CoordinateArraySequenceFactory.instance();
     /**
-     * A buffer for coordinate transformations. We choose a length which is divisible by
+     * Per thread buffers for coordinate transformations. We choose a length which is divisible by
      * both 2 and 3, since JTS coordinates may be up to three-dimensional. If the number
      * of coordinates point to transform is greater than the buffer capacity, then the
      * buffer will be flushed to the destination array before to continue. We avoid to
      * create a buffer as large than the number of point to transforms, because it would
      * consume a large amount of memory for big geometries.
      */
-    private final transient double[] buffer = new double[96];
+    private static final ThreadLocal<double[]> BUFFER = ThreadLocal.withInitial(() -> new double[1536]);
 
     private final CoordinateSequenceFactory csf;
 
-    private MathTransform transform = null;
+    private volatile MathTransform transform = null;
 
     /**
      * Constructs a default coordinate sequence transformer.
@@ -79,11 +86,11 @@ public class CoordinateSequenceMathTransformer implements CoordinateSequenceTran
         this.transform =transform;
     }
 
-    public synchronized void setTransform(final MathTransform transform) {
+    public void setTransform(final MathTransform transform) {
         this.transform = transform;
     }
 
-    public synchronized MathTransform getTransform() {
+    public MathTransform getTransform() {
         return transform;
     }
 
@@ -91,11 +98,29 @@ public class CoordinateSequenceMathTransformer implements CoordinateSequenceTran
      * {@inheritDoc}
      */
     @Override
-    public synchronized CoordinateSequence transform(final CoordinateSequence sequence, final int minpoints)
+    public CoordinateSequence transform(final CoordinateSequence sequence, final int minpoints)
             throws TransformException {
+        final MathTransform transform = this.transform;
         final int sourceDim = transform.getSourceDimensions();
         final int targetDim = transform.getTargetDimensions();
         final int size = sequence.size();
+
+        //packed sequences are transformed directly, without intermediate coordinates
+        if (sequence instanceof LiteCoordinateSequence) {
+            if (sourceDim == 2 && targetDim == 2) {
+                final double[] result = new double[size * 2];
+                transform.transform(((LiteCoordinateSequence) sequence).getArray(), 0, result, 0, size);
+                return new LiteCoordinateSequence(result);
+            }
+        } else if (sequence instanceof PackedCoordinateSequence.Double) {
+            if (sequence.getDimension() == sourceDim && targetDim >= 2 && targetDim <= 3) {
+                final double[] result = new double[size * targetDim];
+                transform.transform(((PackedCoordinateSequence.Double) sequence).getRawCoordinates(), 0, result, 0, size);
+                return new PackedCoordinateSequence.Double(result, targetDim);
+            }
+        }
+
+        final double[] buffer = BUFFER.get();
         final Coordinate[] tcs = new Coordinate[size];
         final int bufferCapacity = buffer.length / Math.max(sourceDim, targetDim);
         int remainingBeforeFlush = Math.min(bufferCapacity, size);
@@ -21,8 +21,16 @@ import org.locationtech.jts.geom.CoordinateSequence;
 import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.geom.LinearRing;
 import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.impl.CoordinateArraySequence;
+import org.locationtech.jts.geom.impl.PackedCoordinateSequence;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.geotoolkit.geometry.jts.coordinatesequence.LiteCoordinateSequence;
 import org.geotoolkit.factory.FactoryFinder;
 import org.apache.sis.referencing.CRS;
 import org.apache.sis.referencing.CommonCRS;
@@ -73,6 +81,74 @@ public class ReprojectTest extends org.geotoolkit.test.TestBase {
 
     }
 
+    /**
+     * Packed sequences must be transformed like coordinate array sequences
+     * and keep their type.
+     */
+    @Test
+    public void testPackedSequences() throws Exception {
+        final MathTransform mt = CRS.findOperation(CommonCRS.WGS84.normalizedGeographic(), getLocalLambertCRS(10, 60), null).getMathTransform();
+        final CoordinateSequenceMathTransformer cst = new CoordinateSequenceMathTransformer(mt);
+
+        //more points than the transformation buffer
+        final double[] coords = new double[5000 * 2];
+        for (int i = 0; i < coords.length; i += 2) {
+            coords[i] = -20 + (i % 400) / 10.0;
+            coords[i+1] = 40 + (i % 300) / 10.0;
+        }
+        final Coordinate[] array = new Coordinate[coords.length / 2];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = new Coordinate(coords[i*2], coords[i*2+1]);
+        }
+        final CoordinateSequence expected = cst.transform(new CoordinateArraySequence(array), 0);
+
+        final CoordinateSequence lite = cst.transform(new LiteCoordinateSequence(coords.clone()), 0);
+        assertTrue(lite instanceof LiteCoordinateSequence);
+        final CoordinateSequence packed = cst.transform(new PackedCoordinateSequence.Double(coords.clone(), 2), 0);
+        assertTrue(packed instanceof PackedCoordinateSequence.Double);
+
+        assertEquals(expected.size(), lite.size());
+        assertEquals(expected.size(), packed.size());
+        for (int i = 0, n = expected.size(); i < n; i++) {
+            assertEquals(expected.getX(i), lite.getX(i), 0.0);
+            assertEquals(expected.getY(i), lite.getY(i), 0.0);
+            assertEquals(expected.getX(i), packed.getX(i), 0.0);
+            assertEquals(expected.getY(i), packed.getY(i), 0.0);
+        }
+    }
+
+    /**
+     * A transformer must be usable by several threads at the same time.
+     */
+    @Test
+    public void testConcurrentTransform() throws Exception {
+        final MathTransform mt = CRS.findOperation(CommonCRS.WGS84.normalizedGeographic(), getLocalLambertCRS(10, 60), null).getMathTransform();
+        final CoordinateSequenceMathTransformer cst = new CoordinateSequenceMathTransformer(mt);
+
+        final Coordinate[] array = new Coordinate[1000];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = new Coordinate(-20 + (i % 40), 40 + (i % 30));
+        }
+        final CoordinateSequence expected = cst.transform(new CoordinateArraySequence(array), 0);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<CoordinateSequence>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                results.add(executor.submit(() -> cst.transform(new CoordinateArraySequence(array), 0)));
+            }
+            for (Future<CoordinateSequence> result : results) {
+                final CoordinateSequence cs = result.get();
+                for (int i = 0, n = expected.size(); i < n; i++) {
+                    assertEquals(expected.getX(i), cs.getX(i), 0.0);
+                    assertEquals(expected.getY(i), cs.getY(i), 0.0);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     @Test
     public void testLinearRingClosing(){
         final GeometryFactory GF = new GeometryFactory();
@@ -158,6 +158,15 @@ public abstract class AbstractNode {
         return this.shapesId;
     }
 
+    /**
+     * @return Returns the number of bytes used by this node record in a qix file,
+     *         sub nodes excluded.
+     */
+    public int getRecordLength() {
+        // offset + envelope + number of ids + ids + number of sub nodes
+        return (4 * 8) + ((getNumShapeIds() + 3) * 4);
+    }
+
     @Override
     public String toString() {
         return toString(null);
@@ -182,7 +191,7 @@ public abstract class AbstractNode {
         sb.append(" ids(nb=").append(getNumShapeIds());
         sb.append(")[");
         for(int i=0,n=getNumShapeIds();i<n;i++){
-            sb.append(shapesId[i]);
+            sb.append(getShapeId(i));
             if(i<n-1){
                 sb.append(',');
             }
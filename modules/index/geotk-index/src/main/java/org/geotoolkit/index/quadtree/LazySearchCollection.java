@@ -45,6 +45,7 @@ public class LazySearchCollection<T extends Data> extends AbstractCollection<T>
     private final Envelope bounds;
     private final double[] minRes;
     private final DataReader<T> reader;
+    private final SearchStatistics stats = new SearchStatistics();
 
     public LazySearchCollection(final QuadTree tree, final DataReader<T> reader, final Envelope bounds) {
         this(tree,reader,bounds,null);
@@ -63,7 +64,7 @@ public class LazySearchCollection<T extends Data> extends AbstractCollection<T>
      */
     public LazyTyleSearchIterator.Buffered<T> bboxIterator() {
         final LazyTyleSearchIterator.Buffered<T> iterator = new LazyTyleSearchIterator.Buffered(
-                tree.getRoot(), bounds,minRes,reader,MAX_INDICES);
+                tree.getRoot(), bounds,minRes,reader,MAX_INDICES,stats);
         tree.registerIterator(iterator);
         return iterator;
     }
@@ -76,11 +77,19 @@ public class LazySearchCollection<T extends Data> extends AbstractCollection<T>
     @Override
     public SearchIterator<T> iterator() {
         final SearchIterator<T> iterator = new LazySearchIterator.Buffered(
-                tree.getRoot(), bounds,minRes, reader,MAX_INDICES);
+                tree.getRoot(), bounds,minRes, reader,MAX_INDICES,stats);
         tree.registerIterator(iterator);
         return iterator;
     }
 
+    /**
+     * Counters of nodes visited and qix bytes touched by all iterators
+     * created from this collection.
+     */
+    public SearchStatistics getStatistics() {
+        return stats;
+    }
+
     @Override
     public int size() {
         final Iterator iter = iterator();
@@ -48,6 +48,7 @@ public class LazySearchIterator implements SearchIterator<AbstractNode> {
     }
 
     private final Envelope bounds;
+    private final SearchStatistics stats;
     private boolean closed;
 
     //the current path where we are, Integer is the current visited child node index.
@@ -57,9 +58,19 @@ public class LazySearchIterator implements SearchIterator<AbstractNode> {
     private AbstractNode current = null;
 
     public LazySearchIterator(final AbstractNode node, final Envelope bounds, final double[] minRes) {
+        this(node, bounds, minRes, null);
+    }
+
+    /**
+     * @param stats : counters updated with each visited node, can be null.
+     */
+    public LazySearchIterator(final AbstractNode node, final Envelope bounds, final double[] minRes,
+            final SearchStatistics stats) {
         this.bounds = bounds;
+        this.stats = stats;
         this.closed = false;
 
+        if(stats != null) stats.visit(node);
         if(node.intersects(bounds)){
             path.add(new Segment(node, -1));
         }
@@ -143,6 +154,7 @@ public class LazySearchIterator implements SearchIterator<AbstractNode> {
                 //prepare next node search
                 segment.childIndex++;
 
+                if(stats != null) stats.visit(child);
                 if (!child.intersects(bounds)) {
                     //not in the area we requested
                     continue childLoop;
@@ -185,9 +197,14 @@ public class LazySearchIterator implements SearchIterator<AbstractNode> {
         private T next = null;
 
         public Buffered(final AbstractNode node, final Envelope bounds, final double[] minRes, final DataReader reader, final int bufferSize){
+            this(node, bounds, minRes, reader, bufferSize, null);
+        }
+
+        public Buffered(final AbstractNode node, final Envelope bounds, final double[] minRes, final DataReader reader,
+                final int bufferSize, final SearchStatistics stats){
             this.bufferSize = bufferSize;
             this.reader = reader;
-            this.ite = new LazySearchIterator(node, bounds, minRes);
+            this.ite = new LazySearchIterator(node, bounds, minRes, stats);
             indices = new int[bufferSize];
             datas = new Data[bufferSize];
         }
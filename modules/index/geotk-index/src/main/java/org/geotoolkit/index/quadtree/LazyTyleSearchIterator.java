@@ -53,6 +53,7 @@ public class LazyTyleSearchIterator implements SearchIterator<AbstractNode> {
 
     private final Envelope bounds;
     private final double[] minRes;
+    private final SearchStatistics stats;
     private boolean closed;
 
     //the current path where we are, Integer is the current visited child node index.
@@ -63,10 +64,20 @@ public class LazyTyleSearchIterator implements SearchIterator<AbstractNode> {
     private boolean safe = false;
 
     public LazyTyleSearchIterator(final AbstractNode node, final Envelope bounds, final double[] minRes) {
+        this(node, bounds, minRes, null);
+    }
+
+    /**
+     * @param stats : counters updated with each visited node, can be null.
+     */
+    public LazyTyleSearchIterator(final AbstractNode node, final Envelope bounds, final double[] minRes,
+            final SearchStatistics stats) {
         this.bounds = bounds;
         this.minRes = minRes;
+        this.stats = stats;
         this.closed = false;
 
+        if(stats != null) stats.visit(node);
         final int relation = node.relation(bounds);
         if(relation != NONE){
             path.add(new Segment(node, -1, relation));
@@ -163,6 +174,8 @@ public class LazyTyleSearchIterator implements SearchIterator<AbstractNode> {
                 //prepare next node search
                 segment.childIndex++;
 
+                if(stats != null) stats.visit(child);
+
                 //check the node size
                 if(!child.isBigger(minRes)){
                     continue childLoop;
@@ -222,7 +235,12 @@ public class LazyTyleSearchIterator implements SearchIterator<AbstractNode> {
         private boolean safe = false;
 
         public Buffered(final AbstractNode node, final Envelope bounds, final double[] minRes, final DataReader reader, final int bufferSize){
-            this.ite = new LazyTyleSearchIterator(node, bounds, minRes);
+            this(node, bounds, minRes, reader, bufferSize, null);
+        }
+
+        public Buffered(final AbstractNode node, final Envelope bounds, final double[] minRes, final DataReader reader,
+                final int bufferSize, final SearchStatistics stats){
+            this.ite = new LazyTyleSearchIterator(node, bounds, minRes, stats);
             this.bufferSize = bufferSize;
             this.reader = reader;
             indices = new int[bufferSize];
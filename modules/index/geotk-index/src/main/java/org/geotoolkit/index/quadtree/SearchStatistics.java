@@ -0,0 +1,63 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2018, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+
+package org.geotoolkit.index.quadtree;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters of the work done by the search iterators of a single query :
+ * number of visited nodes and number of qix bytes those nodes occupy.
+ *
+ * @author Johann Sorel (Geomatys)
+ * @module
+ */
+public final class SearchStatistics {
+
+    private final AtomicLong nodesVisited = new AtomicLong();
+    private final AtomicLong bytesTouched = new AtomicLong();
+
+    /**
+     * Record a node visit.
+     *
+     * @param node visited node
+     */
+    public void visit(final AbstractNode node) {
+        nodesVisited.incrementAndGet();
+        bytesTouched.addAndGet(node.getRecordLength());
+    }
+
+    /**
+     * @return number of nodes tested against the query bounds.
+     */
+    public long getNodesVisited() {
+        return nodesVisited.get();
+    }
+
+    /**
+     * @return number of qix bytes of the visited nodes.
+     */
+    public long getBytesTouched() {
+        return bytesTouched.get();
+    }
+
+    @Override
+    public String toString() {
+        return "SearchStatistics[nodes=" + getNodesVisited() + ", bytes=" + getBytesTouched() + "]";
+    }
+
+}
@@ -23,14 +23,19 @@ import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.channels.FileChannel;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.logging.Level;
 
 import org.geotoolkit.index.quadtree.AbstractNode;
 import org.geotoolkit.index.quadtree.IndexStore;
 import org.geotoolkit.index.quadtree.QuadTree;
 import org.geotoolkit.index.quadtree.StoreException;
+import org.locationtech.jts.geom.Envelope;
 
 import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
 import static java.nio.file.StandardOpenOption.WRITE;
 import static org.geotoolkit.index.quadtree.fs.IndexHeader.*;
 
@@ -119,6 +124,198 @@ public class FileSystemIndexStore implements IndexStore {
         }
     }
 
+    /**
+     * Stores the quadtree of the source '.qix' file with additional records.
+     * <br>
+     * The stored tree is not loaded in memory : new records are inserted in a view
+     * of the stored nodes they reach, then the tree is written while reading the source
+     * file, sub trees which did not receive any record are copied without being decoded.
+     * The root bounds are expanded to contain the new records and the byte order
+     * of the source file is kept.
+     *
+     * @param source stored quadtree, must not be the file of this store
+     * @param firstRecord number of the first appended record
+     * @param bounds bounds of the appended records
+     */
+    public void append(final Path source, final int firstRecord, final List<Envelope> bounds) throws StoreException {
+        try (FileChannel in = FileChannel.open(source, READ)) {
+            final IndexHeader header = new IndexHeader(in);
+            final ByteOrder order = header.getByteOrder();
+            final ByteBuffer buf = ByteBuffer.allocate(8);
+            buf.order(order);
+            in.read(buf);
+            buf.flip();
+            final int numShapes = buf.getInt();
+            final int maxDepth = buf.getInt();
+
+            final StoredNode root = new StoredNode(readNode(in, order));
+            final Envelope rootBounds = root.getBounds(new Envelope());
+            for (Envelope env : bounds) {
+                rootBounds.expandToInclude(env);
+            }
+            root.setEnvelope(rootBounds.getMinX(), rootBounds.getMinY(), rootBounds.getMaxX(), rootBounds.getMaxY());
+
+            final QuadTree tree = new QuadTree(numShapes + bounds.size(), maxDepth);
+            tree.setRoot(root);
+            int recno = firstRecord;
+            for (Envelope env : bounds) {
+                tree.insert(recno++, env);
+            }
+
+            try (FileChannel out = FileChannel.open(file, CREATE, WRITE, TRUNCATE_EXISTING)) {
+                buf.clear();
+                if (header.getByteOrderValue() > NATIVE_ORDER) {
+                    header.writeTo(buf);
+                    buf.flip();
+                    out.write(buf);
+                    buf.clear();
+                }
+                buf.putInt(tree.getNumShapes());
+                buf.putInt(tree.getMaxDepth());
+                buf.flip();
+                out.write(buf);
+                trimCreated(root);
+                writeNode(root, in, out, order);
+            }
+        } catch (IOException e) {
+            throw new StoreException(e);
+        }
+    }
+
+    /**
+     * Writes a node of a tree being appended, unchanged sub nodes are copied from the source file.
+     */
+    private static void writeNode(final AbstractNode node, final FileChannel in, final FileChannel out,
+            final ByteOrder order) throws IOException, StoreException {
+        final StoredNode stored = (node instanceof StoredNode) ? (StoredNode) node : null;
+        final int numShapeIds = node.getNumShapeIds();
+        final int numSubNodes = node.getNumSubNodes();
+        final ByteBuffer buf = ByteBuffer.allocate(node.getRecordLength());
+        buf.order(order);
+        buf.putInt(getLength(node) - node.getRecordLength());
+        final double[] env = node.getEnvelope();
+        buf.putDouble(env[0]);
+        buf.putDouble(env[1]);
+        buf.putDouble(env[2]);
+        buf.putDouble(env[3]);
+        buf.putInt(numShapeIds);
+        for (int i=0; i<numShapeIds; i++) {
+            buf.putInt(node.getShapeId(i));
+        }
+        buf.putInt(numSubNodes);
+        buf.flip();
+        while (buf.hasRemaining()) {
+            out.write(buf);
+        }
+
+        if (stored != null && !stored.isExpanded()) {
+            //sub nodes did not change, copy them
+            long position = stored.source.getSubNodeStartByte();
+            long remaining = stored.source.getSubNodesLength();
+            while (remaining > 0) {
+                final long n = in.transferTo(position, remaining, out);
+                if (n <= 0) throw new IOException("Unexpected end of quadtree file.");
+                position += n;
+                remaining -= n;
+            }
+        } else {
+            for (int i=0; i<numSubNodes; i++) {
+                writeNode(node.getSubNode(i), in, out, order);
+            }
+        }
+    }
+
+    /**
+     * Remove empty sub nodes created by insertion in a tree being appended.
+     */
+    private static void trimCreated(final AbstractNode node) throws StoreException {
+        if (node instanceof StoredNode && ((StoredNode) node).isExpanded()) {
+            ((StoredNode) node).trimCreated();
+            for (int i=0, n=node.getNumSubNodes(); i<n; i++) {
+                trimCreated(node.getSubNode(i));
+            }
+        }
+    }
+
+    /**
+     * Calculates the number of bytes used by a node of a tree being appended, sub nodes included.
+     */
+    private static int getLength(final AbstractNode node) throws StoreException {
+        int length = node.getRecordLength();
+        if (node instanceof StoredNode && !((StoredNode) node).isExpanded()) {
+            length += ((StoredNode) node).source.getSubNodesLength();
+        } else {
+            for (int i=0, n=node.getNumSubNodes(); i<n; i++) {
+                length += getLength(node.getSubNode(i));
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Modifiable view of a stored node. Sub nodes are wrapped only when requested,
+     * sub nodes created by insertion are kept in memory.
+     */
+    private static final class StoredNode extends AbstractNode {
+
+        private final FileSystemNode source;
+        private AbstractNode[] subNodes;
+        private boolean created;
+
+        StoredNode(final FileSystemNode source) {
+            super(source.getBounds(new Envelope()));
+            this.source = source;
+            setShapesId(source.getShapesId());
+        }
+
+        /**
+         * @return true if sub nodes have been requested or created.
+         */
+        boolean isExpanded() {
+            return subNodes != null;
+        }
+
+        @Override
+        public int getNumSubNodes() {
+            return (subNodes != null) ? subNodes.length : source.getNumSubNodes();
+        }
+
+        @Override
+        public AbstractNode getSubNode(final int index) throws StoreException {
+            if (subNodes == null) {
+                subNodes = new AbstractNode[source.getNumSubNodes()];
+                for (int i=0; i<subNodes.length; i++) {
+                    subNodes[i] = new StoredNode((FileSystemNode) source.getSubNode(i));
+                }
+            }
+            return subNodes[index];
+        }
+
+        /**
+         * Only called by insertion on nodes without sub nodes.
+         */
+        @Override
+        public void setSubNodes(final AbstractNode... nodes) {
+            subNodes = nodes;
+            created = true;
+        }
+
+        /**
+         * Remove empty sub nodes created by insertion, as {@link QuadTree#trim()} would do.
+         */
+        void trimCreated() throws StoreException {
+            if (!created) return;
+            final QuadTree trimmer = new QuadTree(0, 1);
+            final List<AbstractNode> kept = new ArrayList<>(subNodes.length);
+            for (AbstractNode node : subNodes) {
+                trimmer.setRoot(node);
+                if (!trimmer.trim()) kept.add(node);
+            }
+            subNodes = kept.toArray(new AbstractNode[kept.size()]);
+            created = false;
+        }
+    }
+
     /**
      * Wites a tree node to the qix file
      *
@@ -180,8 +377,7 @@ public class FileSystemIndexStore implements IndexStore {
 
         for (int i=0,n=node.getNumSubNodes(); i<n; i++) {
             final AbstractNode tmp = node.getSubNode(i);
-            offset += (4 * 8); // Envelope size
-            offset += ((tmp.getNumShapeIds() + 3) * 4); // Entries size + 3
+            offset += tmp.getRecordLength();
             offset += this.getSubNodeOffset(tmp);
         }
 
@@ -214,6 +410,23 @@ public class FileSystemIndexStore implements IndexStore {
         return tree;
     }
 
+    /**
+     * Loads a quadtree stored in a '.qix' file as a memory mapped view.
+     * The resulting quadtree is immutable and can be shared between threads.
+     *
+     * @see MappedQuadTree
+     */
+    public MappedQuadTree loadMapped() throws StoreException {
+        try {
+            if (QuadTree.LOGGER.isLoggable(Level.FINEST)) {
+                QuadTree.LOGGER.log(Level.FINEST, "Mapping QuadTree {0}", this.file);
+            }
+            return MappedQuadTree.load(file);
+        } catch (IOException e) {
+            throw new StoreException(e);
+        }
+    }
+
     static FileSystemNode readNode(final FileChannel channel, final ByteOrder order) throws IOException {
         return readNode(new ScrollingBuffer(channel, order));
     }
@@ -0,0 +1,132 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2018, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.index.quadtree.fs;
+
+import java.nio.ByteBuffer;
+
+import org.geotoolkit.index.quadtree.AbstractNode;
+import org.geotoolkit.index.quadtree.StoreException;
+
+/**
+ * Immutable node view over a memory mapped qix file.
+ * Shape ids and sub nodes are decoded on first access and cached,
+ * all reads use absolute positions so the node can be shared between threads.
+ *
+ * @author Johann Sorel (Geomatys)
+ * @module
+ */
+public final class MappedNode extends AbstractNode {
+
+    // offset(4) + envelope(32) + nbIds(4)
+    private static final int IDS_OFFSET = 40;
+
+    private final ByteBuffer buffer;
+    private final int position;
+    private final int subNodesLength;
+    private final int numShapeIds;
+    private final int numSubNodes;
+
+    private volatile int[] shapesId;
+    private volatile MappedNode[] nodes;
+
+    MappedNode(final ByteBuffer buffer, final int position) {
+        super(buffer.getDouble(position + 4), buffer.getDouble(position + 12),
+              buffer.getDouble(position + 20), buffer.getDouble(position + 28));
+        this.buffer = buffer;
+        this.position = position;
+        this.subNodesLength = buffer.getInt(position);
+        this.numShapeIds = buffer.getInt(position + 36);
+        this.numSubNodes = buffer.getInt(position + IDS_OFFSET + numShapeIds * 4);
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public int getNumSubNodes() {
+        return numSubNodes;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public int getNumShapeIds() {
+        return numShapeIds;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public int getShapeId(final int pos) {
+        if (pos < 0 || pos >= numShapeIds) {
+            throw new ArrayIndexOutOfBoundsException(pos);
+        }
+        return buffer.getInt(position + IDS_OFFSET + pos * 4);
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public int[] getShapesId() {
+        int[] ids = shapesId;
+        if (ids == null) {
+            ids = new int[numShapeIds];
+            for (int i = 0, p = position + IDS_OFFSET; i < ids.length; i++, p += 4) {
+                ids[i] = buffer.getInt(p);
+            }
+            shapesId = ids;
+        }
+        return ids;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public AbstractNode getSubNode(final int index) throws StoreException {
+        MappedNode[] subNodes = nodes;
+        if (subNodes == null) {
+            subNodes = new MappedNode[numSubNodes];
+            int offset = position + getRecordLength();
+            for (int i = 0; i < subNodes.length; i++) {
+                subNodes[i] = new MappedNode(buffer, offset);
+                offset += subNodes[i].getRecordLength() + subNodes[i].subNodesLength;
+            }
+            nodes = subNodes;
+        }
+        return subNodes[index];
+    }
+
+    @Override
+    public void setShapesId(final int[] ids) {
+        throw new UnsupportedOperationException("Mapped quadtree nodes are immutable");
+    }
+
+    @Override
+    public void addShapeId(final int id) {
+        throw new UnsupportedOperationException("Mapped quadtree nodes are immutable");
+    }
+
+    @Override
+    public void setSubNodes(final AbstractNode ... nodes) {
+        throw new UnsupportedOperationException("Mapped quadtree nodes are immutable");
+    }
+
+}
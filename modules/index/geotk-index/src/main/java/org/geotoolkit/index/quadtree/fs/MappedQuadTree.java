@@ -0,0 +1,104 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2018, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.index.quadtree.fs;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+
+import org.geotoolkit.index.quadtree.QuadTree;
+import org.geotoolkit.index.quadtree.SearchIterator;
+import org.geotoolkit.index.quadtree.StoreException;
+import org.locationtech.jts.geom.Envelope;
+
+/**
+ * Immutable quadtree view over a memory mapped qix file.
+ * <br>
+ * Unlike {@link FileSystemQuadTree}, this tree holds no file handle nor
+ * scrolling buffer : the whole file is mapped once and nodes are decoded lazily
+ * from the mapping, then cached. A single instance can be shared by any number
+ * of concurrent searches, closing it has no effect since the mapping is
+ * released when the tree is garbage collected.
+ *
+ * @author Johann Sorel (Geomatys)
+ * @module
+ */
+public class MappedQuadTree extends QuadTree {
+
+    /**
+     * Maximum length of a qix file which can be mapped.
+     */
+    public static final long MAX_FILE_LENGTH = Integer.MAX_VALUE;
+
+    /**
+     * Map the given qix file.
+     *
+     * @throws IOException if file is longer than {@link #MAX_FILE_LENGTH} or can not be mapped.
+     */
+    public static MappedQuadTree load(final Path file) throws IOException, StoreException{
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > MAX_FILE_LENGTH) {
+                throw new IOException("File " + file + " is too large to be mapped : " + channel.size() + " bytes.");
+            }
+            final IndexHeader header = new IndexHeader(channel);
+            final int start = (int) channel.position();
+            final ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(header.getByteOrder());
+            return new MappedQuadTree(buffer, start);
+        }
+    }
+
+    private MappedQuadTree(final ByteBuffer buffer, final int start) {
+        super(buffer.getInt(start), buffer.getInt(start + 4));
+        setRoot(new MappedNode(buffer, start + 8));
+    }
+
+    @Override
+    public void insert(final int recno, final Envelope bounds) {
+        throw new UnsupportedOperationException("File quadtrees are immutable");
+    }
+
+    @Override
+    public boolean trim() {
+        return false;
+    }
+
+    /**
+     * Iterators are not tracked since the tree is shared and never really closed.
+     */
+    @Override
+    public void registerIterator(final Iterator object) {
+    }
+
+    @Override
+    public void close(final Iterator iter) throws StoreException {
+        if (iter instanceof SearchIterator){
+            ((SearchIterator) iter).close();
+        }
+    }
+
+    /**
+     * Does nothing, the tree is shared between searches.
+     */
+    @Override
+    public void close() throws StoreException {
+    }
+
+}
@@ -18,6 +18,9 @@ package org.geotoolkit.index.tree;
 
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.apache.sis.util.ArgumentChecks;
 import org.apache.sis.util.Classes;
 import org.opengis.geometry.Envelope;
@@ -26,6 +29,7 @@ import org.geotoolkit.internal.tree.TreeUtilities;
 import org.geotoolkit.internal.tree.CalculatorND;
 import org.geotoolkit.internal.tree.Calculator;
 import org.geotoolkit.internal.tree.TreeAccess;
+import org.geotoolkit.internal.tree.STRBulkLoader;
 import org.apache.sis.util.Utilities;
 import static org.geotoolkit.internal.tree.TreeUtilities.*;
 
@@ -78,6 +82,12 @@ public abstract class AbstractTree<E> implements Tree<E> {
      */
     private Node root;
 
+    /**
+     * Lock which allow several concurrent searches, while insertion, deletion
+     * and flush operations own an exclusive access on Tree architecture.
+     */
+    protected final ReadWriteLock rwLock = new ReentrantReadWriteLock();
+
     /**
      * Tree fundation implementation.
      *
@@ -102,17 +112,20 @@ public abstract class AbstractTree<E> implements Tree<E> {
      * {@inheritDoc}
      */
     @Override
-    public synchronized int[] searchID(final Envelope regionSearch) throws StoreIndexException {
+    public int[] searchID(final Envelope regionSearch) throws StoreIndexException {
         ArgumentChecks.ensureNonNull("Envelope regionSearch", regionSearch);
-        final Node root = getRoot();
-         final double[] regSearch = TreeUtilities.getCoords(regionSearch);
-        if (root != null && !root.isEmpty()) {
-            try {
+        final double[] regSearch = TreeUtilities.getCoords(regionSearch);
+        rwLock.readLock().lock();
+        try {
+            final Node root = getRoot();
+            if (root != null && !root.isEmpty()) {
                 return treeAccess.search(root.getNodeId(), regSearch);
-            } catch (IOException ex) {
-                throw new StoreIndexException(this.getClass().getName()+" impossible to find stored elements at "
-                        +Arrays.toString(regSearch)+" region search area.", ex);
             }
+        } catch (IOException ex) {
+            throw new StoreIndexException(this.getClass().getName()+" impossible to find stored elements at "
+                    +Arrays.toString(regSearch)+" region search area.", ex);
+        } finally {
+            rwLock.readLock().unlock();
         }
         return new int[0];
     }
@@ -127,11 +140,67 @@ public abstract class AbstractTree<E> implements Tree<E> {
         return new TreeIntegerIdentifierIterator(treeAccess, regSearch);
     }
 
+    /**
+     * Find the {@code k} stored elements nearest from the given position.<br/><br/>
+     *
+     * Distance is the minimum Euclidean distance between position and element boundaries,
+     * computed from tree {@link Calculator}. Search is a best-first travel, which only read
+     * Nodes nearer than the k-th nearest found element.
+     *
+     * @param position search position, may be a point or an area.
+     * @param k maximum number of returned elements.
+     * @return tree identifiers of nearest elements, ordered by increasing distance.
+     * @throws StoreIndexException if problem during Node reading.
+     */
+    public int[] searchNearest(final Envelope position, final int k) throws StoreIndexException {
+        ArgumentChecks.ensureNonNull("Envelope position", position);
+        ArgumentChecks.ensurePositive("k", k);
+        final double[] coords = TreeUtilities.getCoords(position);
+        rwLock.readLock().lock();
+        try {
+            final TreeIdentifierIterator iter = new TreeDistanceIdentifierIterator(treeAccess, calculator, getRoot(), coords, null);
+            final int[] result = new int[k];
+            int n = 0;
+            while (n < k && iter.hasNext()) {
+                result[n++] = iter.nextInt();
+            }
+            return (n == k) ? result : Arrays.copyOf(result, n);
+        } catch (IOException ex) {
+            throw new StoreIndexException(this.getClass().getName()+" impossible to find nearest stored elements from "
+                    +Arrays.toString(coords)+" position.", ex);
+        } finally {
+            rwLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns an iterator over all stored elements tree identifiers, ordered by increasing distance from given position.<br/><br/>
+     *
+     * Iteration is incremental : each step only read Nodes needed to find next nearest element,
+     * which allow to stop browsing as soon as enough elements have been found.
+     *
+     * @param position search position, may be a point or an area.
+     * @return tree identifiers ordered by increasing distance.
+     * @throws StoreIndexException if position contains NaN value.
+     * @see #searchNearest(org.opengis.geometry.Envelope, int)
+     */
+    public TreeIdentifierIterator searchByDistance(final Envelope position) throws StoreIndexException {
+        ArgumentChecks.ensureNonNull("Envelope position", position);
+        final double[] coords = TreeUtilities.getCoords(position);
+        rwLock.readLock().lock();
+        try {
+            return new TreeDistanceIdentifierIterator(treeAccess, calculator, getRoot(), coords, rwLock.readLock());
+        } finally {
+            rwLock.readLock().unlock();
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
-    public synchronized int insert(final E object) throws IllegalArgumentException , StoreIndexException{
+    public int insert(final E object) throws IllegalArgumentException , StoreIndexException{
+        rwLock.writeLock().lock();
         try {
             ArgumentChecks.ensureNonNull("insert : object", object);
             final Envelope env = treeEltMap.getEnvelope(object);
@@ -147,6 +216,8 @@ public abstract class AbstractTree<E> implements Tree<E> {
             return treeIdentifier - 1;
         } catch (IOException ex) {
             throw new StoreIndexException(ex);
+        } finally {
+            rwLock.writeLock().unlock();
         }
     }
 
@@ -173,6 +244,91 @@ public abstract class AbstractTree<E> implements Tree<E> {
         }
     }
 
+    /**
+     * Insert all given elements through Sort-Tile-Recursive packing.<br/>
+     * At most {@link STRBulkLoader#DEFAULT_MAX_IN_MEMORY} elements are sorted in memory at the same time.
+     *
+     * @param objects elements which will be inserted.
+     * @return inserted element number.
+     * @throws StoreIndexException if problem during elements sort or Node writing.
+     * @see #bulkLoad(java.util.Iterator, int)
+     */
+    public int bulkLoad(final Iterator<? extends E> objects) throws IllegalArgumentException, StoreIndexException {
+        return bulkLoad(objects, STRBulkLoader.DEFAULT_MAX_IN_MEMORY);
+    }
+
+    /**
+     * Insert all given elements through Sort-Tile-Recursive packing.<br/><br/>
+     *
+     * Elements are sorted by STR order, then all Nodes are built bottom-up and fully filled,
+     * which is faster than successive insertions and produce less overlaps between sibling Nodes.<br/>
+     * Elements which can not be sorted in memory are sorted through temporary files.
+     *
+     * <blockquote><font size=-1>
+     * <strong>NOTE: Packing is only possible on an empty Tree. If Tree already contains elements,
+     * they are inserted one by one, like {@link #insert(java.lang.Object) }.</strong>
+     * </font></blockquote>
+     *
+     * @param objects elements which will be inserted.
+     * @param maxInMemory maximum element number sorted in memory at the same time.
+     * @return inserted element number.
+     * @throws IllegalArgumentException if an element has not the same CRS as Tree or contains NaN coordinates.
+     * @throws StoreIndexException if problem during elements sort or Node writing.
+     */
+    public int bulkLoad(final Iterator<? extends E> objects, final int maxInMemory) throws IllegalArgumentException, StoreIndexException {
+        ArgumentChecks.ensureNonNull("bulkLoad : objects", objects);
+        rwLock.writeLock().lock();
+        try {
+            final Node currentRoot = getRoot();
+            if (currentRoot != null && !currentRoot.isEmpty()) {
+                int count = 0;
+                while (objects.hasNext()) {
+                    insert(objects.next());
+                    count++;
+                }
+                return count;
+            }
+            setRoot(null);
+            try (STRBulkLoader loader = new STRBulkLoader(crs.getCoordinateSystem().getDimension(), maxInMemory)) {
+                while (objects.hasNext()) {
+                    final E object = objects.next();
+                    ArgumentChecks.ensureNonNull("bulkLoad : object", object);
+                    final Envelope env = treeEltMap.getEnvelope(object);
+                    if (!Utilities.equalsIgnoreMetadata(crs, env.getCoordinateReferenceSystem()))
+                        throw new IllegalArgumentException("During insertion element should have same CoordinateReferenceSystem as Tree.");
+                    final double[] coordinates = TreeUtilities.getCoords(env);
+                    for (double d : coordinates)
+                        if (Double.isNaN(d))
+                            throw new IllegalArgumentException("coordinates contain at least one NAN value");
+                    treeEltMap.setTreeIdentifier(object, treeIdentifier);
+                    loader.add(treeIdentifier, coordinates);
+                    treeIdentifier++;
+                }
+                final Node newRoot = createPackedTree(loader);
+                eltCompteur = (int) loader.size();
+                setRoot(newRoot);
+                return eltCompteur;
+            }
+        } catch (IOException ex) {
+            throw new StoreIndexException(this.getClass().getName()+" Tree.bulkLoad(), impossible to pack elements.", ex);
+        } finally {
+            rwLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Build all Tree Nodes from elements stored within the given loader, and return the new root Node.<br/>
+     * Tree is empty and {@link TreeAccess} rewound when this method is called.
+     *
+     * @param loader loader which contains all tree identifiers and their boundaries.
+     * @return new root Node, or {@code null} if loader is empty.
+     * @throws IOException if problem during elements sort or Node writing.
+     * @throws StoreIndexException if problem during elements insertion.
+     */
+    protected Node createPackedTree(final STRBulkLoader loader) throws IOException, StoreIndexException {
+        return loader.pack(treeAccess, getMaxElements());
+    }
+
     /**
      * Insert data in the current {@link Node}.<br/><br/>
      *
@@ -426,7 +582,8 @@ public abstract class AbstractTree<E> implements Tree<E> {
      * {@inheritDoc }.
      */
     @Override
-    public synchronized boolean remove(final E object) throws StoreIndexException {
+    public boolean remove(final E object) throws StoreIndexException {
+        rwLock.writeLock().lock();
         try {
             ArgumentChecks.ensureNonNull("Object to remove", object);
             final Envelope env = treeEltMap.getEnvelope(object);
@@ -436,6 +593,8 @@ public abstract class AbstractTree<E> implements Tree<E> {
 
         } catch (IOException ex) {
             throw new StoreIndexException(ex);
+        } finally {
+            rwLock.writeLock().unlock();
         }
     }
 
@@ -447,7 +606,12 @@ public abstract class AbstractTree<E> implements Tree<E> {
             for (double d : coordinates)
                 if (Double.isNaN(d))
                     throw new IllegalArgumentException("coordinates contain at least one NAN value");
-            return remove(entry, coordinates);
+            rwLock.writeLock().lock();
+            try {
+                return remove(entry, coordinates);
+            } finally {
+                rwLock.writeLock().unlock();
+            }
     }
 
     /**
@@ -567,8 +731,13 @@ public abstract class AbstractTree<E> implements Tree<E> {
      * {@inheritDoc}
      */
     @Override
-    public synchronized void clear() throws StoreIndexException {
-        setRoot(null);
+    public void clear() throws StoreIndexException {
+        rwLock.writeLock().lock();
+        try {
+            setRoot(null);
+        } finally {
+            rwLock.writeLock().unlock();
+        }
     }
 
     /**
@@ -599,17 +768,23 @@ public abstract class AbstractTree<E> implements Tree<E> {
      */
     @Override
     public void close() throws IOException {
-        treeAccess.setTreeIdentifier(treeIdentifier);
-        treeAccess.setEltNumber(eltCompteur);
-        treeAccess.close();
-        treeEltMap.close();
+        rwLock.writeLock().lock();
+        try {
+            treeAccess.setTreeIdentifier(treeIdentifier);
+            treeAccess.setEltNumber(eltCompteur);
+            treeAccess.close();
+            treeEltMap.close();
+        } finally {
+            rwLock.writeLock().unlock();
+        }
     }
 
     /**
      * {@inheritDoc }.
      */
     @Override
-    public synchronized void flush() throws StoreIndexException {
+    public void flush() throws StoreIndexException {
+        rwLock.writeLock().lock();
         try {
             treeAccess.setTreeIdentifier(treeIdentifier);
             treeAccess.setEltNumber(eltCompteur);
@@ -617,6 +792,8 @@ public abstract class AbstractTree<E> implements Tree<E> {
             treeEltMap.flush();
         } catch (IOException ex) {
             throw new StoreIndexException("FileBasicRTree : close(). Impossible to close TreeAccessFile.", ex);
+        } finally {
+            rwLock.writeLock().unlock();
         }
     }
 
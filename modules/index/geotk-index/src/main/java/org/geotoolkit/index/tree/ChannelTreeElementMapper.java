@@ -22,6 +22,10 @@ import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.channels.FileChannel;
 import java.nio.channels.SeekableByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import org.apache.sis.util.ArgumentChecks;
 
 /**
@@ -235,6 +239,27 @@ public abstract class ChannelTreeElementMapper<E> implements TreeElementMapper<E
         return readObject();
     }
 
+    /**
+     * {@inheritDoc }
+     * Objects are read in increasing identifier order, in one pass over the channel.
+     */
+    @Override
+    public synchronized List<E> getObjectsFromTreeIdentifiers(int[] treeIdentifiers) throws IOException {
+        //sort identifiers keeping their position in the result
+        final long[] sorted = new long[treeIdentifiers.length];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = ((long) treeIdentifiers[i] << 32) | i;
+        }
+        Arrays.sort(sorted);
+
+        final List<E> objects = new ArrayList<>(Collections.nCopies(sorted.length, (E) null));
+        for (long key : sorted) {
+            adjustBuffer((int) (key >> 32));
+            objects.set((int) key, readObject());
+        }
+        return objects;
+    }
+
     /**
      * Put all attributes like just after constructor.
      */
@@ -0,0 +1,214 @@
+/*
+ *    Geotoolkit.org - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2018, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.index.tree;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.Lock;
+import org.apache.sis.util.ArgumentChecks;
+import org.apache.sis.util.ArraysExt;
+import org.apache.sis.util.collection.BackingStoreException;
+import org.geotoolkit.internal.tree.Calculator;
+import org.geotoolkit.internal.tree.TreeAccess;
+
+/**
+ * An Iterator which travel all tree identifiers ordered by increasing distance from a search position,
+ * from Tree architecture stored in a {@link TreeAccess } object.<br/><br/>
+ *
+ * Travel is a best-first search : a priority queue contains Nodes and data ordered by their minimum distance
+ * from search position, and a Node is only red when it is nearer than all not returned data.<br/>
+ * Each iteration only read Nodes needed to find next nearest data.
+ *
+ * @author Remi Marechal (Geomatys).
+ */
+class TreeDistanceIdentifierIterator implements TreeIdentifierIterator {
+
+    /**
+     * {@link TreeAccess} which contain all saved {@link Tree} {@link Node}.
+     */
+    private final TreeAccess tAF;
+
+    /**
+     * Object which compute distance between search position and Node boundaries.
+     */
+    private final Calculator calculator;
+
+    /**
+     * Boundary of search position.
+     */
+    private final double[] position;
+
+    /**
+     * Lock acquired during each Node reading, or {@code null}.
+     */
+    private final Lock lock;
+
+    /**
+     * Nodes and data not travelled yet, ordered by distance.
+     */
+    private final PriorityQueue<Candidate> queue;
+
+    /**
+     * Distance of last returned tree identifier.
+     */
+    private double distance = Double.NaN;
+
+    /**
+     * Create an Iterator to travel all treeIdentifier by increasing distance.
+     *
+     * @param tAF TreeAccess which contain all saved Node.
+     * @param calculator object which compute distances.
+     * @param root tree root Node, may be {@code null}.
+     * @param position boundary of search position.
+     * @param lock lock acquired during each Node reading, or {@code null}.
+     * @throws StoreIndexException if search position contains NaN value.
+     */
+    TreeDistanceIdentifierIterator(final TreeAccess tAF, final Calculator calculator, final Node root,
+            final double[] position, final Lock lock) throws StoreIndexException {
+        ArgumentChecks.ensureNonNull("TreeAccess tAF", tAF);
+        ArgumentChecks.ensureNonNull("position", position);
+        if (ArraysExt.hasNaN(position))
+            throw new StoreIndexException("position parameter should not contain NaN value. position : "+Arrays.toString(position));
+        this.tAF        = tAF;
+        this.calculator = calculator;
+        this.position   = position;
+        this.lock       = lock;
+        this.queue      = new PriorityQueue<Candidate>();
+        if (root != null && !root.isEmpty()) offer(root);
+    }
+
+    /**
+     * Add Node in queue, ordered by its distance from search position.
+     */
+    private void offer(final Node node) {
+        final double dist = calculator.getMinimumDistance(position, node.getBoundary());
+        queue.add(node.isData() ? new Candidate(-node.getChildId(), true, dist)
+                                : new Candidate(node.getNodeId(), false, dist));
+    }
+
+    /**
+     * Read Nodes in distance order until nearest not returned data is at queue head.
+     *
+     * @throws IOException if problem during Node reading from TreeAccess.
+     */
+    private void expand() throws IOException {
+        Candidate head;
+        while ((head = queue.peek()) != null && !head.isData) {
+            queue.poll();
+            final Node candidate = tAF.readNode(head.identifier);
+            int sibl = candidate.getChildId();
+            while (sibl != 0) {
+                final Node child = tAF.readNode(sibl);
+                if (!child.isEmpty()) offer(child);
+                sibl = child.getSiblingId();
+            }
+        }
+    }
+
+    /**
+     * Returns distance between search position and last returned tree identifier boundary.
+     *
+     * @return distance of last returned tree identifier, or {@code NaN} if there is none.
+     */
+    double distance() {
+        return distance;
+    }
+
+    /**
+     * {@inheritDoc }.
+     */
+    @Override
+    public int nextInt() throws IOException {
+        if (lock != null) lock.lock();
+        try {
+            expand();
+            final Candidate head = queue.poll();
+            if (head == null) throw new NoSuchElementException("No more tree identifier.");
+            distance = head.distance;
+            return head.identifier;
+        } finally {
+            if (lock != null) lock.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public boolean hasNext() {
+        return !queue.isEmpty();
+    }
+
+    /**
+     * {@inheritDoc }.
+     */
+    @Override
+    public Integer next() {
+        try {
+            return nextInt();
+        } catch (IOException ex) {
+            throw new BackingStoreException(ex);
+        }
+    }
+
+    /**
+     * {@inheritDoc }.
+     */
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("Not supported.");
+    }
+
+    /**
+     * A Node or a data waiting in queue.
+     */
+    private static final class Candidate implements Comparable<Candidate> {
+
+        /**
+         * Node identifier, or tree identifier if candidate is a data.
+         */
+        private final int identifier;
+
+        /**
+         * {@code true} if candidate is a data.
+         */
+        private final boolean isData;
+
+        /**
+         * Minimum distance from search position.
+         */
+        private final double distance;
+
+        private Candidate(final int identifier, final boolean isData, final double distance) {
+            this.identifier = identifier;
+            this.isData     = isData;
+            this.distance   = distance;
+        }
+
+        /**
+         * Order by distance, data first if distances are equals, to return them as soon as possible.
+         */
+        @Override
+        public int compareTo(final Candidate other) {
+            final int cmp = Double.compare(distance, other.distance);
+            if (cmp != 0) return cmp;
+            return Boolean.compare(other.isData, isData);
+        }
+    }
+}
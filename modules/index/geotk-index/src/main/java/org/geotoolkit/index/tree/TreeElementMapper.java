@@ -17,6 +17,8 @@
 package org.geotoolkit.index.tree;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import org.opengis.geometry.Envelope;
 
@@ -61,6 +63,22 @@ public interface TreeElementMapper<E> {
      */
     public E getObjectFromTreeIdentifier(int treeIdentifier) throws IOException;
 
+    /**
+     * <p>Return objects from their tree identifiers.<br/>
+     * Default implementation calls {@link #getObjectFromTreeIdentifier(int)} for each identifier,
+     * implementations should override it to fetch all objects at once.</p>
+     *
+     * @param treeIdentifiers
+     * @return objects in the same order as the identifiers, with null elements for unknown identifiers.
+     */
+    public default List<E> getObjectsFromTreeIdentifiers(int[] treeIdentifiers) throws IOException {
+        final List<E> objects = new ArrayList<>(treeIdentifiers.length);
+        for (int treeIdentifier : treeIdentifiers) {
+            objects.add(getObjectFromTreeIdentifier(treeIdentifier));
+        }
+        return objects;
+    }
+
     /**
      * Return the full map of object.
      * This method should be used carrefully with a large number of object.
@@ -18,6 +18,7 @@ package org.geotoolkit.index.tree;
 
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.List;
 import org.apache.sis.geometry.GeneralEnvelope;
 import org.apache.sis.util.ArgumentChecks;
 import org.geotoolkit.filter.SpatialFilterType;
@@ -54,115 +55,46 @@ public final class TreeX {
         if (!Utilities.equalsIgnoreMetadata(regionSearch.getCoordinateReferenceSystem(), tree.getCrs()))
             throw new IllegalArgumentException("TreeX search : the 2 CRS within tree and region search should be equals.");
         final TreeElementMapper tEM = tree.getTreeElementMapper();
-        TreeIdentifierIterator iterSearch = tree.search(regionSearch);
-        int tabResultLength = 100;
-        int[] tabResult = new int[tabResultLength];
+        final int[] candidates;
+        switch (logicFilter) {
+            case INTERSECTS : case BBOX : {
+                return tree.searchID(regionSearch);
+            }
+            case DISJOINT : {
+                final GeneralEnvelope treeExtends = new GeneralEnvelope(tree.getCrs());
+                treeExtends.setEnvelope(tree.getExtent());
+                candidates = tree.searchID(treeExtends);
+            } break;
+            case CONTAINS : case WITHIN : case TOUCHES : case EQUALS : case OVERLAPS : {
+                candidates = tree.searchID(regionSearch);
+            } break;
+            default : throw new IllegalStateException("not implemented yet");
+        }
+        final double[] region = getCoords(regionSearch);
+        final int[] tabResult = new int[candidates.length];
         int currentPosition = 0;
         try {
-            switch (logicFilter) {
-                case INTERSECTS : case BBOX : {
-                    return tree.searchID(regionSearch);
+            //-- candidate objects are fetched all at once, which is much faster with database mappers.
+            final List objects = tEM.getObjectsFromTreeIdentifiers(candidates);
+            for (int i = 0; i < candidates.length; i++) {
+                final Object object = objects.get(i);
+                if (object == null) continue;
+                final double[] env = getCoords(tEM.getEnvelope(object));
+                final boolean match;
+                switch (logicFilter) {
+                    case CONTAINS : match = contains(env, region, true); break;
+                    case DISJOINT : match = !intersects(env, region, true); break;
+                    case WITHIN   : match = contains(region, env, true); break;
+                    case TOUCHES  : match = touches(region, env); break;
+                    case EQUALS   : match = arrayEquals(env, region, 1E-9); break;
+                    case OVERLAPS : {
+                        match = intersects(region, env, false)
+                            && !contains(env, region, true)
+                            && !contains(region, env, true);
+                    } break;
+                    default : throw new IllegalStateException("not implemented yet");
                 }
-                case CONTAINS : {
-                    while (iterSearch.hasNext()) {
-                        final int currentTreeID = iterSearch.nextInt();
-                         final Envelope env = tEM.getEnvelope(tEM.getObjectFromTreeIdentifier(currentTreeID));
-                        if (contains(getCoords(env), getCoords(regionSearch), true)) {
-                            if (currentPosition == tabResultLength) {
-                                tabResultLength = tabResultLength << 1;
-                                final int[] tabTemp = tabResult;
-                                tabResult = new int[tabResultLength];
-                                System.arraycopy(tabTemp, 0, tabResult, 0, currentPosition);
-                            }
-                            tabResult[currentPosition++] = currentTreeID;
-                        }
-                    }
-                } break;
-                case DISJOINT : {
-                    final GeneralEnvelope treeExtends = new GeneralEnvelope(tree.getCrs());
-                    treeExtends.setEnvelope(tree.getExtent());
-                    final TreeIdentifierIterator allIter = tree.search(treeExtends);
-
-                    while (allIter.hasNext()) {
-                        final int currentTreeID = allIter.nextInt();
-                         final Envelope env = tEM.getEnvelope(tEM.getObjectFromTreeIdentifier(currentTreeID));
-                        if (!intersects(getCoords(env), getCoords(regionSearch), true)) {
-                            if (currentPosition == tabResultLength) {
-                                tabResultLength = tabResultLength << 1;
-                                final int[] tabTemp = tabResult;
-                                tabResult = new int[tabResultLength];
-                                System.arraycopy(tabTemp, 0, tabResult, 0, currentPosition);
-                            }
-                            tabResult[currentPosition++] = currentTreeID;
-                        }
-                    }
-                } break;
-                case WITHIN : {
-
-                    while (iterSearch.hasNext()) {
-                        final int currentTreeID = iterSearch.nextInt();
-                         final Envelope env = tEM.getEnvelope(tEM.getObjectFromTreeIdentifier(currentTreeID));
-                        if (contains(getCoords(regionSearch), getCoords(env), true)) {
-                            if (currentPosition == tabResultLength) {
-                                tabResultLength = tabResultLength << 1;
-                                final int[] tabTemp = tabResult;
-                                tabResult = new int[tabResultLength];
-                                System.arraycopy(tabTemp, 0, tabResult, 0, currentPosition);
-                            }
-                            tabResult[currentPosition++] = currentTreeID;
-                        }
-                    }
-                } break;
-                case TOUCHES : {
-                    while (iterSearch.hasNext()) {
-                        final int currentTreeID = iterSearch.nextInt();
-                         final Envelope env = tEM.getEnvelope(tEM.getObjectFromTreeIdentifier(currentTreeID));
-                        if (touches(getCoords(regionSearch), getCoords(env))) {
-                            if (currentPosition == tabResultLength) {
-                                tabResultLength = tabResultLength << 1;
-                                final int[] tabTemp = tabResult;
-                                tabResult = new int[tabResultLength];
-                                System.arraycopy(tabTemp, 0, tabResult, 0, currentPosition);
-                            }
-                            tabResult[currentPosition++] = currentTreeID;
-                        }
-                    }
-                } break;
-                case EQUALS : {
-                    while (iterSearch.hasNext()) {
-                        final int currentTreeID = iterSearch.nextInt();
-                         final Envelope env = tEM.getEnvelope(tEM.getObjectFromTreeIdentifier(currentTreeID));
-                        if (arrayEquals(getCoords(env), getCoords(regionSearch), 1E-9)) {
-                            if (currentPosition == tabResultLength) {
-                                tabResultLength = tabResultLength << 1;
-                                final int[] tabTemp = tabResult;
-                                tabResult = new int[tabResultLength];
-                                System.arraycopy(tabTemp, 0, tabResult, 0, currentPosition);
-                            }
-                            tabResult[currentPosition++] = currentTreeID;
-                        }
-                    }
-                } break;
-                case OVERLAPS : {
-
-                    while (iterSearch.hasNext()) {
-                        final int currentTreeID = iterSearch.nextInt();
-                         final Envelope envelop = tEM.getEnvelope(tEM.getObjectFromTreeIdentifier(currentTreeID));
-                         final double[] env = getCoords(envelop);
-                        if (intersects(getCoords(regionSearch), env, false)
-                        && !contains(env, getCoords(regionSearch), true)
-                        && !contains(getCoords(regionSearch), env, true)) {
-                            if (currentPosition == tabResultLength) {
-                                tabResultLength = tabResultLength << 1;
-                                final int[] tabTemp = tabResult;
-                                tabResult = new int[tabResultLength];
-                                System.arraycopy(tabTemp, 0, tabResult, 0, currentPosition);
-                            }
-                            tabResult[currentPosition++] = currentTreeID;
-                        }
-                    }
-                } break;
-                default : throw new IllegalStateException("not implemented yet");
+                if (match) tabResult[currentPosition++] = candidates[i];
             }
             return Arrays.copyOf(tabResult, currentPosition);
         } catch (IOException ex) {
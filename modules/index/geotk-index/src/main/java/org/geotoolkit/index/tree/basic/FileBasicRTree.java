@@ -116,4 +116,25 @@ public final class FileBasicRTree<E> extends BasicRTree<E> {
             final int byteBufferLength) throws IOException, StoreIndexException {
         super(new TreeAccessFile(input, TreeUtilities.BASIC_NUMBER, TreeUtilities.VERSION_NUMBER, byteBufferLength), treeEltMap);
     }
+
+    /**
+     * Open a {@link BasicRTree} implementation from an already filled file from {@link Path} location
+     * which contain {@link BasicRTree} architecture.<br><br>
+     *
+     * Note : if {@code memoryMapped} is {@code true}, tree file is mapped in memory and each Node is decoded in place,
+     * without copy and without file seek, which is the recommended mode for large read-mostly trees.
+     *
+     * @param input File already filled by old {@link BasicRTree} implementation.
+     * @param treeEltMap object which store tree identifier and data.
+     * @param memoryMapped {@code true} to access Node through memory mapping, else {@code false}.
+     * @throws IOException if problem during head reading from already filled file.
+     * @throws StoreIndexException if file isn't already filled by {@link BasicRTree} implementation.
+     * @see BasicRTree
+     * @see SplitCase
+     * @see TreeElementMapper
+     */
+    public FileBasicRTree(final Path input, final TreeElementMapper<E> treeEltMap,
+            final boolean memoryMapped) throws IOException, StoreIndexException {
+        super(new TreeAccessFile(input, TreeUtilities.BASIC_NUMBER, TreeUtilities.VERSION_NUMBER, memoryMapped), treeEltMap);
+    }
 }
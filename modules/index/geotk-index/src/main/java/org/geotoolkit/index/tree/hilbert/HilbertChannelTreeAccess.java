@@ -17,10 +17,12 @@
 package org.geotoolkit.index.tree.hilbert;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.channels.SeekableByteChannel;
 import org.apache.sis.util.ArraysExt;
 import org.geotoolkit.index.tree.Node;
 import org.geotoolkit.internal.tree.ChannelTreeAccess;
+import org.geotoolkit.internal.tree.SearchResult;
 import static org.geotoolkit.internal.tree.TreeUtilities.intersects;
 import org.opengis.referencing.crs.CoordinateReferenceSystem;
 
@@ -29,8 +31,8 @@ import org.opengis.referencing.crs.CoordinateReferenceSystem;
  * Store all {@link Node} architecture use by {@link Tree} into a {@link SeekableByteChannel}.
  *
  * @author Remi Marechal (Geomatys).
- * @see #internalSearch(int)
- * @see #readNode(int)
+ * @see #internalSearch(int, org.geotoolkit.internal.tree.SearchResult)
+ * @see #readNode(int, java.nio.ByteBuffer)
  * @see #writeNode(org.geotoolkit.index.tree.Node)
  */
 abstract strictfp class HilbertChannelTreeAccess extends ChannelTreeAccess {
@@ -85,33 +87,26 @@ abstract strictfp class HilbertChannelTreeAccess extends ChannelTreeAccess {
      * {@inheritDoc }.
      */
     @Override
-    public void internalSearch(int nodeID) throws IOException {
-        adjustBuffer(nodeID);
+    public void internalSearch(int nodeID, SearchResult result) throws IOException {
+        final ByteBuffer nodeBuffer = readNodeBuffer(nodeID, result);
         final double[] boundary = new double[boundLength];
         for (int i = 0; i < boundLength; i++) {
-            boundary[i] = byteBuffer.getDouble();
+            boundary[i] = nodeBuffer.getDouble();
         }
-        byteBuffer.position(byteBuffer.position() + 5);// step properties (1 byte) and step parent ID (int : 4 bytes)
-        final int sibling = byteBuffer.getInt();
-        final int child   = byteBuffer.getInt();
-        byteBuffer.position(byteBuffer.position() + 12);// step hilbertOrder, step child count and step dataCount
+        nodeBuffer.position(nodeBuffer.position() + 5);// step properties (1 byte) and step parent ID (int : 4 bytes)
+        final int sibling = nodeBuffer.getInt();
+        final int child   = nodeBuffer.getInt();
         if (sibling != 0) {
-            internalSearch(sibling);
+            internalSearch(sibling, result);
         }
         // trouver a ameliorer avec les valeurs de hilbert qui aide en cas de feuille
-        if (!ArraysExt.hasNaN(boundary) && intersects(boundary, regionSearch, true)) {
+        if (!ArraysExt.hasNaN(boundary) && intersects(boundary, result.getRegionSearch(), true)) {
             if (child > 0) {
-                internalSearch(child);
+                internalSearch(child, result);
             } else {
                 if (child == 0)
                     throw new IllegalStateException("child index should never be 0.");
-                if (currentPosition == currentLength) {
-                    currentLength = currentLength << 1;
-                    final int[] tabTemp = tabSearch;
-                    tabSearch = new int[currentLength];
-                    System.arraycopy(tabTemp, 0, tabSearch, 0, currentPosition);
-                }
-                tabSearch[currentPosition++] = -child;
+                result.add(-child);
             }
         }
     }
@@ -120,19 +115,18 @@ abstract strictfp class HilbertChannelTreeAccess extends ChannelTreeAccess {
      * {@inheritDoc }.
      */
     @Override
-    public synchronized Node readNode(final int indexNode) throws IOException {
-        adjustBuffer(indexNode);
+    protected Node readNode(final int indexNode, final ByteBuffer buffer) {
         final double[] boundary = new double[boundLength];
         for (int i = 0; i < boundLength; i++) {
-            boundary[i] = byteBuffer.getDouble();
+            boundary[i] = buffer.getDouble();
         }
-        final byte properties         = byteBuffer.get();
-        final int parentId            = byteBuffer.getInt();
-        final int siblingId           = byteBuffer.getInt();
-        final int childId             = byteBuffer.getInt();
-        final int currentHilbertOrder = byteBuffer.getInt();
-        final int childCount          = byteBuffer.getInt();
-        final int dataCount           = byteBuffer.getInt();
+        final byte properties         = buffer.get();
+        final int parentId            = buffer.getInt();
+        final int siblingId           = buffer.getInt();
+        final int childId             = buffer.getInt();
+        final int currentHilbertOrder = buffer.getInt();
+        final int childCount          = buffer.getInt();
+        final int dataCount           = buffer.getInt();
         final HilbertNode redNode = new HilbertNode(this, indexNode, boundary, properties, parentId, siblingId, childId);
         redNode.setCurrentHilbertOrder(currentHilbertOrder);
         redNode.setChildCount(childCount);
@@ -145,21 +139,20 @@ abstract strictfp class HilbertChannelTreeAccess extends ChannelTreeAccess {
      */
     @Override
     public synchronized void writeNode(final Node candidate) throws IOException {
-        final int indexNode    = candidate.getNodeId();
-        adjustBuffer(indexNode);
+        final int indexNode     = candidate.getNodeId();
+        final ByteBuffer buffer = nodeBuffer(indexNode, true);
         double[] candidateBound = candidate.getBoundary();
         if (candidateBound == null) candidateBound = nanBound;
         for (int i = 0; i < boundLength; i++) {
-            byteBuffer.putDouble(candidateBound[i]);
+            buffer.putDouble(candidateBound[i]);
         }
-        byteBuffer.put(candidate.getProperties());
-        byteBuffer.putInt(candidate.getParentId());
-        byteBuffer.putInt(candidate.getSiblingId());
-        byteBuffer.putInt(candidate.getChildId());
-        byteBuffer.putInt(((HilbertNode)candidate).getCurrentHilbertOrder());
-        byteBuffer.putInt(candidate.getChildCount());
-        byteBuffer.putInt(((HilbertNode)candidate).getDataCount());
-         writeBufferLimit = Math.max(writeBufferLimit, byteBuffer.limit());
+        buffer.put(candidate.getProperties());
+        buffer.putInt(candidate.getParentId());
+        buffer.putInt(candidate.getSiblingId());
+        buffer.putInt(candidate.getChildId());
+        buffer.putInt(((HilbertNode)candidate).getCurrentHilbertOrder());
+        buffer.putInt(candidate.getChildCount());
+        buffer.putInt(((HilbertNode)candidate).getDataCount());
     }
 
     /**
@@ -24,6 +24,7 @@ import org.geotoolkit.index.tree.AbstractTree;
 import static org.geotoolkit.internal.tree.TreeUtilities.*;
 import org.geotoolkit.index.tree.Node;
 import org.geotoolkit.internal.tree.TreeAccess;
+import org.geotoolkit.internal.tree.STRBulkLoader;
 import org.geotoolkit.index.tree.StoreIndexException;
 import org.geotoolkit.index.tree.TreeElementMapper;
 
@@ -224,6 +225,21 @@ public strictfp class HilbertRTree<E> extends AbstractTree<E> {
         return (subCandidateParent != null && fileCandidate.getParentId() == 0) ? fileCandidate : null;
     }
 
+    /**
+     * {@inheritDoc }.<br/><br/>
+     * Note : in this implementation, leaf Nodes store their data within Hilbert cells which can not be packed.
+     * Elements are inserted one by one, in STR order, which keep spatially near elements within same leaf.
+     */
+    @Override
+    protected Node createPackedTree(final STRBulkLoader loader) throws IOException, StoreIndexException {
+        try (STRBulkLoader.EntryReader reader = loader.sort(getMaxElements())) {
+            while (reader.next()) {
+                insert(reader.identifier(), reader.boundary());
+            }
+        }
+        return getRoot();
+    }
+
     /**
      * Condense R-Tree.
      *
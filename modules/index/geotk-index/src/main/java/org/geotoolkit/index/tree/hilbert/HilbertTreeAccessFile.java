@@ -59,6 +59,22 @@ final class HilbertTreeAccessFile extends HilbertChannelTreeAccess {
                 StandardOpenOption.WRITE), magicNumber, versionNumber, byteBufferLength);
     }
 
+    /**
+     * Build a {@link Tree} from a already filled file at {@link Path} location,
+     * where all {@link Node} are red and written through memory mapping.
+     *
+     * @param input {@code File} which already contains {@link Node} architecture.
+     * @param magicNumber {@code Integer} single {@link Tree} code.
+     * @param versionNumber tree version.
+     * @param memoryMapped {@code true} to access Node through memory mapping, else {@code false}.
+     * @throws IOException if problem during read or write Node.
+     * @throws ClassNotFoundException if there is a problem during {@link CoordinateReferenceSystem} invert serialization.
+     */
+    HilbertTreeAccessFile(final Path input, final int magicNumber, final double versionNumber, final boolean memoryMapped) throws IOException, ClassNotFoundException {
+        this(input, magicNumber, versionNumber, DEFAULT_BUFFER_LENGTH);
+        if (memoryMapped) mapChannel();
+    }
+
     /**
      * Build and insert {@link Node} architecture in a file at {@link Path} location.<br/>
      * If file is not empty, data within it will be overwrite.<br/>
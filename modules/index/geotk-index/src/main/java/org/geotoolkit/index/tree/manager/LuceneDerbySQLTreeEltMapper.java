@@ -26,7 +26,9 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -54,6 +56,11 @@ public class LuceneDerbySQLTreeEltMapper implements TreeElementMapper<NamedEnvel
 
     private final DataSource source;
 
+    /**
+     * Maximum number of identifiers in a single query.
+     */
+    private static final int BATCH_SIZE = 500;
+
     private Connection conRO;
     private Connection conT;
 
@@ -258,6 +265,68 @@ public class LuceneDerbySQLTreeEltMapper implements TreeElementMapper<NamedEnvel
         return result;
     }
 
+    /**
+     * {@inheritDoc }
+     * Envelopes are fetched by batches of {@link #BATCH_SIZE} identifiers.
+     */
+    @Override
+    public List<NamedEnvelope> getObjectsFromTreeIdentifiers(final int[] treeIdentifiers) throws IOException {
+        final Map<Integer, NamedEnvelope> envelopes = new HashMap<>();
+        final int tail = treeIdentifiers.length % BATCH_SIZE;
+        final int full = treeIdentifiers.length - tail;
+        try {
+            if (full > 0) {
+                try (PreparedStatement stmt = conRO.prepareStatement(selectByIdentifiers(BATCH_SIZE))) {
+                    for (int start = 0; start < full; start += BATCH_SIZE) {
+                        readEnvelopes(stmt, treeIdentifiers, start, BATCH_SIZE, envelopes);
+                    }
+                }
+            }
+            if (tail > 0) {
+                try (PreparedStatement stmt = conRO.prepareStatement(selectByIdentifiers(tail))) {
+                    readEnvelopes(stmt, treeIdentifiers, full, tail, envelopes);
+                }
+            }
+        } catch (SQLException ex) {
+            throw new IOException("Error while getting envelopes", ex);
+        }
+        final List<NamedEnvelope> result = new ArrayList<>(treeIdentifiers.length);
+        for (int treeIdentifier : treeIdentifiers) {
+            result.add(envelopes.get(treeIdentifier));
+        }
+        return result;
+    }
+
+    /**
+     * Build the query selecting the records of {@code size} tree identifiers.
+     */
+    private static String selectByIdentifiers(final int size) {
+        final StringBuilder sql = new StringBuilder("SELECT * FROM \"treemap\".\"records\" WHERE \"id\" IN (?");
+        for (int i = 1; i < size; i++) {
+            sql.append(",?");
+        }
+        return sql.append(')').toString();
+    }
+
+    /**
+     * Execute the given query for {@code size} tree identifiers starting at {@code start}
+     * and put the envelopes found in the map.
+     */
+    private void readEnvelopes(final PreparedStatement stmt, final int[] treeIdentifiers, final int start,
+            final int size, final Map<Integer, NamedEnvelope> envelopes) throws SQLException {
+        for (int i = 0; i < size; i++) {
+            stmt.setInt(i + 1, treeIdentifiers[start + i]);
+        }
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                final NamedEnvelope env = new NamedEnvelope(crs, rs.getString("identifier"), rs.getInt("nbenv"));
+                env.setRange(0, rs.getDouble("minx"), rs.getDouble("maxx"));
+                env.setRange(1, rs.getDouble("miny"), rs.getDouble("maxy"));
+                envelopes.put(rs.getInt("id"), env);
+            }
+        }
+    }
+
     @Override
     public Map<Integer, NamedEnvelope> getFullMap() throws IOException {
         Map<Integer, NamedEnvelope> result = new HashMap<>();
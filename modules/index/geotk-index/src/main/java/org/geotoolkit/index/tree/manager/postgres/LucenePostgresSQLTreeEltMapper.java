@@ -40,7 +40,9 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -289,6 +291,37 @@ public class LucenePostgresSQLTreeEltMapper implements TreeElementMapper<NamedEn
         return result;
     }
 
+    /**
+     * {@inheritDoc }
+     * Envelopes are fetched in a single query.
+     */
+    @Override
+    public List<NamedEnvelope> getObjectsFromTreeIdentifiers(final int[] treeIdentifiers) throws IOException {
+        final Map<Integer, NamedEnvelope> envelopes = new HashMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT * FROM \"" + schemaName + "\".\"records\" WHERE \"id\" = ANY(?)")) {
+            final Integer[] ids = new Integer[treeIdentifiers.length];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = treeIdentifiers[i];
+            }
+            stmt.setArray(1, conn.createArrayOf("integer", ids));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    final NamedEnvelope env = new NamedEnvelope(crs, rs.getString("identifier"), rs.getInt("nbenv"));
+                    env.setRange(0, rs.getDouble("minx"), rs.getDouble("maxx"));
+                    env.setRange(1, rs.getDouble("miny"), rs.getDouble("maxy"));
+                    envelopes.put(rs.getInt("id"), env);
+                }
+            }
+        } catch (SQLException ex) {
+            throw new IOException("Error while getting envelopes", ex);
+        }
+        final List<NamedEnvelope> result = new ArrayList<>(treeIdentifiers.length);
+        for (int treeIdentifier : treeIdentifiers) {
+            result.add(envelopes.get(treeIdentifier));
+        }
+        return result;
+    }
+
     @Override
     public Map<Integer, NamedEnvelope> getFullMap() throws IOException {
         Map<Integer, NamedEnvelope> result = new HashMap<>();
@@ -104,4 +104,22 @@ public class FileStarRTree<E> extends StarRTree<E> {
     public FileStarRTree(final Path input, final TreeElementMapper<E> treeEltMap, final int byteBufferLength) throws IOException, StoreIndexException {
         super(new TreeAccessFile(input, TreeUtilities.STAR_NUMBER, TreeUtilities.VERSION_NUMBER), treeEltMap);
     }
+
+    /**
+     * Open a {@link StarRTree} implementation from an already filled file which contain {@link StarRTree} architecture.<br><br>
+     *
+     * Note : if {@code memoryMapped} is {@code true}, tree file is mapped in memory and each Node is decoded in place,
+     * without copy and without file seek, which is the recommended mode for large read-mostly trees.
+     *
+     * @param input File already filled by old {@link StarRTree} implementation.
+     * @param treeEltMap object which store tree identifier and data.
+     * @param memoryMapped {@code true} to access Node through memory mapping, else {@code false}.
+     * @throws IOException if problem during head reading from already filled file.
+     * @throws StoreIndexException if file isn't already filled by {@link StarRTree} implementation.
+     * @see StarRTree
+     * @see TreeElementMapper
+     */
+    public FileStarRTree(final Path input, final TreeElementMapper<E> treeEltMap, final boolean memoryMapped) throws IOException, StoreIndexException {
+        super(new TreeAccessFile(input, TreeUtilities.STAR_NUMBER, TreeUtilities.VERSION_NUMBER, memoryMapped), treeEltMap);
+    }
 }
@@ -58,6 +58,14 @@ public class CalculatorND extends Calculator {
         return getDistanceBetween2Positions(positionA, positionB);
     }
 
+    /**
+     * {@inheritDoc }.
+     */
+    @Override
+    public double getMinimumDistance(double[] envelopeA, double[] envelopeB) {
+        return TreeUtilities.getMinimumDistance(envelopeA, envelopeB);
+    }
+
     /**
      * {@inheritDoc }.
      */
@@ -21,7 +21,9 @@ import java.io.IOException;
 import java.io.ObjectOutputStream;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.Channel;
+import java.nio.channels.FileChannel;
 import java.nio.channels.SeekableByteChannel;
 import java.util.Arrays;
 import org.apache.sis.referencing.CRS;
@@ -82,6 +84,29 @@ public abstract strictfp class ChannelTreeAccess extends TreeAccess {
      */
     protected SeekableByteChannel inOutChannel;
 
+    /**
+     * Maximum length in Byte unit of a memory mapped segment.
+     */
+    private static final int MAX_SEGMENT_LENGTH = 1 << 30;
+
+    /**
+     * Node number added to the last memory mapped segment each time it should grow.
+     */
+    private static final int SEGMENT_GROWTH = 4096;
+
+    /**
+     * Node number stored within each full memory mapped segment.
+     */
+    private int nodesPerSegment;
+
+    /**
+     * Memory mapped segments of the Node area of the file,
+     * or {@code null} if Nodes are red and written through {@link #byteBuffer}.
+     *
+     * @see #mapChannel()
+     */
+    private volatile MappedByteBuffer[] mappedSegments;
+
     //------------------------- Reading mode -----------------------------------
     /**
      * Build a {@link Tree} from a already filled {@link Channel}, in other words, open in reading mode.<br/><br/>
@@ -327,6 +352,123 @@ public abstract strictfp class ChannelTreeAccess extends TreeAccess {
         root = null;
     }
 
+    /**
+     * Switch this {@link TreeAccess} in memory mapping mode.<br/><br/>
+     *
+     * From now all Node are decoded and encoded in place, directly into the mapped file area,
+     * without any copy into {@link #byteBuffer} and without channel seek.<br/>
+     * Mapping grow with the tree, by segments of at most 1 GB, so file larger than 2 GB are supported.
+     *
+     * @throws IOException if channel is not a {@link FileChannel} or if problem during mapping.
+     */
+    protected final synchronized void mapChannel() throws IOException {
+        if (!(inOutChannel instanceof FileChannel))
+            throw new IOException("Memory mapping is only available on file channel. Found : "+inOutChannel.getClass().getName());
+        writePendingBuffer();
+        nodesPerSegment = MAX_SEGMENT_LENGTH / nodeSize;
+        final long nodeNumber    = Math.max(0, (inOutChannel.size() - beginPosition) / nodeSize);
+        final int segmentNumber  = (int) ((nodeNumber + nodesPerSegment - 1) / nodesPerSegment);
+        final MappedByteBuffer[] segments = new MappedByteBuffer[segmentNumber];
+        for (int s = 0; s < segmentNumber; s++) {
+            final long remaining = nodeNumber - ((long) s) * nodesPerSegment;
+            segments[s] = mapSegment(s, (int) Math.min(nodesPerSegment, remaining) * nodeSize);
+        }
+        mappedSegments = segments;
+    }
+
+    /**
+     * Return {@code true} if Nodes are accessed through memory mapping.
+     *
+     * @return {@code true} if Nodes are accessed through memory mapping.
+     * @see #mapChannel()
+     */
+    public boolean isMemoryMapped() {
+        return mappedSegments != null;
+    }
+
+    /**
+     * Map in memory the segment at specified index.
+     *
+     * @param segment segment index.
+     * @param length mapped length in Byte unit.
+     * @return mapped segment.
+     * @throws IOException if problem during mapping.
+     */
+    private MappedByteBuffer mapSegment(final int segment, final int length) throws IOException {
+        final long position = beginPosition + ((long) segment) * nodesPerSegment * nodeSize;
+        return ((FileChannel) inOutChannel).map(FileChannel.MapMode.READ_WRITE, position, length);
+    }
+
+    /**
+     * Extend memory mapping until Node stored at specified offset, in specified segment, is mapped.
+     *
+     * @param segment segment index which should contain Node.
+     * @param requiredLength minimum length of segment.
+     * @return all mapped segments.
+     * @throws IOException if problem during mapping.
+     */
+    private synchronized MappedByteBuffer[] growSegments(final int segment, final int requiredLength) throws IOException {
+        MappedByteBuffer[] segments = mappedSegments;
+        final int segmentLength = nodesPerSegment * nodeSize;
+        if (segment >= segments.length) {
+            final int oldLength = segments.length;
+            segments = Arrays.copyOf(segments, segment + 1);
+            //-- all segments before the last one should be complete.
+            for (int s = Math.max(0, oldLength - 1); s < segment; s++) {
+                segments[s] = mapSegment(s, segmentLength);
+            }
+        }
+        final int currentLength = (segments[segment] == null) ? 0 : segments[segment].capacity();
+        if (currentLength < requiredLength) {
+            final int length = Math.min(segmentLength, Math.max(requiredLength, currentLength + SEGMENT_GROWTH * nodeSize));
+            segments[segment] = mapSegment(segment, length);
+        }
+        mappedSegments = segments;
+        return segments;
+    }
+
+    /**
+     * Returns a view over the memory mapped segment, positioned at the beginning of the Node at specified identifier,
+     * and limited at its end.<br/>
+     * Each call returns its own view, thereby position and limit of the shared segments are never moved
+     * and several threads may decode Nodes at the same time.<br/>
+     * If the Node is out of current mapping, mapping grow.
+     *
+     * @param segments current mapped segments.
+     * @param nodeID Node identifier.
+     * @return view over the mapped segment which contains Node.
+     * @throws IOException if problem during mapping.
+     */
+    private ByteBuffer mappedNode(MappedByteBuffer[] segments, final int nodeID) throws IOException {
+        final int index   = nodeID - 1;
+        final int segment = index / nodesPerSegment;
+        final int offset  = (index % nodesPerSegment) * nodeSize;
+        if (segment >= segments.length || offset + nodeSize > segments[segment].capacity()) {
+            segments = growSegments(segment, offset + nodeSize);
+        }
+        final ByteBuffer buffer = segments[segment].duplicate();
+        buffer.limit(offset + nodeSize);
+        buffer.position(offset);
+        return buffer;
+    }
+
+    /**
+     * Returns a buffer positioned at the beginning of the Node at specified identifier,
+     * which may be used to read or write it.
+     *
+     * @param nodeID Node identifier.
+     * @param write {@code true} if Node will be written.
+     * @return buffer which contains Node.
+     * @throws IOException if problem during channel reading or writing.
+     */
+    protected ByteBuffer nodeBuffer(final int nodeID, final boolean write) throws IOException {
+        final MappedByteBuffer[] segments = mappedSegments;
+        if (segments != null) return mappedNode(segments, nodeID);
+        adjustBuffer(nodeID);
+        if (write) writeBufferLimit = Math.max(writeBufferLimit, byteBuffer.limit());
+        return byteBuffer;
+    }
+
     /**
      * Adjust buffer position relative to filechanel which contain data,
      * and prepare bytebuffer position and limit for reading or writing action.
@@ -367,53 +509,149 @@ public abstract strictfp class ChannelTreeAccess extends TreeAccess {
 
     /**
      * {@inheritDoc }
+     * <br>
+     * Before searching, bytes not yet written from the read / write {@link ByteBuffer} are pushed into channel,
+     * then each searching thread read Node from channel through its own buffer.
      */
     @Override
-    public void internalSearch(int nodeID) throws IOException {
-        adjustBuffer(nodeID);
+    public int[] search(int nodeID, double[] regionSearch) throws IOException {
+        writePendingBuffer();
+        return super.search(nodeID, regionSearch);
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void internalSearch(int nodeID, SearchResult result) throws IOException {
+        final ByteBuffer nodeBuffer = readNodeBuffer(nodeID, result);
         final double[] boundary = new double[boundLength];
         for (int i = 0; i < boundLength; i++) {
-            boundary[i] = byteBuffer.getDouble();
+            boundary[i] = nodeBuffer.getDouble();
         }
-        byteBuffer.position(byteBuffer.position() + 5);// step properties (1 byte) and step parent ID (int  : 4 byte)
-        final int sibling = byteBuffer.getInt();
-        final int child   = byteBuffer.getInt();
-        byteBuffer.position(byteBuffer.position() + 4);// step child count
+        nodeBuffer.position(nodeBuffer.position() + 5);// step properties (1 byte) and step parent ID (int  : 4 byte)
+        final int sibling = nodeBuffer.getInt();
+        final int child   = nodeBuffer.getInt();
         if (sibling != 0) {
-            internalSearch(sibling);
+            internalSearch(sibling, result);
         }
-        if (intersects(boundary, regionSearch, true)) {
+        if (intersects(boundary, result.regionSearch, true)) {
             if (child > 0) {
-                internalSearch(child);
+                internalSearch(child, result);
             } else {
                 if (child == 0)
                     throw new IllegalStateException("child index should never be 0.");
-                if (currentPosition == currentLength) {
-                    currentLength = currentLength << 1;
-                    final int[] tabTemp = tabSearch;
-                    tabSearch = new int[currentLength];
-                    System.arraycopy(tabTemp, 0, tabSearch, 0, currentPosition);
+                result.add(-child);
+            }
+        }
+    }
+
+    /**
+     * Read all bytes of the Node at specified identifier into the {@link ByteBuffer} owned by the given search.<br/><br/>
+     *
+     * Contrary to {@link #adjustBuffer(int) } this method doesn't modify channel position
+     * when channel is a {@link FileChannel}, thereby several searches may read at the same time.<br/>
+     * In memory mapping mode, returned buffer is a view over the mapped file, without any copy.
+     *
+     * @param nodeID identifier of the Node to read.
+     * @param result current search which own reading buffer.
+     * @return buffer positioned at the beginning of the Node.
+     * @throws IOException if problem during channel reading.
+     */
+    protected final ByteBuffer readNodeBuffer(final int nodeID, final SearchResult result) throws IOException {
+        final MappedByteBuffer[] segments = mappedSegments;
+        if (segments != null) {
+            final int index   = nodeID - 1;
+            final int segment = index / nodesPerSegment;
+            final int offset  = (index % nodesPerSegment) * nodeSize;
+            if (segment >= segments.length || offset + nodeSize > segments[segment].capacity())
+                throw new IllegalStateException("Node "+nodeID+" is out of tree file.");
+            ByteBuffer view = result.nodeBuffer;
+            if (view == null || result.nodeSegment != segment) {
+                view = segments[segment].duplicate();
+                result.nodeBuffer  = view;
+                result.nodeSegment = segment;
+            }
+            view.limit(offset + nodeSize);
+            view.position(offset);
+            return view;
+        }
+        ByteBuffer nodeBuffer = result.nodeBuffer;
+        if (nodeBuffer == null) {
+            nodeBuffer = ByteBuffer.allocate(nodeSize);
+            result.nodeBuffer = nodeBuffer;
+        }
+        nodeBuffer.clear();
+        final long nodePosition = beginPosition + ((long) (nodeID - 1)) * nodeSize;
+        if (inOutChannel instanceof FileChannel) {
+            final FileChannel fileChannel = (FileChannel) inOutChannel;
+            while (nodeBuffer.hasRemaining()) {
+                if (fileChannel.read(nodeBuffer, nodePosition + nodeBuffer.position()) < 0) break;
+            }
+        } else {
+            synchronized (this) {
+                inOutChannel.position(nodePosition);
+                while (nodeBuffer.hasRemaining()) {
+                    if (inOutChannel.read(nodeBuffer) < 0) break;
                 }
-                tabSearch[currentPosition++] = -child;
+                inOutChannel.position(currentBufferPosition);
             }
         }
+        nodeBuffer.flip();
+        return nodeBuffer;
+    }
+
+    /**
+     * Write into channel all bytes modified within read / write {@link ByteBuffer} since last writing,
+     * without moving buffer window.
+     *
+     * @throws IOException if problem during channel writing.
+     */
+    protected synchronized void writePendingBuffer() throws IOException {
+        if (writeBufferLimit == 0) return;
+        byteBuffer.position(0);
+        byteBuffer.limit(writeBufferLimit);
+        inOutChannel.position(currentBufferPosition);
+        int writtenByte = 0;
+        while (writtenByte < writeBufferLimit) {
+            writtenByte += inOutChannel.write(byteBuffer);
+        }
+        inOutChannel.position(currentBufferPosition);
+        writeBufferLimit = 0;
     }
 
     /**
      * {@inheritDoc }
+     * <br>
+     * In memory mapping mode Nodes are decoded without any lock, each reader working on its own view
+     * over the mapped file, else reading is serialized on the shared read / write {@link ByteBuffer}.
      */
     @Override
     public Node readNode(int indexNode) throws IOException {
-        adjustBuffer(indexNode);
+        final MappedByteBuffer[] segments = mappedSegments;
+        if (segments != null) return readNode(indexNode, mappedNode(segments, indexNode));
+        synchronized (this) {
+            return readNode(indexNode, nodeBuffer(indexNode, false));
+        }
+    }
+
+    /**
+     * Decode the Node at specified identifier from given buffer.
+     *
+     * @param indexNode Node identifier.
+     * @param buffer buffer positioned at the beginning of the Node.
+     * @return decoded Node.
+     */
+    protected Node readNode(final int indexNode, final ByteBuffer buffer) {
         final double[] boundary = new double[boundLength];
         for (int i = 0; i < boundLength; i++) {
-            boundary[i] = byteBuffer.getDouble();
+            boundary[i] = buffer.getDouble();
         }
-        final byte properties  = byteBuffer.get();
-        final int parentId     = byteBuffer.getInt();
-        final int siblingId    = byteBuffer.getInt();
-        final int childId      = byteBuffer.getInt();
-        final int childCount   = byteBuffer.getInt();
+        final byte properties  = buffer.get();
+        final int parentId     = buffer.getInt();
+        final int siblingId    = buffer.getInt();
+        final int childId      = buffer.getInt();
+        final int childCount   = buffer.getInt();
         final Node redNode = new Node(this, indexNode, boundary, properties, parentId, siblingId, childId);
         redNode.setChildCount(childCount);
         return redNode;
@@ -423,20 +661,19 @@ public abstract strictfp class ChannelTreeAccess extends TreeAccess {
      * {@inheritDoc }
      */
     @Override
-    public void writeNode(Node candidate) throws IOException {
-        final int indexNode    = candidate.getNodeId();
-        adjustBuffer(indexNode);
-        writeBufferLimit = Math.max(writeBufferLimit, byteBuffer.limit());
+    public synchronized void writeNode(Node candidate) throws IOException {
+        final int indexNode     = candidate.getNodeId();
+        final ByteBuffer buffer = nodeBuffer(indexNode, true);
         double[] candidateBound = candidate.getBoundary();
         if (candidateBound == null) candidateBound = nanBound;
         for (int i = 0; i < boundLength; i++) {
-            byteBuffer.putDouble(candidateBound[i]);
+            buffer.putDouble(candidateBound[i]);
         }
-        byteBuffer.put(candidate.getProperties());
-        byteBuffer.putInt(candidate.getParentId());
-        byteBuffer.putInt(candidate.getSiblingId());
-        byteBuffer.putInt(candidate.getChildId());
-        byteBuffer.putInt(candidate.getChildCount());
+        buffer.put(candidate.getProperties());
+        buffer.putInt(candidate.getParentId());
+        buffer.putInt(candidate.getSiblingId());
+        buffer.putInt(candidate.getChildId());
+        buffer.putInt(candidate.getChildCount());
     }
 
     /**
@@ -478,8 +715,23 @@ public abstract strictfp class ChannelTreeAccess extends TreeAccess {
      * When you call this method the {@link #flush() } method is internaly invoked.
      */
     @Override
-    public void close() throws IOException {
+    public synchronized void close() throws IOException {
         flush();
+        final MappedByteBuffer[] segments = mappedSegments;
+        if (segments != null) {
+            mappedSegments = null;
+            //-- remove the zero filled Nodes mapped in advance when mapping grew.
+            final FileChannel fileChannel = (FileChannel) inOutChannel;
+            final long end = beginPosition + ((long) (nodeId - 1)) * nodeSize;
+            if (fileChannel.size() > end) {
+                try {
+                    fileChannel.truncate(end);
+                } catch (IOException ex) {
+                    //-- some platforms refuse to truncate a file still mapped,
+                    //-- trailing Nodes are then left in file, they are never red.
+                }
+            }
+        }
         //close
         inOutChannel.close();
     }
@@ -488,7 +740,11 @@ public abstract strictfp class ChannelTreeAccess extends TreeAccess {
      * {@inheritDoc }
      */
     @Override
-    public void flush() throws IOException {
+    public synchronized void flush() throws IOException {
+        final MappedByteBuffer[] segments = mappedSegments;
+        if (segments != null) {
+            for (MappedByteBuffer segment : segments) segment.force();
+        }
 
         byteBuffer.position(0);
         byteBuffer.limit(writeBufferLimit);
@@ -0,0 +1,554 @@
+/*
+ *    Geotoolkit.org - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2018, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.internal.tree;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import org.apache.sis.util.ArgumentChecks;
+import org.geotoolkit.index.tree.Node;
+import static org.geotoolkit.internal.tree.TreeUtilities.*;
+
+/**
+ * Sort-Tile-Recursive (STR) packing of a {@link Tree} from a set of (tree identifier, boundary) entries.<br/><br/>
+ *
+ * All entries are first written into a temporary file, then sorted by STR order through an external merge sort,
+ * in which at most {@code maxInMemory} entries are kept in memory at the same time.<br/>
+ * Tree is then build bottom-up, each level being fully filled and sorted again by STR order before
+ * building the next one, and all {@link Node} are written in sequence through {@link TreeAccess}.
+ *
+ * <blockquote><font size=-1>
+ * <strong>NOTE: Packed tree own less overlaps between sibling Nodes than a tree built by successive insertions.</strong>
+ * </font></blockquote>
+ *
+ * @author Remi Marechal (Geomatys).
+ */
+public final class STRBulkLoader implements Closeable {
+
+    /**
+     * Default maximum entry number sorted in memory at the same time.
+     */
+    public static final int DEFAULT_MAX_IN_MEMORY = 1 << 20;
+
+    /**
+     * Space dimension of entries boundaries.
+     */
+    private final int dimension;
+
+    /**
+     * Boundary table length of each entry.
+     */
+    private final int boundLength;
+
+    /**
+     * Maximum entry number sorted in memory at the same time.
+     */
+    private final int maxInMemory;
+
+    /**
+     * Temporary file which contains all added entries.
+     */
+    private final Path entryFile;
+
+    /**
+     * Stream where added entries are written.
+     */
+    private DataOutputStream entryOutput;
+
+    /**
+     * Added entry number.
+     */
+    private long size;
+
+    /**
+     * All temporary files which may still exist.
+     */
+    private final List<Path> temporaryFiles = new ArrayList<Path>();
+
+    /**
+     * Create a loader for entries in a space of given dimension.
+     *
+     * @param dimension space dimension of entries boundaries.
+     * @param maxInMemory maximum entry number sorted in memory at the same time.
+     * @throws IOException if problem during temporary file creation.
+     */
+    public STRBulkLoader(final int dimension, final int maxInMemory) throws IOException {
+        ArgumentChecks.ensureStrictlyPositive("dimension", dimension);
+        ArgumentChecks.ensureBetween("maxInMemory", 2, Integer.MAX_VALUE, maxInMemory);
+        this.dimension   = dimension;
+        this.boundLength = dimension << 1;
+        this.maxInMemory = maxInMemory;
+        this.entryFile   = createTemporaryFile();
+        this.entryOutput = openOutput(entryFile);
+    }
+
+    /**
+     * Add an entry which will be packed.
+     *
+     * @param identifier tree identifier of the data.
+     * @param boundary data boundary.
+     * @throws IOException if problem during temporary file writing.
+     */
+    public void add(final int identifier, final double[] boundary) throws IOException {
+        assert boundary.length == boundLength : "entry boundary should have same dimension as loader.";
+        entryOutput.writeInt(identifier);
+        for (int i = 0; i < boundLength; i++) entryOutput.writeDouble(boundary[i]);
+        size++;
+    }
+
+    /**
+     * Return added entry number.
+     *
+     * @return added entry number.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Return a reader on all added entries, ordered by STR order computed for leaves of {@code maxElements} entries.
+     *
+     * @param maxElements maximum element number per Node.
+     * @return reader on all added entries in STR order.
+     * @throws IOException if problem during sort.
+     */
+    public EntryReader sort(final int maxElements) throws IOException {
+        finishInput();
+        final Path sorted = createTemporaryFile();
+        try (DataOutputStream out = openOutput(sorted)) {
+            strSort(entryFile, size, 0, maxElements, out);
+        }
+        return new EntryReader(sorted);
+    }
+
+    /**
+     * Build all tree {@link Node} bottom-up from added entries and write them through {@link TreeAccess}.<br/>
+     * {@link TreeAccess} should be empty, in other words just rewound, because tree root Node
+     * should own identifier 1.
+     *
+     * @param treeAccess where Nodes are created and written.
+     * @param maxElements maximum element number per Node.
+     * @return tree root Node, or {@code null} if no entry has been added.
+     * @throws IOException if problem during sort or Node writing.
+     */
+    public Node pack(final TreeAccess treeAccess, final int maxElements) throws IOException {
+        ArgumentChecks.ensureBetween("maxElements", 2, Integer.MAX_VALUE, maxElements);
+        if (size == 0) {
+            finishInput();
+            return null;
+        }
+        //-- root Node should be the first created Node.
+        final Node root = treeAccess.createNode(null, IS_LEAF, 0, 0, 0);
+        assert root.getNodeId() == 1 : "root Node identifier should be 1.";
+
+        //-------------------------- leaves level ------------------------------
+        long levelSize;
+        Path levelFile = createTemporaryFile();
+        try (EntryReader reader = sort(maxElements);
+             DataOutputStream levelOut = openOutput(levelFile)) {
+            if (size <= maxElements) {
+                while (reader.next()) {
+                    addData(treeAccess, root, reader.identifier(), reader.boundary());
+                }
+                treeAccess.writeNode(root);
+                deleteTemporaryFile(levelFile);
+                return root;
+            }
+            levelSize = 0;
+            while (reader.next()) {
+                final Node leaf = treeAccess.createNode(null, IS_LEAF, 0, 0, 0);
+                int count = 0;
+                do {
+                    addData(treeAccess, leaf, reader.identifier(), reader.boundary());
+                } while (++count < maxElements && reader.next());
+                treeAccess.writeNode(leaf);
+                writeEntry(levelOut, leaf.getNodeId(), leaf.getBoundary());
+                levelSize++;
+            }
+        }
+
+        //-------------------------- upper levels ------------------------------
+        while (levelSize > maxElements) {
+            final Path nextFile = createTemporaryFile();
+            long nextSize = 0;
+            try (EntryReader reader = sortLevel(levelFile, levelSize, maxElements);
+                 DataOutputStream nextOut = openOutput(nextFile)) {
+                while (reader.next()) {
+                    final Node parent = treeAccess.createNode(null, IS_OTHER, 0, 0, 0);
+                    int count = 0;
+                    do {
+                        addChild(treeAccess, parent, reader.identifier());
+                    } while (++count < maxElements && reader.next());
+                    treeAccess.writeNode(parent);
+                    writeEntry(nextOut, parent.getNodeId(), parent.getBoundary());
+                    nextSize++;
+                }
+            }
+            deleteTemporaryFile(levelFile);
+            levelFile = nextFile;
+            levelSize = nextSize;
+        }
+
+        //------------------------------ root ----------------------------------
+        root.setProperties(IS_OTHER);
+        try (EntryReader reader = new EntryReader(levelFile)) {
+            while (reader.next()) {
+                addChild(treeAccess, root, reader.identifier());
+            }
+        }
+        treeAccess.writeNode(root);
+        return root;
+    }
+
+    /**
+     * Create and write a data Node as child of the given leaf.<br/>
+     * Leaf is not written.
+     */
+    private static void addData(final TreeAccess treeAccess, final Node leaf, final int identifier, final double[] boundary) throws IOException {
+        final Node data = treeAccess.createNode(boundary, IS_DATA, leaf.getNodeId(), leaf.getChildId(), -identifier);
+        treeAccess.writeNode(data);
+        linkChild(leaf, data);
+    }
+
+    /**
+     * Read the already written Node at given identifier, and write it again as child of the given parent.<br/>
+     * Parent is not written.
+     */
+    private static void addChild(final TreeAccess treeAccess, final Node parent, final int childId) throws IOException {
+        final Node child = treeAccess.readNode(childId);
+        child.setParentId(parent.getNodeId());
+        child.setSiblingId(parent.getChildId());
+        treeAccess.writeNode(child);
+        linkChild(parent, child);
+    }
+
+    /**
+     * Update parent first child, children number and boundary after child addition.
+     */
+    private static void linkChild(final Node parent, final Node child) {
+        final int childCount = parent.isEmpty() ? 0 : parent.getChildCount();
+        parent.setChildId(child.getNodeId());
+        parent.setChildCount(childCount + 1);
+        final double[] bound = parent.getBoundary();
+        if (bound == null) {
+            parent.setBoundary(child.getBoundary().clone());
+        } else {
+            add(bound, child.getBoundary());
+        }
+    }
+
+    /**
+     * Sort entries of a tree level by STR order.
+     */
+    private EntryReader sortLevel(final Path levelFile, final long levelSize, final int maxElements) throws IOException {
+        final Path sorted = createTemporaryFile();
+        try (DataOutputStream out = openOutput(sorted)) {
+            strSort(levelFile, levelSize, 0, maxElements, out);
+        }
+        return new EntryReader(sorted);
+    }
+
+    /**
+     * Sort entries contained in {@code input} file by STR order from ordinate {@code ordinate}, and write result.<br/>
+     * Entries are sorted by their center along current ordinate, then cut in slabs which are
+     * recursively sorted along next ordinates.
+     *
+     * @param input file which contains entries to sort.
+     * @param count entry number within input file.
+     * @param ordinate first sorted ordinate.
+     * @param maxElements maximum element number per Node.
+     * @param out where sorted entries are written.
+     */
+    private void strSort(final Path input, final long count, final int ordinate,
+            final int maxElements, final DataOutputStream out) throws IOException {
+        if (count <= maxInMemory) {
+            final Entry[] entries = new Entry[(int) count];
+            try (EntryReader reader = new EntryReader(input, false)) {
+                for (int i = 0; i < entries.length && reader.next(); i++) {
+                    entries[i] = new Entry(reader.identifier(), reader.boundary());
+                }
+            }
+            strSort(entries, 0, entries.length, ordinate, maxElements);
+            for (Entry entry : entries) writeEntry(out, entry.identifier, entry.boundary);
+            return;
+        }
+        final Path sorted = externalSort(input, count, ordinate);
+        try (EntryReader reader = new EntryReader(sorted)) {
+            if (ordinate == dimension - 1) {
+                while (reader.next()) writeEntry(out, reader.identifier(), reader.boundary());
+                return;
+            }
+            final long slabSize = slabSize(count, ordinate, maxElements);
+            long remaining = count;
+            while (remaining > 0) {
+                final long slabCount = Math.min(slabSize, remaining);
+                final Path slab = createTemporaryFile();
+                try (DataOutputStream slabOut = openOutput(slab)) {
+                    for (long i = 0; i < slabCount && reader.next(); i++) {
+                        writeEntry(slabOut, reader.identifier(), reader.boundary());
+                    }
+                }
+                strSort(slab, slabCount, ordinate + 1, maxElements, out);
+                deleteTemporaryFile(slab);
+                remaining -= slabCount;
+            }
+        }
+    }
+
+    /**
+     * In memory version of {@link #strSort(java.nio.file.Path, long, int, int, java.io.DataOutputStream) }.
+     */
+    private void strSort(final Entry[] entries, final int from, final int to, final int ordinate, final int maxElements) {
+        Arrays.sort(entries, from, to, comparator(ordinate));
+        if (ordinate == dimension - 1) return;
+        final long slabSize = slabSize(to - from, ordinate, maxElements);
+        for (int s = from; s < to; s += slabSize) {
+            strSort(entries, s, (int) Math.min(to, s + slabSize), ordinate + 1, maxElements);
+        }
+    }
+
+    /**
+     * Return entry number within each slab cut along the given ordinate.
+     *
+     * @param count entry number to cut.
+     * @param ordinate current ordinate.
+     * @param maxElements maximum element number per Node.
+     * @return entry number per slab.
+     */
+    private long slabSize(final long count, final int ordinate, final int maxElements) {
+        final long nodeNumber = (count + maxElements - 1) / maxElements;
+        final long slabNumber = (long) Math.ceil(Math.pow(nodeNumber, 1.0 / (dimension - ordinate)));
+        return maxElements * ((nodeNumber + slabNumber - 1) / slabNumber);
+    }
+
+    /**
+     * Sort entries contained in {@code input} file by their center along given ordinate.<br/>
+     * Sorted runs of at most {@link #maxInMemory} entries are written in temporary files,
+     * then merged together.
+     *
+     * @return temporary file which contains sorted entries.
+     */
+    private Path externalSort(final Path input, final long count, final int ordinate) throws IOException {
+        final Comparator<Entry> comparator = comparator(ordinate);
+        final List<Path> runs = new ArrayList<Path>();
+        try (EntryReader reader = new EntryReader(input, false)) {
+            final Entry[] buffer = new Entry[(int) Math.min(count, maxInMemory)];
+            int length;
+            do {
+                length = 0;
+                while (length < buffer.length && reader.next()) {
+                    buffer[length++] = new Entry(reader.identifier(), reader.boundary());
+                }
+                if (length > 0) {
+                    Arrays.sort(buffer, 0, length, comparator);
+                    final Path run = createTemporaryFile();
+                    try (DataOutputStream runOut = openOutput(run)) {
+                        for (int i = 0; i < length; i++) writeEntry(runOut, buffer[i].identifier, buffer[i].boundary);
+                    }
+                    runs.add(run);
+                }
+            } while (length == buffer.length);
+        }
+
+        //-- k-way merge
+        final Path sorted = createTemporaryFile();
+        final PriorityQueue<RunCursor> queue = new PriorityQueue<RunCursor>(Math.max(1, runs.size()),
+                (RunCursor r1, RunCursor r2) -> comparator.compare(r1.current, r2.current));
+        try (DataOutputStream out = openOutput(sorted)) {
+            for (Path run : runs) {
+                final RunCursor cursor = new RunCursor(new EntryReader(run));
+                if (cursor.next()) queue.add(cursor);
+                else cursor.reader.close();
+            }
+            RunCursor cursor;
+            while ((cursor = queue.poll()) != null) {
+                writeEntry(out, cursor.current.identifier, cursor.current.boundary);
+                if (cursor.next()) queue.add(cursor);
+                else cursor.reader.close();
+            }
+        } finally {
+            for (RunCursor cursor : queue) cursor.reader.close();
+            for (Path run : runs) deleteTemporaryFile(run);
+        }
+        return sorted;
+    }
+
+    /**
+     * Return a comparator on entry center along the given ordinate.
+     */
+    private Comparator<Entry> comparator(final int ordinate) {
+        final int max = ordinate + dimension;
+        return (Entry e1, Entry e2) -> Double.compare(e1.boundary[ordinate] + e1.boundary[max],
+                                                      e2.boundary[ordinate] + e2.boundary[max]);
+    }
+
+    /**
+     * Close stream of added entries.
+     */
+    private void finishInput() throws IOException {
+        if (entryOutput != null) {
+            entryOutput.close();
+            entryOutput = null;
+        }
+    }
+
+    private Path createTemporaryFile() throws IOException {
+        final Path file = Files.createTempFile("strtree", ".tmp");
+        temporaryFiles.add(file);
+        return file;
+    }
+
+    private void deleteTemporaryFile(final Path file) throws IOException {
+        temporaryFiles.remove(file);
+        Files.deleteIfExists(file);
+    }
+
+    private static DataOutputStream openOutput(final Path file) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+    }
+
+    private static void writeEntry(final DataOutputStream out, final int identifier, final double[] boundary) throws IOException {
+        out.writeInt(identifier);
+        for (double d : boundary) out.writeDouble(d);
+    }
+
+    /**
+     * Delete all temporary files.
+     *
+     * @throws IOException if problem during stream closing or file deletion.
+     */
+    @Override
+    public void close() throws IOException {
+        finishInput();
+        for (Path file : temporaryFiles) Files.deleteIfExists(file);
+        temporaryFiles.clear();
+    }
+
+    /**
+     * An entry hold in memory during sort.
+     */
+    private static final class Entry {
+        private final int identifier;
+        private final double[] boundary;
+
+        private Entry(final int identifier, final double[] boundary) {
+            this.identifier = identifier;
+            this.boundary   = boundary;
+        }
+    }
+
+    /**
+     * Current entry of a sorted run during merge.
+     */
+    private static final class RunCursor {
+        private final EntryReader reader;
+        private Entry current;
+
+        private RunCursor(final EntryReader reader) {
+            this.reader = reader;
+        }
+
+        private boolean next() throws IOException {
+            if (!reader.next()) return false;
+            current = new Entry(reader.identifier(), reader.boundary());
+            return true;
+        }
+    }
+
+    /**
+     * Sequential reader over entries stored in a file.
+     */
+    public final class EntryReader implements Closeable {
+
+        /**
+         * Read file.
+         */
+        private final Path file;
+
+        /**
+         * {@code true} if file should be deleted at close.
+         */
+        private final boolean deleteOnClose;
+
+        private final DataInputStream input;
+        private int identifier;
+        private double[] boundary;
+
+        private EntryReader(final Path file) throws IOException {
+            this(file, true);
+        }
+
+        private EntryReader(final Path file, final boolean deleteOnClose) throws IOException {
+            this.file          = file;
+            this.deleteOnClose = deleteOnClose;
+            this.input         = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)));
+        }
+
+        /**
+         * Move to next entry.
+         *
+         * @return {@code false} if there is no more entry.
+         * @throws IOException if problem during file reading.
+         */
+        public boolean next() throws IOException {
+            try {
+                identifier = input.readInt();
+            } catch (EOFException ex) {
+                return false;
+            }
+            boundary = new double[boundLength];
+            for (int i = 0; i < boundLength; i++) boundary[i] = input.readDouble();
+            return true;
+        }
+
+        /**
+         * @return tree identifier of current entry.
+         */
+        public int identifier() {
+            return identifier;
+        }
+
+        /**
+         * @return boundary of current entry.
+         */
+        public double[] boundary() {
+            return boundary;
+        }
+
+        /**
+         * Close stream and delete temporary file if needed.
+         *
+         * @throws IOException if problem during stream closing.
+         */
+        @Override
+        public void close() throws IOException {
+            input.close();
+            if (deleteOnClose) deleteTemporaryFile(file);
+        }
+    }
+}
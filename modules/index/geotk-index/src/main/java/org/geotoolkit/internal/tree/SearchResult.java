@@ -0,0 +1,98 @@
+/*
+ *    Geotoolkit.org - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2018, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.internal.tree;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * State of one search travel through a {@link TreeAccess}.<br/><br/>
+ *
+ * Each call to {@link TreeAccess#search(int, double[]) } owns its own instance,
+ * which allow several threads to search within the same Tree at the same time.
+ *
+ * @author Remi Marechal (Geomatys).
+ */
+public final class SearchResult {
+
+    /**
+     * Boundary of search region.
+     */
+    final double[] regionSearch;
+
+    /**
+     * Table which contain all search result tree identifier.
+     */
+    private int[] tabSearch;
+
+    /**
+     * Number of valid values within {@link #tabSearch}.
+     */
+    private int currentPosition;
+
+    /**
+     * {@link ByteBuffer} owned by this search, used by {@link ChannelTreeAccess}
+     * implementations to decode Node without sharing their read / write buffer.
+     */
+    ByteBuffer nodeBuffer;
+
+    /**
+     * Index of the memory mapped segment viewed by {@link #nodeBuffer},
+     * or -1 if buffer is not a view over a mapped segment.
+     */
+    int nodeSegment = -1;
+
+    /**
+     * Create a new empty search result.
+     *
+     * @param regionSearch boundary of search region.
+     */
+    SearchResult(final double[] regionSearch) {
+        this.regionSearch = regionSearch;
+        this.tabSearch    = new int[100];
+    }
+
+    /**
+     * Returns boundary of search region.
+     *
+     * @return boundary of search region.
+     */
+    public double[] getRegionSearch() {
+        return regionSearch;
+    }
+
+    /**
+     * Add a tree identifier in search result.
+     *
+     * @param treeIdentifier found tree identifier.
+     */
+    public void add(final int treeIdentifier) {
+        if (currentPosition == tabSearch.length) {
+            tabSearch = Arrays.copyOf(tabSearch, currentPosition << 1);
+        }
+        tabSearch[currentPosition++] = treeIdentifier;
+    }
+
+    /**
+     * Returns all found tree identifiers.
+     *
+     * @return all found tree identifiers.
+     */
+    int[] toArray() {
+        return Arrays.copyOf(tabSearch, currentPosition);
+    }
+}
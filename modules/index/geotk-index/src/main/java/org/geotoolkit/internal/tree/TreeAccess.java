@@ -18,7 +18,6 @@ package org.geotoolkit.internal.tree;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import org.geotoolkit.index.tree.AbstractTree;
@@ -67,22 +66,6 @@ public abstract class TreeAccess {
      */
     protected int nodeId = 1;
 
-    /**
-     * Table which contain all search result Node identifier.
-     */
-    protected int[] tabSearch;
-
-    /**
-     * Search table attributs.
-     */
-    protected int currentLength;
-    protected int currentPosition;
-
-    /**
-     * boundary of search region.
-     */
-    protected double[] regionSearch;
-
     /**
      * Store treeIdentifier when user call close method from tree.
      *
@@ -134,29 +117,31 @@ public abstract class TreeAccess {
     }
 
     /**
-     * Find all value stored in Tree which intersect region search.
+     * Find all value stored in Tree which intersect region search.<br/><br/>
+     *
+     * Search state is owned by each call, so several threads may search at the same time,
+     * as long as no other thread modify Tree architecture in the meantime.
      *
      * @param nodeID Node identifier where search begin. Generaly begin at node identifier.
      * @param regionSearch boundary of search region.
      * @return integer table which contain all value stored in Tree which intersect region search.
      * @throws IOException if read or write Exception in {@link TreeAccessFile} implementation.
      */
-    public synchronized int[] search(int nodeID, double[] regionSearch) throws IOException {
-        currentLength     = 100;
-        tabSearch         = new int[currentLength];
-        currentPosition   = 0;
-        this.regionSearch = regionSearch;
-        internalSearch(nodeID);
-        return Arrays.copyOf(tabSearch, currentPosition);
+    public int[] search(int nodeID, double[] regionSearch) throws IOException {
+        final SearchResult result = new SearchResult(regionSearch);
+        internalSearch(nodeID, result);
+        return result.toArray();
     }
 
     /**
-     * Search method adapted for implementation.
+     * Search method adapted for implementation.<br/>
+     * Implementations should not modify any shared state during this travel.
      *
      * @param nodeID current Node identifier search
+     * @param result search region and found values of the current search.
      * @throws IOException if read or write Exception in {@link TreeAccessFile} implementation.
      */
-    public abstract void internalSearch(int nodeID) throws IOException;
+    public abstract void internalSearch(int nodeID, SearchResult result) throws IOException;
 
     /**
      * Read Node at specified Node identifier.
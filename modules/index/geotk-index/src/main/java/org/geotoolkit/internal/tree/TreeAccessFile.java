@@ -81,6 +81,23 @@ public class TreeAccessFile extends ChannelTreeAccess {
         this(input, magicNumber, versionNumber, DEFAULT_BUFFER_LENGTH, INT_NUMBER);
     }
 
+    /**
+     * Build a {@link Tree} from an already filled file at {@link Path} location.<br><br>
+     *
+     * Note : if {@code memoryMapped} is {@code true}, all {@link Node} are red and written in place
+     * through memory mapping, see {@link #mapChannel() }.
+     *
+     * @param input {@code File} which already contains {@link Node} architecture.
+     * @param magicNumber {@code Integer} single {@link Tree} code.
+     * @param versionNumber tree version.
+     * @param memoryMapped {@code true} to access Node through memory mapping, else {@code false}.
+     * @throws IOException if problem during read or write Node.
+     */
+    public TreeAccessFile(final Path input, final int magicNumber, final double versionNumber, final boolean memoryMapped) throws IOException {
+        this(input, magicNumber, versionNumber, DEFAULT_BUFFER_LENGTH, INT_NUMBER);
+        if (memoryMapped) mapChannel();
+    }
+
     /**
      * Build a {@link TreeAccess} from an already filled file at {@link Path} location.
      *
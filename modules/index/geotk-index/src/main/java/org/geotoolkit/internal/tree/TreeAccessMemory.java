@@ -61,25 +61,22 @@ public class TreeAccessMemory extends TreeAccess {
 
     /**
      * {@inheritDoc }.
+     *
+     * <blockquote><font size=-1>
+     * <strong>NOTE: Node table is red without lock, caller should protect this travel from concurrent writing.</strong>
+     * </font></blockquote>
      */
     @Override
-    public void internalSearch(int nodeID) throws IOException {
-        final Node candidate = readNode(nodeID);
-        if (!candidate.isEmpty() && intersects(regionSearch, candidate.getBoundary(), true)) {
+    public void internalSearch(int nodeID, SearchResult result) throws IOException {
+        final Node candidate = tabNode[nodeID-1];
+        if (!candidate.isEmpty() && intersects(result.regionSearch, candidate.getBoundary(), true)) {
             if (candidate.isData()) {
-                if (currentPosition == currentLength) {
-                    currentLength = currentLength << 1;
-                    final int[] tabTemp = tabSearch;
-                    tabSearch = new int[currentLength];
-                    System.arraycopy(tabTemp, 0, tabSearch, 0, currentPosition);
-                }
-                tabSearch[currentPosition++] = -candidate.getChildId();// childID is value in data
+                result.add(-candidate.getChildId());// childID is value in data
             } else {
                 int sibl = candidate.getChildId();
                 while (sibl != 0) {
-                    internalSearch(sibl);
-                    final Node currentChild = readNode(sibl);
-                    sibl = currentChild.getSiblingId();
+                    internalSearch(sibl, result);
+                    sibl = tabNode[sibl-1].getSiblingId();
                 }
             }
         }
@@ -158,6 +158,36 @@ public class TreeUtilities {
         return getDistanceBetween2Positions(getMedian(envelopA), getMedian(envelopB));
     }
 
+    /**
+     * Compute minimum Euclidean distance between two {@code Envelope} in dimension n.<br/>
+     * Returned distance is 0 if envelopes intersect.
+     *
+     * <blockquote><font size=-1>
+     * <strong>NOTE: returned distance is lesser or equal than distance between envelopA and any element contained
+     *               within envelopB, which permit to order tree Nodes during nearest search.</strong>
+     * </font></blockquote>
+     *
+     * @param envelopA
+     * @param envelopB
+     * @throws IllegalArgumentException if envelopA or envelopB are null.
+     * @throws IllegalArgumentException if envelopA or envelopB are not in same dimension.
+     * @return minimum distance between envelopA and envelopB.
+     */
+    public static double getMinimumDistance(final double[] envelopA, final double[] envelopB) {
+        ArgumentChecks.ensureNonNull("getMinimumDistance : envelopA", envelopA);
+        ArgumentChecks.ensureNonNull("getMinimumDistance : envelopB", envelopB);
+        if (envelopA.length != envelopB.length)
+            throw new IllegalArgumentException("getMinimumDistance : envelopA and envelopB are not in same dimension");
+        assert (envelopA.length % 2 == 0) :"envelope coordinates length should be modulo 2";
+        final int dim = envelopA.length >> 1;
+        double sum = 0;
+        for (int low = 0, upp = dim; low < dim; low++, upp++) {
+            final double gap = Math.max(0, Math.max(envelopA[low] - envelopB[upp], envelopB[low] - envelopA[upp]));
+            sum += gap * gap;
+        }
+        return Math.sqrt(sum);
+    }
+
     /**
      * Compute general boundary of all {@code Envelope} passed in parameter.
      *
@@ -21,6 +21,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.apache.sis.geometry.GeneralEnvelope;
 import org.apache.sis.util.ArgumentChecks;
 import org.junit.Test;
@@ -28,6 +31,7 @@ import static org.geotoolkit.internal.tree.TreeUtilities.*;
 import static org.geotoolkit.index.tree.TreeTest.createEntry;
 import org.geotoolkit.internal.tree.TreeAccess;
 import org.junit.Assert;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import org.opengis.referencing.crs.CoordinateReferenceSystem;
 import org.opengis.referencing.cs.CoordinateSystem;
@@ -368,6 +372,110 @@ public abstract class AbstractTreeTest extends TreeTest {
         assertTrue(compareLists(lData, Arrays.asList(getResult(tabSearch))));
     }
 
+    /**
+     * Test that several threads searching at the same time within tree obtain same results as a single search.
+     */
+    @Test
+    public void concurrentSearchTest() throws Exception {
+        if (tree.getRoot() == null) insert();
+        final double[] extent = tree.getExtent();
+        final List<GeneralEnvelope> regions = new ArrayList<GeneralEnvelope>();
+        final List<int[]> expected = new ArrayList<int[]>();
+        for (int r = 0; r < 20; r++) {
+            final double[] area = new double[dimension << 1];
+            for (int d = 0; d < dimension; d++) {
+                final double span = extent[d + dimension] - extent[d];
+                area[d]             = extent[d] + span * Math.random() * 0.5;
+                area[d + dimension] = area[d] + span * Math.random() * 0.5;
+            }
+            final GeneralEnvelope rG = new GeneralEnvelope(crs);
+            rG.setEnvelope(area);
+            regions.add(rG);
+            expected.add(tree.searchID(rG));
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+            for (int t = 0; t < 64; t++) {
+                final int r = t % regions.size();
+                results.add(executor.submit(() -> compareID(expected.get(r), tree.searchID(regions.get(r)))));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue("concurrent search results should be same as single search results.", result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Test that nearest search and distance browsing return elements in same order as a full scan.
+     */
+    @Test
+    public void nearestTest() throws StoreIndexException, IOException {
+        if (tree.getRoot() == null) insert();
+        final double[] extent = tree.getExtent();
+        final double[] point = new double[dimension << 1];
+        for (int d = 0; d < dimension; d++) {
+            point[d] = point[d + dimension] = extent[d] + (extent[d + dimension] - extent[d]) * Math.random();
+        }
+        final GeneralEnvelope position = new GeneralEnvelope(crs);
+        position.setEnvelope(point);
+
+        final double[] expected = new double[lData.size()];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = getMinimumDistance(point, lData.get(i));
+        }
+        Arrays.sort(expected);
+
+        final int k = 10;
+        final int[] nearest = ((AbstractTree<double[]>) tree).searchNearest(position, k);
+        assertEquals(k, nearest.length);
+        final double[][] nearestData = getResult(nearest);
+        for (int i = 0; i < k; i++) {
+            assertEquals(expected[i], getMinimumDistance(point, nearestData[i]), 1E-9);
+        }
+
+        final TreeIdentifierIterator iter = ((AbstractTree<double[]>) tree).searchByDistance(position);
+        int n = 0;
+        while (iter.hasNext()) {
+            final double[] data = tEM.getObjectFromTreeIdentifier(iter.nextInt());
+            assertEquals(expected[n++], getMinimumDistance(point, data), 1E-9);
+        }
+        assertEquals(lData.size(), n);
+    }
+
+    /**
+     * Test that tree built by STR packing contains all elements, with a conform architecture.<br/>
+     * Few elements are sorted in memory at the same time to also test external sort.
+     */
+    @Test
+    public void bulkLoadTest() throws StoreIndexException, IOException {
+        tree.setRoot(null);
+        tEM.clear();
+        final List<double[]> lDataCopy = new ArrayList<double[]>();
+        for (double[] data : lData) lDataCopy.add(data.clone());
+        final int count = ((AbstractTree<double[]>) tree).bulkLoad(lDataCopy.iterator(), 50);
+        assertEquals(lData.size(), count);
+        assertEquals(lData.size(), tree.getElementsNumber());
+
+        tAF = ((AbstractTree)tree).getTreeAccess();
+        checkNode(tree.getRoot(), lData);
+
+        final GeneralEnvelope rG = new GeneralEnvelope(crs);
+        rG.setEnvelope(tree.getExtent());
+        final int[] tabSearch = tree.searchID(rG);
+        assertEquals(lData.size(), tabSearch.length);
+        assertTrue(compareLists(lData, Arrays.asList(getResult(tabSearch))));
+
+        //-- tree should stay usable after packing.
+        final double[] extra = lData.get(0).clone();
+        tree.insert(extra);
+        assertEquals(lData.size() + 1, tree.getElementsNumber());
+        tree.setRoot(null);
+    }
+
     /**
      * Return result given by {@link TreeElementMapper} from tree identifier table given in parameter.
      *
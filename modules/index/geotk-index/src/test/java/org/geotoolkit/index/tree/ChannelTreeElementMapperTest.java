@@ -0,0 +1,56 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2018, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.index.tree;
+
+import java.io.File;
+import java.util.List;
+import org.apache.sis.referencing.CommonCRS;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Test reading many objects at once from a {@link ChannelTreeElementMapper}.
+ *
+ * @author Johann Sorel (Geomatys)
+ */
+public class ChannelTreeElementMapperTest extends org.geotoolkit.test.TestBase {
+
+    @Test
+    public void bulkReadTest() throws Exception {
+        final File file = File.createTempFile("mapper", "test");
+        file.deleteOnExit();
+        final FileTreeElementMapperTest mapper = new FileTreeElementMapperTest(CommonCRS.WGS84.normalizedGeographic(), file);
+        try {
+            //enough objects to span several buffers
+            final int nb = 1000;
+            for (int i = 1; i <= nb; i++) {
+                mapper.setTreeIdentifier(new double[]{i, -i, i + 0.5, -i + 0.5}, i);
+            }
+
+            final int[] ids = new int[]{nb, 3, 512, 1, 3, 700, 42};
+            final List<double[]> objects = mapper.getObjectsFromTreeIdentifiers(ids);
+            assertEquals(ids.length, objects.size());
+            for (int i = 0; i < ids.length; i++) {
+                assertArrayEquals(mapper.getObjectFromTreeIdentifier(ids[i]), objects.get(i), 0.0);
+                assertEquals(ids[i], objects.get(i)[0], 0.0);
+            }
+        } finally {
+            mapper.close();
+        }
+    }
+
+}
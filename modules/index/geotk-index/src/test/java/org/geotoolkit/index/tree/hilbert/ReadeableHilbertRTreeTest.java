@@ -41,6 +41,20 @@ abstract class ReadeableHilbertRTreeTest extends HilbertTest {
      * @throws ClassNotFoundException if there is a problem during {@link CoordinateReferenceSystem} invert serialization.
      */
     protected ReadeableHilbertRTreeTest(final CoordinateReferenceSystem crs) throws IOException, StoreIndexException, ClassNotFoundException {
+        this(crs, false);
+    }
+
+    /**
+     * Create a generic HilbertRTree Test suite with file already filled by tree architecture
+     * and a {@link CoordinateReferenceSystem} define by user.
+     *
+     * @param crs
+     * @param memoryMapped {@code true} to open tree file through memory mapping.
+     * @throws IOException if problem during head reading from already filled file.
+     * @throws StoreIndexException if file isn't already filled by {@link HilbertRTree} implementation.
+     * @throws ClassNotFoundException if there is a problem during {@link CoordinateReferenceSystem} invert serialization.
+     */
+    protected ReadeableHilbertRTreeTest(final CoordinateReferenceSystem crs, final boolean memoryMapped) throws IOException, StoreIndexException, ClassNotFoundException {
         super(crs);
         final File inOutFile = File.createTempFile("test", "tree", tempDir);
         final File treeMapperFile = File.createTempFile("test", "mapper", tempDir);
@@ -54,6 +68,6 @@ abstract class ReadeableHilbertRTreeTest extends HilbertTest {
         assertTrue(tEM.isClosed());
 
         tEM = new FileTreeElementMapperTest(crs, treeMapperFile);
-        tree = new FileHilbertRTree(inOutFile.toPath(), tEM);
+        tree = new FileHilbertRTree(inOutFile.toPath(), tEM, memoryMapped);
     }
 }
@@ -0,0 +1,65 @@
+/*
+ *    Geotoolkit.org - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2018, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.index.tree.star;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import org.geotoolkit.index.tree.StoreIndexException;
+import org.geotoolkit.referencing.crs.PredefinedCRS;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Create a generic StarRTree Test suite where Tree is store on hard drive in 2D Cartesian space.<br/>
+ * Test is effectuate with file already filled by tree architecture, opened through memory mapping.
+ *
+ * @author Remi Marechal (Geomatys).
+ * @see PredefinedCRS#CARTESIAN_2D
+ */
+public final class MappedStar2DTest extends ReadeableStarRTreeTest {
+
+    /**
+     * Create a generic StarRTree Test suite with memory mapped file already filled by tree architecture in 2D cartesian space.
+     *
+     * @throws IOException if problem during head reading from already filled file.
+     * @throws StoreIndexException if file isn't already filled by {@link StarRTree} implementation.
+     * @throws ClassNotFoundException if there is a problem during {@link CoordinateReferenceSystem} invert serialization.
+     */
+    public MappedStar2DTest() throws StoreIndexException, IOException, ClassNotFoundException {
+        super(PredefinedCRS.CARTESIAN_2D, true, true);
+    }
+
+    /**
+     * Insert elements through memory mapping, then check that closed tree file only contains written Nodes,
+     * without the zero filled area mapped in advance while mapping grew.
+     */
+    @Test
+    public void compactFileTest() throws StoreIndexException, IOException {
+        insert();
+        tree.close();
+        tEM.close();
+        final ByteBuffer head = ByteBuffer.allocate(38);
+        try (FileChannel channel = FileChannel.open(treeFile.toPath())) {
+            channel.read(head, 0);
+        }
+        final int nodeId    = head.getInt(22);
+        final int crsLength = head.getInt(34);
+        final int nodeSize  = (4 * Double.SIZE + 4 * Integer.SIZE) / 8 + 1;
+        assertEquals(38 + crsLength + ((long) nodeId - 1) * nodeSize, treeFile.length());
+    }
+}
@@ -32,6 +32,11 @@ import static org.junit.Assert.assertTrue;
  */
 abstract class ReadeableStarRTreeTest extends AbstractTreeTest {
 
+    /**
+     * File which contains tree architecture.
+     */
+    protected final File treeFile;
+
     /**
      * Create a generic StarRTree Test suite with file already filled by tree architecture
      * and a {@link CoordinateReferenceSystem} define by user.
@@ -43,8 +48,24 @@ abstract class ReadeableStarRTreeTest extends AbstractTreeTest {
      * @throws ClassNotFoundException if there is a problem during {@link CoordinateReferenceSystem} invert serialization.
      */
     protected ReadeableStarRTreeTest(final CoordinateReferenceSystem crs, final boolean insert) throws StoreIndexException, IOException, ClassNotFoundException {
+        this(crs, insert, false);
+    }
+
+    /**
+     * Create a generic StarRTree Test suite with file already filled by tree architecture
+     * and a {@link CoordinateReferenceSystem} define by user.
+     *
+     * @param crs
+     * @param insert {@code true} to insert data into tree during test constructor else no insertion.
+     * @param memoryMapped {@code true} to open tree file through memory mapping.
+     * @throws IOException if problem during head reading from already filled file.
+     * @throws StoreIndexException if file isn't already filled by {@link StarRTree} implementation.
+     * @throws ClassNotFoundException if there is a problem during {@link CoordinateReferenceSystem} invert serialization.
+     */
+    protected ReadeableStarRTreeTest(final CoordinateReferenceSystem crs, final boolean insert, final boolean memoryMapped) throws StoreIndexException, IOException, ClassNotFoundException {
         super(crs);
         final File inOutFile      = File.createTempFile("test", "tree", tempDir);
+        treeFile                  = inOutFile;
         final File treeMapperFile = File.createTempFile("test", "mapper", tempDir);
 
         // data insertion
@@ -60,6 +81,6 @@ abstract class ReadeableStarRTreeTest extends AbstractTreeTest {
 
         // open Tree from already filled files.
         tEM  = new FileTreeElementMapperTest(crs, treeMapperFile);
-        tree = new FileStarRTree(inOutFile.toPath(), tEM);
+        tree = new FileStarRTree(inOutFile.toPath(), tEM, memoryMapped);
     }
 }
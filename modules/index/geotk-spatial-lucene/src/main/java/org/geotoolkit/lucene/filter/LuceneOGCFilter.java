@@ -84,6 +84,12 @@ public class LuceneOGCFilter extends org.apache.lucene.search.Filter implements
 
     private boolean envelopeOnly = false;
 
+    /**
+     * Result of the tree search, shared by all the index segments of a search.
+     * Reset each time a tree is applied on this filter.
+     */
+    private volatile TreeSearch treeSearchResult;
+
     private LuceneOGCFilter(final Filter filter){
         this.filter = filter;
         this.filterType = getSpatialFilterType(filter);
@@ -97,6 +103,20 @@ public class LuceneOGCFilter extends org.apache.lucene.search.Filter implements
     public void applyRtreeOnFilter(final Tree rTree, final boolean envelopeOnly) {
         this.tree         = rTree;
         this.envelopeOnly = envelopeOnly;
+        this.treeSearchResult = null;
+    }
+
+    /**
+     * Add the identifiers of the tree elements in the given set.
+     * Tree elements are fetched all at once from the mapper.
+     */
+    private static void addIdentifiers(final TreeElementMapper<NamedEnvelope> tem, final int[] treeIds,
+            final Set<String> identifiers) throws IOException {
+        for (NamedEnvelope env : tem.getObjectsFromTreeIdentifiers(treeIds)) {
+            if (env != null) {
+                identifiers.add(env.getId());
+            }
+        }
     }
 
     /**
@@ -108,8 +128,15 @@ public class LuceneOGCFilter extends org.apache.lucene.search.Filter implements
         boolean treeSearch     = false;
         boolean reverse        = false;
         boolean distanceFilter = false;
-        final Set<String> treeMatching = new HashSet<>();
-        if (tree != null) {
+        Set<String> treeMatching = new HashSet<>();
+        final TreeSearch previous = treeSearchResult;
+        if (previous != null) {
+            //the tree has already been searched for another segment of the index
+            treeSearch     = previous.treeSearch;
+            reverse        = previous.reverse;
+            distanceFilter = previous.distanceFilter;
+            treeMatching   = previous.matching;
+        } else if (tree != null) {
             /*
              * For distance buffer filter no envelope only mode
              */
@@ -124,13 +151,7 @@ public class LuceneOGCFilter extends org.apache.lucene.search.Filter implements
                         final int[] resultID = tree.searchID(bound);
                         Arrays.sort(resultID);
                         treeMatching.clear();
-                        TreeElementMapper<NamedEnvelope> tem = tree.getTreeElementMapper();
-                        for (int id : resultID) {
-                            final NamedEnvelope env = tem.getObjectFromTreeIdentifier(id);
-                            if (env != null) {
-                                treeMatching.add(env.getId());
-                            }
-                        }
+                        addIdentifiers(tree.getTreeElementMapper(), resultID, treeMatching);
                         treeSearch = true;
                     } catch (FactoryException ex) {
                         throw new IOException(ex);
@@ -160,12 +181,7 @@ public class LuceneOGCFilter extends org.apache.lucene.search.Filter implements
                             Arrays.sort(resultID);
                             final TreeElementMapper<NamedEnvelope> tem = tree.getTreeElementMapper();
                             treeMatching.clear();
-                            for (int id : resultID) {
-                                final NamedEnvelope env = tem.getObjectFromTreeIdentifier(id);
-                                if (env != null) {
-                                    treeMatching.add(env.getId());
-                                }
-                            }
+                            addIdentifiers(tem, resultID, treeMatching);
                             treeSearch   = true;
                             envelopeOnly = false;
                         } else {
@@ -173,12 +189,7 @@ public class LuceneOGCFilter extends org.apache.lucene.search.Filter implements
                             Arrays.sort(resultID);
                             final TreeElementMapper<NamedEnvelope> tem = tree.getTreeElementMapper();
                             treeMatching.clear();
-                            for (int id : resultID) {
-                                final NamedEnvelope env = tem.getObjectFromTreeIdentifier(id);
-                                if (env != null) {
-                                    treeMatching.add(env.getId());
-                                }
-                            }
+                            addIdentifiers(tem, resultID, treeMatching);
                             treeSearch = true;
                         }
                     } catch (StoreIndexException ex) {
@@ -195,6 +206,7 @@ public class LuceneOGCFilter extends org.apache.lucene.search.Filter implements
             } else {
                 LOGGER.log(Level.WARNING, "not a spatial operator:{0}", filter.getClass().getName());
             }
+            treeSearchResult = new TreeSearch(treeSearch, reverse, distanceFilter, treeMatching);
         } else {
             LOGGER.finer("Null R-tree in spatial search");
         }
@@ -256,4 +268,21 @@ public class LuceneOGCFilter extends org.apache.lucene.search.Filter implements
         hash = 79 * hash + Objects.hashCode(this.filter);
         return hash;
     }
+
+    /**
+     * Identifiers matching the tree search and how to apply them.
+     */
+    private static final class TreeSearch {
+        private final boolean treeSearch;
+        private final boolean reverse;
+        private final boolean distanceFilter;
+        private final Set<String> matching;
+
+        private TreeSearch(boolean treeSearch, boolean reverse, boolean distanceFilter, Set<String> matching) {
+            this.treeSearch     = treeSearch;
+            this.reverse        = reverse;
+            this.distanceFilter = distanceFilter;
+            this.matching       = matching;
+        }
+    }
 }
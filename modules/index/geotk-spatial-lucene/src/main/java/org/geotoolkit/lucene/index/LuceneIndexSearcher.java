@@ -22,6 +22,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 
 import org.apache.lucene.analysis.Analyzer;
@@ -29,6 +30,9 @@ import org.apache.lucene.document.Document;
 import org.apache.lucene.index.CorruptIndexException;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.ReaderUtil;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.queryparser.classic.ParseException;
 import org.apache.lucene.queryparser.classic.QueryParser;
@@ -41,6 +45,7 @@ import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.util.Bits;
 import org.geotoolkit.index.tree.manager.SQLRtreeManager;
 import org.geotoolkit.index.IndexingException;
 import org.geotoolkit.index.LogicalFilterType;
@@ -70,14 +75,19 @@ public class LuceneIndexSearcher extends IndexLucene {
     private final static Query SIMPLE_QUERY = new TermQuery(new Term("metafile", "doc"));
 
     /**
-     * A map of cached request
+     * The maximum size of the map of queries.
      */
-    private final Map<SpatialQuery, Set<String>> cachedQueries = new ConcurrentHashMap<>();
+    private static final int MAX_CACHED_QUERIES_SIZE = 50;
 
     /**
-     * The maximum size of the map of queries.
+     * The maximum number of identifiers in all cached query results.
      */
-    private static final int MAX_CACHED_QUERIES_SIZE = 50;
+    private static final int MAX_CACHED_IDENTIFIERS = 1000000;
+
+    /**
+     * A cache of request results.
+     */
+    private final QueryCache cachedQueries = new QueryCache(MAX_CACHED_QUERIES_SIZE, MAX_CACHED_IDENTIFIERS);
 
     /**
      * A flag indicating if the cache system for query is enabled.
@@ -85,9 +95,10 @@ public class LuceneIndexSearcher extends IndexLucene {
     private final boolean isCacheEnabled;
 
     /**
-     * A Map of DocID -> metadata ID .
+     * Metadata identifiers of each index segment, indexed by document number in the segment.
+     * Segments are identified by their core cache key and loaded on first use.
      */
-    private final Map<Integer, String> identifiers = new HashMap<>();
+    private final Map<Object, String[]> identifiers = new ConcurrentHashMap<>();
 
     /**
      * A list of numeric fields names.
@@ -202,29 +213,74 @@ public class LuceneIndexSearcher extends IndexLucene {
     }
 
     /**
-     * Fill the list of identifiers ordered by doc ID
+     * Remove the identifiers of the segments which are not used anymore by the searcher.
+     * The identifiers of new segments will be loaded when needed.
      */
     private void initIdentifiersList() throws IOException {
-        final Map<Integer, String> temp = new HashMap<>();
-        final int nbValidDoc = searcher.getIndexReader().numDocs(); // do not take in count deleted document
-        final long nbDoc = searcher.collectionStatistics("id").maxDoc(); // contains deleted document
-        for (int i = 0; i < nbDoc; i++) {
-            final String metadataID = getMatchingID(searcher.doc(i));
-            temp.put(i, metadataID);
+        final IndexReader reader = searcher.getIndexReader();
+        final Set<Object> segments = new HashSet<>();
+        for (LeafReaderContext leaf : reader.leaves()) {
+            segments.add(leaf.reader().getCoreCacheKey());
         }
-        identifiers.clear();
-        identifiers.putAll(temp);
-        LOGGER.log(logLevel, "{0} records found.", nbValidDoc);
+        identifiers.keySet().retainAll(segments);
+        LOGGER.log(logLevel, "{0} records found.", reader.numDocs()); // do not take in count deleted document
+    }
+
+    /**
+     * Return the metadata identifier of a document.
+     *
+     * @param searcher the searcher which has returned the document.
+     * @param docID document number in the searcher index reader.
+     * @return metadata identifier or null
+     */
+    private String getIdentifier(final IndexSearcher searcher, final int docID) throws IOException {
+        final List<LeafReaderContext> leaves = searcher.getIndexReader().leaves();
+        final LeafReaderContext leaf = leaves.get(ReaderUtil.subIndex(docID, leaves));
+        String[] ids = identifiers.get(leaf.reader().getCoreCacheKey());
+        if (ids == null) {
+            ids = loadIdentifiers(leaf.reader());
+        }
+        return ids[docID - leaf.docBase];
+    }
+
+    /**
+     * Load the metadata identifiers of an index segment.
+     * Deleted documents are skipped.
+     */
+    private synchronized String[] loadIdentifiers(final LeafReader reader) throws IOException {
+        final Object key = reader.getCoreCacheKey();
+        String[] ids = identifiers.get(key);
+        if (ids == null) {
+            ids = new String[reader.maxDoc()];
+            final Bits liveDocs = reader.getLiveDocs();
+            for (int i = 0; i < ids.length; i++) {
+                if (liveDocs == null || liveDocs.get(i)) {
+                    ids[i] = getMatchingID(reader.document(i));
+                }
+            }
+            identifiers.put(key, ids);
+        }
+        return ids;
     }
 
     /**
      * Refresh the searcher (must be call after deleting document from the index for example)
+     * Only the index segments which have changed are reloaded.
      *
      * @throws IndexingException
      */
     public void refresh() throws IndexingException {
         try {
-            initSearcher();
+            final IndexReader current = searcher.getIndexReader();
+            if (current instanceof DirectoryReader) {
+                final DirectoryReader reader = DirectoryReader.openIfChanged((DirectoryReader) current);
+                if (reader != null) {
+                    searcher = new IndexSearcher(reader);
+                }
+                this.rTree = SQLRtreeManager.get(getFileDirectory(), this);
+            } else {
+                initSearcher();
+            }
             initIdentifiersList();
             cachedQueries.clear();
             LOGGER.log(logLevel, "refreshing index searcher");
@@ -237,11 +293,12 @@ public class LuceneIndexSearcher extends IndexLucene {
 
     /**
      * Add the metadata id to the list of result if its present in the identifiers.
+     * @param searcher the searcher which has returned the document.
      * @param results
      * @param docID
      */
-    private void addToResult(final Set<String> results, final int docID) {
-        final String metadataID = identifiers.get(docID);
+    private void addToResult(final IndexSearcher searcher, final Set<String> results, final int docID) throws IOException {
+        final String metadataID = getIdentifier(searcher, docID);
         if (metadataID != null) {
             results.add(metadataID);
         } else {
@@ -319,16 +376,20 @@ public class LuceneIndexSearcher extends IndexLucene {
      */
     public Set<String> doSearch(final SpatialQuery spatialQueryI) throws SearchingException {
         org.geotoolkit.lucene.filter.SpatialQuery spatialQuery = (org.geotoolkit.lucene.filter.SpatialQuery) spatialQueryI;
+        //the searcher may be replaced by a refresh during the search
+        final IndexSearcher searcher = this.searcher;
         try {
             final long start = System.currentTimeMillis();
             final Set<String> results = new LinkedHashSet<>();
             spatialQuery.applyRtreeOnFilter(rTree, envelopeOnly);
 
             //we look for a cached Query
-            if (isCacheEnabled && cachedQueries.containsKey(spatialQuery)) {
+            if (isCacheEnabled) {
                 final Set<String> cachedResults = cachedQueries.get(spatialQuery);
-                LOGGER.log(logLevel, "returning result from cache ({0} matching documents)", results.size());
-                return cachedResults;
+                if (cachedResults != null) {
+                    LOGGER.log(logLevel, "returning result from cache ({0} matching documents)", cachedResults.size());
+                    return cachedResults;
+                }
             }
 
             int maxRecords = (int) searcher.collectionStatistics("id").maxDoc();
@@ -394,7 +455,7 @@ public class LuceneIndexSearcher extends IndexLucene {
                     docs = searcher.search(query, filter, maxRecords);
                 }
                 for (ScoreDoc doc : docs.scoreDocs) {
-                    addToResult(results, doc.doc);
+                    addToResult(searcher, results, doc.doc);
                 }
 
             // for a OR we need to perform many request
@@ -409,10 +470,10 @@ public class LuceneIndexSearcher extends IndexLucene {
                     hits2 = searcher.search(SIMPLE_QUERY, spatialQuery.getSpatialFilter(), maxRecords);
                 }
                 for (ScoreDoc doc : hits1.scoreDocs) {
-                    addToResult(results, doc.doc);
+                    addToResult(searcher, results, doc.doc);
                 }
                 for (ScoreDoc doc : hits2.scoreDocs) {
-                    addToResult(results, doc.doc);
+                    addToResult(searcher, results, doc.doc);
                 }
 
             // for a NOT we need to perform many request
@@ -425,7 +486,7 @@ public class LuceneIndexSearcher extends IndexLucene {
                 }
                 final Set<String> unWanteds = new LinkedHashSet<>();
                 for (ScoreDoc doc : hits1.scoreDocs) {
-                    addToResult(unWanteds, doc.doc);
+                    addToResult(searcher, unWanteds, doc.doc);
                 }
 
                 final TopDocs hits2;
@@ -435,7 +496,7 @@ public class LuceneIndexSearcher extends IndexLucene {
                     hits2 = searcher.search(SIMPLE_QUERY, maxRecords);
                 }
                 for (ScoreDoc doc : hits2.scoreDocs) {
-                    final String id = identifiers.get(doc.doc);
+                    final String id = getIdentifier(searcher, doc.doc);
                     if (id != null && !unWanteds.contains(id)) {
                         results.add(id);
                     }
@@ -501,21 +562,38 @@ public class LuceneIndexSearcher extends IndexLucene {
 
     /**
      * Add a query and its results to the cache.
-     * if the map has reach the maximum size the older query is removed from the cache.
+     * if the cache has reach the maximum size the least recently used queries are removed from the cache.
      *
      * @param query a Lucene spatial query.
      * @param results A list of metadataIdentifier.
      */
     private void putInCache(final SpatialQuery query, final Set<String> results) {
         if (isCacheEnabled) {
-            // if we had reach the maximum cache size we remove the first request
-            if (cachedQueries.size() >= MAX_CACHED_QUERIES_SIZE) {
-                cachedQueries.remove(cachedQueries.keySet().iterator().next());
-            }
             cachedQueries.put(query, results);
         }
     }
 
+    /**
+     * @return number of queries answered from the cache.
+     */
+    public long getCacheHitCount() {
+        return cachedQueries.hits.get();
+    }
+
+    /**
+     * @return number of queries not found in the cache.
+     */
+    public long getCacheMissCount() {
+        return cachedQueries.misses.get();
+    }
+
+    /**
+     * @return number of queries currently in the cache.
+     */
+    public int getCachedQueryCount() {
+        return cachedQueries.size();
+    }
+
     /**
      * Free the resources when closing the searcher.
      */
@@ -525,4 +603,57 @@ public class LuceneIndexSearcher extends IndexLucene {
         LOGGER.info("shutting down index searcher");
         cachedQueries.clear();
     }
+
+    /**
+     * Cache of query results, bounded in number of queries and in total number of
+     * identifiers. The least recently used queries are removed first.
+     */
+    private static final class QueryCache {
+
+        private final Map<SpatialQuery, Set<String>> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private final Map<SpatialQuery, Integer> weights = new HashMap<>();
+        private final int maxQueries;
+        private final long maxWeight;
+        private long weight;
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+
+        private QueryCache(final int maxQueries, final long maxWeight) {
+            this.maxQueries = maxQueries;
+            this.maxWeight = maxWeight;
+        }
+
+        synchronized Set<String> get(final SpatialQuery query) {
+            final Set<String> results = entries.get(query);
+            (results != null ? hits : misses).incrementAndGet();
+            return results;
+        }
+
+        synchronized void put(final SpatialQuery query, final Set<String> results) {
+            final int size = results.size();
+            if (size > maxWeight) {
+                //too large, caching it would flush all other queries
+                return;
+            }
+            entries.put(query, results);
+            final Integer old = weights.put(query, size);
+            weight += size - (old != null ? old : 0);
+
+            final Iterator<SpatialQuery> ite = entries.keySet().iterator();
+            while ((entries.size() > maxQueries || weight > maxWeight) && ite.hasNext()) {
+                weight -= weights.remove(ite.next());
+                ite.remove();
+            }
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+
+        synchronized void clear() {
+            entries.clear();
+            weights.clear();
+            weight = 0;
+        }
+    }
 }
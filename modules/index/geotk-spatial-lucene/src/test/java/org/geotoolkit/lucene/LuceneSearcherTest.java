@@ -2385,6 +2385,28 @@ public class LuceneSearcherTest extends org.geotoolkit.test.TestBase {
     }
 
 
+    /**
+     * Test query results are returned from the cache and the cache is cleared on refresh.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void cacheTest() throws Exception {
+        final SpatialQuery query = new SpatialQuery("id:line*");
+
+        final Set<String> results = searcher.doSearch(query);
+        final long hits = searcher.getCacheHitCount();
+        assertTrue(searcher.getCachedQueryCount() > 0);
+
+        assertEquals(results, searcher.doSearch(new SpatialQuery("id:line*")));
+        assertEquals(hits + 1, searcher.getCacheHitCount());
+
+        searcher.refresh();
+        assertEquals(0, searcher.getCachedQueryCount());
+        final long misses = searcher.getCacheMissCount();
+        assertEquals(results, searcher.doSearch(new SpatialQuery("id:line*")));
+        assertEquals(misses + 1, searcher.getCacheMissCount());
+    }
+
     /**
      * Test the combination of a String query and/or spatial filter.
      * @throws java.lang.Exception
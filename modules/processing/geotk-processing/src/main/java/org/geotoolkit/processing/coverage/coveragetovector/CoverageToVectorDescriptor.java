@@ -68,8 +68,18 @@ public final class CoverageToVectorDescriptor extends AbstractProcessDescriptor
             .setRequired(false)
             .create(Integer.class,0);
 
+    /**
+     * Optional - tile size in pixels, the image is processed in parallel by tiles
+     * of this size when set. Polygons are then not ordered by range.
+     */
+    public static final ParameterDescriptor<Integer> TILE_SIZE = new ParameterBuilder()
+            .addName("tileSize")
+            .setRemarks("Size of the tiles processed in parallel, in pixels")
+            .setRequired(false)
+            .create(Integer.class,null);
+
     public static final ParameterDescriptorGroup INPUT_DESC =
-            new ParameterBuilder().addName(NAME+"InputParameters").createGroup(COVERAGE,RANGES,BAND);
+            new ParameterBuilder().addName(NAME+"InputParameters").createGroup(COVERAGE,RANGES,BAND,TILE_SIZE);
 
     /**
      * Mandatory - Result of vectorisation
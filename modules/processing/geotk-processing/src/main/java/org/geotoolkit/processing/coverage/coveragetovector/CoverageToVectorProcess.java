@@ -17,17 +17,23 @@
 package org.geotoolkit.processing.coverage.coveragetovector;
 
 import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.util.AffineTransformation;
+import org.locationtech.jts.operation.union.UnaryUnionOp;
 
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.image.RenderedImage;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 import javax.media.jai.iterator.RectIter;
 import javax.media.jai.iterator.RectIterFactory;
 
@@ -102,8 +108,131 @@ public class CoverageToVectorProcess extends AbstractProcess {
 
     public Geometry[] toPolygon(GridCoverage2D coverage, final NumberRange[] ranges, final int band)
             throws IOException, TransformException {
+        final List<Geometry> polygones = new ArrayList<Geometry>();
+        toPolygon(coverage, ranges, band, 0, polygones::add);
+        return polygones.toArray(new Polygon[polygones.size()]);
+    }
+
+    /**
+     * Extract polygons from the coverage and send them to the given consumer.
+     * <br>
+     * If a tile size is given, the image is split in tiles which are polygonised
+     * in parallel, by rows of tiles. Polygons which do not touch a tile border are sent
+     * as soon as their tile is processed, others are merged with their neighbors across
+     * tile borders once their rows are processed, and kept only while they reach the
+     * next row of tiles. Polygons are then not ordered by range.
+     *
+     * @param coverage coverage to process
+     * @param ranges data value ranges
+     * @param band coverage band to process
+     * @param tileSize tile size in pixels, zero or negative to process the image in a single pass
+     * @param consumer receives the polygons in coverage crs, with their range as user data.
+     *        The consumer is called by the calling thread only.
+     */
+    public void toPolygon(GridCoverage2D coverage, final NumberRange[] ranges, final int band,
+            final int tileSize, final Consumer<? super Geometry> consumer) throws IOException, TransformException {
         coverage = coverage.view(ViewType.GEOPHYSICS);
 
+        final RenderedImage image = coverage.getRenderedImage();
+        final MathTransform2D gridToCRS = coverage.getGridGeometry().getGridToCRS2D();
+        final int width = image.getWidth();
+        final int height = image.getHeight();
+
+        if (tileSize <= 0 || (width <= tileSize && height <= tileSize)) {
+            polygonize(image, new Rectangle(0, 0, width, height), ranges, band);
+            for (final NumberRange range : ranges) {
+                for (Polygon poly : polygons.get(range)) {
+                    send(poly, range, gridToCRS, consumer);
+                }
+                //we dont merge them in a single polygon to avoid to complexe geometries
+            }
+            return;
+        }
+
+        final int tilesPerRow = (width + tileSize - 1) / tileSize;
+
+        //polygons touching a tile border not yet merged, by range
+        final List<List<Polygon>> borders = new ArrayList<>();
+        for (int i=0; i<ranges.length; i++) {
+            borders.add(new ArrayList<>());
+        }
+
+        //process tiles by batches of complete tile rows to bound the number of polygons in memory
+        final int rowsPerBatch = Math.max(1, Runtime.getRuntime().availableProcessors() * 2 / tilesPerRow);
+        for (int startY=0; startY<height; startY+=rowsPerBatch*tileSize) {
+            final int endY = Math.min(height, startY + rowsPerBatch*tileSize);
+            final List<Rectangle> batch = new ArrayList<>();
+            for (int y=startY; y<endY; y+=tileSize) {
+                for (int x=0; x<width; x+=tileSize) {
+                    batch.add(new Rectangle(x, y, Math.min(tileSize, width-x), Math.min(tileSize, height-y)));
+                }
+            }
+            final List<CoverageToVectorProcess> results = batch.parallelStream().map((Rectangle area) -> {
+                final CoverageToVectorProcess process = new CoverageToVectorProcess(inputParameters);
+                process.polygonize(image, area, ranges, band);
+                return process;
+            }).collect(Collectors.toList());
+
+            for (int t=0; t<results.size(); t++) {
+                final Rectangle area = batch.get(t);
+                final AffineTransformation translate = AffineTransformation.translationInstance(area.x, area.y);
+                for (int i=0; i<ranges.length; i++) {
+                    for (Polygon poly : results.get(t).polygons.get(ranges[i])) {
+                        //move polygon in image grid coordinates
+                        poly.apply(translate);
+                        poly.geometryChanged();
+                        final Envelope env = poly.getEnvelopeInternal();
+                        if ((env.getMinX() == area.x && area.x > 0)
+                         || (env.getMinY() == area.y && area.y > 0)
+                         || (env.getMaxX() == area.x+area.width && area.x+area.width < width)
+                         || (env.getMaxY() == area.y+area.height && area.y+area.height < height)) {
+                            borders.get(i).add(poly);
+                        } else {
+                            send(poly, ranges[i], gridToCRS, consumer);
+                        }
+                    }
+                }
+            }
+            results.clear();
+
+            //merge polygons across tile borders, all tiles above endY are processed,
+            //merged polygons which do not reach this line are complete
+            for (int i=0; i<ranges.length; i++) {
+                final List<Polygon> candidates = borders.get(i);
+                if (candidates.isEmpty()) continue;
+                final Geometry union = UnaryUnionOp.union(candidates);
+                candidates.clear();
+                for (int k=0, n=union.getNumGeometries(); k<n; k++) {
+                    final Polygon poly = (Polygon) union.getGeometryN(k);
+                    if (endY < height && poly.getEnvelopeInternal().getMaxY() == endY) {
+                        candidates.add(poly);
+                    } else {
+                        send(poly, ranges[i], gridToCRS, consumer);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void send(final Polygon poly, final NumberRange range, final MathTransform2D gridToCRS,
+            final Consumer<? super Geometry> consumer) throws TransformException {
+        final Geometry geom = JTS.transform(poly, gridToCRS);
+        geom.setUserData(range);
+        consumer.accept(geom);
+    }
+
+    /**
+     * Extract polygons of an image area, in area coordinates.
+     * Results are stored in the polygons map.
+     *
+     * @param image image to process
+     * @param area image area, relative to the image origin
+     * @param ranges data value ranges
+     * @param band image band to process
+     */
+    private void polygonize(final RenderedImage image, final Rectangle area, final NumberRange[] ranges, final int band) {
+        polygons.clear();
+
         //add a range for Nan values.
         NumberRange NaNRange = new NaNRange();
         polygons.put(NaNRange, new ArrayList<Polygon>());
@@ -112,12 +241,12 @@ public class CoverageToVectorProcess extends AbstractProcess {
             polygons.put(range, new ArrayList<Polygon>());
         }
 
-        final RenderedImage image = coverage.getRenderedImage();
-        final RectIter iter = RectIterFactory.create(image, null);
-        final MathTransform2D gridToCRS = coverage.getGridGeometry().getGridToCRS2D();
+        final RectIter iter = RectIterFactory.create(image, new Rectangle(
+                image.getMinX() + area.x, image.getMinY() + area.y, area.width, area.height));
         final Point gridPosition = new Point(0, 0);
 
-        buffers = new Boundary[2][image.getWidth()];
+        buffers = new Boundary[2][area.width];
+        block.reset();
 
         int bandNum = -1;
         iter.startBands();
@@ -155,12 +284,6 @@ public class CoverageToVectorProcess extends AbstractProcess {
                             Boundary[] oldLine = buffers[LAST_LINE];
                             buffers[LAST_LINE] = buffers[CURRENT_LINE];
                             buffers[CURRENT_LINE] = oldLine;
-//                            final Set<Boundary> boundaries = new HashSet<Boundary>();
-//                            //System.err.println("--------------------------------------------------------------------------------------------");
-//                            for(int i=0; i< buffers[LAST_LINE].length; i++) {
-//                                //System.err.println("> " + i + " " + block.y +" " + buffers[LAST_LINE][i].toString());
-//                                boundaries.add(buffers[LAST_LINE][i]);
-//                            }
 
                             block.reset();
 
@@ -186,17 +309,7 @@ public class CoverageToVectorProcess extends AbstractProcess {
                 gridPosition.y = 0;
             } while (!iter.nextBandDone());
         }
-
-        final List<Geometry> polygones = new ArrayList<Geometry>();
-        for (int i=0; i<ranges.length; i++) {
-            final NumberRange range = ranges[i];
-            for(Polygon poly : polygons.get(range)) {
-                polygones.add(JTS.transform(poly, gridToCRS));
-            }
-            //we dont merge them in a single polygon to avoid to complexe geometries
-        }
-
-        return polygones.toArray(new Polygon[polygones.size()]);
+        buffers = null;
     }
 
     private void append(final Point point, Number value) {
@@ -435,9 +548,11 @@ public class CoverageToVectorProcess extends AbstractProcess {
             band = 0;
         }
 
-        Geometry[] result = null;
+        final Integer tileSize = inputParameters.getValue(CoverageToVectorDescriptor.TILE_SIZE);
+
+        final List<Geometry> result = new ArrayList<>();
         try {
-            result = toPolygon(coverage, ranges, 0);
+            toPolygon(coverage, ranges, band, (tileSize != null) ? tileSize : 0, result::add);
         } catch (IOException ex) {
             throw new ProcessException(ex.getMessage(), this, ex);
         } catch (TransformException ex) {
@@ -448,7 +563,7 @@ public class CoverageToVectorProcess extends AbstractProcess {
         buffers = null;
         polygons.clear();
 
-        outputParameters.getOrCreate(CoverageToVectorDescriptor.GEOMETRIES).setValue(result);
+        outputParameters.getOrCreate(CoverageToVectorDescriptor.GEOMETRIES).setValue(result.toArray(new Geometry[result.size()]));
     }
 
     private static class NaNRange extends NumberRange{
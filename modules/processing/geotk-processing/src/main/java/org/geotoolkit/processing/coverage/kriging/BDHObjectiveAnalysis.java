@@ -50,16 +50,20 @@ public class BDHObjectiveAnalysis extends org.geotoolkit.math.ObjectiveAnalysis
 
     /**
      * Creates a new instance for interpolating values in the given region.
+     * The correlation length is 1, in the units of the scaled distances.
      *
      * @param gridRegion The grid bounding box. The maximal ordinates are inclusive.
      * @param size The number of grid cells along the <var>x</var> and <var>y</var> axes.
      */
     public BDHObjectiveAnalysis(final Rectangle2D gridRegion, final Dimension size) {
         super(gridRegion, size.width, size.height, PixelOrientation.CENTER);
+        setCorrelationLength(1);
     }
 
     /**
      * Sets an arbitrary scale factor to be applied in the distance computed by {@link #correlation(double)}.
+     * Distances are multiplied by this factor before being divided by the {@linkplain #getCorrelationLength()
+     * correlation length}, which is then expressed in scaled units.
      * This is a hack for allowing the code to work with different CRS. Do not rely on this hack,
      * it may be suppressed in future versions.
      */
@@ -76,7 +80,7 @@ public class BDHObjectiveAnalysis extends org.geotoolkit.math.ObjectiveAnalysis
     @Override
     protected double correlation(final Point2D.Double P1, final Point2D.Double P2) {
         double distance = Math.hypot(P1.x - P2.x, P1.y - P2.y);
-        distance = distance / scaleHack - 1./150; // Similar to the basic program DISPWX
+        distance = distance * scaleHack / getCorrelationLength() - 1./150; // Similar to the basic program DISPWX
         if (distance < 0) {
             return 1 - 15*distance;
         }
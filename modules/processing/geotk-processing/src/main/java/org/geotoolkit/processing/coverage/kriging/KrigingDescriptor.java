@@ -78,10 +78,27 @@ public final class KrigingDescriptor extends AbstractProcessDescriptor{
             .setRequired(true)
             .create(CoordinateReferenceSystem.class,null);
 
+    /**
+     * Optional - number of nearest points used for each grid cell.
+     */
+    public static final ParameterDescriptor<Integer> IN_NEIGHBORS = new ParameterBuilder()
+            .addName("neighbors")
+            .setRemarks("Number of nearest points used for each grid cell, 0 to use all points")
+            .setRequired(false)
+            .create(Integer.class,null);
+
+    /**
+     * Optional - distance scale of the correlation function.
+     */
+    public static final ParameterDescriptor<Double> IN_CORRELATION_LENGTH = new ParameterBuilder()
+            .addName("correlationLength")
+            .setRemarks("Distance scale of the correlation between points, in crs units")
+            .setRequired(false)
+            .create(Double.class,null);
 
     public static final ParameterDescriptorGroup INPUT_DESC =
             new ParameterBuilder().addName(NAME+"InputParameters").createGroup(
-                IN_POINTS, IN_CRS, IN_STEP, IN_DIMENSION);
+                IN_POINTS, IN_CRS, IN_STEP, IN_DIMENSION, IN_NEIGHBORS, IN_CORRELATION_LENGTH);
 
     /**
      * Output coverage.
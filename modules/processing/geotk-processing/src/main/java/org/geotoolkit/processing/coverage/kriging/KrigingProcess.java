@@ -74,6 +74,8 @@ public class KrigingProcess extends AbstractProcess {
         double step                         = inputParameters.getValue(IN_STEP);
         final DirectPosition[] coords       = inputParameters.getValue(IN_POINTS);
         final Dimension maxDim              = inputParameters.getValue(IN_DIMENSION);
+        final Integer neighbors             = inputParameters.getValue(IN_NEIGHBORS);
+        final Double correlationLength      = inputParameters.getValue(IN_CORRELATION_LENGTH);
 
         //calculate the envelope
         double minx = Double.POSITIVE_INFINITY;
@@ -116,11 +118,20 @@ public class KrigingProcess extends AbstractProcess {
 
 //        final ObjectiveAnalysis ob = new ObjectiveAnalysis(rect, dim);
         final BDHObjectiveAnalysis ob = new BDHObjectiveAnalysis(rect, dim);
+        double unitFactor = 1;
         if (crs instanceof ProjectedCRS) {
             // The default ObjectiveAnalysis algorithm is designed for GeographicCRS.
             // In case of ProjectedCRS, we need to apply a scale factor that convert
             // metres to some approximation of angles of longitude/latitude.
-            ob.setScaleFactor(1. / (60*1852)); // Use standard length of nautical mile.
+            unitFactor = 1. / (60*1852); // Use standard length of nautical mile.
+            ob.setScaleFactor(unitFactor);
+        }
+        if (correlationLength != null) {
+            // given in crs units, converted like the distances it is compared to
+            ob.setCorrelationLength(correlationLength * unitFactor);
+        }
+        if (neighbors != null) {
+            ob.setNeighborCount(neighbors);
         }
 
 //        double[] computed;
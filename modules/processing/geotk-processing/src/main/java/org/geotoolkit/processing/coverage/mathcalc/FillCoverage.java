@@ -22,9 +22,12 @@ import java.awt.Point;
 import java.awt.image.BufferedImage;
 import java.awt.image.ColorModel;
 import java.awt.image.DataBuffer;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
 import java.awt.image.SampleModel;
 import java.awt.image.WritableRaster;
 import java.util.Arrays;
+import java.util.stream.IntStream;
 
 import org.apache.sis.geometry.GeneralDirectPosition;
 import org.apache.sis.geometry.GeneralEnvelope;
@@ -45,6 +48,7 @@ import org.geotoolkit.storage.coverage.*;
 import org.opengis.coverage.grid.GridEnvelope;
 import org.opengis.geometry.DirectPosition;
 import org.opengis.geometry.Envelope;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
 import org.opengis.referencing.datum.PixelInCell;
 import org.opengis.referencing.operation.MathTransform;
 import org.opengis.referencing.operation.MathTransformFactory;
@@ -52,6 +56,7 @@ import org.opengis.referencing.operation.TransformException;
 import org.opengis.util.FactoryException;
 import org.apache.sis.geometry.Envelopes;
 import org.apache.sis.util.Utilities;
+import org.apache.sis.util.collection.BackingStoreException;
 
 /**
  * TODO : This should be part of the CoverageWriter interface.
@@ -187,6 +192,11 @@ public class FillCoverage {
 
     /**
      * Fill given coverage reference, providing it with processed images.
+     * <br>
+     * Tiles are computed in parallel by batches then written sequentially in the
+     * coverage resource. If the evaluator is a math calc evaluator on grid coverages
+     * aligned with the mosaic grid, tiles are computed row by row, otherwise each
+     * pixel is evaluated at its cell center.
      *
      * @param evaluator
      * @param outRef
@@ -196,28 +206,79 @@ public class FillCoverage {
 
         final ColorModel cm = outRef.getColorModel();
         final SampleModel sm = outRef.getSampleModel();
+        final MathCalcTileEvaluator tileEvaluator = (evaluator instanceof MathCalcCoverageEvaluator) ?
+                ((MathCalcCoverageEvaluator) evaluator).createTileEvaluator() : null;
+        final int batchSize = Runtime.getRuntime().availableProcessors() * 2;
 
         for(Pyramid pyramid : outRef.getPyramidSet().getPyramids()){
+            final CoordinateReferenceSystem crs = pyramid.getCoordinateReferenceSystem();
             for(GridMosaic mosaic : pyramid.getMosaics()){
-                final Dimension tileSize = mosaic.getTileSize();
-                final double[] upperLeftGeo = mosaic.getUpperLeftCorner().getCoordinate();
-
                 final Dimension gridSize = mosaic.getGridSize();
-                for(int y=0;y<gridSize.height;y++){
-                    for(int x=0;x<gridSize.width;x++){
-                        final MathTransform gridToCRS = AbstractGridMosaic.getTileGridToCRS(mosaic, new Point(x, y), PixelInCell.CELL_CENTER);
-                        final MathTransform crsToGrid = gridToCRS.inverse();
-                        final double[] baseCoord = new double[upperLeftGeo.length];
-                        crsToGrid.transform(upperLeftGeo, 0, baseCoord, 0, 1);
-                        final MathCalcImageEvaluator eval = new MathCalcImageEvaluator(baseCoord, gridToCRS, evaluator.copy());
-                        final ProcessedRenderedImage image = new ProcessedRenderedImage(sm, cm, eval, tileSize.width, tileSize.height);
-                        outRef.writeTile(pyramid.getId(), mosaic.getId(), x, y, image);
+                final long nbTile = (long) gridSize.width * gridSize.height;
+
+                for(long start=0;start<nbTile;start+=batchSize){
+                    final long batchStart = start;
+                    final RenderedImage[] images = new RenderedImage[(int) Math.min(batchSize, nbTile-start)];
+                    try {
+                        IntStream.range(0, images.length).parallel().forEach((int i) -> {
+                            final long index = batchStart + i;
+                            final int x = (int) (index % gridSize.width);
+                            final int y = (int) (index / gridSize.width);
+                            try {
+                                images[i] = createTile(mosaic, x, y, crs, sm, cm, evaluator, tileEvaluator);
+                            } catch (TransformException | FactoryException ex) {
+                                throw new BackingStoreException(ex);
+                            }
+                        });
+                    } catch (BackingStoreException ex) {
+                        final Throwable cause = ex.getCause();
+                        if (cause instanceof TransformException) throw (TransformException) cause;
+                        if (cause instanceof FactoryException) throw (FactoryException) cause;
+                        throw ex;
+                    }
+
+                    //writing is not expected to be thread safe
+                    for(int i=0;i<images.length;i++){
+                        final long index = start + i;
+                        outRef.writeTile(pyramid.getId(), mosaic.getId(),
+                                (int) (index % gridSize.width), (int) (index / gridSize.width), images[i]);
                     }
                 }
             }
         }
     }
 
+    /**
+     * Compute a single tile image.
+     */
+    private static RenderedImage createTile(GridMosaic mosaic, int x, int y, CoordinateReferenceSystem crs,
+            SampleModel sm, ColorModel cm, SampleEvaluator evaluator, MathCalcTileEvaluator tileEvaluator)
+            throws TransformException, FactoryException {
+        final Dimension tileSize = mosaic.getTileSize();
+
+        if(tileEvaluator!=null && sm!=null && cm!=null){
+            final WritableRaster raster = Raster.createWritableRaster(
+                    sm.createCompatibleSampleModel(tileSize.width, tileSize.height), null);
+            final MathTransform gridToCRS = AbstractGridMosaic.getTileGridToCRS(mosaic, new Point(x, y), PixelInCell.CELL_CORNER);
+            if(tileEvaluator.fill(gridToCRS, crs, raster)){
+                return new BufferedImage(cm, raster, cm.isAlphaPremultiplied(), null);
+            }
+        }
+
+        final double[] upperLeftGeo = mosaic.getUpperLeftCorner().getCoordinate();
+        final MathTransform gridToCRS = AbstractGridMosaic.getTileGridToCRS(mosaic, new Point(x, y), PixelInCell.CELL_CENTER);
+        final MathTransform crsToGrid = gridToCRS.inverse();
+        final double[] baseCoord = new double[upperLeftGeo.length];
+        crsToGrid.transform(upperLeftGeo, 0, baseCoord, 0, 1);
+        final MathCalcImageEvaluator eval = new MathCalcImageEvaluator(baseCoord, gridToCRS, evaluator.copy());
+        final ProcessedRenderedImage image = new ProcessedRenderedImage(sm, cm, eval, tileSize.width, tileSize.height);
+        if(cm!=null){
+            //compute the tile in the calling thread
+            return new BufferedImage(cm, (WritableRaster) image.getTile(0, 0), cm.isAlphaPremultiplied(), null);
+        }
+        return image;
+    }
+
 
     /**
      *
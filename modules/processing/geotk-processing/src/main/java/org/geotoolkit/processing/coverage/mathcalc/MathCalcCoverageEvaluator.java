@@ -62,6 +62,16 @@ public class MathCalcCoverageEvaluator implements FillCoverage.SampleEvaluator {
         sampleBuffer[0] = exp.evaluate(pick, Double.class);
     }
 
+    /**
+     * Create an evaluator computing whole tiles when the coverages are aligned
+     * on the output grid.
+     *
+     * @return tile evaluator or null if the coverages or expression are not supported
+     */
+    MathCalcTileEvaluator createTileEvaluator() {
+        return MathCalcTileEvaluator.create(pick.coverages, pick.mapping, exp);
+    }
+
     @Override
     public FillCoverage.SampleEvaluator copy() throws FactoryException {
         return new MathCalcCoverageEvaluator(this);
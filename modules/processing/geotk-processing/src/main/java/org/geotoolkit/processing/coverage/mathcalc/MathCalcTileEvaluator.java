@@ -0,0 +1,293 @@
+/*
+ *    Geotoolkit.org - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2018, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.processing.coverage.mathcalc;
+
+import java.awt.Rectangle;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.awt.image.WritableRaster;
+import java.util.Arrays;
+import org.apache.sis.referencing.operation.transform.MathTransforms;
+import org.apache.sis.util.Utilities;
+import org.geotoolkit.coverage.grid.GridCoverage2D;
+import org.opengis.coverage.Coverage;
+import org.opengis.filter.expression.Add;
+import org.opengis.filter.expression.BinaryExpression;
+import org.opengis.filter.expression.Divide;
+import org.opengis.filter.expression.Expression;
+import org.opengis.filter.expression.Literal;
+import org.opengis.filter.expression.Multiply;
+import org.opengis.filter.expression.PropertyName;
+import org.opengis.filter.expression.Subtract;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.datum.PixelInCell;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.Matrix;
+import org.opengis.referencing.operation.TransformException;
+
+/**
+ * Evaluates a math calc expression on whole tiles when the input coverages are
+ * grids aligned on the output tile grid.
+ * <br>
+ * The expression is compiled in a tree of operations working on rows of samples,
+ * each input row is read once from the coverage image and each operation loops on
+ * primitive arrays, avoiding the coordinate transformations and boxing of the
+ * per pixel evaluation.
+ * <br>
+ * Instances are immutable and can be used by several threads at the same time.
+ *
+ * @author Johann Sorel (Geomatys)
+ * @module
+ */
+final class MathCalcTileEvaluator {
+
+    /**
+     * Tolerance on the grid alignment, in pixels.
+     */
+    private static final double EPS = 1e-6;
+
+    private final GridCoverage2D[] coverages;
+    private final String[] mapping;
+    private final Expression exp;
+
+    private MathCalcTileEvaluator(GridCoverage2D[] coverages, String[] mapping, Expression exp) {
+        this.coverages = coverages;
+        this.mapping = mapping;
+        this.exp = exp;
+    }
+
+    /**
+     * Create a tile evaluator for the given expression.
+     *
+     * @return tile evaluator, or null if a coverage is not a grid or the expression
+     *         contains operations which can not be compiled.
+     */
+    static MathCalcTileEvaluator create(Coverage[] coverages, String[] mapping, Expression exp) {
+        final GridCoverage2D[] grids = new GridCoverage2D[coverages.length];
+        for (int i=0; i<coverages.length; i++) {
+            if (!(coverages[i] instanceof GridCoverage2D)) return null;
+            grids[i] = (GridCoverage2D) coverages[i];
+        }
+        final MathCalcTileEvaluator evaluator = new MathCalcTileEvaluator(grids, mapping, exp);
+        return (evaluator.compile(exp) != null) ? evaluator : null;
+    }
+
+    /**
+     * Fill the first band of given raster with the expression values.
+     *
+     * @param tileGridToCRS tile grid to crs transform, for the pixel corners.
+     * @param crs tile coordinate reference system
+     * @param target raster to fill, starting at 0,0
+     * @return false if the coverages are not aligned with the tile grid, in which
+     *         case the raster is not modified.
+     */
+    boolean fill(MathTransform tileGridToCRS, CoordinateReferenceSystem crs, WritableRaster target)
+            throws TransformException {
+        if (tileGridToCRS.getSourceDimensions() != 2 || tileGridToCRS.getTargetDimensions() != 2) {
+            return false;
+        }
+        final int width = target.getWidth();
+        final int height = target.getHeight();
+
+        //compute the offset of the tile in each coverage grid
+        final Rectangle[] areas = new Rectangle[coverages.length];
+        for (int i=0; i<coverages.length; i++) {
+            if (!Utilities.equalsIgnoreMetadata(crs, coverages[i].getCoordinateReferenceSystem())) {
+                return false;
+            }
+            final MathTransform tileToCoverage = MathTransforms.concatenate(tileGridToCRS,
+                    coverages[i].getGridGeometry().getGridToCRS(PixelInCell.CELL_CORNER).inverse());
+            final Matrix m = MathTransforms.getMatrix(tileToCoverage);
+            if (m == null
+                    || Math.abs(m.getElement(0, 0) - 1) > EPS || Math.abs(m.getElement(0, 1)) > EPS
+                    || Math.abs(m.getElement(1, 1) - 1) > EPS || Math.abs(m.getElement(1, 0)) > EPS) {
+                return false;
+            }
+            final double tx = m.getElement(0, 2);
+            final double ty = m.getElement(1, 2);
+            if (Math.abs(tx - Math.rint(tx)) > EPS || Math.abs(ty - Math.rint(ty)) > EPS) {
+                return false;
+            }
+            areas[i] = new Rectangle((int) Math.rint(tx), (int) Math.rint(ty), width, height);
+        }
+
+        //read the intersecting part of each input
+        final Raster[] rasters = new Raster[coverages.length];
+        for (int i=0; i<coverages.length; i++) {
+            final RenderedImage image = coverages[i].getRenderedImage();
+            final Rectangle bounds = new Rectangle(image.getMinX(), image.getMinY(), image.getWidth(), image.getHeight());
+            final Rectangle inter = bounds.intersection(areas[i]);
+            if (!inter.isEmpty()) {
+                rasters[i] = image.getData(inter);
+            }
+        }
+
+        final double[][] rows = new double[coverages.length][width];
+        final Node node = compile(exp);
+        final double[] result = new double[width];
+        for (int y=0; y<height; y++) {
+            for (int i=0; i<coverages.length; i++) {
+                readRow(rasters[i], areas[i].x, areas[i].y + y, rows[i]);
+            }
+            node.evaluate(rows, result, width);
+            target.setSamples(target.getMinX(), target.getMinY() + y, width, 1, 0, result);
+        }
+        return true;
+    }
+
+    /**
+     * Copy a row of the first band in given array, samples outside the raster are set to NaN.
+     */
+    private static void readRow(Raster raster, int x, int y, double[] row) {
+        if (raster == null || y < raster.getMinY() || y >= raster.getMinY() + raster.getHeight()) {
+            Arrays.fill(row, Double.NaN);
+            return;
+        }
+        final int minX = Math.max(x, raster.getMinX());
+        final int maxX = Math.min(x + row.length, raster.getMinX() + raster.getWidth());
+        if (minX >= maxX) {
+            Arrays.fill(row, Double.NaN);
+            return;
+        }
+        Arrays.fill(row, 0, minX - x, Double.NaN);
+        Arrays.fill(row, maxX - x, row.length, Double.NaN);
+        final double[] samples = raster.getSamples(minX, y, maxX - minX, 1, 0, (double[]) null);
+        System.arraycopy(samples, 0, row, minX - x, samples.length);
+    }
+
+    /**
+     * Compile the expression. The returned nodes hold working buffers, a new tree must
+     * be compiled for each thread.
+     *
+     * @return compiled node or null if the expression is not supported.
+     */
+    private Node compile(Expression exp) {
+        if (exp instanceof Literal) {
+            final Double value = ((Literal) exp).evaluate(null, Double.class);
+            return (value != null) ? new Constant(value) : null;
+        } else if (exp instanceof PropertyName) {
+            final String name = ((PropertyName) exp).getPropertyName();
+            for (int i=0; i<mapping.length; i++) {
+                if (mapping[i].equals(name)) return new Input(i);
+            }
+            // no coverage for this name
+            return new Constant(Double.NaN);
+        } else if (exp instanceof BinaryExpression) {
+            final int op;
+            if      (exp instanceof Add)      op = Operation.ADD;
+            else if (exp instanceof Subtract) op = Operation.SUBTRACT;
+            else if (exp instanceof Multiply) op = Operation.MULTIPLY;
+            else if (exp instanceof Divide)   op = Operation.DIVIDE;
+            else return null;
+            final Node left = compile(((BinaryExpression) exp).getExpression1());
+            final Node right = compile(((BinaryExpression) exp).getExpression2());
+            if (left == null || right == null) return null;
+            return new Operation(op, left, right);
+        }
+        return null;
+    }
+
+    /**
+     * Compiled expression node.
+     */
+    private static abstract class Node {
+        /**
+         * Evaluate this node on a row.
+         *
+         * @param inputs rows of each input coverage
+         * @param result where to store the values
+         * @param length number of samples to evaluate
+         */
+        abstract void evaluate(double[][] inputs, double[] result, int length);
+    }
+
+    private static final class Constant extends Node {
+        private final double value;
+
+        private Constant(double value) {
+            this.value = value;
+        }
+
+        @Override
+        void evaluate(double[][] inputs, double[] result, int length) {
+            Arrays.fill(result, 0, length, value);
+        }
+    }
+
+    private static final class Input extends Node {
+        private final int index;
+
+        private Input(int index) {
+            this.index = index;
+        }
+
+        @Override
+        void evaluate(double[][] inputs, double[] result, int length) {
+            System.arraycopy(inputs[index], 0, result, 0, length);
+        }
+    }
+
+    private static final class Operation extends Node {
+        private static final int ADD = 0, SUBTRACT = 1, MULTIPLY = 2, DIVIDE = 3;
+
+        private final int op;
+        private final Node left;
+        private final Node right;
+        private double[] buffer;
+
+        private Operation(int op, Node left, Node right) {
+            this.op = op;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        void evaluate(double[][] inputs, double[] result, int length) {
+            left.evaluate(inputs, result, length);
+            final double[] values;
+            if (right instanceof Input) {
+                //avoid copying the input row
+                values = inputs[((Input) right).index];
+            } else if (right instanceof Constant) {
+                apply(result, ((Constant) right).value, length);
+                return;
+            } else {
+                if (buffer == null || buffer.length < length) {
+                    buffer = new double[length];
+                }
+                right.evaluate(inputs, buffer, length);
+                values = buffer;
+            }
+            switch (op) {
+                case ADD:      for (int i=0; i<length; i++) result[i] += values[i]; break;
+                case SUBTRACT: for (int i=0; i<length; i++) result[i] -= values[i]; break;
+                case MULTIPLY: for (int i=0; i<length; i++) result[i] *= values[i]; break;
+                default:       for (int i=0; i<length; i++) result[i] /= values[i]; break;
+            }
+        }
+
+        private void apply(double[] result, double value, int length) {
+            switch (op) {
+                case ADD:      for (int i=0; i<length; i++) result[i] += value; break;
+                case SUBTRACT: for (int i=0; i<length; i++) result[i] -= value; break;
+                case MULTIPLY: for (int i=0; i<length; i++) result[i] *= value; break;
+                default:       for (int i=0; i<length; i++) result[i] /= value; break;
+            }
+        }
+    }
+
+}
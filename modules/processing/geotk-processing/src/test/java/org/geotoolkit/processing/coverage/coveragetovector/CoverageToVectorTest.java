@@ -0,0 +1,102 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2018, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.processing.coverage.coveragetovector;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.WritableRaster;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.sis.measure.NumberRange;
+import org.apache.sis.referencing.CommonCRS;
+import org.geotoolkit.coverage.grid.GridCoverage2D;
+import org.geotoolkit.coverage.grid.GridCoverageBuilder;
+import org.geotoolkit.image.BufferedImages;
+import org.junit.Test;
+import org.locationtech.jts.geom.Geometry;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test tiled polygonisation gives the same polygons as a single pass.
+ *
+ * @author Johann Sorel (Geomatys)
+ * @module
+ */
+public class CoverageToVectorTest extends org.geotoolkit.test.TestBase {
+
+    private static final NumberRange<Double> OUTSIDE = NumberRange.create(0.0, true, 0.5, false);
+    private static final NumberRange<Double> INSIDE = NumberRange.create(0.5, true, 1.5, true);
+
+    /**
+     * Create a coverage with a disc in the middle, one unit per pixel.
+     */
+    private static GridCoverage2D createCoverage() {
+        final BufferedImage image = BufferedImages.createImage(40, 30, 1, DataBuffer.TYPE_FLOAT);
+        final WritableRaster raster = image.getRaster();
+        for (int y=0; y<30; y++) {
+            for (int x=0; x<40; x++) {
+                final double dx = x + 0.5 - 20;
+                final double dy = y + 0.5 - 15;
+                raster.setSample(x, y, 0, (dx*dx + dy*dy < 100) ? 1 : 0);
+            }
+        }
+        final GridCoverageBuilder gcb = new GridCoverageBuilder();
+        gcb.setRenderedImage(image);
+        gcb.setCoordinateReferenceSystem(CommonCRS.WGS84.normalizedGeographic());
+        gcb.setEnvelope(0, 0, 40, 30);
+        return gcb.getGridCoverage2D();
+    }
+
+    @Test
+    public void testTiled() throws Exception {
+        final GridCoverage2D coverage = createCoverage();
+        final NumberRange[] ranges = new NumberRange[]{OUTSIDE, INSIDE};
+
+        final CoverageToVectorProcess process = new CoverageToVectorProcess(coverage, ranges, 0);
+        final List<Geometry> single = new ArrayList<>();
+        process.toPolygon(coverage, ranges, 0, 0, single::add);
+        final List<Geometry> tiled = new ArrayList<>();
+        process.toPolygon(coverage, ranges, 0, 16, tiled::add);
+
+        assertEquals(2, single.size());
+        assertEquals(single.size(), tiled.size());
+        for (NumberRange range : ranges) {
+            double singleArea = 0;
+            int singleCount = 0;
+            for (Geometry geom : single) {
+                if (geom.getUserData() == range) {
+                    singleArea += geom.getArea();
+                    singleCount++;
+                }
+            }
+            double tiledArea = 0;
+            int tiledCount = 0;
+            for (Geometry geom : tiled) {
+                if (geom.getUserData() == range) {
+                    assertTrue(geom.isValid());
+                    tiledArea += geom.getArea();
+                    tiledCount++;
+                }
+            }
+            assertEquals(1, singleCount);
+            assertEquals(singleCount, tiledCount);
+            assertEquals(singleArea, tiledArea, 1e-9);
+        }
+    }
+
+}
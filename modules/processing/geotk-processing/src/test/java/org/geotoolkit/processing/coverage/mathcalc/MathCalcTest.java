@@ -217,6 +217,67 @@ public class MathCalcTest extends org.geotoolkit.test.TestBase {
 
     }
 
+    /**
+     * This test is expected to compute several tiles aligned on the input coverage grid.
+     */
+    @Test
+    public void multiTileTest() throws Exception{
+        final int width = 256;
+        final int height = 150;
+
+        final CoordinateReferenceSystem crs = CommonCRS.WGS84.defaultGeographic();
+        final GeneralEnvelope env = new GeneralEnvelope(crs);
+        env.setRange(0, 0, 25.6);
+        env.setRange(1, 0, 15.0);
+
+        //create base coverage with a different value in each pixel
+        final BufferedImage baseImage = BufferedImages.createImage(width, height, 1 , DataBuffer.TYPE_FLOAT);
+        final WritableRaster baseRaster = baseImage.getRaster();
+        for(int x=0;x<width;x++){
+            for(int y=0;y<height;y++){
+                baseRaster.setSample(x, y, 0, x + 1000*y);
+            }
+        }
+        final GridCoverageBuilder gcb = new GridCoverageBuilder();
+        gcb.setName("base");
+        gcb.setRenderedImage(baseImage);
+        gcb.setEnvelope(env);
+        final GridCoverage2D baseCoverage = gcb.getGridCoverage2D();
+
+        //create output coverage ref
+        final GenericName n = NamesExt.create("test");
+        final MPCoverageStore store = new MPCoverageStore();
+        final PyramidalCoverageResource outRef = (PyramidalCoverageResource) store.add(new DefiningCoverageResource(n));
+        outRef.setPackMode(ViewType.GEOPHYSICS);
+        outRef.setSampleDimensions(Collections.singletonList(new GridSampleDimension("data")));
+        outRef.setSampleModel(baseImage.getSampleModel());
+        outRef.setColorModel(baseImage.getColorModel());
+        final Pyramid pyramid = outRef.createPyramid(crs);
+        final GeneralDirectPosition corner = new GeneralDirectPosition(crs);
+        corner.setCoordinate(env.getMinimum(0), env.getMaximum(1));
+        final GridMosaic mosaic = outRef.createMosaic(pyramid.getId(), new Dimension(4, 3), new Dimension(64, 50), corner, 0.1);
+
+        //run math calc process
+        final MathCalcProcess process = new MathCalcProcess(
+                new Coverage[]{baseCoverage},
+                "A*2-1",
+                new String[]{"A"},
+                outRef);
+        process.call();
+
+        for(int tx=0;tx<4;tx++){
+            for(int ty=0;ty<3;ty++){
+                final Raster tile = mosaic.getTile(tx, ty, null).getImageReader().read(0).getData();
+                for(int x=0;x<64;x++){
+                    for(int y=0;y<50;y++){
+                        final float expected = ((tx*64+x) + 1000*(ty*50+y)) * 2 - 1;
+                        Assert.assertEquals("at ("+tx+" "+ty+" "+x+" "+y+")", expected, tile.getSampleFloat(x, y, 0), DELTA);
+                    }
+                }
+            }
+        }
+    }
+
     /**
      * 4D calc test
      * @throws Exception
@@ -34,6 +34,7 @@ import org.apache.sis.metadata.iso.identification.DefaultDataIdentification;
 import org.apache.sis.parameter.Parameters;
 import org.apache.sis.storage.DataStore;
 import org.apache.sis.storage.DataStoreException;
+import org.apache.sis.storage.event.ChangeEvent;
 import org.geotoolkit.coverage.grid.GeneralGridGeometry;
 import org.geotoolkit.coverage.grid.GridCoverage2D;
 import org.geotoolkit.coverage.grid.GridGeometry2D;
@@ -101,10 +102,27 @@ public abstract class AbstractCoverageResource extends AbstractFeatureSet implem
         return metadata;
     }
 
+    /**
+     * Returns a description of the coverage with approximate statistics.
+     * Statistics are computed once on a subset of the coverage, or restored
+     * with {@link #loadStatistics() }, and discarded when the coverage content changes.
+     *
+     * @return coverage description, never null
+     */
     @Override
     public synchronized CoverageDescription getCoverageDescription() {
         if(desc!=null) return desc;
 
+        try {
+            final ImageStatistics stats = loadStatistics();
+            if (stats != null) {
+                desc = new CoverageDescriptionAdapter(stats);
+                return desc;
+            }
+        } catch (DataStoreException ex) {
+            Logging.getLogger("org.geotoolkit.storage.coverage").log(Level.FINE, "Cannot restore coverage statistics", ex);
+        }
+
         //calculate image statistics
         try {
             final GridCoverageReader reader = acquireReader();
@@ -162,6 +180,11 @@ public abstract class AbstractCoverageResource extends AbstractFeatureSet implem
                 final ParameterValueGroup result = process.call();
                 final ImageStatistics stats = (ImageStatistics) result.parameter("outStatistic").getValue();
                 desc = new CoverageDescriptionAdapter(stats);
+                try {
+                    storeStatistics(stats);
+                } catch (DataStoreException ex) {
+                    Logging.getLogger("org.geotoolkit.storage.coverage").log(Level.WARNING, "Cannot store coverage statistics", ex);
+                }
             }
 
         } catch (Exception ex) {
@@ -177,6 +200,44 @@ public abstract class AbstractCoverageResource extends AbstractFeatureSet implem
         return desc;
     }
 
+    /**
+     * Restore statistics previously saved with {@link #storeStatistics(org.geotoolkit.metadata.ImageStatistics) }.
+     * Default implementation does not persist statistics and returns null.
+     *
+     * @return statistics or null if none are available
+     * @throws DataStoreException if statistics could not be read
+     */
+    protected ImageStatistics loadStatistics() throws DataStoreException {
+        return null;
+    }
+
+    /**
+     * Save statistics computed by {@link #getCoverageDescription() } to avoid
+     * computing them again when the resource is reopened.
+     * Default implementation does nothing.
+     *
+     * @param stats computed statistics
+     * @throws DataStoreException if statistics could not be written
+     */
+    protected void storeStatistics(ImageStatistics stats) throws DataStoreException {
+    }
+
+    /**
+     * Discard cached statistics, called when the coverage content changes.
+     * Subclasses persisting statistics should remove them.
+     */
+    protected synchronized void clearStatistics() {
+        desc = null;
+    }
+
+    @Override
+    protected void sendEvent(final ChangeEvent event) {
+        if (event instanceof CoverageStoreContentEvent || event instanceof CoverageStoreManagementEvent) {
+            clearStatistics();
+        }
+        super.sendEvent(event);
+    }
+
     /**
      * Default recycle implementation.
      * Dispose the reader.
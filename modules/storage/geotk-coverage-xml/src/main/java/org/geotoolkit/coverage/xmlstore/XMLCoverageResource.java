@@ -60,6 +60,7 @@ import org.opengis.referencing.crs.CoordinateReferenceSystem;
 import org.apache.sis.util.logging.Logging;
 import org.geotoolkit.image.internal.PlanarConfiguration;
 import org.geotoolkit.image.internal.SampleType;
+import org.geotoolkit.metadata.ImageStatistics;
 
 import static java.nio.file.StandardOpenOption.CREATE;
 import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
@@ -291,6 +292,13 @@ public class XMLCoverageResource extends AbstractPyramidalCoverageResource {
         return mainfile.getParent().resolve(getId());
     }
 
+    /**
+     * @return file where computed coverage statistics are stored.
+     */
+    Path getStatisticsFile(){
+        return getFolder().resolve("statistics.ser");
+    }
+
     @Override
     public XMLPyramidSet getPyramidSet() {
         return set;
@@ -395,6 +403,56 @@ public class XMLCoverageResource extends AbstractPyramidalCoverageResource {
         return ref;
     }
 
+    /**
+     * {@inheritDoc }.
+     * Statistics are restored from a file in the pyramid folder.
+     */
+    @Override
+    protected ImageStatistics loadStatistics() throws DataStoreException {
+        if (mainfile == null) return null;
+        final Path file = getStatisticsFile();
+        if (!Files.isRegularFile(file)) return null;
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            return (ImageStatistics) in.readObject();
+        } catch (IOException | ClassNotFoundException | ClassCastException ex) {
+            throw new DataStoreException("Unable to read coverage statistics : "+ex.getLocalizedMessage(), ex);
+        }
+    }
+
+    /**
+     * {@inheritDoc }.
+     * Statistics are written in a file in the pyramid folder.
+     */
+    @Override
+    protected void storeStatistics(ImageStatistics stats) throws DataStoreException {
+        if (mainfile == null) return;
+        final Path file = getStatisticsFile();
+        try {
+            Files.createDirectories(file.getParent());
+            try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(file, CREATE, WRITE, TRUNCATE_EXISTING)))) {
+                out.writeObject(stats);
+            }
+        } catch (IOException ex) {
+            throw new DataStoreException("Unable to save coverage statistics : "+ex.getLocalizedMessage(), ex);
+        }
+    }
+
+    /**
+     * {@inheritDoc }.
+     * Statistics file is deleted.
+     */
+    @Override
+    protected synchronized void clearStatistics() {
+        super.clearStatistics();
+        if (mainfile == null) return;
+        try {
+            Files.deleteIfExists(getStatisticsFile());
+        } catch (IOException ex) {
+            Logging.getLogger("org.geotoolkit.coverage.xmlstore").log(Level.WARNING, ex.getMessage(), ex);
+        }
+    }
+
     ////////////////////////////////////////////////////////////////////////////
     // Meta informations methods ///////////////////////////////////////////////
     ////////////////////////////////////////////////////////////////////////////
@@ -714,6 +772,7 @@ public class XMLCoverageResource extends AbstractPyramidalCoverageResource {
     public Pyramid createPyramid(CoordinateReferenceSystem crs) throws DataStoreException {
         final XMLPyramidSet set = getPyramidSet();
         final Pyramid pyramid = set.createPyramid(getIdentifier().tip().toString(),crs);
+        clearStatistics();
         save();
         return pyramid;
     }
@@ -735,6 +794,7 @@ public class XMLCoverageResource extends AbstractPyramidalCoverageResource {
         final XMLPyramidSet set = getPyramidSet();
         final XMLPyramid pyramid = (XMLPyramid) set.getPyramid(pyramidId);
         final XMLMosaic mosaic = pyramid.createMosaic(gridSize, tilePixelSize, upperleft, pixelscale);
+        clearStatistics();
         save();
         return mosaic;
     }
@@ -748,6 +808,7 @@ public class XMLCoverageResource extends AbstractPyramidalCoverageResource {
         final XMLPyramidSet set = getPyramidSet();
         final XMLPyramid pyramid = (XMLPyramid) set.getPyramid(pyramidId);
         final XMLMosaic mosaic = pyramid.createMosaic(gridSize, tilePixelSize, dataPixelSize, upperleft, pixelscale);
+        clearStatistics();
         save();
         return mosaic;
     }
@@ -779,6 +840,7 @@ public class XMLCoverageResource extends AbstractPyramidalCoverageResource {
         checkOrSetSampleColor(image);
 
         mosaic.createTile(col,row,image);
+        clearStatistics();
         if (!mosaic.cacheTileState && mosaic.tileExist != null) {
             save();
         }
@@ -799,6 +861,7 @@ public class XMLCoverageResource extends AbstractPyramidalCoverageResource {
         checkOrSetSampleColor(image);
 
         mosaic.writeTiles(image, area, onlyMissing, monitor);
+        clearStatistics();
         if (!mosaic.cacheTileState && mosaic.tileExist != null) {
             save();
         }
@@ -85,6 +85,7 @@ public class XMLTileWriter implements Runnable {
                 }
             }
         } finally {
+            targetRef.clearStatistics();
             targetRef.save();
         }
     }
@@ -108,6 +109,7 @@ public class XMLTileWriter implements Runnable {
                 info.mosaic.createTile(info.tX, info.tY, info.data, writer);
             }
         } finally {
+            targetRef.clearStatistics();
             targetRef.save();
         }
     }
@@ -0,0 +1,89 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2018, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.coverage.xmlstore;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.apache.sis.geometry.GeneralDirectPosition;
+import org.apache.sis.referencing.CommonCRS;
+import org.geotoolkit.image.BufferedImages;
+import org.geotoolkit.metadata.ImageStatistics;
+import org.geotoolkit.nio.IOUtilities;
+import org.geotoolkit.storage.coverage.DefiningCoverageResource;
+import org.geotoolkit.storage.coverage.GridMosaic;
+import org.geotoolkit.storage.coverage.Pyramid;
+import org.geotoolkit.util.NamesExt;
+import org.junit.Test;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.util.GenericName;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test coverage statistics are persisted in the pyramid folder and removed on writes.
+ *
+ * @author Johann Sorel (Geomatys)
+ * @module
+ */
+public class XMLStatisticsTest extends org.geotoolkit.test.TestBase {
+
+    @Test
+    public void testPersistence() throws Exception {
+        final Path folder = Files.createTempDirectory("mosaic");
+        try {
+            final GenericName name = NamesExt.create("stats");
+            XMLCoverageStore store = new XMLCoverageStore(folder);
+            XMLCoverageResource ref = (XMLCoverageResource) store.add(new DefiningCoverageResource(name));
+
+            final ImageStatistics stats = new ImageStatistics(1);
+            stats.getBand(0).setMin(-3.0);
+            stats.getBand(0).setMax(12.5);
+            stats.getBand(0).setHistogram(new long[]{4, 5, 6});
+            ref.storeStatistics(stats);
+            assertTrue(Files.isRegularFile(ref.getStatisticsFile()));
+
+            //statistics must be restored when the store is opened again
+            store = new XMLCoverageStore(folder);
+            ref = (XMLCoverageResource) store.findResource(name.toString());
+            final ImageStatistics restored = ref.loadStatistics();
+            assertNotNull(restored);
+            assertEquals(1, restored.getBands().length);
+            assertEquals(-3.0, restored.getBand(0).getMin(), 0.0);
+            assertEquals(12.5, restored.getBand(0).getMax(), 0.0);
+            assertArrayEquals(new long[]{4, 5, 6}, restored.getBand(0).getHistogram());
+
+            //writing data must remove them
+            final CoordinateReferenceSystem crs = CommonCRS.WGS84.normalizedGeographic();
+            final GeneralDirectPosition corner = new GeneralDirectPosition(crs);
+            corner.setOrdinate(0, -180);
+            corner.setOrdinate(1, 90);
+            final Pyramid pyramid = ref.createPyramid(crs);
+            final GridMosaic mosaic = ref.createMosaic(pyramid.getId(), new Dimension(1, 1), new Dimension(10, 10), corner, 1);
+            ref.storeStatistics(stats);
+            final BufferedImage tile = BufferedImages.createImage(10, 10, 1, DataBuffer.TYPE_FLOAT);
+            ref.writeTile(pyramid.getId(), mosaic.getId(), 0, 0, tile);
+            assertFalse(Files.exists(ref.getStatisticsFile()));
+            assertNull(ref.loadStatistics());
+        } finally {
+            IOUtilities.deleteSilently(folder);
+        }
+    }
+
+}
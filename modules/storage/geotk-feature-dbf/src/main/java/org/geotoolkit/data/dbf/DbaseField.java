@@ -18,7 +18,9 @@
 package org.geotoolkit.data.dbf;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Calendar;
 import java.util.Date;
 import org.geotoolkit.util.XInteger;
@@ -139,6 +141,80 @@ abstract class DbaseField {
 
     public abstract Object read(CharBuffer charBuffer) throws IOException;
 
+    /**
+     * Read the field value directly from the record bytes, without decoding
+     * characters. Only numeric, date and logical fields support this method,
+     * the bytes are expected to be ASCII.
+     *
+     * @param buffer buffer containing the record
+     * @param offset position of the field first byte in the buffer
+     * @return field value, same as {@link #read(java.nio.CharBuffer) }
+     * @throws IOException
+     */
+    public Object read(final ByteBuffer buffer, final int offset) throws IOException {
+        throw new UnsupportedOperationException("Field "+fieldName+" must be decoded.");
+    }
+
+    /**
+     * @return true if {@link #read(java.nio.ByteBuffer, int) } is supported.
+     */
+    public boolean canReadBytes() {
+        return false;
+    }
+
+    /**
+     * @return index of the first byte greater than a space, or end.
+     */
+    private static int skipBlanks(final ByteBuffer buffer, int start, final int end) {
+        while (start < end && (buffer.get(start) & 0xFF) <= ' ') start++;
+        return start;
+    }
+
+    /**
+     * Parse an unsigned decimal value.
+     *
+     * @return parsed value or -1 if a byte is not a digit
+     */
+    private static int parseDigits(final ByteBuffer buffer, int start, final int end) {
+        int value = 0;
+        for (; start < end; start++) {
+            final int digit = buffer.get(start) - '0';
+            if (digit < 0 || digit > 9) return -1;
+            value = value*10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Parse a signed long value, leading blanks are ignored.
+     *
+     * @param sign if not null, first element is set to the sign character, '-', '+' or 0
+     * @return parsed value or null if the bytes are not an integer
+     */
+    private static Long parseLong(final ByteBuffer buffer, final int offset, final int length, final char[] sign) {
+        final int end = offset + length;
+        int i = skipBlanks(buffer, offset, end);
+        char s = 0;
+        if (i < end) {
+            final byte b = buffer.get(i);
+            if (b == '-' || b == '+') {
+                s = (char) b;
+                i++;
+            }
+        }
+        if (sign != null) sign[0] = s;
+        if (i == end) return null;
+        long value = 0;
+        for (; i < end; i++) {
+            final int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9 || value > (Long.MAX_VALUE - digit) / 10) {
+                return null;
+            }
+            value = value*10 + digit;
+        }
+        return (s == '-') ? -value : value;
+    }
+
     public abstract String string(Object obj, DbaseFieldFormatter formatter) throws IOException;
 
 
@@ -169,6 +245,30 @@ abstract class DbaseField {
                 }
         }
 
+        @Override
+        public Object read(final ByteBuffer buffer, final int offset) throws IOException {
+            final char c = (char) (buffer.get(offset) & 0xFF);
+            switch (c) {
+                case 't':
+                case 'T':
+                case 'Y':
+                case 'y':
+                    return Boolean.TRUE;
+                case 'f':
+                case 'F':
+                case 'N':
+                case 'n':
+                    return Boolean.FALSE;
+                default:
+                    throw new IOException("Unknown logical value : '" + c + "'");
+                }
+        }
+
+        @Override
+        public boolean canReadBytes() {
+            return true;
+        }
+
         @Override
         public String string(final Object obj, final DbaseFieldFormatter formatter) throws IOException {
             return (obj == null ? "F" : obj == Boolean.TRUE ? "T" : "F");
@@ -250,6 +350,28 @@ abstract class DbaseField {
             }
         }
 
+        @Override
+        public Object read(final ByteBuffer buffer, final int offset) throws IOException {
+            if (fieldLength < 8) return null;
+            final int tempYear = parseDigits(buffer, offset, offset+4);
+            final int tempMonth = parseDigits(buffer, offset+4, offset+6);
+            final int tempDay = parseDigits(buffer, offset+6, offset+8);
+            if (tempYear < 0 || tempMonth < 0 || tempDay < 0) {
+                return null;
+            }
+            final Calendar cal = Calendar.getInstance();
+            cal.clear();
+            cal.set(Calendar.YEAR, tempYear);
+            cal.set(Calendar.MONTH, tempMonth - 1);
+            cal.set(Calendar.DAY_OF_MONTH, tempDay);
+            return cal.getTime();
+        }
+
+        @Override
+        public boolean canReadBytes() {
+            return true;
+        }
+
         @Override
         public String string(final Object obj, final DbaseFieldFormatter formatter) throws IOException {
             return formatter.getFieldString((Date) (obj == null ? NULL_DATE : obj));
@@ -282,6 +404,24 @@ abstract class DbaseField {
             }
         }
 
+        @Override
+        public Object read(final ByteBuffer buffer, final int offset) throws IOException {
+            final char[] sign = new char[1];
+            final Long value = parseLong(buffer, offset, fieldLength, sign);
+            if (value == null) {
+                return ZERO;
+            } else if (sign[0] != '+' && value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+                return value.intValue();
+            } else {
+                return value;
+            }
+        }
+
+        @Override
+        public boolean canReadBytes() {
+            return true;
+        }
+
         @Override
         public String string(final Object obj, final DbaseFieldFormatter formatter) throws IOException {
             return formatter.getFieldString(fieldLength, 0,(Number) (obj == null ? NULL_NUMBER : obj));
@@ -309,6 +449,17 @@ abstract class DbaseField {
             }
         }
 
+        @Override
+        public Object read(final ByteBuffer buffer, final int offset) throws IOException {
+            final Long value = parseLong(buffer, offset, fieldLength, null);
+            return (value == null) ? ZERO : value;
+        }
+
+        @Override
+        public boolean canReadBytes() {
+            return true;
+        }
+
         @Override
         public String string(final Object obj, final DbaseFieldFormatter formatter) throws IOException {
             return formatter.getFieldString(fieldLength, 0,(Number) (obj == null ? NULL_NUMBER : obj));
@@ -319,6 +470,10 @@ abstract class DbaseField {
 
         private static final Double ZERO = 0d;
 
+        private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+        };
+
         public FloatingField(final String fieldName, final char fieldType, final int fieldDataAddress,
                         final int fieldLength, final int decimalCount, final Class clazz) {
             super(fieldName, fieldType, fieldDataAddress, fieldLength, decimalCount,clazz);
@@ -337,6 +492,64 @@ abstract class DbaseField {
             }
         }
 
+        /**
+         * Decimal values with less than 16 digits, the common case, are computed
+         * directly from the digits : the mantissa and the power of ten are exact
+         * doubles so the division is correctly rounded. Other values are parsed
+         * by {@link Double#valueOf(java.lang.String) }.
+         */
+        @Override
+        public Object read(final ByteBuffer buffer, final int offset) throws IOException {
+            final int end = offset + fieldLength;
+            final int start = skipBlanks(buffer, offset, end);
+            int i = start;
+            boolean negative = false;
+            if (i < end) {
+                final byte b = buffer.get(i);
+                if (b == '-' || b == '+') {
+                    negative = (b == '-');
+                    i++;
+                }
+            }
+            long mantissa = 0;
+            int digits = 0;
+            int scale = 0;
+            boolean dot = false;
+            for (; i < end; i++) {
+                final byte b = buffer.get(i);
+                if (b >= '0' && b <= '9') {
+                    if (++digits > 15) break;
+                    mantissa = mantissa*10 + (b - '0');
+                    if (dot) scale++;
+                } else if (b == '.' && !dot) {
+                    dot = true;
+                } else {
+                    break;
+                }
+            }
+            if (digits > 0 && digits <= 15 && skipBlanks(buffer, i, end) == end) {
+                double value = mantissa;
+                if (scale > 0) value /= POW10[scale];
+                return negative ? -value : value;
+            }
+
+            //exponent, special values or too many digits
+            final byte[] bytes = new byte[end - start];
+            for (int k = 0; k < bytes.length; k++) {
+                bytes[k] = buffer.get(start + k);
+            }
+            try {
+                return Double.valueOf(new String(bytes, StandardCharsets.ISO_8859_1));
+            } catch (NumberFormatException e) {
+                return ZERO;
+            }
+        }
+
+        @Override
+        public boolean canReadBytes() {
+            return true;
+        }
+
         @Override
         public String string(final Object obj, final DbaseFieldFormatter formatter) throws IOException {
             return formatter.getFieldString(fieldLength, decimalCount,
@@ -45,15 +45,18 @@ import org.geotoolkit.data.dbf.DbaseFileReader.Row;
 import org.geotoolkit.data.query.DefaultQueryCapabilities;
 import org.geotoolkit.data.query.QueryCapabilities;
 import org.geotoolkit.factory.Hints;
+import org.geotoolkit.filter.visitor.FilterAttributeExtractor;
 import org.geotoolkit.nio.IOUtilities;
 import org.geotoolkit.storage.DataStoreFactory;
 import org.geotoolkit.storage.DataStores;
 import org.opengis.feature.AttributeType;
 import org.opengis.feature.Feature;
 import org.opengis.feature.FeatureType;
+import org.opengis.feature.PropertyNotFoundException;
 import org.opengis.feature.PropertyType;
 import org.opengis.filter.Filter;
 import org.opengis.filter.identity.FeatureId;
+import org.opengis.filter.sort.SortBy;
 import org.opengis.parameter.ParameterValueGroup;
 import org.opengis.util.GenericName;
 
@@ -179,10 +182,63 @@ public class DbaseFileFeatureStore extends AbstractFeatureStore implements Resou
 
         final org.geotoolkit.data.query.Query gquery = (org.geotoolkit.data.query.Query) query;
         typeCheck(gquery.getTypeName()); //raise error is type doesnt exist
-        final FeatureReader fr = new DBFFeatureReader();
+        final FeatureReader fr = new DBFFeatureReader(getReadColumns(gquery));
         return FeatureStreams.subset(fr, gquery);
     }
 
+    /**
+     * Find the columns used by the query properties, filter and sort orders.
+     *
+     * @return indices of the columns to read, null to read all columns
+     */
+    private int[] getReadColumns(final org.geotoolkit.data.query.Query query) {
+        final String[] propertyNames = query.getPropertyNames();
+        if (propertyNames == null) {
+            return null;
+        }
+
+        final Set<String> names = new HashSet<>(Arrays.asList(propertyNames));
+        final FilterAttributeExtractor fae = new FilterAttributeExtractor();
+        query.getFilter().accept(fae, null);
+        for (GenericName n : fae.getAttributeNameSet()) {
+            names.add(n.toString());
+        }
+        final SortBy[] sortBy = query.getSortBy();
+        if (sortBy != null) {
+            for (SortBy sb : sortBy) {
+                if (sb.getPropertyName() != null) {
+                    names.add(sb.getPropertyName().getPropertyName());
+                }
+            }
+        }
+
+        //map the names to the columns, properties are in the same order as the columns after the identifier
+        final List<PropertyType> properties = new ArrayList<>(featureType.getProperties(true));
+        final Set<Integer> columns = new TreeSet<>();
+        for (String n : names) {
+            final PropertyType property;
+            try {
+                property = featureType.getProperty(n);
+            } catch (PropertyNotFoundException ex) {
+                //let the generic query handling raise the appropriate error
+                return null;
+            }
+            final int index = properties.indexOf(property);
+            if (index < 0) {
+                return null;
+            } else if (index > 0) {
+                columns.add(index - 1);
+            }
+        }
+
+        final int[] array = new int[columns.size()];
+        int i = 0;
+        for (Integer c : columns) {
+            array[i++] = c;
+        }
+        return array;
+    }
+
 
     ////////////////////////////////////////////////////////////////////////////
     // FALLTHROUGHT OR NOT IMPLEMENTED /////////////////////////////////////////
@@ -230,10 +286,16 @@ public class DbaseFileFeatureStore extends AbstractFeatureStore implements Resou
 
         protected final DbaseFileReader reader;
         protected final String[] attNames;
+        protected final int[] columns;
+        protected Object[] array = null;
         protected Feature current = null;
         protected int inc = 0;
 
-        private DBFFeatureReader() throws DataStoreException{
+        /**
+         * @param columns indices of the columns to read, null for all columns
+         */
+        private DBFFeatureReader(final int[] columns) throws DataStoreException{
+            this.columns = columns;
             RWLock.readLock().lock();
 
             try (SeekableByteChannel sbc = Files.newByteChannel(file, StandardOpenOption.READ)){
@@ -280,13 +342,20 @@ public class DbaseFileFeatureStore extends AbstractFeatureStore implements Resou
 
             try{
                 final Row row = reader.next();
-                final Object[] array = row.readAll(null);
 
                 current = featureType.newInstance();
                 current.setPropertyValue(AttributeConvention.IDENTIFIER_PROPERTY.toString(), ""+inc++);
 
-                for(int i=0;i<array.length;i++){
-                    current.setPropertyValue(attNames[i], array[i]);
+                if(columns == null){
+                    array = row.readAll(array);
+                    for(int i=0;i<array.length;i++){
+                        current.setPropertyValue(attNames[i], array[i]);
+                    }
+                }else{
+                    array = row.readAll(columns, array);
+                    for(int i : columns){
+                        current.setPropertyValue(attNames[i], array[i]);
+                    }
                 }
 
             }catch(IOException ex){
@@ -25,6 +25,7 @@ import java.io.IOException;
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
@@ -727,6 +728,35 @@ public class DbaseFileHeader {
 
     }
 
+    /**
+     * Update the last update date and the number of records of an existing
+     * DBF file. The field definitions are left unchanged.
+     *
+     * @param out
+     *                The channel of the existing file, opened for writing.
+     * @throws IOException
+     *                 If errors occur.
+     */
+    public void updateHeader(final FileChannel out) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(8);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        buffer.put((byte) MAGIC);
+
+        Calendar c = Calendar.getInstance();
+        c.setTime(new Date());
+        buffer.put((byte) (c.get(Calendar.YEAR) % 100));
+        buffer.put((byte) (c.get(Calendar.MONTH) + 1));
+        buffer.put((byte) (c.get(Calendar.DAY_OF_MONTH)));
+
+        buffer.putInt(recordCnt);
+
+        buffer.position(0);
+        while (buffer.remaining() > 0) {
+            out.write(buffer, buffer.position());
+        }
+    }
+
     /**
      * Get a simple representation of this header.
      *
@@ -30,6 +30,8 @@ import java.nio.charset.CharacterCodingException;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetDecoder;
 import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -51,10 +53,12 @@ import org.apache.sis.util.logging.Logging;
  *
  * </PRE></CODE>
  * For consumers who wish to be a bit more selective with their reading
- * of rows, the read(column) method has been added.
+ * of rows, the read(column) and readAll(columns, entry) methods have been added,
+ * fields which are not requested are neither decoded nor parsed.
  * Remember that the Row object is always the same.
- * The values are parsed as they are read, so it pays to copy them out (as each
- * call to Row.read() will result in an expensive String parse).
+ * The values are parsed as they are read, so it pays to copy them out.
+ * Numeric, date and logical fields are parsed directly from the bytes,
+ * character fields are decoded with the reader charset.
  *
  * @author Ian Schneider
  * @author Johann Sorel (Geomatys)
@@ -68,12 +72,19 @@ public final class DbaseFileReader implements Closeable{
 
     public static final Charset DEFAULT_STRING_CHARSET = Charset.forName("ISO-8859-1");
 
+    /**
+     * Characters used by numeric, date and logical fields.
+     */
+    private static final String ASCII_CHARACTERS = "0123456789+-.eE TtFfYyNn?";
+
     public final class Row {
 
         public Object read(final int column) throws IOException {
-            final int offset = header.getFieldOffset(column);
             final DbaseField field = fieldReaders[column];
-            prepareFieldRead(field, offset);
+            if (readBytes[column]) {
+                return field.read(buffer, buffer.position() + fieldOffsets[column]);
+            }
+            prepareFieldRead(field, fieldOffsets[column]);
             return field.read(charBuffer);
         }
 
@@ -84,12 +95,31 @@ public final class DbaseFileReader implements Closeable{
                 throw new ArrayIndexOutOfBoundsException();
             }
 
-            int fieldOffset = 1; //1 to skip the delete flag
             for (int x = 0; x < fieldReaders.length; x++) {
-                final DbaseField field = fieldReaders[x];
-                prepareFieldRead(field, fieldOffset);
-                entry[x] = field.read(charBuffer);
-                fieldOffset += field.fieldLength;
+                entry[x] = read(x);
+            }
+
+            return entry;
+        }
+
+        /**
+         * Read only the given columns, the other fields are not parsed or decoded.
+         *
+         * @param columns indices of the columns to read
+         * @param entry array where to store the values, at the column indices,
+         *        other elements are not modified. If null a new array is created.
+         * @return entry array
+         * @throws IOException
+         */
+        public Object[] readAll(final int[] columns, Object[] entry) throws IOException {
+            if(entry == null){
+                entry = new Object[fieldReaders.length];
+            }else if (entry.length < fieldReaders.length) {
+                throw new ArrayIndexOutOfBoundsException();
+            }
+
+            for (int column : columns) {
+                entry[column] = read(column);
             }
 
             return entry;
@@ -103,6 +133,11 @@ public final class DbaseFileReader implements Closeable{
     protected final CharBuffer charBuffer; //char buffer cache
     private final CharsetDecoder decoder;
     private final DbaseField[] fieldReaders;
+    private final int[] fieldOffsets;
+    /**
+     * True for the fields parsed directly from the bytes, without decoding.
+     */
+    private final boolean[] readBytes;
     private int cnt = 0;
     private final Row row = new Row();
     private Row next = null;
@@ -154,9 +189,20 @@ public final class DbaseFileReader implements Closeable{
         buffer.order(ByteOrder.LITTLE_ENDIAN);
 
         // Set up some buffers and lookups for efficiency
+        //numbers, dates and logicals are ASCII, they can be parsed from the bytes
+        //if the charset encode them the same way
+        final boolean asciiCompatible = Arrays.equals(
+                ASCII_CHARACTERS.getBytes(StandardCharsets.US_ASCII), ASCII_CHARACTERS.getBytes(charset));
+
         fieldReaders = new DbaseField[header.getNumFields()];
+        fieldOffsets = new int[fieldReaders.length];
+        readBytes = new boolean[fieldReaders.length];
+        int fieldOffset = 1; //1 to skip the delete flag
         for (int i = 0, ii = header.getNumFields(); i < ii; i++) {
             fieldReaders[i] = header.getField(i);
+            fieldOffsets[i] = fieldOffset;
+            readBytes[i] = asciiCompatible && fieldReaders[i].canReadBytes();
+            fieldOffset += fieldReaders[i].fieldLength;
         }
 
         charBuffer = CharBuffer.allocate(header.getRecordLength() - 1);
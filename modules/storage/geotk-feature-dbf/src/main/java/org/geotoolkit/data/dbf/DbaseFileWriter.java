@@ -22,6 +22,7 @@ package org.geotoolkit.data.dbf;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
 
@@ -81,7 +82,14 @@ public class DbaseFileWriter implements Closeable{
      */
     public DbaseFileWriter(final DbaseFileHeader header, final WritableByteChannel out, final Charset charset)
             throws IOException {
-        header.writeHeader(out);
+        this(header, out, charset, true);
+    }
+
+    private DbaseFileWriter(final DbaseFileHeader header, final WritableByteChannel out, final Charset charset,
+            final boolean writeHeader) throws IOException {
+        if (writeHeader) {
+            header.writeHeader(out);
+        }
         this.header = header;
         this.channel = out;
         this.charset = charset == null ? Charset.defaultCharset() : charset;
@@ -89,6 +97,26 @@ public class DbaseFileWriter implements Closeable{
         init();
     }
 
+    /**
+     * Create a DbaseFileWriter appending records at the end of an existing file.
+     * The header is not written, it must be updated once all records have been
+     * written, see {@link DbaseFileHeader#updateHeader(java.nio.channels.FileChannel)}.
+     *
+     * @param header
+     *                The DbaseFileHeader read from the existing file.
+     * @param out
+     *                The Channel of the existing file, opened for writing.
+     * @param charset The charset the dbf is encoded in
+     * @return writer positioned after the last record
+     * @throws IOException
+     *                 If errors occur while initializing.
+     */
+    public static DbaseFileWriter append(final DbaseFileHeader header, final FileChannel out, final Charset charset)
+            throws IOException {
+        out.position(header.getHeaderLength() + (long) header.getNumRecords() * header.getRecordLength());
+        return new DbaseFileWriter(header, out, charset, false);
+    }
+
     private void init() throws IOException {
         buffer = ByteBuffer.allocateDirect(header.getRecordLength());
     }
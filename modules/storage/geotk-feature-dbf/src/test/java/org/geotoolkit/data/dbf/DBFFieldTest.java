@@ -0,0 +1,83 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2018, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.data.dbf;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test fields parsed from bytes give the same values as the decoded fields.
+ *
+ * @author Johann Sorel (Geomatys)
+ */
+public class DBFFieldTest extends org.geotoolkit.test.TestBase {
+
+    private static void assertSameRead(final DbaseField field, final String... values) throws Exception {
+        assertTrue(field.canReadBytes());
+        for (String value : values) {
+            //numbers are right aligned in dbf files
+            final StringBuilder sb = new StringBuilder(value);
+            while (sb.length() < field.fieldLength) sb.insert(0, ' ');
+            final String padded = sb.toString();
+
+            //read at an offset to check absolute positions are used
+            final ByteBuffer buffer = ByteBuffer.wrap(("##" + padded).getBytes(StandardCharsets.ISO_8859_1));
+            final Object expected = field.read(CharBuffer.wrap(padded.toCharArray()));
+            final Object result = field.read(buffer, 2);
+            assertEquals("Value '" + value + "'", expected, result);
+            if (expected != null) {
+                assertEquals("Value '" + value + "'", expected.getClass(), result.getClass());
+            }
+        }
+    }
+
+    @Test
+    public void testInteger() throws Exception {
+        final DbaseField field = DbaseField.create("int", 'N', 0, 9, 0, Integer.class);
+        assertSameRead(field, "0", "  12", "-45", "123456789", "-12345678", "+5", "-", "", "1 2", "abc", " 1.5");
+    }
+
+    @Test
+    public void testLong() throws Exception {
+        final DbaseField field = DbaseField.create("long", 'N', 0, 19, 0, Long.class);
+        assertSameRead(field, "0", "  12", "-45", "  123456789012", "+5", "", "12a");
+    }
+
+    @Test
+    public void testFloating() throws Exception {
+        final DbaseField field = DbaseField.create("double", 'F', 0, 24, 8, Double.class);
+        assertSameRead(field, "0", "  12.5", "-45.125", "3.14159265", "0.1", "-0", "1.", ".5",
+                "123456789012345", "1234567890.123456789", "1.5E3", "-2e-5", "NaN", "", "*****", "1.2.3");
+    }
+
+    @Test
+    public void testDate() throws Exception {
+        final DbaseField field = DbaseField.create("date", 'D', 0, 8, 0, java.util.Date.class);
+        assertSameRead(field, "20180514", "19700101", "", "2018 514");
+    }
+
+    @Test
+    public void testLogical() throws Exception {
+        final DbaseField field = DbaseField.create("bool", 'L', 0, 1, 0, Boolean.class);
+        assertSameRead(field, "T", "t", "Y", "y", "F", "f", "N", "n");
+    }
+
+}
@@ -25,6 +25,8 @@ import java.io.IOException;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -140,6 +142,8 @@ public class KmlReader extends StaxStreamReader {
     private final List<KmlExtensionReader> dataReaders = new ArrayList<KmlExtensionReader>();
     //Boolean use to specify if the read document contain namespace or not
     private boolean useNamespace = true;
+    //Shared styles read by readNextPlacemark, by identifier
+    private final Map<String, AbstractStyleSelector> sharedStyles = new HashMap<>();
 
     public KmlReader() {
         KML_FACTORY = DefaultKmlFactory.getInstance();
@@ -164,6 +168,7 @@ public class KmlReader extends StaxStreamReader {
         super.setInput(input);
         XAL_READER.setInput(reader);
         ATOM_READER.setInput(reader);
+        sharedStyles.clear();
     }
 
     /**
@@ -276,6 +281,81 @@ public class KmlReader extends StaxStreamReader {
         return root;
     }
 
+    /**
+     * Reads the next Placemark of the document assigned to the KmlReader.
+     *
+     * Unlike {@link #read() }, the document model is not built : containers are
+     * traversed, other features are skipped and Placemarks are returned one at a time,
+     * so memory use does not depend on the document size.
+     * Shared styles of the containers are retained, a Placemark without inline style
+     * referencing one of them by its styleUrl gets it as style selector.
+     *
+     * @return The next Placemark, or null at the end of the document.
+     */
+    public Feature readNextPlacemark() throws XMLStreamException, KmlException, URISyntaxException {
+        while (reader.hasNext()) {
+            if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+            final String eName = reader.getLocalName();
+            final String eUri = reader.getNamespaceURI();
+
+            if (TAG_KML.equals(eName) && checkNamespace(eUri)) {
+                URI_KML = eUri;
+            } else if (!equalsNamespace(eUri)) {
+                skipElement();
+            } else if (TAG_PLACEMARK.equals(eName)) {
+                final Feature placemark = readPlacemark();
+                resolveSharedStyle(placemark);
+                return placemark;
+            } else if (isAbstractStyleSelector(eName)) {
+                final AbstractStyleSelector style = readAbstractStyleSelector(eName);
+                if (style.getIdAttributes() != null && style.getIdAttributes().getId() != null) {
+                    sharedStyles.put(style.getIdAttributes().getId(), style);
+                }
+            } else if (!isAbstractContainer(eName)) {
+                // container properties and other features
+                skipElement();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Set the shared style referenced by the Placemark styleUrl as its style selector,
+     * if the Placemark has no inline style.
+     */
+    private void resolveSharedStyle(final Feature placemark) {
+        final Object styleUrl = placemark.getPropertyValue(TAG_STYLE_URL);
+        final Object selectors = placemark.getPropertyValue(TAG_STYLE_SELECTOR);
+        if (!(styleUrl instanceof URI)
+                || (selectors instanceof Collection && !((Collection) selectors).isEmpty())) {
+            return;
+        }
+        final URI uri = (URI) styleUrl;
+        if (uri.getScheme() == null && (uri.getPath() == null || uri.getPath().isEmpty())
+                && uri.getFragment() != null) {
+            final AbstractStyleSelector style = sharedStyles.get(uri.getFragment());
+            if (style != null) {
+                placemark.setPropertyValue(TAG_STYLE_SELECTOR, Collections.singletonList(style));
+            }
+        }
+    }
+
+    /**
+     * Skips the current element and its children.
+     * The reader is then positioned on the element end.
+     */
+    private void skipElement() throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0 && reader.hasNext()) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT: depth++; break;
+                case XMLStreamConstants.END_ELEMENT:   depth--; break;
+            }
+        }
+    }
+
     private Kml readKml() throws XMLStreamException, KmlException, URISyntaxException {
         NetworkLinkControl networkLinkControl = null;
         Feature abstractFeature = null;
@@ -25,10 +25,16 @@ import org.locationtech.jts.geom.MultiPolygon;
 import org.locationtech.jts.geom.Point;
 import org.locationtech.jts.geom.Polygon;
 import java.net.URI;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
 import org.apache.sis.internal.storage.xml.AbstractProvider;
 import org.apache.sis.storage.DataStore;
 import org.apache.sis.storage.DataStoreException;
+import org.apache.sis.storage.ProbeResult;
 import org.apache.sis.storage.StorageConnector;
+import org.geotoolkit.nio.IOUtilities;
+import org.geotoolkit.storage.ProviderOnFileSystem;
 import org.geotoolkit.storage.ResourceType;
 import org.geotoolkit.storage.StoreMetadataExt;
 
@@ -47,10 +53,11 @@ import org.geotoolkit.storage.StoreMetadataExt;
                         MultiPoint.class,
                         MultiLineString.class,
                         MultiPolygon.class})
-public class KMLProvider extends AbstractProvider {
+public class KMLProvider extends AbstractProvider implements ProviderOnFileSystem {
 
     public static final String NAME = "kml";
     public static final String MIME_TYPE = "application/vnd.google-earth.kml+xml";
+    public static final String KMZ_MIME_TYPE = "application/vnd.google-earth.kmz";
 
     private static KMLProvider INSTANCE;
 
@@ -74,6 +81,23 @@ public class KMLProvider extends AbstractProvider {
         mimeForNameSpaces.put("http://www.opengis.net/kml/2.2", MIME_TYPE);
     }
 
+    /**
+     * KML documents are recognized by their namespace, KMZ archives by their
+     * file suffix since the document is compressed.
+     */
+    @Override
+    public ProbeResult probeContent(StorageConnector connector) throws DataStoreException {
+        final ProbeResult result = super.probeContent(connector);
+        if (result.isSupported()) {
+            return result;
+        }
+        final Path path = connector.getStorageAs(Path.class);
+        if (path != null && "kmz".equalsIgnoreCase(IOUtilities.extension(path))) {
+            return new ProbeResult(true, KMZ_MIME_TYPE, null);
+        }
+        return result;
+    }
+
     @Override
     public DataStore open(StorageConnector connector) throws DataStoreException {
         final URI uri = connector.getStorageAs(URI.class);
@@ -83,4 +107,9 @@ public class KMLProvider extends AbstractProvider {
         return new KMLStore(uri);
     }
 
+    @Override
+    public Collection<String> getSuffix() {
+        return Arrays.asList("kml", "kmz");
+    }
+
 }
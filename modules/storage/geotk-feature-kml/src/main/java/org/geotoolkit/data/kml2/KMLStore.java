@@ -16,27 +16,24 @@
  */
 package org.geotoolkit.data.kml2;
 
-import org.locationtech.jts.geom.Coordinate;
-import org.locationtech.jts.geom.CoordinateSequence;
-import org.locationtech.jts.geom.Geometry;
-import org.locationtech.jts.geom.GeometryFactory;
-import org.locationtech.jts.geom.LinearRing;
-import org.locationtech.jts.geom.impl.PackedCoordinateSequence;
-import java.io.FileNotFoundException;
+import java.io.BufferedInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.net.URISyntaxException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.stream.Stream;
-import javax.xml.bind.JAXBElement;
-import javax.xml.bind.JAXBException;
-import javax.xml.bind.Unmarshaller;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
+import java.util.stream.StreamSupport;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import javax.xml.stream.XMLStreamException;
 import org.apache.sis.feature.builder.AttributeRole;
 import org.apache.sis.feature.builder.FeatureTypeBuilder;
 import org.apache.sis.internal.storage.ResourceOnFileSystem;
@@ -55,39 +52,37 @@ import org.apache.sis.storage.UnsupportedQueryException;
 import org.apache.sis.storage.event.ChangeEvent;
 import org.apache.sis.storage.event.ChangeListener;
 import org.apache.sis.util.iso.SimpleInternationalString;
-import org.apache.sis.xml.MarshallerPool;
+import org.geotoolkit.data.FeatureStoreRuntimeException;
+import org.geotoolkit.data.kml.model.AbstractGeometry;
+import org.geotoolkit.data.kml.model.KmlException;
+import org.geotoolkit.data.kml.model.Location;
+import org.geotoolkit.data.kml.model.Model;
+import org.geotoolkit.data.kml.model.MultiGeometry;
+import org.geotoolkit.data.kml.xml.KmlReader;
 import org.geotoolkit.data.query.QueryFeatureSet;
 import org.geotoolkit.display2d.GO2Utilities;
 import org.geotoolkit.geometry.jts.JTS;
-import org.geotoolkit.kml.xml.KMLMarshallerPool;
-import org.geotoolkit.kml.xml.v220.AbstractContainerType;
-import org.geotoolkit.kml.xml.v220.AbstractFeatureType;
-import org.geotoolkit.kml.xml.v220.AbstractGeometryType;
-import org.geotoolkit.kml.xml.v220.BoundaryType;
-import org.geotoolkit.kml.xml.v220.GroundOverlayType;
-import org.geotoolkit.kml.xml.v220.KmlType;
-import org.geotoolkit.kml.xml.v220.LineStringType;
-import org.geotoolkit.kml.xml.v220.LinearRingType;
-import org.geotoolkit.kml.xml.v220.LocationType;
-import org.geotoolkit.kml.xml.v220.ModelType;
-import org.geotoolkit.kml.xml.v220.MultiGeometryType;
-import org.geotoolkit.kml.xml.v220.PhotoOverlayType;
-import org.geotoolkit.kml.xml.v220.PlacemarkType;
-import org.geotoolkit.kml.xml.v220.PointType;
-import org.geotoolkit.kml.xml.v220.PolygonType;
+import org.geotoolkit.nio.IOUtilities;
 import org.geotoolkit.storage.DataStores;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LinearRing;
 import org.opengis.feature.Feature;
 import org.opengis.feature.FeatureType;
 import org.opengis.geometry.Envelope;
 import org.opengis.metadata.Metadata;
 import org.opengis.parameter.ParameterValueGroup;
 import org.opengis.referencing.crs.CoordinateReferenceSystem;
-import org.w3c.dom.Document;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
+
+import static org.geotoolkit.data.kml.xml.KmlConstants.*;
 
 /**
+ * KML and KMZ feature set of Placemarks.
+ * <br>
+ * Placemarks are read one at a time with {@link KmlReader#readNextPlacemark() },
+ * the document is never loaded in memory. KMZ files are read from the archive
+ * without extracting them.
  *
  * @author Johann Sorel (Geomatys)
  */
@@ -154,17 +149,30 @@ public class KMLStore extends DataStore implements FeatureSet, ResourceOnFileSys
 
     @Override
     public Stream<Feature> features(boolean parallel) throws DataStoreException {
-        final KmlType kml = read();
-
-        final List<PlacemarkType> placemarks = new ArrayList<>();
-        extractPlacemarks(kml.getAbstractFeatureGroup(), placemarks);
-
-        final List<Feature> features = new ArrayList<>();
-        for (PlacemarkType pt : placemarks) {
-            features.add(convert(pt));
+        final InputStream stream = open();
+        final KmlReader reader = new KmlReader();
+        try {
+            reader.setInput(stream);
+        } catch (IOException | XMLStreamException ex) {
+            try {
+                stream.close();
+            } catch (IOException e) {
+                ex.addSuppressed(e);
+            }
+            throw new DataStoreException(ex.getMessage(), ex);
         }
 
-        return parallel ? features.parallelStream() : features.stream();
+        final PlacemarkIterator ite = new PlacemarkIterator(reader);
+        //the document is parsed sequentially, the parallel flag is ignored
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(ite, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try {
+                        reader.dispose();
+                        stream.close();
+                    } catch (IOException | XMLStreamException ex) {
+                        throw new FeatureStoreRuntimeException(ex);
+                    }
+                });
     }
 
     @Override
@@ -175,41 +183,32 @@ public class KMLStore extends DataStore implements FeatureSet, ResourceOnFileSys
         return FeatureSet.super.subset(query);
     }
 
-    private KmlType read() throws DataStoreException {
-        final KmlType kml;
-        final MarshallerPool pool = KMLMarshallerPool.getINSTANCE();
+    /**
+     * Open the kml document, for a kmz file the stream is positioned on the
+     * first kml entry of the archive.
+     */
+    private InputStream open() throws DataStoreException {
         try {
-            //fix old google namespace
-            final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            factory.setNamespaceAware(true);
-            final DocumentBuilder builder = factory.newDocumentBuilder();
-            final Document doc = builder.parse(path.toString());
-            renameNamespaceRecursive(doc, doc.getDocumentElement(), "http://earth.google.com/kml/2.2", "http://www.opengis.net/kml/2.2");
-
-            //unmarshall file
-            final Unmarshaller unmarshaller = pool.acquireUnmarshaller();
-            Object cdt = unmarshaller.unmarshal(doc);
-            if (cdt instanceof JAXBElement) cdt = ((JAXBElement)cdt).getValue();
-            kml = (KmlType) cdt;
-            pool.recycle(unmarshaller);
-        } catch(FileNotFoundException ex){
-            throw new DataStoreException(ex.getMessage(), ex);
-        } catch(JAXBException | ParserConfigurationException | SAXException | IOException ex) {
+            final InputStream stream = new BufferedInputStream(IOUtilities.open(path));
+            if (!path.toString().toLowerCase().endsWith(".kmz")) {
+                return stream;
+            }
+            final ZipInputStream zip = new ZipInputStream(stream);
+            try {
+                for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                    if (!entry.isDirectory() && entry.getName().toLowerCase().endsWith(".kml")) {
+                        return zip;
+                    }
+                }
+            } catch (IOException ex) {
+                zip.close();
+                throw ex;
+            }
+            zip.close();
+            throw new DataStoreException("No kml entry in kmz file " + path);
+        } catch (IOException ex) {
             throw new DataStoreException(ex.getMessage(), ex);
         }
-        return kml;
-    }
-
-    private static void renameNamespaceRecursive(Document doc, Node node, String oldNamespace, String newNamespace) {
-
-        if (node.getNodeType() == Node.ELEMENT_NODE && oldNamespace.equalsIgnoreCase(node.getNamespaceURI())) {
-            doc.renameNode(node, newNamespace, node.getNodeName());
-        }
-
-        NodeList list = node.getChildNodes();
-        for (int i = 0; i < list.getLength(); ++i) {
-            renameNamespaceRecursive(doc, list.item(i), oldNamespace, newNamespace);
-        }
     }
 
     private static synchronized FeatureType getAbstractFeatureType() {
@@ -244,45 +243,18 @@ public class KMLStore extends DataStore implements FeatureSet, ResourceOnFileSys
         return PLACEMARK_TYPE;
     }
 
-    /**
-     * Loop in KML object and collect Placemarks.
-     *
-     * @param candidate
-     * @param placemarks
-     */
-    private static void extractPlacemarks(Object candidate, List<PlacemarkType> placemarks) {
-        if (candidate instanceof JAXBElement) candidate = ((JAXBElement)candidate).getValue();
-
-        if (candidate instanceof AbstractContainerType) {
-            final AbstractContainerType ct = (AbstractContainerType) candidate;
-            final List<JAXBElement<? extends AbstractFeatureType>> children = ct.getAbstractFeatureGroup();
-            if (children!=null) {
-                for(Object o : children){
-                    extractPlacemarks(o,placemarks);
-                }
-            }
-        } else if(candidate instanceof PlacemarkType) {
-            placemarks.add((PlacemarkType) candidate);
-        } else if(candidate instanceof PhotoOverlayType) {
-            //todo
-        } else if(candidate instanceof GroundOverlayType) {
-            //todo
-        }
-    }
-
-    private Feature convert(PlacemarkType placemark) throws DataStoreException {
+    private static Feature convert(Feature placemark) {
         final Feature feature = getPlacemarkType().newInstance();
-        feature.setPropertyValue("name", placemark.getName());
-        feature.setPropertyValue("visibility", Boolean.TRUE.equals(placemark.isVisibility()));
-        feature.setPropertyValue("open", Boolean.TRUE.equals(placemark.isOpen()));
-        feature.setPropertyValue("address", placemark.getAddress());
-        feature.setPropertyValue("phoneNumber", placemark.getPhoneNumber());
-        feature.setPropertyValue("description", placemark.getDescription());
-        feature.setPropertyValue("styleUrl", placemark.getStyleUrl());
-
+        feature.setPropertyValue("name", placemark.getPropertyValue(TAG_NAME));
+        feature.setPropertyValue("visibility", Boolean.TRUE.equals(placemark.getPropertyValue(TAG_VISIBILITY)));
+        feature.setPropertyValue("open", Boolean.TRUE.equals(placemark.getPropertyValue(TAG_OPEN)));
+        feature.setPropertyValue("address", placemark.getPropertyValue(TAG_ADDRESS));
+        feature.setPropertyValue("phoneNumber", placemark.getPropertyValue(TAG_PHONE_NUMBER));
+        feature.setPropertyValue("description", toString(placemark.getPropertyValue(TAG_DESCRIPTION)));
+        feature.setPropertyValue("styleUrl", toString(placemark.getPropertyValue(TAG_STYLE_URL)));
 
         //convert geometry to JTS
-        final Geometry geom = convert(placemark.getAbstractGeometryGroup());
+        final Geometry geom = convert(placemark.getPropertyValue(TAG_GEOMETRY));
         if(geom!=null) {
             feature.setPropertyValue("geometry", geom);
         }
@@ -290,47 +262,28 @@ public class KMLStore extends DataStore implements FeatureSet, ResourceOnFileSys
         return feature;
     }
 
-    private static Geometry convert(Object geomType) throws DataStoreException {
-        if(geomType instanceof JAXBElement) geomType = ((JAXBElement)geomType).getValue();
-
+    private static Geometry convert(Object geomType) {
         Geometry geom = null;
-        if (geomType instanceof ModelType) {
-            final ModelType modelType = (ModelType) geomType;
-            final LocationType location = modelType.getLocation();
-            geom = GF.createPoint(new Coordinate(location.getLongitude(), location.getLatitude()));
-
-        } else if (geomType instanceof PointType) {
-            final PointType pointType = (PointType) geomType;
-            final List<String> coordinates = pointType.getCoordinates();
-            geom = GF.createPoint(toCoordinates(coordinates, 1, false));
-
-        } else if (geomType instanceof PolygonType) {
-            final PolygonType polygonType = (PolygonType) geomType;
-            final CoordinateSequence outter = toCoordinates(polygonType.getOuterBoundaryIs().getLinearRing().getCoordinates(), 3, true);
-            final List<BoundaryType> inners = polygonType.getInnerBoundaryIs();
-            final LinearRing[] holes = new LinearRing[inners.size()];
-            for(int i=0;i<holes.length;i++){
-                holes[i] = GF.createLinearRing(toCoordinates(inners.get(i).getLinearRing().getCoordinates(), 3, true));
+        if (geomType instanceof Model) {
+            final Location location = ((Model) geomType).getLocation();
+            if (location != null) {
+                geom = GF.createPoint(new Coordinate(location.getLongitude(), location.getLatitude()));
             }
-            geom = GF.createPolygon(GF.createLinearRing(outter), holes);
 
-        } else if (geomType instanceof LinearRingType) {
-            final LinearRingType linearRingType = (LinearRingType) geomType;
-            geom = GF.createLineString(toCoordinates(linearRingType.getCoordinates(), 3, true));
+        } else if (geomType instanceof LinearRing) {
+            geom = GF.createLineString(((LinearRing) geomType).getCoordinateSequence());
 
-        } else if (geomType instanceof MultiGeometryType) {
-            final MultiGeometryType multigeometryType = (MultiGeometryType) geomType;
-            final List<JAXBElement<? extends AbstractGeometryType>> children = multigeometryType.getAbstractGeometryGroup();
+        } else if (geomType instanceof MultiGeometry) {
+            final List<AbstractGeometry> children = ((MultiGeometry) geomType).getGeometries();
             final Geometry[] childs = new Geometry[children.size()];
             for (int i=0;i<childs.length;i++) {
                 childs[i] = convert(children.get(i));
             }
             geom = GF.createGeometryCollection(childs);
 
-        } else if (geomType instanceof LineStringType) {
-            final LineStringType lineStringType = (LineStringType) geomType;
-            geom = GF.createLineString(toCoordinates(lineStringType.getCoordinates(), 2, false));
-
+        } else if (geomType instanceof Geometry) {
+            //points, lines and polygons are JTS geometries
+            geom = GF.createGeometry((Geometry) geomType);
         }
 
         if(geom!=null) {
@@ -340,35 +293,49 @@ public class KMLStore extends DataStore implements FeatureSet, ResourceOnFileSys
         return geom;
     }
 
-    private static CoordinateSequence toCoordinates(List<String> coordinates, int minPoint, boolean close) throws DataStoreException{
-        final List<Coordinate> coords = new ArrayList<>();
-        try {
-            for (String c : coordinates) {
-                final String[] parts = c.split(",");
-                switch (parts.length) {
-                    case 2:
-                        coords.add(new Coordinate(Double.parseDouble(parts[0]), Double.parseDouble(parts[1])));
-                        break;
-                    case 3:
-                        coords.add(new Coordinate(Double.parseDouble(parts[0]), Double.parseDouble(parts[1]), Double.parseDouble(parts[2])));
-                        break;
-                    default:
-                        throw new DataStoreException("Invalid coordinate size " +parts.length);
-                }
-            }
-        } catch(NumberFormatException ex){
-            throw new DataStoreException(ex.getMessage(), ex);
-        }
+    private static String toString(Object value) {
+        return value == null ? null : value.toString();
+    }
+
+    /**
+     * Iterate on the document Placemarks, converted to the placemark feature type.
+     */
+    private static final class PlacemarkIterator implements Iterator<Feature> {
+
+        private final KmlReader reader;
+        private Feature next;
+        private boolean ended;
 
-        while (coordinates.size() < minPoint) {
-            coordinates.add(coordinates.get(coordinates.size()-1));
+        private PlacemarkIterator(KmlReader reader) {
+            this.reader = reader;
         }
 
-        if (close && !coordinates.get(0).equals(coordinates.get(coordinates.size()-1))) {
-            coordinates.add(coordinates.get(0));
+        @Override
+        public boolean hasNext() {
+            if (next == null && !ended) {
+                try {
+                    final Feature placemark = reader.readNextPlacemark();
+                    if (placemark == null) {
+                        ended = true;
+                    } else {
+                        next = convert(placemark);
+                    }
+                } catch (XMLStreamException | KmlException | URISyntaxException ex) {
+                    throw new FeatureStoreRuntimeException(ex);
+                }
+            }
+            return next != null;
         }
 
-        return new PackedCoordinateSequence.Double(coords.toArray(new Coordinate[coords.size()]));
+        @Override
+        public Feature next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("No more placemarks.");
+            }
+            final Feature feature = next;
+            next = null;
+            return feature;
+        }
     }
 
     @Override
@@ -126,6 +126,29 @@ public class StyleMapTest extends org.geotoolkit.test.TestBase {
         assertFalse("Expected exactly one element.", i.hasNext());
     }
 
+    @Test
+    public void styleMapStreamTest() throws IOException, XMLStreamException, URISyntaxException, KmlException {
+        final KmlReader reader = new KmlReader();
+        reader.setInput(new File(pathToTestFile));
+        final Feature placemark = reader.readNextPlacemark();
+        assertNotNull(placemark);
+        assertEquals(KmlModelConstants.TYPE_PLACEMARK, placemark.getType());
+        assertEquals("StyleMap example", placemark.getPropertyValue(KmlConstants.TAG_NAME));
+
+        //shared style map of the document is resolved
+        final Iterator<?> i = ((Iterable<?>) placemark.getPropertyValue(KmlConstants.TAG_STYLE_SELECTOR)).iterator();
+        assertTrue("Expected one element.", i.hasNext());
+        final StyleMap styleMap = (StyleMap) i.next();
+        assertEquals("styleMapExample", styleMap.getIdAttributes().getId());
+        assertFalse("Expected exactly one element.", i.hasNext());
+
+        final Point point = (Point) placemark.getPropertyValue(KmlConstants.TAG_GEOMETRY);
+        assertEquals(-122.368987, point.getCoordinateSequence().getCoordinate(0).x, DELTA);
+
+        assertNull(reader.readNextPlacemark());
+        reader.dispose();
+    }
+
     @Test
     public void styleMapWriteTest() throws KmlException, IOException, XMLStreamException, ParserConfigurationException, SAXException, URISyntaxException {
 //        final KmlFactory kmlFactory = new DefaultKmlFactory();
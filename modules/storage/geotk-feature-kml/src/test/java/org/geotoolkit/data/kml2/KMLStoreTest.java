@@ -16,10 +16,19 @@
  */
 package org.geotoolkit.data.kml2;
 
+import java.io.OutputStream;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Iterator;
 import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.apache.sis.storage.ProbeResult;
+import org.apache.sis.storage.StorageConnector;
 import org.junit.Test;
+import org.locationtech.jts.geom.Point;
 import org.opengis.feature.Feature;
 import org.opengis.feature.FeatureType;
 import static org.geotoolkit.data.kml2.KMLStore.PLACEMARK_NAME;
@@ -50,4 +59,50 @@ public class KMLStoreTest {
             assertFalse(ite.hasNext());
         }
     }
+
+    @Test
+    public void readDocumentTest() throws Exception {
+
+        final URL path = KMLStoreTest.class.getResource("/org/geotoolkit/data/kml/styleMap.kml");
+        final KMLStore store = new KMLStore(path.toURI());
+        assertStyleMap(store);
+    }
+
+    @Test
+    public void readKmzTest() throws Exception {
+
+        final Path kml = Paths.get(KMLStoreTest.class.getResource("/org/geotoolkit/data/kml/styleMap.kml").toURI());
+        final Path kmz = Files.createTempFile("styleMap", ".kmz");
+        try {
+            try (OutputStream out = Files.newOutputStream(kmz);
+                 ZipOutputStream zip = new ZipOutputStream(out)) {
+                zip.putNextEntry(new ZipEntry("files/"));
+                zip.closeEntry();
+                zip.putNextEntry(new ZipEntry("doc.kml"));
+                Files.copy(kml, zip);
+                zip.closeEntry();
+            }
+            assertStyleMap(new KMLStore(kmz.toUri()));
+
+            final ProbeResult result = KMLProvider.provider().probeContent(new StorageConnector(kmz));
+            assertTrue(result.isSupported());
+            assertEquals(KMLProvider.KMZ_MIME_TYPE, result.getMimeType());
+        } finally {
+            Files.deleteIfExists(kmz);
+        }
+    }
+
+    private static void assertStyleMap(final KMLStore store) throws Exception {
+        try (Stream<Feature> stream = store.features(false)) {
+            final Iterator<Feature> ite = stream.iterator();
+            assertTrue(ite.hasNext());
+            final Feature feature = ite.next();
+            assertEquals("StyleMap example", feature.getPropertyValue("name"));
+            assertEquals("#styleMapExample", feature.getPropertyValue("styleUrl"));
+            final Point point = (Point) feature.getPropertyValue("geometry");
+            assertEquals(-122.368987, point.getX(), 0.0);
+            assertEquals(37.817634, point.getY(), 0.0);
+            assertFalse(ite.hasNext());
+        }
+    }
 }
@@ -0,0 +1,283 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2018, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.data.shapefile;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import org.apache.sis.internal.feature.AttributeConvention;
+import org.apache.sis.storage.DataStoreException;
+import org.geotoolkit.data.FeatureStoreContentEvent;
+import org.geotoolkit.data.dbf.DbaseFileHeader;
+import org.geotoolkit.data.dbf.DbaseFileWriter;
+import org.geotoolkit.data.shapefile.lock.AccessManager;
+import org.geotoolkit.data.shapefile.lock.ShpFiles;
+import org.geotoolkit.data.shapefile.shp.JTSUtilities;
+import org.geotoolkit.data.shapefile.shp.ShapeHandler;
+import org.geotoolkit.data.shapefile.shp.ShapeType;
+import org.geotoolkit.data.shapefile.shp.ShapefileHeader;
+import org.geotoolkit.data.shapefile.shp.ShapefileWriter;
+import org.geotoolkit.factory.FactoryFinder;
+import org.geotoolkit.feature.FeatureExt;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.opengis.feature.AttributeType;
+import org.opengis.feature.Feature;
+import org.opengis.feature.FeatureType;
+import org.opengis.filter.FilterFactory;
+import org.opengis.filter.identity.FeatureId;
+import org.opengis.filter.identity.Identifier;
+
+import static org.geotoolkit.data.shapefile.lock.ShpFileType.DBF;
+import static org.geotoolkit.data.shapefile.lock.ShpFileType.SHP;
+import static org.geotoolkit.data.shapefile.lock.ShpFileType.SHX;
+
+/**
+ * Append features at the end of an existing shapefile, in place.
+ * <br>
+ * Unlike {@link ShapefileFeatureWriter}, the existing records are not read
+ * nor copied in temporary files : the new records are written at the end of
+ * the shp, shx and dbf files, then the headers are patched with the new
+ * record count, bounds and file length. The cost of an append is proportional
+ * to the appended data.
+ * <br>
+ * If an error occurs the files are truncated back to their original size.
+ *
+ * @author Johann Sorel (Geomatys)
+ * @module
+ */
+public class ShapefileFeatureAppender {
+
+    protected final FilterFactory FF = FactoryFinder.getFilterFactory(null);
+
+    protected final ShapefileFeatureStore parent;
+
+    protected final ShpFiles shpFiles;
+
+    // the FeatureType we are representing
+    protected final FeatureType featureType;
+
+    // number of records in the files, existing and appended
+    protected int records;
+
+    private final Charset dbfCharset;
+
+    public ShapefileFeatureAppender(final ShapefileFeatureStore parent, final ShpFiles shpFiles,
+            final FeatureType featureType, final Charset charset) {
+        this.parent = parent;
+        this.shpFiles = shpFiles;
+        this.featureType = featureType;
+        this.dbfCharset = charset;
+    }
+
+    /**
+     * Append the features at the end of the files.
+     *
+     * @param features features to append
+     * @return identifiers of the appended features, or null if the files can not be
+     *         appended in place, in which case they are left unchanged.
+     * @throws DataStoreException if writing failed, the files are then restored.
+     */
+    public List<FeatureId> append(final Collection<? extends Feature> features) throws DataStoreException {
+        final AccessManager locker = shpFiles.createLocker();
+        final List<FeatureId> ids = new ArrayList<>();
+        final List<Envelope> recordBounds = new ArrayList<>();
+        final int firstRecord;
+
+        try (FileChannel shpChannel = locker.getAppendChannel(SHP);
+             FileChannel shxChannel = locker.getAppendChannel(SHX);
+             FileChannel dbfChannel = locker.getAppendChannel(DBF)) {
+
+            // read the existing headers
+            final ByteBuffer buffer = ByteBuffer.allocate(100);
+            while (buffer.hasRemaining()) {
+                if (shpChannel.read(buffer) < 0) {
+                    return null;
+                }
+            }
+            buffer.flip();
+            final ShapefileHeader header = ShapefileHeader.read(buffer, true);
+            final DbaseFileHeader dbfHeader = new DbaseFileHeader();
+            dbfHeader.readHeader(dbfChannel);
+
+            final long shpSize = shpChannel.size();
+            final long shxSize = shxChannel.size();
+            final long dbfSize = dbfChannel.size();
+            firstRecord = (int) ((shxSize - 100) / 8);
+
+            // with no records the shape type is not known yet, the writer must choose it
+            if (firstRecord <= 0
+                    || shxSize != 100 + 8L * firstRecord
+                    || shpSize != 2L * header.getFileLength()
+                    || dbfHeader.getNumRecords() != firstRecord
+                    || header.getShapeType() == ShapeType.UNDEFINED) {
+                return null;
+            }
+
+            // hold 1 if dbf should write the attribute at the index, 0 if not
+            final List<AttributeType> attributes = parent.getAttributes(featureType, false);
+            final byte[] writeFlags = new byte[attributes.size()];
+            int cnt = 0;
+            for (int i = 0, n = attributes.size(); i < n; i++) {
+                if (!(Geometry.class.isAssignableFrom(attributes.get(i).getValueClass()))) {
+                    cnt++;
+                    writeFlags[i] = (byte) 1;
+                }
+            }
+            if (cnt != dbfHeader.getNumFields() || !prepare(locker, firstRecord)) {
+                return null;
+            }
+
+            records = firstRecord;
+            try {
+                final ShapeType shapeType = header.getShapeType();
+                final ShapeHandler handler = shapeType.getShapeHandler(true);
+                final ShapefileWriter shpWriter = new ShapefileWriter(shpChannel, shxChannel);
+                int shapefileLength = (int) shpSize;
+                shpWriter.moveToEnd(shapeType, firstRecord, shapefileLength);
+                final DbaseFileWriter dbfWriter = DbaseFileWriter.append(dbfHeader, dbfChannel, dbfCharset);
+
+                final Envelope bounds = new Envelope(header.minX(), header.maxX(), header.minY(), header.maxY());
+                final Object[] transferCache = new Object[cnt];
+
+                final Iterator<? extends Feature> ite = features.iterator();
+                try {
+                    while (ite.hasNext()) {
+                        final Feature feature = ite.next();
+                        final Feature candidate = featureType.newInstance();
+                        FeatureExt.copy(feature, candidate, false);
+                        candidate.setPropertyValue(AttributeConvention.IDENTIFIER_PROPERTY.toString(), nextFeatureId());
+
+                        // writing of Geometry
+                        Geometry g = FeatureExt.getDefaultGeometryValue(candidate)
+                                .filter(Geometry.class::isInstance)
+                                .map(Geometry.class::cast)
+                                .orElse(null);
+                        g = JTSUtilities.convertToCollection(g, shapeType);
+
+                        final Envelope b = g.getEnvelopeInternal();
+                        if (!b.isNull()) {
+                            bounds.expandToInclude(b);
+                        }
+                        recordBounds.add(b);
+
+                        shapefileLength += (handler.getLength(g) + 8);
+                        shpWriter.writeGeometry(g);
+
+                        // writing of attributes
+                        int idx = 0;
+                        for (int i = 0, n = attributes.size(); i < n; i++) {
+                            if (writeFlags[i] > 0) {
+                                transferCache[idx++] = candidate.getPropertyValue(attributes.get(i).getName().toString());
+                            }
+                        }
+                        dbfWriter.write(transferCache);
+
+                        records++;
+                        ids.add(FeatureExt.getId(candidate));
+                    }
+                } finally {
+                    if (ite instanceof AutoCloseable) {
+                        ((AutoCloseable) ite).close();
+                    }
+                }
+
+                flush();
+
+                // patch the headers
+                shpWriter.writeHeaders(bounds, shapeType, records, shapefileLength);
+                dbfHeader.setNumRecords(records);
+                dbfHeader.updateHeader(dbfChannel);
+
+            } catch (Exception ex) {
+                // restore the original files, headers are only written at the end
+                try {
+                    shpChannel.truncate(shpSize);
+                    shxChannel.truncate(shxSize);
+                    dbfChannel.truncate(dbfSize);
+                    rollback();
+                } catch (IOException e) {
+                    ex.addSuppressed(e);
+                }
+                throw new DataStoreException(ex);
+            }
+        } catch (IOException ex) {
+            throw new DataStoreException(ex);
+        } finally {
+            locker.disposeReaderAndWriters();
+        }
+
+        appended(firstRecord, recordBounds);
+
+        if (!ids.isEmpty()) {
+            final Set<Identifier> addedIds = new HashSet<>(ids);
+            final FeatureStoreContentEvent event = new FeatureStoreContentEvent(parent, FeatureStoreContentEvent.Type.ADD, featureType.getName(), FF.id(addedIds));
+            parent.forwardEvent(event);
+        }
+        return ids;
+    }
+
+    /**
+     * Called once the existing files have been checked, before writing any record.
+     * The write lock is held.
+     *
+     * @param locker access manager of the append operation
+     * @param records number of records in the existing files
+     * @return false if the files can not be appended in place
+     */
+    protected boolean prepare(final AccessManager locker, final int records) throws IOException {
+        return true;
+    }
+
+    /**
+     * Called when a new feature is being appended and a new fid is required
+     *
+     * @return a fid for the new feature
+     */
+    protected String nextFeatureId() throws IOException {
+        return featureType.getName().tip() + "." + (records+1);
+    }
+
+    /**
+     * Called once all records have been written, before the headers are updated.
+     */
+    protected void flush() throws IOException {
+    }
+
+    /**
+     * Called if appending failed, after the files have been truncated to their original size.
+     */
+    protected void rollback() throws IOException {
+    }
+
+    /**
+     * Called once the files are updated and closed, to update the indexes for example.
+     *
+     * @param firstRecord number of the first appended record
+     * @param bounds bounds of the appended records
+     */
+    protected void appended(final int firstRecord, final List<Envelope> bounds) {
+    }
+
+}
@@ -698,10 +698,40 @@ public class ShapefileFeatureStore extends AbstractFeatureStore implements Resou
     @Override
     public List<FeatureId> addFeatures(final String groupName, final Collection<? extends Feature> newFeatures,
             final Hints hints) throws DataStoreException {
+        //append in place when possible, existing records are not rewritten
+        final ShapefileFeatureAppender appender = getFeatureAppender(groupName);
+        if (appender != null) {
+            final List<FeatureId> ids = appender.append(newFeatures);
+            if (ids != null) {
+                return ids;
+            }
+        }
         final List<FeatureId> ids = handleAddWithFeatureWriter(groupName, newFeatures, hints);
         return ids;
     }
 
+    /**
+     * Create an appender writing new features at the end of the files, in place.
+     *
+     * @param typeName The typeName of the FeatureType to append to
+     * @return appender, or null if the files can not be modified in place.
+     * @throws DataStoreException If the typeName is not available
+     */
+    protected ShapefileFeatureAppender getFeatureAppender(final String typeName) throws DataStoreException {
+        final FeatureType type = getFeatureType(typeName);
+        if (!canAppend()) {
+            return null;
+        }
+        return new ShapefileFeatureAppender(this, shpFiles, type, dbfCharset);
+    }
+
+    /**
+     * @return true if the shp, shx and dbf files exist and can be modified in place.
+     */
+    protected boolean canAppend() {
+        return shpFiles.isWritable() && shpFiles.exists(SHP) && shpFiles.exists(SHX) && shpFiles.exists(DBF);
+    }
+
     /**
      * {@inheritDoc }
      */
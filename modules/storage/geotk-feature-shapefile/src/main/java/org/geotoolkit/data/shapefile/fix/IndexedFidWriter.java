@@ -84,6 +84,60 @@ public class IndexedFidWriter implements Closeable {
     private IndexedFidWriter() {
     }
 
+    /**
+     * Create a writer appending records at the end of an existing fid index, in place.
+     * The records already in the index are not read, except for the last one.
+     *
+     * @param channel the fid index channel, opened for reading and writing. It will be closed by the writer.
+     * @param nbRecords the number of records expected in the index
+     * @return a writer positioned after the last record, or null if the index does not
+     *         contain the expected number of records and must be regenerated.
+     * @throws IOException
+     */
+    public static IndexedFidWriter append(final FileChannel channel, final int nbRecords) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE);
+        if (!readFully(channel, buffer, 0)) {
+            return null;
+        }
+        buffer.get();
+        final long count = buffer.getLong();
+        final int removes = buffer.getInt();
+        if (count != nbRecords || channel.size() < HEADER_SIZE + count * RECORD_SIZE) {
+            return null;
+        }
+
+        long lastFid = 0;
+        if (count > 0) {
+            final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+            if (!readFully(channel, record, HEADER_SIZE + (count - 1) * RECORD_SIZE)) {
+                return null;
+            }
+            lastFid = record.getLong();
+        }
+
+        final IndexedFidWriter writer = new IndexedFidWriter();
+        writer.channel = channel;
+        writer.allocateBuffers();
+        writer.removes = removes;
+        writer.closed = false;
+        writer.position = HEADER_SIZE + count * RECORD_SIZE;
+        writer.current = -1;
+        writer.recordIndex = (int) count;
+        writer.fidIndex = lastFid;
+        return writer;
+    }
+
+    private static boolean readFully(final FileChannel channel, final ByteBuffer buffer, final long position)
+            throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                return false;
+            }
+        }
+        buffer.flip();
+        return true;
+    }
+
     /**
      * Allocate some buffers for writing.
      */
@@ -121,7 +175,7 @@ public class IndexedFidWriter implements Closeable {
     }
 
     public boolean hasNext() throws IOException {
-        return reader.hasNext();
+        return reader != null && reader.hasNext();
     }
 
     public long next() throws IOException {
@@ -129,7 +183,7 @@ public class IndexedFidWriter implements Closeable {
         if (current != -1)
             write();
 
-        if (reader.hasNext()) {
+        if (hasNext()) {
             reader.next();
             fidIndex = reader.getCurrentFIDIndex();
         } else {
@@ -151,7 +205,9 @@ public class IndexedFidWriter implements Closeable {
             finishLastWrite();
         } finally {
             try {
-                reader.close();
+                if (reader != null) {
+                    reader.close();
+                }
             } finally {
                 closeWriterChannels();
             }
@@ -0,0 +1,128 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2018, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.data.shapefile.indexed;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.logging.Level;
+import org.geotoolkit.data.shapefile.ShapefileFeatureAppender;
+import org.geotoolkit.data.shapefile.ShapefileFeatureStoreFactory;
+import org.geotoolkit.data.shapefile.fix.IndexedFidWriter;
+import org.geotoolkit.data.shapefile.lock.AccessManager;
+import org.geotoolkit.data.shapefile.lock.ShpFiles;
+import org.locationtech.jts.geom.Envelope;
+import org.opengis.feature.FeatureType;
+
+import static org.geotoolkit.data.shapefile.lock.ShpFileType.*;
+
+/**
+ * Append features at the end of an existing shapefile, in place, and update
+ * the fid and quad tree indexes with the appended records only.
+ * Indexes which are missing or out of date are rebuilt as done by
+ * {@link IndexedShapefileFeatureWriter}.
+ *
+ * @author Johann Sorel (Geomatys)
+ * @module
+ */
+class IndexedShapefileFeatureAppender extends ShapefileFeatureAppender {
+
+    private final IndexedShapefileFeatureStore indexedShapefileFeatureStore;
+    private IndexedFidWriter fidWriter;
+    private boolean qixUseable;
+
+    IndexedShapefileFeatureAppender(final IndexedShapefileFeatureStore featurestore, final ShpFiles shpFiles,
+            final FeatureType featureType, final Charset charset) {
+        super(featurestore, shpFiles, featureType, charset);
+        this.indexedShapefileFeatureStore = featurestore;
+    }
+
+    @Override
+    protected boolean prepare(final AccessManager locker, final int records) throws IOException {
+        // must be checked before the shapefile is modified
+        qixUseable = indexedShapefileFeatureStore.treeType == IndexType.QIX
+                && indexedShapefileFeatureStore.indexUseable(QIX);
+
+        if (indexedShapefileFeatureStore.indexUseable(FIX)) {
+            final FileChannel channel = locker.getAppendChannel(FIX);
+            fidWriter = IndexedFidWriter.append(channel, records);
+            if (fidWriter == null) {
+                // fid index does not match the shapefile, it will be regenerated
+                channel.close();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected String nextFeatureId() throws IOException {
+        if (fidWriter == null) {
+            return super.nextFeatureId();
+        }
+        final long fid = fidWriter.next();
+        fidWriter.write();
+        return featureType.getName().tip() + "." + fid;
+    }
+
+    @Override
+    protected void flush() throws IOException {
+        if (fidWriter != null) {
+            fidWriter.close();
+        }
+    }
+
+    @Override
+    protected void rollback() throws IOException {
+        if (fidWriter != null) {
+            try {
+                fidWriter.close();
+            } finally {
+                // the fid index header may have been updated, it will be regenerated
+                Files.deleteIfExists(shpFiles.getPath(FIX));
+            }
+        }
+    }
+
+    @Override
+    protected void appended(final int firstRecord, final List<Envelope> bounds) {
+        try {
+            if (indexedShapefileFeatureStore.needsGeneration(FIX)) {
+                IndexedFidWriter.generate(shpFiles);
+            }
+            if (indexedShapefileFeatureStore.treeType == IndexType.QIX) {
+                shpFiles.unloadIndexes();
+                if (qixUseable) {
+                    final ShapeFileIndexer indexer = new ShapeFileIndexer();
+                    indexer.setIdxType(IndexType.QIX);
+                    indexer.setShapeFileName(shpFiles);
+                    indexer.append(firstRecord, bounds);
+                } else {
+                    Files.deleteIfExists(shpFiles.getPath(QIX));
+                    indexedShapefileFeatureStore.buildQuadTree(indexedShapefileFeatureStore.maxDepth);
+                }
+            }
+        } catch (Throwable e) {
+            indexedShapefileFeatureStore.treeType = IndexType.NONE;
+            ShapefileFeatureStoreFactory.LOGGER.log(Level.WARNING,
+                    "Error updating Spatial index", e);
+        }
+    }
+
+}
@@ -40,6 +40,7 @@ import org.geotoolkit.data.FeatureWriter;
 import org.geotoolkit.data.query.QueryBuilder;
 import org.geotoolkit.data.query.QueryUtilities;
 import org.geotoolkit.data.shapefile.FeatureIDReader;
+import org.geotoolkit.data.shapefile.ShapefileFeatureAppender;
 import org.geotoolkit.data.shapefile.ShapefileFeatureReader;
 import org.geotoolkit.data.shapefile.ShapefileFeatureStore;
 import org.geotoolkit.data.shapefile.ShapefileFeatureStoreFactory;
@@ -575,6 +576,17 @@ public class IndexedShapefileFeatureStore extends ShapefileFeatureStore {
         }
     }
 
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    protected ShapefileFeatureAppender getFeatureAppender(final String typeName) throws DataStoreException {
+        final FeatureType schema = getFeatureType(typeName);
+        if (!canAppend()) {
+            return null;
+        }
+        return new IndexedShapefileFeatureAppender(this, shpFiles, schema, dbfCharset);
+    }
 
     @Override
     public org.opengis.geometry.Envelope getEnvelope(final Query query) throws DataStoreException {
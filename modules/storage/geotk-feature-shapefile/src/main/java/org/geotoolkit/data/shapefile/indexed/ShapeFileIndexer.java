@@ -19,6 +19,7 @@ package org.geotoolkit.data.shapefile.indexed;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.nio.file.Path;
+import java.util.List;
 
 import org.apache.sis.storage.DataStoreException;
 import org.geotoolkit.data.shapefile.lock.ShpFiles;
@@ -107,19 +108,61 @@ public class ShapeFileIndexer {
         return cnt;
     }
 
-    private int buildQuadTree(final AccessManager locker, final ShapefileReader reader,
-            final Path file, final boolean verbose)
+    /**
+     * Insert appended records in the existing index. Records already indexed
+     * are not read again and the stored tree is not loaded in memory : the new
+     * records are inserted in the stored nodes they reach, the root bounds are
+     * expanded to contain them and unchanged nodes are copied.
+     * The byte order of the existing index is kept.
+     *
+     * @param firstRecord
+     *                number of the first appended record
+     * @param bounds
+     *                bounds of the appended records
+     *
+     * @return The number of indexed records
+     *
+     * @throws IOException
+     * @throws StoreException
+     */
+    public int append(final int firstRecord, final List<Envelope> bounds)
             throws IOException, StoreException {
-        byte order = 0;
 
+        if (this.shpFiles == null) {
+            throw new IOException("You have to set a shape file name!");
+        }
+        if (idxType != IndexType.QIX) {
+            throw new IllegalArgumentException("NONE is not a legal index choice");
+        }
+
+        final AccessManager locker = shpFiles.createLocker();
+        final StorageFile storage = locker.getStorageFile(this.idxType.shpFileType);
+
+        final FileSystemIndexStore store = new FileSystemIndexStore(storage.getFile(), getByteOrder());
+        store.append(shpFiles.getPath(this.idxType.shpFileType), firstRecord, bounds);
+
+        // Final index file
+        locker.disposeReaderAndWriters();
+        locker.replaceStorageFiles();
+
+        return bounds.size();
+    }
+
+    private byte getByteOrder() throws StoreException {
         if ((this.byteOrder == null) || this.byteOrder.equalsIgnoreCase("NM")) {
-            order = IndexHeader.NEW_MSB_ORDER;
+            return IndexHeader.NEW_MSB_ORDER;
         } else if (this.byteOrder.equalsIgnoreCase("NL")) {
-            order = IndexHeader.NEW_LSB_ORDER;
+            return IndexHeader.NEW_LSB_ORDER;
         } else {
             throw new StoreException("Asked byte order '" + this.byteOrder
                     + "' must be 'NL' or 'NM'!");
         }
+    }
+
+    private int buildQuadTree(final AccessManager locker, final ShapefileReader reader,
+            final Path file, final boolean verbose)
+            throws IOException, StoreException {
+        final byte order = getByteOrder();
 
         final ShxReader shpIndex = locker.getSHXReader(false);
         QuadTree tree = null;
@@ -30,6 +30,7 @@ import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Level;
@@ -192,6 +193,26 @@ public final class AccessManager {
         return writer;
     }
 
+    /**
+     * Open a channel to modify the original file in place, used to append records.
+     * The write lock is acquired until the channel is closed : the channel must be
+     * closed by the same thread, which must not hold any reader.
+     *
+     * @param type the type of file to open
+     * @return read and write channel on the original file
+     * @throws IOException if the file can not be opened
+     */
+    public FileChannel getAppendChannel(final ShpFileType type) throws IOException {
+        if (!files.isWritable()) {
+            throw new IllegalArgumentException(
+                    "Currently only local files are supported for writing");
+        }
+
+        final FileChannel channel = FileChannel.open(files.getPath(type),
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new ClosingFileChannel(channel, true, true);
+    }
+
     /**
      * Obtains a Storage file for the type indicated. An id is provided so that
      * the same file can be obtained at a later time with just the id
@@ -390,13 +411,21 @@ public final class AccessManager {
 
         private final FileChannel wrapped;
         private final boolean write;
+        private final boolean inPlace;
         private boolean closed;
 
         private ClosingFileChannel(final FileChannel channel, final boolean write) {
+            this(channel, write, false);
+        }
+
+        private ClosingFileChannel(final FileChannel channel, final boolean write, final boolean inPlace) {
             this.wrapped = channel;
             this.closed = false;
             this.write = write;
-            if(!write){
+            this.inPlace = inPlace;
+            if(inPlace){
+                getWriteLock();
+            }else if(!write){
                 getReadLock();
             }
         }
@@ -495,7 +524,9 @@ public final class AccessManager {
             } finally {
                 if (!closed) {
                     closed = true;
-                    if (!write) {
+                    if (inPlace) {
+                        releaseWriteLock();
+                    } else if (!write) {
                         releaseReadLock();
                     }
                 }
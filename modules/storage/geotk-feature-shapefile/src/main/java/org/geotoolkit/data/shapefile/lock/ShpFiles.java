@@ -35,6 +35,7 @@ import static org.geotoolkit.data.shapefile.lock.ShpFileType.SHP;
 import org.geotoolkit.index.quadtree.QuadTree;
 import org.geotoolkit.index.quadtree.StoreException;
 import org.geotoolkit.index.quadtree.fs.FileSystemIndexStore;
+import org.geotoolkit.index.quadtree.fs.MappedQuadTree;
 import org.apache.sis.util.collection.WeakHashSet;
 import org.geotoolkit.nio.IOUtilities;
 
@@ -506,8 +507,8 @@ public final class ShpFiles {
                 quadTree.close();
             } catch (StoreException ex) {
                 LOGGER.log(Level.WARNING, "Failed to close quad tree.", ex);
-                quadTree = null;
             }
+            quadTree = null;
         }
     }
 
@@ -533,10 +534,14 @@ public final class ShpFiles {
                     //we store the quad tree for reuse
                     quadTree = qixStore.load();
                     quadTree.loadAll();
-                    return quadTree;
-                }else{
+                }else if(Files.size(treePath) > MappedQuadTree.MAX_FILE_LENGTH){
+                    //too large to be mapped, read from the file by each caller
                     return qixStore.load();
+                }else{
+                    //immutable mapped view, shared by all readers and decoded lazily
+                    quadTree = qixStore.loadMapped();
                 }
+                return quadTree;
 
             } catch (IOException ex) {
                 LOGGER.log(Level.WARNING, "Failed to get quad tree.", ex);
@@ -166,6 +166,33 @@ public class ShapefileWriter implements Closeable{
         shx.moveToRecordStart();
     }
 
+    /**
+     * Allocate internal buffers and position the channels at the end of the
+     * record sections, to append geometries to an existing shapefile. The
+     * headers MUST be rewritten after this operation, or the file may be corrupt...
+     *
+     * @param type shape type of the existing shapefile
+     * @param numberOfGeometries number of records in the existing shapefile
+     * @param fileLength length of the existing shapefile, in bytes
+     */
+    public void moveToEnd(final ShapeType type, final int numberOfGeometries, final int fileLength)
+            throws IOException {
+        try {
+            handler = type.getShapeHandler(true);
+        } catch (DataStoreException se) {
+            throw new RuntimeException("unexpected Exception", se);
+        }
+        if (shapeBuffer == null)
+            allocateBuffers();
+
+        this.type = type;
+        offset = fileLength / 2;
+        cnt = numberOfGeometries;
+
+        shpChannel.position(fileLength);
+        shx.moveToRecord(numberOfGeometries);
+    }
+
     /**
      * Write a single Geometry to this shapefile. The Geometry must be
      * compatable with the ShapeType assigned during the writing of the headers.
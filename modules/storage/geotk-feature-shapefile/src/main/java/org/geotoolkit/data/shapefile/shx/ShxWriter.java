@@ -69,6 +69,16 @@ public class ShxWriter implements Closeable{
         channel.position(100);
     }
 
+    /**
+     * Moves in the FileChannel to the position of the given record.
+     * This is position(100 + 8*index) in the fileChannel.
+     *
+     * @param index record index, starting at 0
+     */
+    public void moveToRecord(final int index) throws IOException {
+        channel.position(100 + 8L * index);
+    }
+
     /**
      * SHP and SHX files share the same header structure.
      * This method will delegate call to ShapefileHeader.write .
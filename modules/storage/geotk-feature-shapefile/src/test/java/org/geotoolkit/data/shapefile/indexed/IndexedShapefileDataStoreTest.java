@@ -31,6 +31,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -259,6 +260,80 @@ public class IndexedShapefileDataStoreTest extends AbstractTestCaseSupport {
         ds2.close();
     }
 
+    /**
+     * Features added to an existing shapefile are appended in place,
+     * the fid and quad tree indexes must include the new records.
+     */
+    @Test
+    public void testAppendInPlace() throws Exception {
+        File shpFile = copyShapefiles(STATE_POP);
+        URL url = shpFile.toURI().toURL();
+        String filename = url.getFile();
+        filename = filename.substring(0, filename.lastIndexOf("."));
+        File qixFile = new File(filename + ".qix");
+        File fixFile = new File(filename + ".fix");
+        qixFile.deleteOnExit();
+        fixFile.deleteOnExit();
+
+        IndexedShapefileFeatureStore ds = new IndexedShapefileFeatureStore(url.toURI(), true, true, IndexType.QIX, null);
+        final String typeName = ds.getName().toString();
+        final long nb = ds.getCount(QueryBuilder.all(typeName));
+        final long shpLength = shpFile.length();
+        assertTrue(qixFile.exists());
+        assertTrue(fixFile.exists());
+
+        final Set<String> existingIds = new HashSet<>();
+        try (FeatureReader reader = ds.getFeatureReader(QueryBuilder.all(typeName))) {
+            while (reader.hasNext()) {
+                existingIds.add(FeatureExt.getId(reader.next()).getID());
+            }
+        }
+
+        //one feature inside the existing bounds, one outside
+        final GeometryFactory gf = new GeometryFactory();
+        final String geometryName = FeatureExt.getDefaultGeometry(ds.getFeatureType()).getName().tip().toString();
+        final Feature inside = ds.getFeatureType().newInstance();
+        inside.setPropertyValue(geometryName, gf.toGeometry(new Envelope(-100, -99, 40, 41)));
+        inside.setPropertyValue("STATE_NAME", "Inside");
+        final Feature outside = ds.getFeatureType().newInstance();
+        outside.setPropertyValue(geometryName, gf.toGeometry(new Envelope(100, 101, 10, 11)));
+        outside.setPropertyValue("STATE_NAME", "Outside");
+
+        final List<FeatureId> ids = ds.addFeatures(typeName, Arrays.asList(inside, outside));
+        assertEquals(2, ids.size());
+        for (FeatureId id : ids) {
+            assertFalse(existingIds.contains(id.getID()));
+        }
+        assertEquals(nb + 2, ds.getCount(QueryBuilder.all(typeName)));
+        //existing records are not rewritten : 8 bytes record header, 4 bytes shape type, 32 bytes bbox,
+        //2 ints for the parts and points counts, one part and 5 points per polygon
+        assertEquals(shpLength + 2 * (8 + 4 + 32 + 8 + 4 + 5 * 16), shpFile.length());
+
+        //fid index
+        final FilterFactory2 ff = (FilterFactory2) FactoryFinder.getFilterFactory(null);
+        try (FeatureReader reader = ds.getFeatureReader(QueryBuilder.filtered(typeName, ff.id(Collections.singleton(ids.get(1)))))) {
+            assertTrue(reader.hasNext());
+            assertEquals("Outside", reader.next().getPropertyValue("STATE_NAME"));
+            assertFalse(reader.hasNext());
+        }
+
+        //quad tree index, compared with a store which does not use it
+        IndexedShapefileFeatureStore ds2 = new IndexedShapefileFeatureStore(url.toURI(),
+                false, false, IndexType.NONE, null);
+        final CoordinateReferenceSystem crs = FeatureExt.getCRS(ds.getFeatureType());
+        List found = performQueryComparison(ds, ds2, new JTSEnvelope2D(new Envelope(99, 102, 9, 12), crs));
+        assertEquals(1, found.size());
+        assertEquals("Outside", ((Feature) found.get(0)).getPropertyValue("STATE_NAME"));
+        found = performQueryComparison(ds, ds2, new JTSEnvelope2D(new Envelope(-100.5, -99.5, 40.5, 41.5), crs));
+        assertTrue(found.size() > 1);
+
+        final JTSEnvelope2D env = (JTSEnvelope2D) ds.getEnvelope(QueryBuilder.all(typeName));
+        assertEquals(101, env.getMaxX(), 0.0);
+
+        ds.close();
+        ds2.close();
+    }
+
     @Test
     public void testFidFilter() throws Exception {
         File shpFile = copyShapefiles(STATE_POP);
@@ -0,0 +1,113 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2018, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.index.quadtree;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.geotoolkit.feature.FeatureExt;
+
+import org.geotoolkit.data.shapefile.AbstractTestCaseSupport;
+import org.geotoolkit.data.shapefile.indexed.IndexedShapefileFeatureStore;
+import org.geotoolkit.geometry.jts.JTSEnvelope2D;
+import org.geotoolkit.index.quadtree.fs.FileSystemIndexStore;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compare searches on a memory mapped quadtree with searches on the file system quadtree.
+ *
+ * @author Johann Sorel (Geomatys)
+ * @module
+ */
+public class MappedLazySearchCollectionTest extends AbstractTestCaseSupport {
+
+    private File file;
+    private IndexedShapefileFeatureStore ds;
+    private QuadTree tree;
+    private QuadTree mapped;
+    private DataReader dr;
+    private CoordinateReferenceSystem crs;
+
+    @Before
+    public void setUp() throws Exception {
+        file = copyShapefiles("shapes/streams.shp");
+        ds = new IndexedShapefileFeatureStore(file.toURI());
+        ds.buildQuadTree(0);
+        final Object[] v = LineLazySearchCollectionTest.openQuadTree(file);
+        tree = (QuadTree) v[0];
+        dr = (DataReader) v[1];
+        mapped = new FileSystemIndexStore(sibling(file, "qix")).loadMapped();
+        crs = FeatureExt.getCRS(ds.getFeatureType(ds.getNames().iterator().next().toString()));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        tree.close();
+        mapped.close();
+        dr.close();
+        super.tearDown();
+        file.getParentFile().delete();
+    }
+
+    @Test
+    public void testSameResults() throws Exception {
+        final JTSEnvelope2D[] envs = new JTSEnvelope2D[]{
+            new JTSEnvelope2D(585000, 610000, 4910000, 4930000, crs),
+            new JTSEnvelope2D(588993, 589604, 4927443, 4927443, crs),
+            new JTSEnvelope2D(592211, 597000, 4910947, 4913500, crs)};
+        for (JTSEnvelope2D env : envs) {
+            final LazySearchCollection expected = new LazySearchCollection(tree, dr, env);
+            final LazySearchCollection result = new LazySearchCollection(mapped, dr, env);
+            assertEquals(expected.size(), result.size());
+            assertTrue(result.getStatistics().getNodesVisited() > 0);
+            assertTrue(result.getStatistics().getBytesTouched() > 0);
+        }
+        assertEquals(tree.getRoot().toString(), mapped.getRoot().toString());
+    }
+
+    @Test
+    public void testConcurrentSearches() throws Exception {
+        final JTSEnvelope2D env = new JTSEnvelope2D(585000, 610000, 4910000, 4930000, crs);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                results.add(executor.submit(() -> {
+                    int count = 0;
+                    final LazySearchIterator ite = new LazySearchIterator(mapped.getRoot(), env, null);
+                    while (ite.hasNext()) {
+                        count += ite.next().getShapesId().length;
+                    }
+                    return count;
+                }));
+            }
+            for (Future<Integer> result : results) {
+                assertEquals(116, result.get().intValue());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
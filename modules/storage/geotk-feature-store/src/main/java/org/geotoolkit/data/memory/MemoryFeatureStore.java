@@ -30,6 +30,8 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.logging.Level;
 import org.geotoolkit.feature.FeatureExt;
 import org.apache.sis.storage.DataStoreException;
@@ -68,6 +70,11 @@ import org.opengis.feature.PropertyNotFoundException;
 
 
 /**
+ * Feature store keeping features in memory.
+ * <br>
+ * Optional indexes can be created on each type with {@link #createSpatialIndex(java.lang.String) }
+ * and {@link #createAttributeIndex(java.lang.String, java.lang.String) }.
+ *
  * @todo : make this concurrent
  * @author Johann Sorel (Geomatys)
  * @module
@@ -79,6 +86,8 @@ public class MemoryFeatureStore extends AbstractFeatureStore{
     private static abstract class Group {
         final FeatureType type;
         final boolean hasIds;
+        final List<MemoryIndex> indexes = new CopyOnWriteArrayList<>();
+        final ReadWriteLock indexLock = new ReentrantReadWriteLock();
 
         Group(final FeatureType type){
             this.type = type;
@@ -89,6 +98,94 @@ public class MemoryFeatureStore extends AbstractFeatureStore{
             return type;
         }
 
+        abstract Collection<Feature> getFeatures();
+
+        void addIndex(final MemoryIndex index){
+            indexLock.writeLock().lock();
+            try{
+                //features added meanwhile are indexed when the lock is released
+                indexes.add(index);
+                for(Feature f : getFeatures()){
+                    index.add(f);
+                }
+            }finally{
+                indexLock.writeLock().unlock();
+            }
+        }
+
+        void index(final Feature feature){
+            if(indexes.isEmpty()) return;
+            indexLock.writeLock().lock();
+            try{
+                for(MemoryIndex index : indexes){
+                    index.add(feature);
+                }
+            }finally{
+                indexLock.writeLock().unlock();
+            }
+        }
+
+        void unindex(final Feature feature){
+            if(indexes.isEmpty()) return;
+            indexLock.writeLock().lock();
+            try{
+                for(MemoryIndex index : indexes){
+                    index.remove(feature);
+                }
+            }finally{
+                indexLock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * Set the feature values, updating the indexes of the modified properties.
+         */
+        void update(final Feature feature, final Map<String, ?> values){
+            if(indexes.isEmpty()){
+                setValues(feature, values);
+                return;
+            }
+
+            indexLock.writeLock().lock();
+            try{
+                //indexes may be added concurrently, select them under the lock
+                final List<MemoryIndex> affected = new ArrayList<>();
+                for(MemoryIndex index : indexes){
+                    if(!Collections.disjoint(index.names, values.keySet())){
+                        affected.add(index);
+                    }
+                }
+                for(MemoryIndex index : affected){
+                    index.remove(feature);
+                }
+                setValues(feature, values);
+                for(MemoryIndex index : affected){
+                    index.add(feature);
+                }
+            }finally{
+                indexLock.writeLock().unlock();
+            }
+        }
+
+        private static void setValues(final Feature feature, final Map<String, ?> values){
+            for(Map.Entry<String, ?> entry : values.entrySet()){
+                feature.setPropertyValue(entry.getKey(), entry.getValue());
+            }
+        }
+
+        /**
+         * @return candidate features of the filter, or null if the indexes can not answer it.
+         */
+        Collection<Feature> candidates(final Filter filter){
+            if(indexes.isEmpty() || filter == Filter.INCLUDE) return null;
+            indexLock.readLock().lock();
+            try{
+                return MemoryIndex.query(indexes, filter);
+            }finally{
+                indexLock.readLock().unlock();
+            }
+        }
+
     }
 
     private static class GroupWithId extends Group {
@@ -100,6 +197,11 @@ public class MemoryFeatureStore extends AbstractFeatureStore{
             this.features = new ConcurrentHashMap<>();
         }
 
+        @Override
+        Collection<Feature> getFeatures() {
+            return features.values();
+        }
+
         public String generateId(){
             while(true){
                 final long c = incId.incrementAndGet();
@@ -166,6 +268,11 @@ public class MemoryFeatureStore extends AbstractFeatureStore{
             super(type);
         }
 
+        @Override
+        Collection<Feature> getFeatures() {
+            return features;
+        }
+
         public Iterator<? extends Feature> createIterator() {
             return features.iterator();
         }
@@ -305,6 +412,50 @@ public class MemoryFeatureStore extends AbstractFeatureStore{
         fireSchemaDeleted(grp.getFeatureType().getName(), grp.getFeatureType());
     }
 
+    /**
+     * Create a spatial index on the default geometry of a type.
+     * Readers use it to answer BBOX and Intersects filters.
+     * Indexes are maintained when features are added, updated or removed,
+     * they are dropped when the type is updated.
+     *
+     * @param typeName name of the type to index
+     * @throws DataStoreException if the type does not exist or has no default geometry
+     */
+    public void createSpatialIndex(final String typeName) throws DataStoreException {
+        typeCheck(typeName);
+        final Group grp = groups.get(this, typeName);
+        final MemoryIndex index;
+        try{
+            index = new MemoryIndex.Spatial(grp.getFeatureType());
+        }catch(PropertyNotFoundException | IllegalStateException ex){
+            throw new DataStoreException("Type "+typeName+" has no default geometry.", ex);
+        }
+        grp.addIndex(index);
+    }
+
+    /**
+     * Create a sorted index on an attribute of a type.
+     * Readers use it to answer equality, comparison and between filters.
+     * Indexes are maintained when features are added, updated or removed,
+     * they are dropped when the type is updated.
+     *
+     * @param typeName name of the type to index
+     * @param propertyName name of the attribute to index, attribute values must be comparable
+     * @throws DataStoreException if the type or the attribute does not exist, or can not be indexed
+     */
+    public void createAttributeIndex(final String typeName, final String propertyName) throws DataStoreException {
+        typeCheck(typeName);
+        ensureNonNull("property name", propertyName);
+        final Group grp = groups.get(this, typeName);
+        final MemoryIndex index;
+        try{
+            index = new MemoryIndex.Attribute(grp.getFeatureType(), propertyName);
+        }catch(PropertyNotFoundException | IllegalArgumentException ex){
+            throw new DataStoreException(ex.getMessage(), ex);
+        }
+        grp.addIndex(index);
+    }
+
     /**
      * {@inheritDoc }
      */
@@ -380,6 +531,7 @@ public class MemoryFeatureStore extends AbstractFeatureStore{
             }else{
                 ((GroupNoId)grp).features.add(copy);
             }
+            grp.index(copy);
         }
 
         //fire add event
@@ -434,26 +586,18 @@ public class MemoryFeatureStore extends AbstractFeatureStore{
                 if(candidate == null) continue;
 
                 ups.add(itd);
-                for(Map.Entry<String, ?> entry : values.entrySet()){
-                    final String name = entry.getKey();
-                    final Object value = entry.getValue();
-                    candidate.setPropertyValue(name, value);
-                }
+                grp.update(candidate, values);
             }
 
             //fire update event
             final Id eventIds = FF.id(new HashSet<>(ups));
             fireFeaturesUpdated(((GroupWithId) grp).type.getName(),eventIds);
         }else{
-            final GroupWithId grpnoid = (GroupWithId) grp;
+            final GroupNoId grpnoid = (GroupNoId) grp;
             for (int i=grpnoid.features.size()-1;i>=0;i--) {
                 Feature candidate = grpnoid.features.get(i);
                 if (filter.evaluate(candidate)) {
-                    for(Map.Entry<String, ?> entry : values.entrySet()){
-                        final String name = entry.getKey();
-                        final Object value = entry.getValue();
-                        candidate.setPropertyValue(name, value);
-                    }
+                    grp.update(candidate, values);
                 }
             }
 
@@ -477,6 +621,7 @@ public class MemoryFeatureStore extends AbstractFeatureStore{
             for(final Identifier itd : toRemove){
                 final Feature candidate = grpwithid.features.remove(String.valueOf(itd.getID()));
                 if(candidate == null) continue;
+                grpwithid.unindex(candidate);
                 rems.add(itd);
             }
             //fire remove event
@@ -488,6 +633,7 @@ public class MemoryFeatureStore extends AbstractFeatureStore{
                 Feature f = grpnoid.features.get(i);
                 if (filter.evaluate(f)) {
                     grpnoid.features.remove(i);
+                    grpnoid.unindex(f);
                 }
             }
 
@@ -540,17 +686,21 @@ public class MemoryFeatureStore extends AbstractFeatureStore{
         final QueryBuilder remaining = new QueryBuilder(gquery);
 
         final Iterator<? extends Feature> ite;
-        if(grp instanceof GroupWithId){
-            if(filter instanceof Id){
-                ite = ((GroupWithId)grp).createIterator((Id)filter);
-                if(ite != null){
-                    remaining.setFilter(Filter.INCLUDE);
-                }
-            }else{
-                ite = ((GroupWithId)grp).createIterator(null);
+        if(grp instanceof GroupWithId && filter instanceof Id){
+            ite = ((GroupWithId)grp).createIterator((Id)filter);
+            if(ite != null){
+                remaining.setFilter(Filter.INCLUDE);
             }
         }else{
-            ite = ((GroupNoId)grp).createIterator();
+            //indexes return a superset of the matching features, the filter remains
+            final Collection<Feature> candidates = grp.candidates(filter);
+            if(candidates != null){
+                ite = candidates.iterator();
+            }else if(grp instanceof GroupWithId){
+                ite = ((GroupWithId)grp).createIterator(null);
+            }else{
+                ite = ((GroupNoId)grp).createIterator();
+            }
         }
 
         final FeatureReader reader;
@@ -558,7 +708,6 @@ public class MemoryFeatureStore extends AbstractFeatureStore{
         reader = FeatureStreams.asReader(ite, grp.getFeatureType());
 
         //fall back on generic parameter handling.
-        //todo we should handle at least spatial filter here by using a quadtree.
         return FeatureStreams.subset(reader, remaining.buildQuery());
     }
 
@@ -0,0 +1,435 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2018, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.data.memory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import org.apache.sis.internal.feature.AttributeConvention;
+import org.apache.sis.referencing.CommonCRS;
+import org.apache.sis.util.Utilities;
+import org.geotoolkit.feature.FeatureExt;
+import org.geotoolkit.geometry.jts.JTS;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.index.quadtree.Quadtree;
+import org.opengis.feature.AttributeType;
+import org.opengis.feature.Feature;
+import org.opengis.feature.FeatureType;
+import org.opengis.feature.PropertyType;
+import org.opengis.filter.And;
+import org.opengis.filter.Filter;
+import org.opengis.filter.Or;
+import org.opengis.filter.PropertyIsBetween;
+import org.opengis.filter.PropertyIsEqualTo;
+import org.opengis.filter.PropertyIsGreaterThan;
+import org.opengis.filter.PropertyIsGreaterThanOrEqualTo;
+import org.opengis.filter.PropertyIsLessThan;
+import org.opengis.filter.PropertyIsLessThanOrEqualTo;
+import org.opengis.filter.BinaryComparisonOperator;
+import org.opengis.filter.expression.Expression;
+import org.opengis.filter.expression.Literal;
+import org.opengis.filter.expression.PropertyName;
+import org.opengis.filter.spatial.BBOX;
+import org.opengis.filter.spatial.BinarySpatialOperator;
+import org.opengis.filter.spatial.Intersects;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.util.FactoryException;
+
+/**
+ * Index of the features of a memory feature store type.
+ * <br>
+ * Indexes return the candidate features of a filter, a superset of the
+ * matching features : the filter must still be evaluated on them.
+ * Indexes are not thread safe, the memory feature store guards them with a lock.
+ *
+ * @author Johann Sorel (Geomatys)
+ * @module
+ */
+abstract class MemoryIndex {
+
+    /**
+     * Names of the indexed property, as they may appear in filters.
+     */
+    final Set<String> names = new HashSet<>();
+
+    /**
+     * Features with a value which can not be indexed,
+     * they are candidates for all queries.
+     */
+    final Set<Feature> others = identitySet();
+
+    /**
+     * Add a feature in the index, does nothing if the feature is already indexed.
+     */
+    abstract void add(Feature feature);
+
+    /**
+     * Remove a feature from the index.
+     */
+    abstract void remove(Feature feature);
+
+    /**
+     * Find the candidate features of a filter.
+     *
+     * @return candidate features or null if the filter can not be answered by this index.
+     */
+    abstract Collection<Feature> query(Filter filter);
+
+    /**
+     * Find the candidate features of a filter using the first index which can answer it.
+     * For And filters the smallest candidates set of the children is used, Or filters
+     * are answered only if all children can be answered.
+     *
+     * @return candidate features or null if the filter can not be answered by the indexes.
+     */
+    static Collection<Feature> query(final List<MemoryIndex> indexes, final Filter filter) {
+        if (filter instanceof And) {
+            Collection<Feature> best = null;
+            for (Filter child : ((And) filter).getChildren()) {
+                final Collection<Feature> candidates = query(indexes, child);
+                if (candidates != null && (best == null || candidates.size() < best.size())) {
+                    best = candidates;
+                }
+            }
+            return best;
+        } else if (filter instanceof Or) {
+            final Set<Feature> union = identitySet();
+            for (Filter child : ((Or) filter).getChildren()) {
+                final Collection<Feature> candidates = query(indexes, child);
+                if (candidates == null) {
+                    return null;
+                }
+                union.addAll(candidates);
+            }
+            return union;
+        }
+        for (MemoryIndex index : indexes) {
+            final Collection<Feature> candidates = index.query(filter);
+            if (candidates != null) {
+                return candidates;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return true if the expression is the indexed property.
+     */
+    final boolean isIndexed(final Expression exp) {
+        return exp instanceof PropertyName && names.contains(((PropertyName) exp).getPropertyName());
+    }
+
+    /**
+     * Features are compared by identity, feature equality compares all property values.
+     */
+    static Set<Feature> identitySet() {
+        return Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+
+    /**
+     * Index of the default geometry envelopes, in a quad tree which can be updated incrementally.
+     */
+    static final class Spatial extends MemoryIndex {
+
+        private final CoordinateReferenceSystem crs;
+        private final Quadtree tree = new Quadtree();
+        private final Map<Feature,Item> items = new IdentityHashMap<>();
+
+        Spatial(final FeatureType type) {
+            final PropertyType geometry = FeatureExt.getDefaultGeometry(type);
+            crs = FeatureExt.getCRS(geometry);
+            names.add(AttributeConvention.GEOMETRY_PROPERTY.toString());
+            names.add(geometry.getName().toString());
+            FeatureExt.castOrUnwrap(geometry).ifPresent((AttributeType<?> att) -> names.add(att.getName().toString()));
+        }
+
+        @Override
+        void add(final Feature feature) {
+            if (items.containsKey(feature)) return;
+            final Object value = FeatureExt.getDefaultGeometryValue(feature).orElse(null);
+            if (value instanceof Geometry) {
+                final Geometry geom = (Geometry) value;
+                if (crs == null && (geom.getSRID() != 0 || geom.getUserData() != null)) {
+                    //geometry may be reprojected by filters
+                    others.add(feature);
+                    return;
+                }
+                final Envelope env = new Envelope(geom.getEnvelopeInternal());
+                if (!env.isNull()) {
+                    //empty geometries never match
+                    final Item item = new Item(feature, env);
+                    items.put(feature, item);
+                    tree.insert(env, item);
+                }
+            } else if (value != null) {
+                others.add(feature);
+            }
+        }
+
+        @Override
+        void remove(final Feature feature) {
+            final Item item = items.remove(feature);
+            if (item != null) {
+                tree.remove(item.env, item);
+            } else {
+                others.remove(feature);
+            }
+        }
+
+        @Override
+        Collection<Feature> query(final Filter filter) {
+            if (!(filter instanceof BBOX || filter instanceof Intersects)) return null;
+
+            final BinarySpatialOperator op = (BinarySpatialOperator) filter;
+            final Expression literal;
+            if (isIndexed(op.getExpression1())) {
+                literal = op.getExpression2();
+            } else if (filter instanceof Intersects && isIndexed(op.getExpression2())) {
+                literal = op.getExpression1();
+            } else {
+                return null;
+            }
+            if (!(literal instanceof Literal)) return null;
+
+            final Object value = ((Literal) literal).getValue();
+            final Envelope env;
+            CoordinateReferenceSystem filterCrs;
+            if (value instanceof Geometry) {
+                env = ((Geometry) value).getEnvelopeInternal();
+                try {
+                    filterCrs = JTS.findCoordinateReferenceSystem((Geometry) value);
+                } catch (FactoryException ex) {
+                    return null;
+                }
+            } else if (value instanceof org.opengis.geometry.Envelope) {
+                final org.opengis.geometry.Envelope e = (org.opengis.geometry.Envelope) value;
+                if (e.getDimension() < 2 || e.getMinimum(0) > e.getMaximum(0) || e.getMinimum(1) > e.getMaximum(1)) {
+                    return null;
+                }
+                env = new Envelope(e.getMinimum(0), e.getMaximum(0), e.getMinimum(1), e.getMaximum(1));
+                filterCrs = e.getCoordinateReferenceSystem();
+            } else {
+                return null;
+            }
+
+            if (filter instanceof BBOX) {
+                //bbox filter without crs are in WGS84
+                if (filterCrs == null) filterCrs = CommonCRS.WGS84.normalizedGeographic();
+                if (crs != null && !Utilities.equalsIgnoreMetadata(crs, filterCrs)) return null;
+            } else if (crs != null && filterCrs != null && !Utilities.equalsIgnoreMetadata(crs, filterCrs)) {
+                return null;
+            }
+
+            final List<Feature> candidates = new ArrayList<>(others);
+            if (env.isNull()) {
+                //empty geometries never match
+                return candidates;
+            }
+            for (Object candidate : tree.query(env)) {
+                //tree results are the items of the intersecting nodes
+                final Item item = (Item) candidate;
+                if (item.env.intersects(env)) {
+                    candidates.add(item.feature);
+                }
+            }
+            return candidates;
+        }
+
+        /**
+         * Tree entry, the tree removes entries by equality and equal features may be distinct.
+         */
+        private static final class Item {
+            private final Feature feature;
+            private final Envelope env;
+
+            private Item(final Feature feature, final Envelope env) {
+                this.feature = feature;
+                this.env = env;
+            }
+        }
+    }
+
+    /**
+     * Sorted index of an attribute values, answering equality and range comparisons.
+     * Numbers are compared as doubles and dates by time; range bounds are always
+     * inclusive, exact comparisons are left to the filter.
+     */
+    static final class Attribute extends MemoryIndex {
+
+        /**
+         * Relative tolerance of numeric equality, larger than the filters one.
+         */
+        private static final double EPS = 1E-11;
+
+        private final String property;
+        private final Class<?> valueClass;
+        private final NavigableMap<Comparable,Set<Feature>> values = new TreeMap<>();
+        private final Map<Feature,Comparable> keys = new IdentityHashMap<>();
+
+        Attribute(final FeatureType type, final String property) {
+            final PropertyType pt = type.getProperty(property);
+            final AttributeType<?> att = FeatureExt.castOrUnwrap(pt).orElseThrow(
+                    () -> new IllegalArgumentException("Property "+property+" is not an attribute."));
+            final Class<?> clazz = att.getValueClass();
+            if (Number.class.isAssignableFrom(clazz)) {
+                valueClass = Number.class;
+            } else if (Date.class.isAssignableFrom(clazz)) {
+                valueClass = Date.class;
+            } else if (Comparable.class.isAssignableFrom(clazz)) {
+                valueClass = clazz;
+            } else {
+                throw new IllegalArgumentException("Values of property "+property+" are not comparable.");
+            }
+            this.property = pt.getName().toString();
+            names.add(property);
+            names.add(this.property);
+        }
+
+        /**
+         * @return comparable key of the value, or null if the value can not be indexed.
+         */
+        private Comparable toKey(final Object value) {
+            if (valueClass == Number.class) {
+                return (value instanceof Number) ? ((Number) value).doubleValue() : null;
+            } else if (valueClass == Date.class) {
+                //sql dates are compared by day
+                return (value instanceof Date && !(value instanceof java.sql.Date)) ? ((Date) value).getTime() : null;
+            } else if (value != null && value.getClass() == valueClass) {
+                return (Comparable) value;
+            }
+            return null;
+        }
+
+        @Override
+        void add(final Feature feature) {
+            if (keys.containsKey(feature)) return;
+            final Object value = feature.getPropertyValue(property);
+            if (value == null) {
+                //null values never match a comparison
+                return;
+            }
+            final Comparable key = toKey(value);
+            if (key == null) {
+                others.add(feature);
+            } else {
+                keys.put(feature, key);
+                values.computeIfAbsent(key, (Comparable k) -> identitySet()).add(feature);
+            }
+        }
+
+        @Override
+        void remove(final Feature feature) {
+            final Comparable key = keys.remove(feature);
+            if (key != null) {
+                final Set<Feature> set = values.get(key);
+                set.remove(feature);
+                if (set.isEmpty()) values.remove(key);
+            } else {
+                others.remove(feature);
+            }
+        }
+
+        @Override
+        Collection<Feature> query(final Filter filter) {
+            if (filter instanceof PropertyIsBetween) {
+                final PropertyIsBetween between = (PropertyIsBetween) filter;
+                if (!isIndexed(between.getExpression())) return null;
+                final Comparable lower = toLiteralKey(between.getLowerBoundary());
+                final Comparable upper = toLiteralKey(between.getUpperBoundary());
+                if (lower == null || upper == null) return null;
+                return collect(lower, upper);
+            } else if (!(filter instanceof BinaryComparisonOperator)) {
+                return null;
+            }
+
+            final BinaryComparisonOperator op = (BinaryComparisonOperator) filter;
+            final Comparable key;
+            final boolean reversed;
+            if (isIndexed(op.getExpression1())) {
+                key = toLiteralKey(op.getExpression2());
+                reversed = false;
+            } else if (isIndexed(op.getExpression2())) {
+                key = toLiteralKey(op.getExpression1());
+                reversed = true;
+            } else {
+                return null;
+            }
+            if (key == null) return null;
+
+            if (filter instanceof PropertyIsEqualTo) {
+                if (key instanceof String && !op.isMatchingCase()) {
+                    return null;
+                } else if (key instanceof Double) {
+                    final double d = (Double) key;
+                    final double tolerance = Math.abs(d) * EPS + Math.ulp(d);
+                    return collect(d - tolerance, d + tolerance);
+                }
+                return collect(key, key);
+            } else if (filter instanceof PropertyIsLessThan || filter instanceof PropertyIsLessThanOrEqualTo) {
+                return reversed ? collect(key, null) : collect(null, key);
+            } else if (filter instanceof PropertyIsGreaterThan || filter instanceof PropertyIsGreaterThanOrEqualTo) {
+                return reversed ? collect(null, key) : collect(key, null);
+            }
+            return null;
+        }
+
+        /**
+         * Literals must have the same kind of value as the attribute, filters
+         * would otherwise use converters which may not preserve the ordering.
+         */
+        private Comparable toLiteralKey(final Expression exp) {
+            if (!(exp instanceof Literal)) return null;
+            final Object value = ((Literal) exp).getValue();
+            final Comparable key = toKey(value);
+            if (key instanceof Double && (((Double) key).isNaN() || ((Double) key).isInfinite())) {
+                return null;
+            }
+            return key;
+        }
+
+        /**
+         * Collect the features in the inclusive range, null bounds are unlimited.
+         */
+        private Collection<Feature> collect(final Comparable lower, final Comparable upper) {
+            final NavigableMap<Comparable,Set<Feature>> range;
+            if (lower == null) {
+                range = values.headMap(upper, true);
+            } else if (upper == null) {
+                range = values.tailMap(lower, true);
+            } else if (lower.compareTo(upper) > 0) {
+                range = Collections.emptyNavigableMap();
+            } else {
+                range = values.subMap(lower, true, upper, true);
+            }
+            final List<Feature> candidates = new ArrayList<>(others);
+            for (Set<Feature> set : range.values()) {
+                candidates.addAll(set);
+            }
+            return candidates;
+        }
+    }
+
+}
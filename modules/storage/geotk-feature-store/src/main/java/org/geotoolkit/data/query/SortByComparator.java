@@ -22,7 +22,6 @@ import java.util.Comparator;
 import org.geotoolkit.util.StringUtilities;
 import org.apache.sis.util.Classes;
 import org.opengis.feature.Feature;
-import org.opengis.filter.expression.PropertyName;
 import org.opengis.filter.sort.SortBy;
 import org.opengis.filter.sort.SortOrder;
 
@@ -48,41 +47,57 @@ public class SortByComparator implements Comparator<Feature> {
      */
     @Override
     public int compare(final Feature f1, final Feature f2) {
+        return compareKeys(getKeys(f1), getKeys(f2));
+    }
 
-        for (final SortBy order : orders) {
-            final PropertyName property = order.getPropertyName();
-            Object val1 = property.evaluate(f1);
-            Object val2 = property.evaluate(f2);
-            if (val1 instanceof Collection) {
-                //TODO find a correct way to compare collection values
-                //pick the first value
-                if (((Collection)val1).isEmpty()) {
-                    val1 = null;
-                } else {
-                    val1 = ((Collection)val1).iterator().next();
-                }
-            }
-            if (val2 instanceof Collection) {
+    /**
+     * Extract the values used for sorting given feature.
+     * Keys can be computed once per feature then compared with {@link #compareKeys(java.lang.Object[], java.lang.Object[]) }
+     * which avoids evaluating the sort properties on each comparison.
+     *
+     * @param feature feature to extract keys from
+     * @return sort keys, one for each SortBy
+     */
+    public Object[] getKeys(final Feature feature) {
+        final Object[] keys = new Object[orders.length];
+        for (int i = 0; i < orders.length; i++) {
+            Object val = orders[i].getPropertyName().evaluate(feature);
+            if (val instanceof Collection) {
                 //TODO find a correct way to compare collection values
                 //pick the first value
-                if (((Collection)val2).isEmpty()) {
-                    val2 = null;
+                if (((Collection)val).isEmpty()) {
+                    val = null;
                 } else {
-                    val2 = ((Collection)val2).iterator().next();
+                    val = ((Collection)val).iterator().next();
                 }
             }
+            keys[i] = val;
+        }
+        return keys;
+    }
+
+    /**
+     * Compare sort keys extracted with {@link #getKeys(org.opengis.feature.Feature) }.
+     *
+     * @param keys1 first feature keys
+     * @param keys2 second feature keys
+     * @return comparison result, same as for features
+     */
+    public int compareKeys(final Object[] keys1, final Object[] keys2) {
 
-            final Comparable o1 = (Comparable) val1;
-            final Comparable o2 = (Comparable) val2;
+        for (int i = 0; i < orders.length; i++) {
+            final Comparable o1 = (Comparable) keys1[i];
+            final Comparable o2 = (Comparable) keys2[i];
 
             if(o1 == null){
+                if(o2 == null) continue;
                 return -1;
             }else if(o2 == null){
                 return 1;
             }
 
             final int result;
-            if (order.getSortOrder() == SortOrder.ASCENDING) {
+            if (orders[i].getSortOrder() == SortOrder.ASCENDING) {
                 result = o1.compareTo(o2);
             } else {
                 result = o2.compareTo(o1);
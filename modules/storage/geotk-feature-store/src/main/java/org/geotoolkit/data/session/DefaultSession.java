@@ -87,7 +87,7 @@ public class DefaultSession extends AbstractSession {
     }
 
     protected DefaultSessionDiff createDiff(){
-        return new DefaultSessionDiff();
+        return new DefaultSessionDiff(this);
     }
 
     protected AddDelta createAddDelta(Session session, String typeName, Collection<? extends Feature> features){
@@ -140,6 +140,33 @@ public class DefaultSession extends AbstractSession {
         }
 
         original = forceCRS(original,false);
+
+        FeatureIterator reader;
+        final DeltaOverlay overlay = diff.getOverlay(original.getTypeName());
+        if(overlay != null){
+            //compacted changes, a single query and a lookup per feature
+            reader = store.getFeatureReader(overlay.modify(original));
+            reader = overlay.modify(original, reader);
+        }else if(diff.isCompacted()){
+            //no changes on this type
+            reader = store.getFeatureReader(original);
+        }else{
+            reader = replayDeltas(original);
+        }
+
+        //we must preserve the original filter after all thoses modifications
+        Filter originalFilter = original.getFilter();
+        originalFilter = forceCRS(originalFilter, original.getCoordinateSystemReproject(), true);
+        reader = FeatureStreams.filter(reader, originalFilter);
+
+        return reader;
+    }
+
+    /**
+     * Apply each delta on the query and the store reader.
+     * Used when the deltas can not be compacted.
+     */
+    private FeatureIterator replayDeltas(final Query original) throws DataStoreException {
         final List<Delta> deltas = diff.getDeltas();
 
         //we must store the modified queries to iterate on them in reverse order.
@@ -157,12 +184,6 @@ public class DefaultSession extends AbstractSession {
             final Delta delta = deltas.get(i);
             reader = delta.modify(modifieds.get(i),reader);
         }
-
-        //we must preserve the original filter after all thoses modifications
-        Filter originalFilter = original.getFilter();
-        originalFilter = forceCRS(originalFilter, original.getCoordinateSystemReproject(), true);
-        reader = FeatureStreams.filter(reader, originalFilter);
-
         return reader;
     }
 
@@ -18,18 +18,26 @@
 package org.geotoolkit.data.session;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
 import org.geotoolkit.data.FeatureStore;
 import org.apache.sis.storage.DataStoreException;
 import org.apache.sis.internal.util.UnmodifiableArrayList;
+import org.apache.sis.util.logging.Logging;
 
 /**
  * Contain a list of all modification, ensure concurrency when accesing
  * deltas and lock when commiting or reverting changes.
+ * <br>
+ * The add, modify and remove deltas are also collapsed in one overlay per type,
+ * used by the session to read the features without replaying each delta.
+ * If a session is given, the overlays are commited instead of the deltas,
+ * with one delta for each kind of operation.
  *
  * @author Johann Sorel (Geomatys)
  * @module
@@ -39,12 +47,28 @@ public class DefaultSessionDiff{
     private final List<Delta> deltas = new ArrayList<Delta>();
     private List<Delta> readCopy = null;
 
+    private final DefaultSession session;
+    private final Map<String,DeltaOverlay> overlays = new LinkedHashMap<>();
+    /**
+     * False if a delta could not be collapsed in the overlays.
+     */
+    private boolean compacted = true;
+
     private final ReadWriteLock rwlock = new ReentrantReadWriteLock();
     private final Lock readLock = rwlock.readLock();
     private final Lock writeLock = rwlock.writeLock();
 
 
     public DefaultSessionDiff(){
+        this(null);
+    }
+
+    /**
+     * @param session session used to create the compacted deltas when commiting,
+     *        if null the deltas are commited as they were added.
+     */
+    public DefaultSessionDiff(final DefaultSession session){
+        this.session = session;
     }
 
     /**
@@ -84,28 +108,89 @@ public class DefaultSessionDiff{
         try{
             deltas.add(alt);
             readCopy = null;
+
+            if(compacted){
+                DeltaOverlay overlay = overlays.get(alt.getType());
+                if(overlay == null){
+                    overlay = new DeltaOverlay(alt.getType());
+                    overlays.put(alt.getType(), overlay);
+                }
+                try{
+                    compacted = overlay.apply(alt);
+                }catch(DataStoreException ex){
+                    Logging.getLogger("org.geotoolkit.data.session").log(Level.WARNING,
+                            "Failed to compact session delta, deltas will be replayed.", ex);
+                    compacted = false;
+                }
+                if(!compacted){
+                    overlays.clear();
+                }
+            }
         }finally{
             writeLock.unlock();
         }
     }
 
+    /**
+     * @return true if the deltas are collapsed in overlays.
+     */
+    boolean isCompacted(){
+        readLock.lock();
+        try{
+            return compacted;
+        }finally{
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * @param type feature type name
+     * @return overlay of the given type, null if there are no changes for this type
+     *         or if the deltas could not be compacted.
+     */
+    DeltaOverlay getOverlay(final String type){
+        readLock.lock();
+        try{
+            return compacted ? overlays.get(type) : null;
+        }finally{
+            readLock.unlock();
+        }
+    }
+
     public void commit(final FeatureStore store) throws DataStoreException{
         writeLock.lock();
         try{
-            for(int i=0,n=deltas.size();i<n;i++){
-                final Delta alt = deltas.get(i);
+            final List<Delta> toCommit;
+            if(compacted && session != null){
+                toCommit = new ArrayList<>();
+                for(DeltaOverlay overlay : overlays.values()){
+                    toCommit.addAll(overlay.toDeltas(session));
+                }
+            }else{
+                toCommit = deltas;
+            }
+
+            for(int i=0,n=toCommit.size();i<n;i++){
+                final Delta alt = toCommit.get(i);
                 final Map<String,String> updates = alt.commit(store);
                 alt.dispose();
 
                 //update next deltas
                 if(updates != null){
                     for(int j=i+1;j<n;j++){
-                        final Delta next = deltas.get(j);
+                        final Delta next = toCommit.get(j);
                         next.update(updates);
                     }
                 }
             }
+            if(toCommit != deltas){
+                for(Delta delta : deltas){
+                    delta.dispose();
+                }
+            }
             deltas.clear();
+            overlays.clear();
+            compacted = true;
             readCopy = null;
         }finally{
             writeLock.unlock();
@@ -116,6 +201,8 @@ public class DefaultSessionDiff{
         writeLock.lock();
         try{
             deltas.clear();
+            overlays.clear();
+            compacted = true;
             readCopy = null;
         }finally{
             writeLock.unlock();
@@ -0,0 +1,332 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2018, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+
+package org.geotoolkit.data.session;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+import org.apache.sis.storage.DataStoreException;
+import org.apache.sis.util.logging.Logging;
+import org.geotoolkit.data.FeatureCollection;
+import org.geotoolkit.data.FeatureIterator;
+import org.geotoolkit.data.FeatureStreams;
+import org.geotoolkit.data.memory.MemoryFeatureStore;
+import org.geotoolkit.data.memory.WrapFeatureIterator;
+import org.geotoolkit.data.query.Query;
+import org.geotoolkit.data.query.QueryBuilder;
+import org.geotoolkit.feature.FeatureExt;
+import org.opengis.feature.Feature;
+import org.opengis.feature.FeatureType;
+import org.opengis.filter.Filter;
+import org.opengis.filter.FilterFactory2;
+import org.opengis.filter.Id;
+import org.opengis.filter.identity.FeatureId;
+import org.opengis.filter.identity.Identifier;
+import org.opengis.filter.sort.SortBy;
+
+/**
+ * Compacted deltas of a single type.
+ * <br>
+ * Deltas are collapsed when they are added instead of being replayed on each read :
+ * <ul>
+ *   <li>modified store features are stored as an identifier to modified values map,</li>
+ *   <li>removed store features are stored as a set of identifiers,</li>
+ *   <li>added features are stored in a memory feature store, later modifications
+ *       and removals of those features are applied directly in it.</li>
+ * </ul>
+ * Reading then requires a single query to the store and a hash lookup per feature.
+ *
+ * @author Johann Sorel (Geomatys)
+ * @module
+ */
+final class DeltaOverlay {
+
+    private static final Logger LOGGER = Logging.getLogger("org.geotoolkit.data.session");
+
+    private static final FilterFactory2 FF = AbstractDelta.FF;
+
+    /**
+     * Maximum number of identifiers in the filter of a commited delta.
+     */
+    private static final int BATCH_SIZE = 5000;
+
+    private final String type;
+
+    /**
+     * Modified values of the store features, by identifier.
+     * Features modified together share the same values map.
+     */
+    private final Map<String,Map<String,Object>> modified = new ConcurrentHashMap<>();
+
+    /**
+     * Identifiers of the removed store features.
+     */
+    private final Set<String> removed = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Identifiers of the added features.
+     */
+    private final Set<String> addedIds = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Added features, created with the first add delta.
+     */
+    private volatile MemoryFeatureStore added;
+    private volatile String addedType;
+
+    private volatile Session session;
+
+    /**
+     * Cached identifier filters, reset when the identifiers change.
+     */
+    private Id modifiedFilter;
+    private Id removedFilter;
+
+    DeltaOverlay(final String type) {
+        this.type = type;
+    }
+
+    /**
+     * Collapse a delta in this overlay.
+     *
+     * @param delta delta to apply
+     * @return false if the delta type is not supported, in which case this overlay is unchanged.
+     */
+    synchronized boolean apply(final Delta delta) throws DataStoreException {
+        if (delta instanceof AddDelta) {
+            add((AddDelta) delta);
+        } else if (delta instanceof ModifyDelta) {
+            modify((ModifyDelta) delta);
+        } else if (delta instanceof RemoveDelta) {
+            remove((RemoveDelta) delta);
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    private void add(final AddDelta delta) throws DataStoreException {
+        session = delta.session;
+        if (added == null) {
+            final FeatureType ft = delta.features.getType();
+            addedType = ft.getName().toString();
+            added = new MemoryFeatureStore(ft, true);
+        }
+
+        //copy the features, the memory store may change their identifiers
+        final List<Feature> features = new ArrayList<>();
+        final FeatureIterator ite = delta.features.iterator();
+        try {
+            while (ite.hasNext()) {
+                features.add(FeatureExt.deepCopy(ite.next()));
+            }
+        } finally {
+            ite.close();
+        }
+
+        for (FeatureId id : added.addFeatures(addedType, features)) {
+            addedIds.add(id.getID());
+        }
+    }
+
+    private void modify(final ModifyDelta delta) throws DataStoreException {
+        session = delta.session;
+        final Set<Identifier> inAdded = new HashSet<>();
+        //merged values, by previous values, to preserve the sharing of values maps
+        final Map<Map<String,Object>,Map<String,Object>> merges = new IdentityHashMap<>();
+
+        for (Identifier id : delta.filter.getIdentifiers()) {
+            final String key = String.valueOf(id.getID());
+            if (addedIds.contains(key)) {
+                inAdded.add(id);
+            } else if (!removed.contains(key)) {
+                final Map<String,Object> previous = modified.get(key);
+                if (previous == null) {
+                    modified.put(key, delta.values);
+                    modifiedFilter = null;
+                } else {
+                    modified.put(key, merges.computeIfAbsent(previous, (Map<String,Object> p) -> {
+                        final Map<String,Object> merged = new HashMap<>(p);
+                        merged.putAll(delta.values);
+                        return merged;
+                    }));
+                }
+            }
+        }
+
+        if (!inAdded.isEmpty()) {
+            added.updateFeatures(addedType, FF.id(inAdded), delta.values);
+        }
+    }
+
+    private void remove(final RemoveDelta delta) throws DataStoreException {
+        final Set<Identifier> inAdded = new HashSet<>();
+        for (Identifier id : delta.removedIds.getIdentifiers()) {
+            final String key = String.valueOf(id.getID());
+            if (addedIds.remove(key)) {
+                inAdded.add(id);
+            } else {
+                removed.add(key);
+                if (modified.remove(key) != null) {
+                    modifiedFilter = null;
+                }
+            }
+        }
+        removedFilter = null;
+
+        if (!inAdded.isEmpty()) {
+            added.removeFeatures(addedType, FF.id(inAdded));
+        }
+    }
+
+    /**
+     * Modify the query sent to the store, the removed features are excluded
+     * and the modified features are always included.
+     */
+    Query modify(final Query query) {
+        Filter filter = query.getFilter();
+        if (filter != Filter.INCLUDE && !modified.isEmpty()) {
+            //modified features are filtered at return time by the session
+            filter = FF.or(filter, getModifiedFilter());
+        }
+        if (!removed.isEmpty()) {
+            filter = FF.and(filter, FF.not(getRemovedFilter()));
+        }
+        if (filter == query.getFilter()) {
+            return query;
+        }
+        final QueryBuilder qb = new QueryBuilder(query);
+        qb.setFilter(filter);
+        return qb.buildQuery();
+    }
+
+    /**
+     * Apply the modifications on the store features and append the added features.
+     * The query filter is not applied on the added or modified features,
+     * it is handled at the end by the session.
+     */
+    FeatureIterator modify(final Query query, final FeatureIterator reader) throws DataStoreException {
+        FeatureIterator result = reader;
+        if (!modified.isEmpty()) {
+            final Session session = this.session;
+            result = new WrapFeatureIterator(reader) {
+                @Override
+                protected Feature modify(final Feature feature) {
+                    final Map<String,Object> values = modified.get(FeatureExt.getId(feature).getID());
+                    if (values == null) {
+                        return feature;
+                    }
+                    return ModifyDelta.apply(session, query, feature, values, LOGGER);
+                }
+            };
+        }
+
+        final MemoryFeatureStore added = this.added;
+        if (added != null) {
+            final QueryBuilder qb = new QueryBuilder(query);
+            qb.setTypeName(addedType);
+            qb.setFilter(Filter.INCLUDE);
+            final FeatureIterator affected = added.getFeatureReader(qb.buildQuery());
+
+            final SortBy[] sort = query.getSortBy();
+            if (sort != null && sort.length > 0) {
+                result = FeatureStreams.combine(sort, result, affected);
+            } else {
+                result = FeatureStreams.sequence(result, affected);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Create the deltas to commit this overlay : one removal and one modification
+     * by group of identical values, split in batches of identifiers, then a single addition.
+     *
+     * @param session session used to create the deltas.
+     */
+    synchronized List<Delta> toDeltas(final DefaultSession session) {
+        final List<Delta> deltas = new ArrayList<>();
+
+        for (Id ids : toFilters(removed)) {
+            deltas.add(session.createRemoveDelta(session, type, ids));
+        }
+
+        final Map<Map<String,Object>,Set<String>> groups = new IdentityHashMap<>();
+        for (Map.Entry<String,Map<String,Object>> entry : modified.entrySet()) {
+            groups.computeIfAbsent(entry.getValue(), (Map<String,Object> k) -> new HashSet<>()).add(entry.getKey());
+        }
+        for (Map.Entry<Map<String,Object>,Set<String>> group : groups.entrySet()) {
+            for (Id ids : toFilters(group.getValue())) {
+                deltas.add(session.createModifyDelta(session, type, ids, group.getKey()));
+            }
+        }
+
+        if (added != null) {
+            final FeatureCollection features = added.createSession(false)
+                    .getFeatureCollection(QueryBuilder.all(addedType));
+            deltas.add(session.createAddDelta(session, type, features));
+        }
+        return deltas;
+    }
+
+    private synchronized Id getModifiedFilter() {
+        if (modifiedFilter == null) {
+            modifiedFilter = toFilter(modified.keySet());
+        }
+        return modifiedFilter;
+    }
+
+    private synchronized Id getRemovedFilter() {
+        if (removedFilter == null) {
+            removedFilter = toFilter(removed);
+        }
+        return removedFilter;
+    }
+
+    private static Id toFilter(final Collection<String> keys) {
+        final Set<Identifier> ids = new HashSet<>();
+        for (String key : keys) {
+            ids.add(FF.featureId(key));
+        }
+        return FF.id(ids);
+    }
+
+    private static List<Id> toFilters(final Collection<String> keys) {
+        final List<Id> filters = new ArrayList<>();
+        Set<Identifier> ids = new HashSet<>();
+        for (String key : keys) {
+            ids.add(FF.featureId(key));
+            if (ids.size() == BATCH_SIZE) {
+                filters.add(FF.id(ids));
+                ids = new HashSet<>();
+            }
+        }
+        if (!ids.isEmpty()) {
+            filters.add(FF.id(ids));
+        }
+        return filters;
+    }
+
+}
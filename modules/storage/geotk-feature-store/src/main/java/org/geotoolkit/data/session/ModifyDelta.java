@@ -23,6 +23,7 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.logging.Level;
+import java.util.logging.Logger;
 import org.geotoolkit.feature.FeatureExt;
 import org.geotoolkit.data.FeatureStore;
 import org.geotoolkit.data.FeatureIterator;
@@ -133,50 +134,61 @@ public class ModifyDelta extends AbstractDelta{
                     return feature;
                 }
 
-                //modify the feature
-                feature = GenericModifyFeatureIterator.apply(feature, values);
-                try {
-                    final CoordinateReferenceSystem crs = query.getCoordinateSystemReproject();
-
-                    //wrap reprojection ----------------------------------------------------
-                    if(crs != null){
-                        //check we have a geometry modification
-                        final FeatureType original = session.getFeatureStore().getFeatureType(feature.getType().getName().toString());
-                        for(String desc : values.keySet()){
-                            if (AttributeConvention.isGeometryAttribute(feature.getType().getProperty(desc))) {
-                                final CoordinateReferenceSystem originalCRS = FeatureExt.getCRS(original.getProperty(desc));
-                                if(!Utilities.equalsIgnoreMetadata(originalCRS,crs)){
-                                    MathTransform trs = CRS.findOperation(originalCRS, crs, null).getMathTransform();
-                                    Object geom = feature.getPropertyValue(desc);
-                                    if (geom instanceof Geometry) {
-                                        try {
-                                            geom = JTS.transform((Geometry) geom, trs);
-                                        } catch (MismatchedDimensionException | TransformException ex) {
-                                            throw new FeatureStoreRuntimeException(ex);
-                                        }
-                                        JTS.setCRS((Geometry) geom, crs);
-                                        feature.setPropertyValue(desc, geom);
-                                    }
+                return apply(session, query, feature, values, getLogger());
+            }
+
+        };
+
+        return wrap;
+    }
+
+    /**
+     * Apply the modified values on a copy of the feature.
+     * Modified geometries are reprojected to the query crs if needed.
+     *
+     * @return modified feature, null if the geometries could not be reprojected
+     */
+    static Feature apply(final Session session, final Query query, Feature feature,
+            final Map<String,?> values, final Logger logger) {
+        //modify the feature
+        feature = GenericModifyFeatureIterator.apply(feature, values);
+        try {
+            final CoordinateReferenceSystem crs = query.getCoordinateSystemReproject();
+
+            //wrap reprojection ----------------------------------------------------
+            if(crs != null){
+                //check we have a geometry modification
+                final FeatureType original = session.getFeatureStore().getFeatureType(feature.getType().getName().toString());
+                for(String desc : values.keySet()){
+                    if (AttributeConvention.isGeometryAttribute(feature.getType().getProperty(desc))) {
+                        final CoordinateReferenceSystem originalCRS = FeatureExt.getCRS(original.getProperty(desc));
+                        if(!Utilities.equalsIgnoreMetadata(originalCRS,crs)){
+                            MathTransform trs = CRS.findOperation(originalCRS, crs, null).getMathTransform();
+                            Object geom = feature.getPropertyValue(desc);
+                            if (geom instanceof Geometry) {
+                                try {
+                                    geom = JTS.transform((Geometry) geom, trs);
+                                } catch (MismatchedDimensionException | TransformException ex) {
+                                    throw new FeatureStoreRuntimeException(ex);
                                 }
+                                JTS.setCRS((Geometry) geom, crs);
+                                feature.setPropertyValue(desc, geom);
                             }
                         }
-
                     }
-
-                } catch (DataStoreException ex) {
-                    getLogger().log(Level.WARNING, null, ex);
-                    feature = null;
-                } catch (FactoryException ex) {
-                    getLogger().log(Level.WARNING, null, ex);
-                    feature = null;
                 }
 
-                return feature;
             }
 
-        };
+        } catch (DataStoreException ex) {
+            logger.log(Level.WARNING, null, ex);
+            feature = null;
+        } catch (FactoryException ex) {
+            logger.log(Level.WARNING, null, ex);
+            feature = null;
+        }
 
-        return wrap;
+        return feature;
     }
 
     /**
@@ -0,0 +1,353 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2018, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.internal.data;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import org.geotoolkit.data.FeatureStoreRuntimeException;
+import org.opengis.feature.AttributeType;
+import org.opengis.feature.Feature;
+import org.opengis.feature.FeatureAssociationRole;
+import org.opengis.feature.FeatureType;
+import org.opengis.feature.PropertyType;
+
+/**
+ * Temporary file of features, for operations which do not fit in memory.
+ * <br>
+ * Features are written with their attribute values and an optional header object.
+ * Features with associations or with values which are not serializable can not be
+ * written, a refused feature leaves no record in the file which remains usable.
+ * Features are read back in writing order, the file can be read several times.
+ * <br>
+ * Records are serialized by blocks, records of a block share object stream back
+ * references. The records of the block being written are kept in memory until
+ * the block is complete, to rebuild the block if a record can not be written.
+ *
+ * @author Johann Sorel (Geomatys)
+ * @module
+ */
+final class FeatureSpillFile implements Iterable<Feature>, AutoCloseable {
+
+    /**
+     * Maximum number of records in a block.
+     */
+    private static final int BLOCK_SIZE = 1000;
+
+    private final Map<FeatureType,String[]> attributes = new IdentityHashMap<>();
+    private final List<FeatureType> types = new ArrayList<>();
+    private final List<Object[]> block = new ArrayList<>();
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private ObjectOutputStream blockOut;
+    private Path file;
+    private DataOutputStream out;
+    private Cursor cursor;
+    private boolean finished;
+    private int size;
+
+    /**
+     * @return number of features written
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Get the names of the attributes to write for given type.
+     *
+     * @return attribute names or null if type features can not be written
+     */
+    private String[] getAttributes(final FeatureType type) {
+        if (attributes.containsKey(type)) {
+            return attributes.get(type);
+        }
+        final List<String> names = new ArrayList<>();
+        for (PropertyType pt : type.getProperties(true)) {
+            if (pt instanceof AttributeType) {
+                names.add(pt.getName().toString());
+            } else if (pt instanceof FeatureAssociationRole) {
+                attributes.put(type, null);
+                return null;
+            }
+        }
+        final String[] array = names.toArray(new String[names.size()]);
+        attributes.put(type, array);
+        types.add(type);
+        return array;
+    }
+
+    /**
+     * Append a feature at the end of the file.
+     *
+     * @return false if the feature can not be written
+     */
+    boolean write(final Feature feature) throws IOException {
+        return write(feature, null);
+    }
+
+    /**
+     * Append a feature at the end of the file.
+     *
+     * @param header object read back with the feature, may be null
+     * @return false if the feature or the header can not be written
+     */
+    boolean write(final Feature feature, final Object header) throws IOException {
+        if (finished) {
+            throw new IOException("Can not write in a file already read.");
+        }
+        final FeatureType type = feature.getType();
+        final String[] names = getAttributes(type);
+        if (names == null) return false;
+        final Object[] record = new Object[names.length + 2];
+        record[0] = types.indexOf(type);
+        record[1] = header;
+        for (int i = 0; i < names.length; i++) {
+            final Object value = feature.getPropertyValue(names[i]);
+            if (value != null && !(value instanceof Serializable)) return false;
+            record[i + 2] = value;
+        }
+
+        if (blockOut == null) {
+            blockOut = new ObjectOutputStream(buffer);
+        }
+        try {
+            writeRecord(record);
+        } catch (NotSerializableException ex) {
+            //a serializable value with a non serializable content,
+            //the object stream can not be used anymore, rebuild the block without it
+            buffer.reset();
+            blockOut = new ObjectOutputStream(buffer);
+            for (Object[] previous : block) {
+                writeRecord(previous);
+            }
+            return false;
+        }
+        block.add(record);
+        size++;
+        if (block.size() == BLOCK_SIZE) {
+            writeBlock();
+        }
+        return true;
+    }
+
+    private void writeRecord(final Object[] record) throws IOException {
+        blockOut.writeInt((Integer) record[0]);
+        for (int i = 1; i < record.length; i++) {
+            blockOut.writeObject(record[i]);
+        }
+    }
+
+    /**
+     * Write the records of the current block in the file.
+     */
+    private void writeBlock() throws IOException {
+        if (block.isEmpty()) return;
+        blockOut.flush();
+        if (out == null) {
+            file = Files.createTempFile("features", ".spill");
+            out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+        }
+        out.writeInt(block.size());
+        out.writeInt(buffer.size());
+        buffer.writeTo(out);
+        buffer.reset();
+        block.clear();
+        blockOut = null;
+    }
+
+    /**
+     * Open a cursor on the records, in writing order. Writing is finished once the file has been read.
+     * Only one cursor or iterator may be used at a time, opening a new one closes the previous one.
+     */
+    Cursor cursor() throws IOException {
+        if (!finished) {
+            writeBlock();
+            if (out != null) {
+                out.close();
+                out = null;
+            }
+            finished = true;
+        }
+        if (cursor != null) {
+            cursor.close();
+        }
+        cursor = new Cursor();
+        return cursor;
+    }
+
+    /**
+     * Read features in writing order. Writing is finished once the file has been read.
+     * Only one iterator may be used at a time.
+     */
+    @Override
+    public Iterator<Feature> iterator() {
+        final Cursor cursor;
+        try {
+            cursor = cursor();
+        } catch (IOException ex) {
+            throw new FeatureStoreRuntimeException(ex);
+        }
+
+        return new Iterator<Feature>() {
+            private boolean next;
+            private boolean loaded;
+
+            @Override
+            public boolean hasNext() {
+                if (!loaded) {
+                    try {
+                        next = cursor.next();
+                    } catch (IOException ex) {
+                        throw new FeatureStoreRuntimeException(ex);
+                    }
+                    loaded = true;
+                }
+                return next;
+            }
+
+            @Override
+            public Feature next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException("No more features.");
+                }
+                loaded = false;
+                return cursor.getFeature();
+            }
+        };
+    }
+
+    /**
+     * Close streams and delete the file.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (out != null) {
+                out.close();
+                out = null;
+            }
+        } finally {
+            try {
+                if (cursor != null) {
+                    cursor.close();
+                    cursor = null;
+                }
+            } finally {
+                if (file != null) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * Read records in writing order.
+     */
+    final class Cursor implements AutoCloseable {
+
+        private DataInputStream in;
+        private ObjectInputStream blockIn;
+        private int blockRemaining;
+        private int remaining = size;
+        private Feature feature;
+        private Object header;
+
+        private Cursor() throws IOException {
+            if (remaining > 0) {
+                in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)));
+            }
+        }
+
+        /**
+         * Move to next record.
+         *
+         * @return false if there is no more records
+         */
+        boolean next() throws IOException {
+            feature = null;
+            header = null;
+            if (remaining == 0) {
+                close();
+                return false;
+            }
+            if (blockRemaining == 0) {
+                blockRemaining = in.readInt();
+                final byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                blockIn = new ObjectInputStream(new ByteArrayInputStream(bytes));
+            }
+            blockRemaining--;
+            remaining--;
+            try {
+                final FeatureType type = types.get(blockIn.readInt());
+                header = blockIn.readObject();
+                feature = type.newInstance();
+                for (String name : attributes.get(type)) {
+                    final Object value = blockIn.readObject();
+                    if (value != null) {
+                        feature.setPropertyValue(name, value);
+                    }
+                }
+            } catch (ClassNotFoundException ex) {
+                throw new IOException(ex);
+            }
+            return true;
+        }
+
+        /**
+         * @return feature of current record
+         */
+        Feature getFeature() {
+            return feature;
+        }
+
+        /**
+         * @return header of current record, may be null
+         */
+        Object getHeader() {
+            return header;
+        }
+
+        @Override
+        public void close() throws IOException {
+            remaining = 0;
+            blockRemaining = 0;
+            blockIn = null;
+            if (in != null) {
+                in.close();
+                in = null;
+            }
+        }
+    }
+
+}
@@ -26,6 +26,7 @@ import org.geotoolkit.data.FeatureWriter;
 import org.geotoolkit.factory.Hints;
 import org.apache.sis.util.Classes;
 import org.geotoolkit.data.memory.WrapFeatureCollection;
+import org.geotoolkit.filter.FilterUtilities;
 import org.opengis.feature.Feature;
 import org.opengis.feature.FeatureType;
 import org.opengis.filter.Filter;
@@ -199,16 +200,18 @@ public class GenericFilterFeatureIterator<R extends FeatureIterator> implements
 
     /**
      * Wrap a FeatureReader with a filter.
+     * The filter is prepared against the reader feature type.
      */
     public static FeatureReader wrap(final FeatureReader reader, final Filter filter){
-        return new GenericFilterFeatureReader(reader, filter);
+        return new GenericFilterFeatureReader(reader, FilterUtilities.prepare(filter, Feature.class, reader.getFeatureType()));
     }
 
     /**
      * Wrap a FeatureWriter with a filter.
+     * The filter is prepared against the writer feature type.
      */
     public static FeatureWriter wrap(final FeatureWriter writer, final Filter filter){
-        return new GenericFilterFeatureWriter(writer, filter);
+        return new GenericFilterFeatureWriter(writer, FilterUtilities.prepare(filter, Feature.class, writer.getFeatureType()));
     }
 
     /**
@@ -63,15 +63,8 @@ public class GenericQueryFeatureIterator {
         //          otherwise the result will be illogic.
 
 
-        //wrap sort by ---------------------------------------------------------
-        //This can be really expensive, and force the us to read the full iterator.
-        //that may cause out of memory errors.
-        if(sorts != null && sorts.length != 0){
-            reader = FeatureStreams.sort(reader, sorts);
-        }
-
         //wrap filter ----------------------------------------------------------
-        //we must keep the filter first since it impacts the start index and max feature
+        //we must keep the filter first since it impacts the sort, start index and max feature
         if(filter != null && filter != Filter.INCLUDE){
             if(filter == Filter.EXCLUDE){
                 //filter that exclude everything, use optimzed reader
@@ -83,6 +76,21 @@ public class GenericQueryFeatureIterator {
             }
         }
 
+        //wrap sort by ---------------------------------------------------------
+        //This can be really expensive, and force the us to read the full iterator.
+        //features are written in temporary files when memory budget is exceeded,
+        //if we have a max features we only need to keep the first ones.
+        if(sorts != null && sorts.length != 0){
+            int limit = -1;
+            if(max != null){
+                final long l = (long) max + ((start != null && start > 0) ? start : 0);
+                limit = (int) Math.min(l, Integer.MAX_VALUE);
+            }
+            final Object budget = (hints != null) ? hints.get(GenericSortByFeatureIterator.MEMORY_BUDGET) : null;
+            reader = GenericSortByFeatureIterator.wrap(reader, sorts, limit,
+                    (budget != null) ? (Integer) budget : GenericSortByFeatureIterator.DEFAULT_MEMORY_BUDGET);
+        }
+
         //wrap start index -----------------------------------------------------
         if(start != null && start > 0){
             reader = FeatureStreams.skip(reader, start);
@@ -17,11 +17,14 @@
 
 package org.geotoolkit.internal.data;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
 import org.geotoolkit.feature.FeatureExt;
 import org.geotoolkit.data.FeatureCollection;
 import org.geotoolkit.data.FeatureIterator;
@@ -37,43 +40,163 @@ import org.opengis.filter.sort.SortBy;
 
 /**
  * Basic support for a  FeatureIterator that will sort features using the given sort by
- * orders. This may be very consuming in memory since this implementation must iterate
- * over all features and store them in memory in the right order.
+ * orders. This implementation must iterate over all features before returning the first one.
  *
- * Don't use this class in you now that your iterator holds a great amount of features,
- * otherwise it may cause an Out Of Memory Exception.
+ * <p>
+ * At most {@link #MEMORY_BUDGET} features are kept in memory, beyond this limit
+ * features are sorted by blocks, each block is written in a temporary file and
+ * blocks are merged while iterating. Blocks are written in a {@link FeatureSpillFile},
+ * features and sort keys which can not be written are sorted in memory.
+ * </p>
+ * <p>
+ * When only the first features are needed, a limit can be given, only this
+ * number of features is then kept in memory.
+ * </p>
  *
  * @author Johann Sorel (Geomatys)
  * @module
  */
 public class GenericSortByFeatureIterator<R extends FeatureIterator> implements FeatureIterator {
 
+    /**
+     * Hint for the maximum number of features kept in memory when sorting,
+     * default is {@value #DEFAULT_MEMORY_BUDGET}.
+     */
+    public static final Hints.Key MEMORY_BUDGET = new Hints.Key(Integer.class);
+
+    public static final int DEFAULT_MEMORY_BUDGET = 100000;
+
     protected final R iterator;
-    private final Comparator<Feature> comparator;
-    protected List<Feature> ordered = null;
-    protected int index = 0;
+    private final SortByComparator comparator;
+    private final Comparator<Entry> entryComparator;
+    private final int limit;
+    private final int memoryBudget;
+    private final List<Run> runs = new ArrayList<>();
+    protected Iterator<Feature> ordered = null;
 
     /**
      * Creates a new instance of GenericSortByFeatureIterator
      *
      * @param iterator FeatureReader to sort
      * @param orders sorting orders
+     * @param limit maximum number of features needed, -1 for all
+     * @param memoryBudget maximum number of features to keep in memory
      */
-    private GenericSortByFeatureIterator(final R iterator, final SortBy[] orders) {
+    private GenericSortByFeatureIterator(final R iterator, final SortBy[] orders, final int limit, final int memoryBudget) {
+        this(iterator, new SortByComparator(orders), limit, memoryBudget);
+    }
+
+    /**
+     * Creates a new instance of GenericSortByFeatureIterator
+     *
+     * @param iterator FeatureReader to sort
+     * @param comparator sort keys comparator
+     * @param limit maximum number of features needed, -1 for all
+     * @param memoryBudget maximum number of features to keep in memory
+     */
+    private GenericSortByFeatureIterator(final R iterator, final SortByComparator comparator, final int limit, final int memoryBudget) {
         this.iterator = iterator;
-        this.comparator = new SortByComparator(orders);
+        this.comparator = comparator;
+        this.limit = limit;
+        this.memoryBudget = Math.max(1, memoryBudget);
+        //keep original order for equal features
+        this.entryComparator = (Entry e1, Entry e2) -> {
+            final int c = comparator.compareKeys(e1.keys, e2.keys);
+            return (c != 0) ? c : Long.compare(e1.order, e2.order);
+        };
     }
 
     private synchronized void sort() throws FeatureStoreRuntimeException{
         if(ordered != null) return;
 
-        ordered = new ArrayList<>();
+        try {
+            if (limit >= 0 && limit <= memoryBudget) {
+                ordered = sortFirst();
+            } else {
+                ordered = sortAll();
+            }
+        } catch (IOException ex) {
+            throw new FeatureStoreRuntimeException(ex);
+        }
+    }
 
-        while(iterator.hasNext()){
-            ordered.add(FeatureExt.copy(iterator.next()));
+    /**
+     * Keep only the first features in a heap.
+     */
+    private Iterator<Feature> sortFirst() {
+        final PriorityQueue<Entry> heap = new PriorityQueue<>(Math.min(limit, 1024) + 1, Collections.reverseOrder(entryComparator));
+        long order = 0;
+        while (iterator.hasNext()) {
+            final Feature feature = iterator.next();
+            final Entry entry = new Entry(comparator.getKeys(feature), order++);
+            if (heap.size() < limit) {
+                entry.feature = FeatureExt.copy(feature);
+                heap.add(entry);
+            } else if (limit > 0 && entryComparator.compare(entry, heap.peek()) < 0) {
+                heap.poll();
+                entry.feature = FeatureExt.copy(feature);
+                heap.add(entry);
+            }
+        }
+        final List<Entry> first = new ArrayList<>(heap);
+        first.sort(entryComparator);
+        return new ListRun(first).asIterator();
+    }
+
+    /**
+     * Sort all features, writing sorted blocks in temporary files if
+     * the memory budget is exceeded.
+     */
+    private Iterator<Feature> sortAll() throws IOException {
+        List<Entry> block = new ArrayList<>();
+        boolean canWrite = true;
+        long order = 0;
+        while (iterator.hasNext()) {
+            final Feature feature = iterator.next();
+            block.add(new Entry(comparator.getKeys(feature), order++, FeatureExt.copy(feature)));
+
+            if (canWrite && block.size() >= memoryBudget) {
+                block.sort(entryComparator);
+                canWrite = write(block);
+                if (canWrite) {
+                    block = new ArrayList<>();
+                }
+            }
+        }
+        block.sort(entryComparator);
+
+        final ListRun last = new ListRun(block);
+        if (runs.isEmpty()) {
+            return last.asIterator();
         }
+        runs.add(last);
+        return new MergeIterator();
+    }
 
-        Collections.sort(ordered,comparator);
+    /**
+     * Write a sorted block in a temporary file.
+     *
+     * @return false if block can not be written
+     */
+    private boolean write(final List<Entry> block) throws IOException {
+        final FeatureSpillFile spill = new FeatureSpillFile();
+        try {
+            for (Entry entry : block) {
+                if (!spill.write(entry.feature, new Object[]{entry.order, entry.keys})) {
+                    spill.close();
+                    return false;
+                }
+            }
+        } catch (IOException ex) {
+            try {
+                spill.close();
+            } catch (IOException e) {
+                ex.addSuppressed(e);
+            }
+            throw ex;
+        }
+        runs.add(new FileRun(spill));
+        return true;
     }
 
     /**
@@ -82,13 +205,10 @@ public class GenericSortByFeatureIterator<R extends FeatureIterator> implements
     @Override
     public Feature next() throws FeatureStoreRuntimeException {
         sort();
-        try{
-            Feature c = ordered.get(index);
-            index++;
-            return c;
-        }catch(IndexOutOfBoundsException ex){
+        if (!ordered.hasNext()) {
             throw new NoSuchElementException("No more elements.");
         }
+        return ordered.next();
     }
 
     /**
@@ -97,6 +217,18 @@ public class GenericSortByFeatureIterator<R extends FeatureIterator> implements
     @Override
     public void close() throws FeatureStoreRuntimeException {
         iterator.close();
+        IOException error = null;
+        for (Run run : runs) {
+            try {
+                run.close();
+            } catch (IOException ex) {
+                error = ex;
+            }
+        }
+        runs.clear();
+        if (error != null) {
+            throw new FeatureStoreRuntimeException(error);
+        }
     }
 
     /**
@@ -105,7 +237,7 @@ public class GenericSortByFeatureIterator<R extends FeatureIterator> implements
     @Override
     public boolean hasNext() throws FeatureStoreRuntimeException {
         sort();
-        return index < ordered.size();
+        return ordered.hasNext();
     }
 
     /**
@@ -126,6 +258,168 @@ public class GenericSortByFeatureIterator<R extends FeatureIterator> implements
         return sb.toString();
     }
 
+    /**
+     * A feature and its sort keys.
+     */
+    private static final class Entry {
+
+        private final Object[] keys;
+        private final long order;
+        private Feature feature;
+
+        private Entry(final Object[] keys, final long order) {
+            this.keys = keys;
+            this.order = order;
+        }
+
+        private Entry(final Object[] keys, final long order, final Feature feature) {
+            this(keys, order);
+            this.feature = feature;
+        }
+    }
+
+    /**
+     * A sorted sequence of entries.
+     */
+    private abstract static class Run {
+
+        protected Entry current;
+
+        /**
+         * Move to next entry.
+         *
+         * @return false if there is no more entries
+         */
+        abstract boolean advance() throws IOException;
+
+        void close() throws IOException {
+        }
+
+        /**
+         * View this run as an iterator, used when there is a single run.
+         */
+        final Iterator<Feature> asIterator() {
+            return new Iterator<Feature>() {
+                private boolean next;
+                private boolean loaded;
+
+                @Override
+                public boolean hasNext() {
+                    if (!loaded) {
+                        try {
+                            next = advance();
+                        } catch (IOException ex) {
+                            throw new FeatureStoreRuntimeException(ex);
+                        }
+                        loaded = true;
+                    }
+                    return next;
+                }
+
+                @Override
+                public Feature next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException("No more elements.");
+                    }
+                    loaded = false;
+                    return current.feature;
+                }
+            };
+        }
+    }
+
+    /**
+     * Sorted entries in memory.
+     */
+    private static final class ListRun extends Run {
+
+        private final Iterator<Entry> entries;
+
+        private ListRun(final List<Entry> entries) {
+            this.entries = entries.iterator();
+        }
+
+        @Override
+        boolean advance() {
+            current = entries.hasNext() ? entries.next() : null;
+            return current != null;
+        }
+    }
+
+    /**
+     * Sorted entries in a temporary file, each feature is written with its order and sort keys.
+     */
+    private static final class FileRun extends Run {
+
+        private final FeatureSpillFile spill;
+        private FeatureSpillFile.Cursor cursor;
+
+        private FileRun(final FeatureSpillFile spill) {
+            this.spill = spill;
+        }
+
+        @Override
+        boolean advance() throws IOException {
+            if (cursor == null) {
+                cursor = spill.cursor();
+            }
+            if (!cursor.next()) {
+                current = null;
+                close();
+                return false;
+            }
+            final Object[] header = (Object[]) cursor.getHeader();
+            current = new Entry((Object[]) header[1], (Long) header[0], cursor.getFeature());
+            return true;
+        }
+
+        @Override
+        void close() throws IOException {
+            spill.close();
+        }
+    }
+
+    /**
+     * Merge all sorted runs.
+     */
+    private final class MergeIterator implements Iterator<Feature> {
+
+        private PriorityQueue<Run> queue;
+
+        private void init() throws IOException {
+            if (queue != null) return;
+            queue = new PriorityQueue<>(runs.size(), (Run r1, Run r2) -> entryComparator.compare(r1.current, r2.current));
+            for (Run run : runs) {
+                if (run.advance()) queue.add(run);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                init();
+            } catch (IOException ex) {
+                throw new FeatureStoreRuntimeException(ex);
+            }
+            return !queue.isEmpty();
+        }
+
+        @Override
+        public Feature next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("No more elements.");
+            }
+            final Run run = queue.poll();
+            final Feature feature = run.current.feature;
+            try {
+                if (run.advance()) queue.add(run);
+            } catch (IOException ex) {
+                throw new FeatureStoreRuntimeException(ex);
+            }
+            return feature;
+        }
+    }
+
     /**
      * Wrap a FeatureReader that will sort features using the given sort by.
      *
@@ -135,8 +429,8 @@ public class GenericSortByFeatureIterator<R extends FeatureIterator> implements
      */
     private static final class GenericSortByFeatureReader extends GenericSortByFeatureIterator<FeatureReader> implements FeatureReader{
 
-        private GenericSortByFeatureReader(final FeatureReader reader,final SortBy[] orders){
-            super(reader,orders);
+        private GenericSortByFeatureReader(final FeatureReader reader, final SortBy[] orders, final int limit, final int memoryBudget){
+            super(reader, orders, limit, memoryBudget);
         }
 
         @Override
@@ -171,7 +465,20 @@ public class GenericSortByFeatureIterator<R extends FeatureIterator> implements
      * Wrap a FeatureReader will a sort by order.
      */
     public static FeatureReader wrap(final FeatureReader reader, final SortBy[] orders){
-        return new GenericSortByFeatureReader(reader, orders);
+        return wrap(reader, orders, -1, DEFAULT_MEMORY_BUDGET);
+    }
+
+    /**
+     * Wrap a FeatureReader will a sort by order.
+     *
+     * @param reader source reader
+     * @param orders sorting orders
+     * @param limit maximum number of features which will be read, -1 for all
+     * @param memoryBudget maximum number of features to keep in memory
+     * @return sorted reader
+     */
+    public static FeatureReader wrap(final FeatureReader reader, final SortBy[] orders, final int limit, final int memoryBudget){
+        return new GenericSortByFeatureReader(reader, orders, limit, memoryBudget);
     }
 
     /**
@@ -181,10 +488,22 @@ public class GenericSortByFeatureIterator<R extends FeatureIterator> implements
         if(reader instanceof FeatureReader){
             return wrap((FeatureReader)reader,orders);
         }else{
-            return new GenericSortByFeatureIterator(reader, orders);
+            return new GenericSortByFeatureIterator(reader, orders, -1, DEFAULT_MEMORY_BUDGET);
         }
     }
 
+    /**
+     * Wrap a FeatureIterator sorted with the keys of given comparator.
+     *
+     * @param reader source iterator
+     * @param comparator sort keys extraction and comparison
+     * @param memoryBudget maximum number of features to keep in memory
+     * @return sorted iterator
+     */
+    static FeatureIterator wrap(final FeatureIterator reader, final SortByComparator comparator, final int memoryBudget){
+        return new GenericSortByFeatureIterator(reader, comparator, -1, memoryBudget);
+    }
+
     /**
      * Wrap a FeatureCollection will a sort by order.
      */
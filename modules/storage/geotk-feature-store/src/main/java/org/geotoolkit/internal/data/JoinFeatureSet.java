@@ -16,8 +16,19 @@
  */
 package org.geotoolkit.internal.data;
 
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Spliterator;
 import java.util.Spliterators;
 import java.util.stream.Stream;
@@ -35,15 +46,21 @@ import org.apache.sis.storage.UnsupportedQueryException;
 import org.apache.sis.storage.event.ChangeEvent;
 import org.apache.sis.storage.event.ChangeListener;
 import org.apache.sis.util.iso.SimpleInternationalString;
+import org.geotoolkit.data.FeatureIterator;
 import org.geotoolkit.data.FeatureStoreRuntimeException;
+import org.geotoolkit.data.FeatureStreams;
 import org.geotoolkit.data.query.QueryBuilder;
 import org.geotoolkit.data.query.QueryFeatureSet;
+import org.geotoolkit.data.query.SortByComparator;
 import org.geotoolkit.factory.FactoryFinder;
+import org.geotoolkit.factory.Hints;
 import org.opengis.feature.Feature;
 import org.opengis.feature.FeatureType;
 import org.opengis.filter.FilterFactory;
 import org.opengis.filter.PropertyIsEqualTo;
 import org.opengis.filter.expression.PropertyName;
+import org.opengis.filter.sort.SortBy;
+import org.opengis.filter.sort.SortOrder;
 import org.opengis.geometry.Envelope;
 import org.opengis.metadata.Metadata;
 import org.opengis.util.GenericName;
@@ -80,6 +97,58 @@ public class JoinFeatureSet implements FeatureSet {
         RIGHT_OUTER
     }
 
+    /**
+     * Algorithm used to match features from both sides.
+     */
+    public enum Strategy {
+        /**
+         * Use {@link #HASH}.
+         */
+        AUTO,
+
+        /**
+         * For each feature of one side, query the other side with an equality filter.
+         * Only worth it when the queried side has an index on the join property.
+         */
+        NESTED_LOOP,
+
+        /**
+         * Load one side in a hash table and stream the other side.
+         * The left side is loaded if it fits in the memory budget, otherwise the right side.
+         * Beyond the memory budget both sides are partitioned in temporary files.
+         */
+        HASH,
+
+        /**
+         * Sort both sides on the join properties, in temporary files beyond
+         * the memory budget, and merge them.
+         */
+        SORT_MERGE
+    }
+
+    /**
+     * Hint to force the join {@link Strategy}, default is {@link Strategy#AUTO}.
+     */
+    public static final Hints.Key JOIN_STRATEGY = new Hints.Key(Strategy.class);
+
+    /**
+     * Hint for the maximum number of features a join may hold in memory,
+     * default is {@value #DEFAULT_MEMORY_BUDGET}.
+     */
+    public static final Hints.Key JOIN_MEMORY_BUDGET = new Hints.Key(Integer.class);
+
+    private static final int DEFAULT_MEMORY_BUDGET = 100000;
+
+    /**
+     * Number of partitions created when a hash join exceeds the memory budget.
+     */
+    private static final int PARTITIONS = 32;
+
+    /**
+     * Maximum number of times an oversized hash join partition is split.
+     */
+    private static final int MAX_PARTITION_LEVEL = 3;
+
     private static final FilterFactory FF = FactoryFinder.getFilterFactory(null);
 
     private final FeatureSet left;
@@ -88,17 +157,31 @@ public class JoinFeatureSet implements FeatureSet {
     private String rightAlias;
     private final Type joinType;
     private final PropertyIsEqualTo condition;
+    private final Strategy strategy;
+    private final int memoryBudget;
 
     //cache
     private FeatureType type = null;
 
     public JoinFeatureSet(FeatureSet left, String leftAlias, FeatureSet right, String rightAlias, Type joinType, PropertyIsEqualTo condition) {
+        this(left, leftAlias, right, rightAlias, joinType, condition, null);
+    }
+
+    /**
+     * @param hints may contain {@link #JOIN_STRATEGY} and {@link #JOIN_MEMORY_BUDGET}, can be null
+     */
+    public JoinFeatureSet(FeatureSet left, String leftAlias, FeatureSet right, String rightAlias, Type joinType, PropertyIsEqualTo condition, Hints hints) {
         this.left = left;
         this.right = right;
         this.leftAlias = leftAlias;
         this.rightAlias = rightAlias;
         this.joinType = joinType;
         this.condition = condition;
+
+        final Object strategy = (hints != null) ? hints.get(JOIN_STRATEGY) : null;
+        this.strategy = (strategy != null) ? (Strategy) strategy : Strategy.AUTO;
+        final Object budget = (hints != null) ? hints.get(JOIN_MEMORY_BUDGET) : null;
+        this.memoryBudget = (budget != null) ? Math.max(1, (Integer) budget) : DEFAULT_MEMORY_BUDGET;
     }
 
     /**
@@ -119,6 +202,15 @@ public class JoinFeatureSet implements FeatureSet {
         return joinType;
     }
 
+    /**
+     * Gets the requested join strategy.
+     *
+     * @return Strategy, never null
+     */
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
     /**
      * Gets the left feature source.
      *
@@ -193,12 +285,18 @@ public class JoinFeatureSet implements FeatureSet {
     @Override
     public Stream<Feature> features(boolean parallel) throws DataStoreException {
         final JoinIterator ite;
-        switch (joinType) {
-            case INNER :       ite = new JoinInnerRowIterator(); break;
-            case LEFT_OUTER :  ite = new JoinOuterRowIterator(true); break;
-            case RIGHT_OUTER : ite = new JoinOuterRowIterator(false); break;
-            default:
-                throw new IllegalArgumentException("Unknown Join type : " + joinType);
+        if (strategy == Strategy.NESTED_LOOP) {
+            switch (joinType) {
+                case INNER :       ite = new JoinInnerRowIterator(); break;
+                case LEFT_OUTER :  ite = new JoinOuterRowIterator(true); break;
+                case RIGHT_OUTER : ite = new JoinOuterRowIterator(false); break;
+                default:
+                    throw new IllegalArgumentException("Unknown Join type : " + joinType);
+            }
+        } else if (strategy == Strategy.SORT_MERGE) {
+            ite = new SortMergeJoinIterator();
+        } else {
+            ite = new HashJoinIterator();
         }
         final Stream<Feature> stream = StreamSupport.stream(
             Spliterators.spliteratorUnknownSize(ite, Spliterator.ORDERED),
@@ -234,6 +332,49 @@ public class JoinFeatureSet implements FeatureSet {
         return f;
     }
 
+    /**
+     * Normalize a join property value so that values which are equal for the
+     * join condition are also equal as hash keys : integral numbers are converted
+     * to Long, other numbers to Double and strings are converted to lower case
+     * if the condition does not match case.
+     *
+     * @return normalized key, null if value can not match anything
+     */
+    private Object toKey(final Object value) {
+        if (value instanceof Number) {
+            final Number n = (Number) value;
+            if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte
+                    || (value instanceof BigInteger && ((BigInteger) value).bitLength() < 64)) {
+                return n.longValue();
+            }
+            final double d = n.doubleValue();
+            if (d == Math.rint(d) && Math.abs(d) < 0x1p63) {
+                return (long) d;
+            }
+            return d;
+        } else if (value instanceof CharSequence) {
+            final String str = value.toString();
+            return condition.isMatchingCase() ? str : str.toLowerCase(Locale.ROOT);
+        }
+        return value;
+    }
+
+    /**
+     * Compare two normalized keys, order must be the same as the one used by sources
+     * when sorting on the join properties.
+     */
+    private static int compareKeys(final Object k1, final Object k2) {
+        if (k1 instanceof Long && k2 instanceof Long) {
+            return Long.compare((Long) k1, (Long) k2);
+        } else if (k1 instanceof Number && k2 instanceof Number) {
+            return Double.compare(((Number) k1).doubleValue(), ((Number) k2).doubleValue());
+        } else if (k1 instanceof Comparable && k1.getClass().isInstance(k2)) {
+            return ((Comparable) k1).compareTo(k2);
+        }
+        final int c = k1.getClass().getName().compareTo(k2.getClass().getName());
+        return (c != 0) ? c : k1.toString().compareTo(k2.toString());
+    }
+
     private interface JoinIterator extends Iterator<Feature>, AutoCloseable {
 
         @Override
@@ -473,6 +614,654 @@ public class JoinFeatureSet implements FeatureSet {
 
     }
 
+    /**
+     * Base class for joins which produce several features at once.
+     */
+    private abstract class BufferedJoinIterator implements JoinIterator {
+
+        protected final Deque<Feature> pending = new ArrayDeque<>();
+
+        @Override
+        public Feature next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("No more features.");
+            }
+            return pending.poll();
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                if (pending.isEmpty()) searchNext();
+            } catch (DataStoreException ex) {
+                throw new FeatureStoreRuntimeException(ex);
+            }
+            return !pending.isEmpty();
+        }
+
+        /**
+         * Fill the pending queue, leave it empty when iteration is finished.
+         */
+        protected abstract void searchNext() throws DataStoreException;
+    }
+
+    /**
+     * A build side feature of a hash join.
+     */
+    private static final class Row {
+        private final Feature feature;
+        private boolean matched;
+
+        private Row(Feature feature) {
+            this.feature = feature;
+        }
+    }
+
+    /**
+     * Base class of hash joins : build side features are indexed by join value
+     * in a hash table, probe side features are then matched against it.
+     */
+    private abstract class AbstractHashJoinIterator extends BufferedJoinIterator {
+
+        protected boolean buildLeft;
+        protected PropertyName buildProperty;
+        protected PropertyName probeProperty;
+        protected boolean keepUnmatchedBuild;
+        private final Map<Object,List<Row>> table = new HashMap<>();
+        private final List<Row> rows = new ArrayList<>();
+
+        /**
+         * @param buildLeft true to load left side in memory
+         * @param keepUnmatchedBuild true to return build features without match
+         */
+        AbstractHashJoinIterator(boolean buildLeft, boolean keepUnmatchedBuild) {
+            setBuildSide(buildLeft, keepUnmatchedBuild);
+        }
+
+        /**
+         * Change the build side, must be called before any feature is indexed.
+         *
+         * @param buildLeft true to load left side in memory
+         * @param keepUnmatchedBuild true to return build features without match
+         */
+        protected void setBuildSide(boolean buildLeft, boolean keepUnmatchedBuild) {
+            this.buildLeft = buildLeft;
+            this.keepUnmatchedBuild = keepUnmatchedBuild;
+            final PropertyName leftProperty = (PropertyName) condition.getExpression1();
+            final PropertyName rightProperty = (PropertyName) condition.getExpression2();
+            this.buildProperty = buildLeft ? leftProperty : rightProperty;
+            this.probeProperty = buildLeft ? rightProperty : leftProperty;
+        }
+
+        protected Feature combine(Feature build, Feature probe) throws DataStoreException {
+            return buildLeft ? toFeature(build, probe) : toFeature(probe, build);
+        }
+
+        /**
+         * Add a build feature in the hash table.
+         */
+        protected void index(final Feature feature) {
+            final Row row = new Row(feature);
+            final Object key = toKey(buildProperty.evaluate(feature));
+            if (key != null) {
+                table.computeIfAbsent(key, (Object k) -> new ArrayList<>(1)).add(row);
+            }
+            if (keepUnmatchedBuild) rows.add(row);
+        }
+
+        /**
+         * Match a probe feature against the hash table, results are added in the pending features.
+         *
+         * @param keepUnmatched true to return the probe feature if it has no match
+         */
+        protected void probe(final Feature probe, final boolean keepUnmatched) throws DataStoreException {
+            final Object key = toKey(probeProperty.evaluate(probe));
+            final List<Row> matches = (key != null) ? table.get(key) : null;
+            if (matches != null) {
+                for (Row row : matches) {
+                    row.matched = true;
+                    pending.add(combine(row.feature, probe));
+                }
+            } else if (keepUnmatched) {
+                pending.add(combine(null, probe));
+            }
+        }
+
+        /**
+         * Clear the hash table once all probe features have been matched,
+         * unmatched build features are added in the pending features if they must be kept.
+         */
+        protected void clearTable() throws DataStoreException {
+            for (Row row : rows) {
+                if (!row.matched) pending.add(combine(row.feature, null));
+            }
+            rows.clear();
+            table.clear();
+        }
+    }
+
+    /**
+     * Partition of a hash join, features of both sides whose join value
+     * have the same hash are stored in temporary files.
+     */
+    private static final class Partition implements AutoCloseable {
+
+        private final int level;
+        private final FeatureSpillFile build = new FeatureSpillFile();
+        private final FeatureSpillFile probe = new FeatureSpillFile();
+
+        private Partition(int level) {
+            this.level = level;
+        }
+
+        /**
+         * Index of the partition of a join key. The hash depends on the partitioning
+         * level so that an oversized partition can be split again.
+         */
+        private static int index(final Object key, final int level) {
+            if (key == null) return 0;
+            int h = key.hashCode() + level * 0x9E3779B9;
+            h ^= h >>> 16;
+            h *= 0x85EBCA6B;
+            h ^= h >>> 13;
+            h *= 0xC2B2AE35;
+            h ^= h >>> 16;
+            return Math.floorMod(h, PARTITIONS);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                build.close();
+            } finally {
+                probe.close();
+            }
+        }
+    }
+
+    /**
+     * Hash join : features from the build side are loaded in a hash table indexed
+     * by join value, then the probe side is streamed once.
+     * <p>
+     * The left side is loaded first. If it exceeds the memory budget, it is partitioned
+     * on its join value hash in temporary files and the right side is loaded. If the right
+     * side fits in memory it is used as build side, the left features are then read back
+     * from the temporary files as probe side. Otherwise the right side is partitioned too,
+     * then partitions are joined one by one. Each side is read only once.
+     * Partitions still exceeding the memory budget are split again, up to
+     * {@value #MAX_PARTITION_LEVEL} times. If features can not be written
+     * the join is made by blocks with {@link BlockJoinIterator}.
+     * </p>
+     */
+    private class HashJoinIterator extends AbstractHashJoinIterator {
+
+        private boolean keepUnmatchedProbe;
+        //partitions waiting to be joined
+        private final Deque<Partition> partitions = new ArrayDeque<>();
+        //partitions read as probe side when the right side is the build side
+        private final List<Partition> probePartitions = new ArrayList<>();
+        private boolean started = false;
+        private Partition partition;
+        private Stream<Feature> probeStream;
+        private Iterator<Feature> probeIterator;
+        private BlockJoinIterator fallback;
+
+        HashJoinIterator() {
+            super(true, joinType == Type.LEFT_OUTER);
+            this.keepUnmatchedProbe = joinType == Type.RIGHT_OUTER;
+        }
+
+        /**
+         * Load the build side, partition both sides if it exceeds the memory budget.
+         */
+        private void start() throws DataStoreException, IOException {
+            started = true;
+
+            final Partition[] parts;
+            boolean written;
+            try (Stream<Feature> stream = left.features(false)) {
+                final Iterator<Feature> ite = stream.iterator();
+                final List<Feature> loaded = load(ite);
+                if (!ite.hasNext()) {
+                    //left side fits in memory
+                    for (Feature feature : loaded) index(feature);
+                    probeStream = right.features(false);
+                    probeIterator = probeStream.iterator();
+                    return;
+                }
+
+                parts = createPartitions(0);
+                written = distribute(loaded.iterator(), buildProperty, parts, true);
+                loaded.clear();
+                written = written && distribute(ite, buildProperty, parts, true);
+            }
+            if (written) {
+                try (Stream<Feature> stream = right.features(false)) {
+                    final Iterator<Feature> ite = stream.iterator();
+                    final List<Feature> loaded = load(ite);
+                    if (!ite.hasNext()) {
+                        //right side fits in memory, left features written in the partitions are the probe side
+                        setBuildSide(false, joinType == Type.RIGHT_OUTER);
+                        keepUnmatchedProbe = joinType == Type.LEFT_OUTER;
+                        for (Feature feature : loaded) index(feature);
+                        probePartitions.addAll(partitions);
+                        partitions.clear();
+                        probeIterator = readBuildSide(probePartitions);
+                        return;
+                    }
+                    written = distribute(loaded.iterator(), probeProperty, parts, false);
+                    loaded.clear();
+                    written = written && distribute(ite, probeProperty, parts, false);
+                }
+            }
+
+            if (!written) {
+                closePartitions();
+                //outer joins must build the side to keep
+                fallback = new BlockJoinIterator(joinType != Type.RIGHT_OUTER);
+            }
+        }
+
+        /**
+         * Load features up to the memory budget.
+         */
+        private List<Feature> load(final Iterator<Feature> ite) {
+            final List<Feature> loaded = new ArrayList<>();
+            while (loaded.size() < memoryBudget && ite.hasNext()) {
+                loaded.add(ite.next());
+            }
+            return loaded;
+        }
+
+        /**
+         * Read the build features of the given partitions, one partition after the other.
+         */
+        private Iterator<Feature> readBuildSide(final List<Partition> parts) {
+            final Iterator<Partition> pi = parts.iterator();
+            return new Iterator<Feature>() {
+                private Iterator<Feature> current = Collections.emptyIterator();
+
+                @Override
+                public boolean hasNext() {
+                    while (!current.hasNext() && pi.hasNext()) {
+                        current = pi.next().build.iterator();
+                    }
+                    return current.hasNext();
+                }
+
+                @Override
+                public Feature next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException("No more features.");
+                    }
+                    return current.next();
+                }
+            };
+        }
+
+        /**
+         * Create empty partitions of given level, they are added first in the partitions to join.
+         */
+        private Partition[] createPartitions(final int level) {
+            final Partition[] parts = new Partition[PARTITIONS];
+            for (int i = PARTITIONS - 1; i >= 0; i--) {
+                parts[i] = new Partition(level);
+                partitions.push(parts[i]);
+            }
+            return parts;
+        }
+
+        /**
+         * Write features in the partitions matching their join value.
+         *
+         * @return false if a feature could not be written
+         */
+        private boolean distribute(final Iterator<Feature> ite, final PropertyName property,
+                final Partition[] parts, final boolean buildSide) throws IOException {
+            while (ite.hasNext()) {
+                final Feature feature = ite.next();
+                final Partition part = parts[Partition.index(toKey(property.evaluate(feature)), parts[0].level)];
+                if (!(buildSide ? part.build : part.probe).write(feature)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Load the next partition build features and start streaming its probe features.
+         *
+         * @return false if there is no more partition
+         */
+        private boolean nextPartition() throws IOException {
+            while (!partitions.isEmpty()) {
+                final Partition part = partitions.poll();
+                if ((part.build.size() == 0 && !keepUnmatchedProbe)
+                        || (part.probe.size() == 0 && !keepUnmatchedBuild)) {
+                    part.close();
+                    continue;
+                }
+                if (part.build.size() > memoryBudget && part.level < MAX_PARTITION_LEVEL) {
+                    //split oversized partition
+                    try {
+                        final Partition[] parts = createPartitions(part.level + 1);
+                        if (!distribute(part.build.iterator(), buildProperty, parts, true)
+                         || !distribute(part.probe.iterator(), probeProperty, parts, false)) {
+                            throw new IOException("Features read from a temporary file can not be written.");
+                        }
+                    } finally {
+                        part.close();
+                    }
+                    continue;
+                }
+                //partitions at last level are loaded whatever their size,
+                //their features mostly share a same join value
+                for (Feature feature : part.build) index(feature);
+                partition = part;
+                probeIterator = part.probe.iterator();
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        protected void searchNext() throws DataStoreException {
+            try {
+                if (!started) start();
+                if (fallback != null) {
+                    if (fallback.hasNext()) pending.add(fallback.next());
+                    return;
+                }
+                while (pending.isEmpty()) {
+                    if (probeIterator == null && !nextPartition()) return;
+
+                    if (probeIterator.hasNext()) {
+                        probe(probeIterator.next(), keepUnmatchedProbe);
+                    } else {
+                        //end of probe side or partition
+                        probeIterator = null;
+                        if (probeStream != null) {
+                            probeStream.close();
+                            probeStream = null;
+                        }
+                        if (partition != null) {
+                            partition.close();
+                            partition = null;
+                        }
+                        if (!probePartitions.isEmpty()) {
+                            closePartitions();
+                        }
+                        clearTable();
+                    }
+                }
+            } catch (IOException ex) {
+                throw new DataStoreException(ex.getMessage(), ex);
+            }
+        }
+
+        private void closePartitions() throws IOException {
+            if (partition != null) {
+                partitions.add(partition);
+                partition = null;
+            }
+            partitions.addAll(probePartitions);
+            probePartitions.clear();
+            IOException error = null;
+            for (Partition part : partitions) {
+                try {
+                    part.close();
+                } catch (IOException ex) {
+                    error = ex;
+                }
+            }
+            partitions.clear();
+            if (error != null) throw error;
+        }
+
+        @Override
+        public void close() {
+            if (fallback != null) {
+                fallback.close();
+            }
+            if (probeStream != null) {
+                probeStream.close();
+            }
+            try {
+                closePartitions();
+            } catch (IOException ex) {
+                throw new FeatureStoreRuntimeException(ex);
+            }
+        }
+    }
+
+    /**
+     * Block hash join, used when features can not be written in temporary files :
+     * build side features are loaded by blocks of at most the memory budget in a hash table,
+     * the probe side is streamed once for each block.
+     */
+    private class BlockJoinIterator extends AbstractHashJoinIterator {
+
+        private final FeatureSet probeSet;
+        private final Stream<Feature> buildStream;
+        private final Iterator<Feature> buildIterator;
+        private Stream<Feature> probeStream;
+        private Iterator<Feature> probeIterator;
+
+        /**
+         * @param buildLeft true to load left side in memory, for outer joins
+         *        the build side must be the side to keep
+         */
+        BlockJoinIterator(boolean buildLeft) throws DataStoreException {
+            super(buildLeft, joinType != Type.INNER);
+            this.probeSet = buildLeft ? right : left;
+            buildStream = (buildLeft ? left : right).features(false);
+            buildIterator = buildStream.iterator();
+        }
+
+        @Override
+        protected void searchNext() throws DataStoreException {
+            while (pending.isEmpty()) {
+                if (probeIterator == null) {
+                    if (!buildIterator.hasNext()) return;
+                    for (int nb = 0; nb < memoryBudget && buildIterator.hasNext(); nb++) {
+                        index(buildIterator.next());
+                    }
+                    probeStream = probeSet.features(false);
+                    probeIterator = probeStream.iterator();
+                }
+
+                if (probeIterator.hasNext()) {
+                    probe(probeIterator.next(), false);
+                } else {
+                    //end of block
+                    probeStream.close();
+                    probeStream = null;
+                    probeIterator = null;
+                    clearTable();
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            buildStream.close();
+            if (probeStream != null) {
+                probeStream.close();
+            }
+        }
+    }
+
+    /**
+     * Comparator of join values, extracted with {@link #toKey(java.lang.Object) }.
+     * Features without value are sorted first.
+     */
+    private final class JoinKeyComparator extends SortByComparator {
+
+        private final PropertyName property;
+
+        private JoinKeyComparator(final PropertyName property) {
+            super(new SortBy[]{FF.sort(property.getPropertyName(), SortOrder.ASCENDING)});
+            this.property = property;
+        }
+
+        @Override
+        public Object[] getKeys(final Feature feature) {
+            return new Object[]{toKey(property.evaluate(feature))};
+        }
+
+        @Override
+        public int compareKeys(final Object[] keys1, final Object[] keys2) {
+            if (keys1[0] == null) {
+                return (keys2[0] == null) ? 0 : -1;
+            } else if (keys2[0] == null) {
+                return 1;
+            }
+            return JoinFeatureSet.compareKeys(keys1[0], keys2[0]);
+        }
+    }
+
+    /**
+     * Sort-merge join : both sides are sorted on their join value, in temporary files
+     * beyond the memory budget, then consumed together, only the features sharing
+     * a same value are held in memory.
+     * <p>
+     * Sources are sorted here rather than with a sorted query, the order of sources
+     * may not match the join value comparison (collations, mixed number types).
+     * </p>
+     */
+    private class SortMergeJoinIterator extends BufferedJoinIterator {
+
+        private final class Cursor {
+            private final Stream<Feature> stream;
+            private final FeatureIterator iterator;
+            private final PropertyName property;
+            private Feature feature;
+            private Object key;
+
+            private Cursor(FeatureSet set, PropertyName property) throws DataStoreException {
+                this.stream = set.features(false);
+                this.iterator = GenericSortByFeatureIterator.wrap(FeatureStreams.asIterator(stream.iterator()),
+                        new JoinKeyComparator(property), memoryBudget);
+                this.property = property;
+                try {
+                    advance();
+                } catch (RuntimeException ex) {
+                    close();
+                    throw ex;
+                }
+            }
+
+            /**
+             * Move to next feature.
+             *
+             * @return false if there is no more feature
+             */
+            private boolean advance() {
+                if (!iterator.hasNext()) {
+                    feature = null;
+                    key = null;
+                    return false;
+                }
+                feature = iterator.next();
+                key = toKey(property.evaluate(feature));
+                return true;
+            }
+
+            /**
+             * @return true if current feature has given key
+             */
+            private boolean hasKey(Object candidate) {
+                return feature != null && key != null && compareKeys(key, candidate) == 0;
+            }
+
+            private void close() {
+                try {
+                    iterator.close();
+                } finally {
+                    stream.close();
+                }
+            }
+        }
+
+        private final boolean keepLeft;
+        private final boolean keepRight;
+        private final Cursor leftCursor;
+        private final Cursor rightCursor;
+
+        SortMergeJoinIterator() throws DataStoreException {
+            keepLeft = joinType == Type.LEFT_OUTER;
+            keepRight = joinType == Type.RIGHT_OUTER;
+            leftCursor = new Cursor(left, (PropertyName) condition.getExpression1());
+            Cursor rc = null;
+            try {
+                rc = new Cursor(right, (PropertyName) condition.getExpression2());
+            } finally {
+                if (rc == null) leftCursor.close();
+            }
+            rightCursor = rc;
+        }
+
+        @Override
+        protected void searchNext() throws DataStoreException {
+            while (pending.isEmpty()) {
+                final Feature leftFeature = leftCursor.feature;
+                final Feature rightFeature = rightCursor.feature;
+                if (leftFeature == null && rightFeature == null) return;
+
+                //features without value never match
+                if (leftFeature != null && leftCursor.key == null) {
+                    if (keepLeft) pending.add(toFeature(leftFeature, null));
+                    leftCursor.advance();
+                    continue;
+                }
+                if (rightFeature != null && rightCursor.key == null) {
+                    if (keepRight) pending.add(toFeature(null, rightFeature));
+                    rightCursor.advance();
+                    continue;
+                }
+
+                final int cmp;
+                if (rightFeature == null) {
+                    if (!keepLeft) return;
+                    cmp = -1;
+                } else if (leftFeature == null) {
+                    if (!keepRight) return;
+                    cmp = 1;
+                } else {
+                    cmp = compareKeys(leftCursor.key, rightCursor.key);
+                }
+
+                if (cmp < 0) {
+                    if (keepLeft) pending.add(toFeature(leftFeature, null));
+                    leftCursor.advance();
+                } else if (cmp > 0) {
+                    if (keepRight) pending.add(toFeature(null, rightFeature));
+                    rightCursor.advance();
+                } else {
+                    final Object key = rightCursor.key;
+                    final List<Feature> group = new ArrayList<>();
+                    do {
+                        group.add(rightCursor.feature);
+                    } while (rightCursor.advance() && rightCursor.hasKey(key));
+                    do {
+                        for (Feature r : group) {
+                            pending.add(toFeature(leftCursor.feature, r));
+                        }
+                    } while (leftCursor.advance() && leftCursor.hasKey(key));
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                leftCursor.close();
+            } finally {
+                rightCursor.close();
+            }
+        }
+    }
+
     @Override
     public <T extends ChangeEvent> void addListener(ChangeListener<? super T> listener, Class<T> eventType) {
     }
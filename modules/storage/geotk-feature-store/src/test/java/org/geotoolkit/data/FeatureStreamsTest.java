@@ -23,12 +23,16 @@ import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.geom.LineString;
 import org.locationtech.jts.geom.Point;
 import org.apache.sis.referencing.CommonCRS;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import org.apache.sis.storage.DataStoreException;
 import org.geotoolkit.data.query.Query;
 import org.geotoolkit.data.query.QueryBuilder;
+import org.geotoolkit.data.query.SortByComparator;
 import org.geotoolkit.factory.FactoryFinder;
 import org.geotoolkit.factory.Hints;
 import org.geotoolkit.factory.HintsPending;
@@ -58,6 +62,7 @@ import org.opengis.feature.FeatureType;
 import org.opengis.referencing.NoSuchAuthorityCodeException;
 import org.apache.sis.internal.feature.AttributeConvention;
 import org.geotoolkit.data.iterator.CheckCloseFeatureIterator;
+import org.geotoolkit.internal.data.GenericSortByFeatureIterator;
 
 /**
  * Tests of the different iterators.
@@ -701,6 +706,155 @@ public class FeatureStreamsTest extends org.geotoolkit.test.TestBase {
         assertTrue(checkIte.isClosed());
     }
 
+    @Test
+    public void testExternalSortByIterator(){
+        final FeatureType originalType = buildOriginalFT();
+        final FeatureCollection collection = FeatureStoreUtilities.collection("id", originalType);
+        for (int i = 0; i < 100; i++) {
+            final Feature sf = originalType.newInstance();
+            sf.setPropertyValue("id", i);
+            sf.setPropertyValue("att_geom", GF.createPoint(new Coordinate(i, 0)));
+            sf.setPropertyValue("att_string", "str" + i);
+            sf.setPropertyValue("att_double", (double) ((i * 7) % 10));
+            collection.add(sf);
+        }
+
+        final SortBy[] sorts = new SortBy[]{
+            FF.sort("att_double", SortOrder.ASCENDING)
+        };
+
+        //sort with a budget smaller than the collection, features are written on disk
+        FeatureReader ite = GenericSortByFeatureIterator.wrap(FeatureStreams.asReader(collection.iterator(), originalType), sorts, -1, 7);
+        double lastValue = -1;
+        int lastId = -1;
+        int count = 0;
+        while (ite.hasNext()) {
+            final Feature f = ite.next();
+            final double value = (Double) f.getPropertyValue("att_double");
+            final int id = (Integer) f.getPropertyValue("id");
+            assertTrue(value >= lastValue);
+            if (value == lastValue) {
+                //original order is preserved for equal values
+                assertTrue(id > lastId);
+            }
+            assertEquals("str" + id, f.getPropertyValue("att_string"));
+            assertEquals(id, ((Point) f.getPropertyValue("att_geom")).getX(), DELTA);
+            lastValue = value;
+            lastId = id;
+            count++;
+        }
+        ite.close();
+        assertEquals(100, count);
+
+        //only the first features
+        ite = GenericSortByFeatureIterator.wrap(FeatureStreams.asReader(collection.iterator(), originalType), sorts, 15, 7);
+        assertEquals(15, FeatureStoreUtilities.calculateCount(ite));
+        ite = GenericSortByFeatureIterator.wrap(FeatureStreams.asReader(collection.iterator(), originalType), sorts, 5, 7);
+        for (int id : new int[]{0, 10, 20, 30, 40}) {
+            assertEquals(id, ite.next().getPropertyValue("id"));
+        }
+        assertFalse(ite.hasNext());
+        ite.close();
+    }
+
+    /**
+     * Null sort values are placed first and keep their original order across written blocks.
+     */
+    @Test
+    public void testExternalSortByIteratorNullValues(){
+        final FeatureType originalType = buildOriginalFT();
+        final FeatureCollection collection = FeatureStoreUtilities.collection("id", originalType);
+        for (int i = 0; i < 100; i++) {
+            final Feature sf = originalType.newInstance();
+            sf.setPropertyValue("id", i);
+            sf.setPropertyValue("att_string", "str" + i);
+            if (i % 3 != 0) {
+                sf.setPropertyValue("att_double", (double) ((i * 7) % 10));
+            }
+            collection.add(sf);
+        }
+
+        final SortBy[] sorts = new SortBy[]{
+            FF.sort("att_double", SortOrder.ASCENDING)
+        };
+        final Comparator<Feature> comparator = new SortByComparator(sorts);
+
+        final FeatureReader ite = GenericSortByFeatureIterator.wrap(FeatureStreams.asReader(collection.iterator(), originalType), sorts, -1, 7);
+        final List<Feature> features = new ArrayList<>();
+        while (ite.hasNext()) {
+            features.add(ite.next());
+        }
+        ite.close();
+        assertEquals(100, features.size());
+
+        for (int i = 0; i < 34; i++) {
+            //null values first, in original order
+            assertNull(features.get(i).getPropertyValue("att_double"));
+            assertEquals(i * 3, features.get(i).getPropertyValue("id"));
+        }
+        for (int i = 1; i < features.size(); i++) {
+            final Feature f1 = features.get(i-1);
+            final Feature f2 = features.get(i);
+            assertTrue(comparator.compare(f1, f2) <= 0);
+            assertTrue(comparator.compare(f2, f1) >= 0);
+            if (comparator.compare(f1, f2) == 0) {
+                assertTrue((Integer) f1.getPropertyValue("id") < (Integer) f2.getPropertyValue("id"));
+            }
+        }
+    }
+
+    /**
+     * Features with values which can not be serialized must be sorted in memory.
+     */
+    @Test
+    public void testExternalSortByIteratorNotSerializable(){
+        final FeatureTypeBuilder ftb = new FeatureTypeBuilder();
+        ftb.setName("notSerializable");
+        ftb.addAttribute(Integer.class).setName("id").addRole(AttributeRole.IDENTIFIER_COMPONENT);
+        ftb.addAttribute(Double.class).setName("att_double");
+        ftb.addAttribute(Object.class).setName("att_object");
+        final FeatureType type = ftb.build();
+
+        final FeatureCollection collection = FeatureStoreUtilities.collection("id", type);
+        final Map<Integer,Object> objects = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            final Feature sf = type.newInstance();
+            sf.setPropertyValue("id", i);
+            sf.setPropertyValue("att_double", (double) ((i * 7) % 10));
+            final Object value;
+            if (i < 40) {
+                value = "str" + i;
+            } else if (i < 70) {
+                //serializable container with a non serializable element
+                value = new java.util.ArrayList<>(java.util.Collections.singletonList(new Object()));
+            } else {
+                value = new Object();
+            }
+            sf.setPropertyValue("att_object", value);
+            objects.put(i, value);
+            collection.add(sf);
+        }
+
+        final SortBy[] sorts = new SortBy[]{
+            FF.sort("att_double", SortOrder.ASCENDING)
+        };
+
+        final FeatureReader ite = GenericSortByFeatureIterator.wrap(FeatureStreams.asReader(collection.iterator(), type), sorts, -1, 7);
+        double lastValue = -1;
+        int count = 0;
+        while (ite.hasNext()) {
+            final Feature f = ite.next();
+            final double value = (Double) f.getPropertyValue("att_double");
+            final int id = (Integer) f.getPropertyValue("id");
+            assertTrue(value >= lastValue);
+            assertEquals(objects.get(id), f.getPropertyValue("att_object"));
+            lastValue = value;
+            count++;
+        }
+        ite.close();
+        assertEquals(100, count);
+    }
+
     @Test
     public void testStartIndexIterator(){
         FeatureCollection collection = buildSimpleFeatureCollection();
@@ -17,13 +17,20 @@
 package org.geotoolkit.data.internal.data;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.apache.sis.feature.builder.FeatureTypeBuilder;
 import org.apache.sis.internal.feature.AttributeConvention;
+import org.apache.sis.storage.DataStoreException;
 import org.apache.sis.storage.FeatureSet;
 import org.geotoolkit.factory.FactoryFinder;
+import org.geotoolkit.factory.Hints;
 import org.geotoolkit.feature.FeatureExt;
 import org.geotoolkit.internal.data.ArrayFeatureSet;
 import org.geotoolkit.internal.data.JoinFeatureSet;
@@ -370,5 +377,197 @@ public class JoinFeatureSetTest {
         }
     }
 
+    /**
+     * Test all join strategies return the same features, with and without
+     * a memory budget smaller than the feature sets.
+     */
+    @Test
+    public void testJoinStrategies() throws Exception{
+
+        final PropertyIsEqualTo condition = FF.equals(FF.property("att2"), FF.property("att3"));
+        for (JoinFeatureSet.Type type : JoinFeatureSet.Type.values()) {
+            final List<String> expected = ids(new JoinFeatureSet(featureSet1, "s1", featureSet2, "s2", type, condition,
+                    new Hints(JoinFeatureSet.JOIN_STRATEGY, JoinFeatureSet.Strategy.NESTED_LOOP)));
+
+            for (JoinFeatureSet.Strategy strategy : JoinFeatureSet.Strategy.values()) {
+                for (int budget : new int[]{2, 1000}) {
+                    final Hints hints = new Hints(JoinFeatureSet.JOIN_STRATEGY, strategy,
+                                                  JoinFeatureSet.JOIN_MEMORY_BUDGET, budget);
+                    final JoinFeatureSet col = new JoinFeatureSet(featureSet1, "s1", featureSet2, "s2", type, condition, hints);
+                    assertEquals(type + " " + strategy + " " + budget, expected, ids(col));
+                }
+            }
+        }
+    }
+
+    /**
+     * Test strategies with partitioned hash joins and sorts on disk, unsorted sources,
+     * mixed number types, missing values and features which can not be written on disk.
+     */
+    @Test
+    public void testJoinStrategiesOverBudget() throws Exception{
+
+        FeatureTypeBuilder builder = new FeatureTypeBuilder();
+        builder.setName("left");
+        builder.addAttribute(String.class).setName(AttributeConvention.IDENTIFIER_PROPERTY);
+        builder.addAttribute(Integer.class).setName("key");
+        final FeatureType leftType = builder.build();
+
+        builder = new FeatureTypeBuilder();
+        builder.setName("right");
+        builder.addAttribute(String.class).setName(AttributeConvention.IDENTIFIER_PROPERTY);
+        builder.addAttribute(Long.class).setName("value");
+        builder.addAttribute(Object.class).setName("payload");
+        final FeatureType rightType = builder.build();
+
+        final Random random = new Random(42);
+        final List<Feature> lefts = new ArrayList<>();
+        final List<Feature> rights = new ArrayList<>();
+        final List<Feature> unwritables = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            final Feature left = leftType.newInstance();
+            left.setPropertyValue(ATT_ID, "l" + i);
+            if (i % 17 != 0) left.setPropertyValue("key", random.nextInt(200));
+            lefts.add(left);
+
+            final Feature right = rightType.newInstance();
+            right.setPropertyValue(ATT_ID, "r" + i);
+            if (i % 19 != 0) right.setPropertyValue("value", (long) random.nextInt(250));
+            rights.add(right);
+
+            final Feature unwritable = rightType.newInstance();
+            FeatureExt.copy(right, unwritable, false);
+            unwritable.setPropertyValue("payload", new Object());
+            unwritables.add(unwritable);
+        }
+        final FeatureSet leftSet = new ArrayFeatureSet(leftType, lefts, null);
+        final FeatureSet rightSet = new ArrayFeatureSet(rightType, rights, null);
+        final FeatureSet unwritableSet = new ArrayFeatureSet(rightType, unwritables, null);
+
+        final PropertyIsEqualTo condition = FF.equals(FF.property("key"), FF.property("value"));
+        for (JoinFeatureSet.Type type : JoinFeatureSet.Type.values()) {
+            final List<String> expected = expectedIds(lefts, rights, type);
+            for (JoinFeatureSet.Strategy strategy : new JoinFeatureSet.Strategy[]{
+                    JoinFeatureSet.Strategy.AUTO, JoinFeatureSet.Strategy.HASH, JoinFeatureSet.Strategy.SORT_MERGE}) {
+                for (int budget : new int[]{1, 7, 1000}) {
+                    final Hints hints = new Hints(JoinFeatureSet.JOIN_STRATEGY, strategy,
+                                                  JoinFeatureSet.JOIN_MEMORY_BUDGET, budget);
+                    assertEquals(type + " " + strategy + " " + budget, expected,
+                            ids(new JoinFeatureSet(leftSet, "s1", rightSet, "s2", type, condition, hints)));
+                    assertEquals(type + " " + strategy + " " + budget + " unwritable", expected,
+                            ids(new JoinFeatureSet(leftSet, "s1", unwritableSet, "s2", type, condition, hints)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Test hash joins read each side only once, whichever side fits in memory.
+     */
+    @Test
+    public void testHashJoinReadsOnce() throws Exception{
+
+        FeatureTypeBuilder builder = new FeatureTypeBuilder();
+        builder.setName("left");
+        builder.addAttribute(String.class).setName(AttributeConvention.IDENTIFIER_PROPERTY);
+        builder.addAttribute(Integer.class).setName("key");
+        final FeatureType leftType = builder.build();
+
+        builder = new FeatureTypeBuilder();
+        builder.setName("right");
+        builder.addAttribute(String.class).setName(AttributeConvention.IDENTIFIER_PROPERTY);
+        builder.addAttribute(Long.class).setName("value");
+        final FeatureType rightType = builder.build();
+
+        final Random random = new Random(42);
+        final List<Feature> lefts = new ArrayList<>();
+        final List<Feature> rights = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            final Feature left = leftType.newInstance();
+            left.setPropertyValue(ATT_ID, "l" + i);
+            if (i % 17 != 0) left.setPropertyValue("key", random.nextInt(50));
+            lefts.add(left);
+        }
+        for (int i = 0; i < 20; i++) {
+            final Feature right = rightType.newInstance();
+            right.setPropertyValue(ATT_ID, "r" + i);
+            if (i % 7 != 0) right.setPropertyValue("value", (long) random.nextInt(60));
+            rights.add(right);
+        }
+
+        final PropertyIsEqualTo condition = FF.equals(FF.property("key"), FF.property("value"));
+        for (JoinFeatureSet.Type type : JoinFeatureSet.Type.values()) {
+            //left fits in memory, right fits in memory, none fits in memory
+            for (int budget : new int[]{1000, 50, 7}) {
+                final CountingFeatureSet leftSet = new CountingFeatureSet(leftType, lefts);
+                final CountingFeatureSet rightSet = new CountingFeatureSet(rightType, rights);
+                final Hints hints = new Hints(JoinFeatureSet.JOIN_STRATEGY, JoinFeatureSet.Strategy.AUTO,
+                                              JoinFeatureSet.JOIN_MEMORY_BUDGET, budget);
+                assertEquals(type + " " + budget, expectedIds(lefts, rights, type),
+                        ids(new JoinFeatureSet(leftSet, "s1", rightSet, "s2", type, condition, hints)));
+                assertEquals(type + " " + budget, 1, leftSet.reads);
+                assertEquals(type + " " + budget, 1, rightSet.reads);
+            }
+        }
+    }
+
+    /**
+     * Feature set counting the number of times features are read.
+     */
+    private static final class CountingFeatureSet extends ArrayFeatureSet {
+
+        private int reads;
+
+        private CountingFeatureSet(FeatureType type, List<Feature> features) {
+            super(type, features, null);
+        }
+
+        @Override
+        public Stream<Feature> features(boolean parallel) throws DataStoreException {
+            reads++;
+            return super.features(parallel);
+        }
+    }
+
+    private static List<String> expectedIds(List<Feature> lefts, List<Feature> rights, JoinFeatureSet.Type type) {
+        final List<String> ids = new ArrayList<>();
+        final Set<Object> matchedRights = new HashSet<>();
+        for (Feature left : lefts) {
+            final Object key = left.getPropertyValue("key");
+            boolean matched = false;
+            for (Feature right : rights) {
+                final Object value = right.getPropertyValue("value");
+                if (key != null && value != null && ((Number) key).longValue() == ((Number) value).longValue()) {
+                    ids.add(left.getPropertyValue(ATT_ID) + " " + right.getPropertyValue(ATT_ID));
+                    matchedRights.add(right.getPropertyValue(ATT_ID));
+                    matched = true;
+                }
+            }
+            if (!matched && type == JoinFeatureSet.Type.LEFT_OUTER) {
+                ids.add(left.getPropertyValue(ATT_ID) + " null");
+            }
+        }
+        if (type == JoinFeatureSet.Type.RIGHT_OUTER) {
+            for (Feature right : rights) {
+                if (!matchedRights.contains(right.getPropertyValue(ATT_ID))) {
+                    ids.add("null " + right.getPropertyValue(ATT_ID));
+                }
+            }
+        }
+        Collections.sort(ids);
+        return ids;
+    }
+
+    private static List<String> ids(FeatureSet col) throws Exception {
+        try (Stream<Feature> stream = col.features(false)) {
+            final List<String> ids = stream.map((Feature f) -> {
+                    final Feature c1 = (Feature) f.getPropertyValue("s1");
+                    final Feature c2 = (Feature) f.getPropertyValue("s2");
+                    return (c1 == null ? null : c1.getPropertyValue(ATT_ID)) + " " + (c2 == null ? null : c2.getPropertyValue(ATT_ID));
+                }).collect(Collectors.toList());
+            Collections.sort(ids);
+            return ids;
+        }
+    }
 
 }
@@ -0,0 +1,182 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2018, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.data.memory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.sis.feature.builder.AttributeRole;
+import org.apache.sis.feature.builder.FeatureTypeBuilder;
+import org.apache.sis.referencing.CommonCRS;
+import org.apache.sis.storage.DataStoreException;
+import org.geotoolkit.data.FeatureReader;
+import org.geotoolkit.data.query.QueryBuilder;
+import org.geotoolkit.factory.FactoryFinder;
+import org.geotoolkit.feature.FeatureExt;
+import org.geotoolkit.geometry.DefaultBoundingBox;
+import org.junit.Before;
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.opengis.feature.Feature;
+import org.opengis.feature.FeatureType;
+import org.opengis.filter.Filter;
+import org.opengis.filter.FilterFactory2;
+import org.opengis.filter.MatchAction;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test memory feature store indexes give the same results as a full scan.
+ *
+ * @author Johann Sorel (Geomatys)
+ */
+public class MemoryIndexTest extends org.geotoolkit.test.TestBase {
+
+    private static final FilterFactory2 FF = (FilterFactory2) FactoryFinder.getFilterFactory(null);
+    private static final GeometryFactory GF = new GeometryFactory();
+
+    private FeatureType type;
+    private MemoryFeatureStore indexed;
+    private MemoryFeatureStore plain;
+
+    @Before
+    public void setUp() throws DataStoreException {
+        final FeatureTypeBuilder ftb = new FeatureTypeBuilder();
+        ftb.setName("index");
+        ftb.addAttribute(String.class).setName("id").addRole(AttributeRole.IDENTIFIER_COMPONENT);
+        ftb.addAttribute(Point.class).setName("geom").setCRS(CommonCRS.WGS84.normalizedGeographic()).addRole(AttributeRole.DEFAULT_GEOMETRY);
+        ftb.addAttribute(Integer.class).setName("value");
+        ftb.addAttribute(String.class).setName("name");
+        type = ftb.build();
+
+        final List<Feature> features = new ArrayList<>();
+        for (int x = -10; x < 10; x++) {
+            for (int y = -5; y < 5; y++) {
+                final Feature feature = type.newInstance();
+                feature.setPropertyValue("id", "f" + x + "_" + y);
+                feature.setPropertyValue("geom", GF.createPoint(new Coordinate(x, y)));
+                feature.setPropertyValue("value", x * 10 + y);
+                feature.setPropertyValue("name", "n" + Math.floorMod(x + y, 5));
+                features.add(feature);
+            }
+        }
+        final Feature empty = type.newInstance();
+        empty.setPropertyValue("id", "empty");
+        features.add(empty);
+
+        plain = new MemoryFeatureStore(type, false);
+        plain.addFeatures(type.getName().toString(), features);
+
+        indexed = new MemoryFeatureStore(type, false);
+        indexed.createSpatialIndex(type.getName().toString());
+        indexed.addFeatures(type.getName().toString(), features);
+        //index created after the features are added
+        indexed.createAttributeIndex(type.getName().toString(), "value");
+        indexed.createAttributeIndex(type.getName().toString(), "name");
+    }
+
+    @Test
+    public void testSpatialFilters() throws DataStoreException {
+        final DefaultBoundingBox bbox = new DefaultBoundingBox(CommonCRS.WGS84.normalizedGeographic());
+        bbox.setRange(0, -2.5, 3);
+        bbox.setRange(1, -1, 1.5);
+        assertIndexed(FF.bbox(FF.property("geom"), bbox), 18);
+
+        final Point pt = GF.createPoint(new Coordinate(4, 2));
+        assertIndexed(FF.intersects(FF.property("geom"), FF.literal(pt.buffer(1.5))), 9);
+        assertIndexed(FF.intersects(FF.literal(pt.buffer(0.5)), FF.property("geom")), 1);
+    }
+
+    @Test
+    public void testAttributeFilters() throws DataStoreException {
+        assertIndexed(FF.equals(FF.property("value"), FF.literal(42)), 1);
+        assertIndexed(FF.equals(FF.property("value"), FF.literal(42.0)), 1);
+        assertIndexed(FF.equals(FF.literal(-13), FF.property("value")), 1);
+        assertIndexed(FF.less(FF.property("value"), FF.literal(-50)), 55);
+        assertIndexed(FF.lessOrEqual(FF.property("value"), FF.literal(-50)), 56);
+        assertIndexed(FF.greater(FF.literal(0), FF.property("value")), 105);
+        assertIndexed(FF.greaterOrEqual(FF.property("value"), FF.literal(93)), 2);
+        assertIndexed(FF.between(FF.property("value"), FF.literal(10), FF.literal(20)), 10);
+        assertIndexed(FF.equals(FF.property("name"), FF.literal("n3")), 40);
+        assertIndexed(FF.equal(FF.property("name"), FF.literal("N3"), false, MatchAction.ANY), 40);
+    }
+
+    @Test
+    public void testLogicFilters() throws DataStoreException {
+        final DefaultBoundingBox bbox = new DefaultBoundingBox(CommonCRS.WGS84.normalizedGeographic());
+        bbox.setRange(0, -5, 5);
+        bbox.setRange(1, -5, 5);
+        assertIndexed(FF.and(FF.bbox(FF.property("geom"), bbox), FF.equals(FF.property("name"), FF.literal("n0"))), 22);
+        assertIndexed(FF.or(FF.equals(FF.property("value"), FF.literal(1)), FF.less(FF.property("value"), FF.literal(-98))), 8);
+        assertIndexed(FF.or(FF.equals(FF.property("value"), FF.literal(1)), FF.like(FF.property("name"), "n1")), 40);
+    }
+
+    @Test
+    public void testUpdateAndRemove() throws DataStoreException {
+        final String typeName = type.getName().toString();
+        final Map<String,Object> values = Collections.singletonMap("geom", GF.createPoint(new Coordinate(100, 100)));
+        final Filter filter = FF.equals(FF.property("value"), FF.literal(0));
+        indexed.updateFeatures(typeName, filter, values);
+        plain.updateFeatures(typeName, filter, values);
+        indexed.updateFeatures(typeName, FF.equals(FF.property("value"), FF.literal(1)), Collections.singletonMap("value", 1000));
+        plain.updateFeatures(typeName, FF.equals(FF.property("value"), FF.literal(1)), Collections.singletonMap("value", 1000));
+
+        final DefaultBoundingBox bbox = new DefaultBoundingBox(CommonCRS.WGS84.normalizedGeographic());
+        bbox.setRange(0, -0.5, 0.5);
+        bbox.setRange(1, -0.5, 0.5);
+        assertIndexed(FF.bbox(FF.property("geom"), bbox), 0);
+        bbox.setRange(0, 99, 101);
+        bbox.setRange(1, 99, 101);
+        assertIndexed(FF.bbox(FF.property("geom"), bbox), 1);
+        assertIndexed(FF.equals(FF.property("value"), FF.literal(1)), 0);
+        assertIndexed(FF.equals(FF.property("value"), FF.literal(1000)), 1);
+
+        indexed.removeFeatures(typeName, FF.less(FF.property("value"), FF.literal(0)));
+        plain.removeFeatures(typeName, FF.less(FF.property("value"), FF.literal(0)));
+        assertIndexed(FF.lessOrEqual(FF.property("value"), FF.literal(5)), 5);
+        bbox.setRange(0, -10, 10);
+        bbox.setRange(1, -10, 10);
+        assertIndexed(FF.bbox(FF.property("geom"), bbox), 94);
+    }
+
+    /**
+     * Check the indexed and plain stores return the same features.
+     */
+    private void assertIndexed(final Filter filter, final int expected) throws DataStoreException {
+        final Set<String> result = read(indexed, filter);
+        assertEquals(filter.toString(), read(plain, filter), result);
+        assertEquals(filter.toString(), expected, result.size());
+    }
+
+    private Set<String> read(final MemoryFeatureStore store, final Filter filter) throws DataStoreException {
+        final QueryBuilder qb = new QueryBuilder(type.getName().toString());
+        qb.setFilter(filter);
+        final Set<String> ids = new HashSet<>();
+        try (FeatureReader reader = store.getFeatureReader(qb.buildQuery())) {
+            while (reader.hasNext()) {
+                assertTrue(ids.add(FeatureExt.getId(reader.next()).getID()));
+            }
+        }
+        return ids;
+    }
+
+}
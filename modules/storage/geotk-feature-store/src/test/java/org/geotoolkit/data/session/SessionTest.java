@@ -614,4 +614,51 @@ public class SessionTest extends org.geotoolkit.test.TestBase {
 
     }
 
+    @Test
+    public void testSessionManyDeltas() throws DataStoreException{
+        final GenericName name = store.getNames().iterator().next();
+        final Query all = QueryBuilder.all(name.toString());
+
+        //create an asynchrone session
+        final Session session = store.createSession(true);
+
+        //add features then modify and remove some of them
+        final FeatureType type = store.getFeatureType(name.toString());
+        for(int i=0;i<20;i++){
+            final Feature f = type.newInstance();
+            f.setPropertyValue(AttributeConvention.IDENTIFIER_PROPERTY.toString(), "added"+i);
+            f.setPropertyValue("string", "added");
+            f.setPropertyValue("double", (double)i);
+            session.addFeatures(name.toString(), Collections.singletonList(f));
+        }
+        for(int i=0;i<20;i+=2){
+            session.updateFeatures(name.toString(), FF.id(Collections.singleton(FF.featureId("added"+i))),
+                    Collections.singletonMap("string", "even"));
+        }
+        for(int i=0;i<20;i+=5){
+            session.removeFeatures(name.toString(), FF.id(Collections.singleton(FF.featureId("added"+i))));
+        }
+
+        //modify all store features several times and remove one
+        for(int i=0;i<10;i++){
+            session.updateFeatures(name.toString(), FF.equals(FF.property("string"), FF.literal("hop1")),
+                    Collections.singletonMap("double", 100d+i));
+        }
+        session.removeFeatures(name.toString(), FF.equals(FF.literal("hop3"), FF.property("string")));
+
+        assertEquals(3, store.getCount(all));
+        assertEquals(3 - 1 + 20 - 4, session.getCount(all));
+        assertEquals(8, session.getCount(QueryBuilder.filtered(name.toString(), FF.equals(FF.property("string"), FF.literal("even")))));
+        assertEquals(1, session.getCount(QueryBuilder.filtered(name.toString(), FF.equals(FF.property("double"), FF.literal(109d)))));
+        assertEquals(0, session.getCount(QueryBuilder.filtered(name.toString(), FF.equals(FF.property("string"), FF.literal("hop3")))));
+
+        session.commit();
+        assertFalse(session.hasPendingChanges());
+
+        assertEquals(18, store.getCount(all));
+        assertEquals(8, store.getCount(QueryBuilder.filtered(name.toString(), FF.equals(FF.property("string"), FF.literal("even")))));
+        assertEquals(1, store.getCount(QueryBuilder.filtered(name.toString(), FF.equals(FF.property("double"), FF.literal(109d)))));
+        assertEquals(0, store.getCount(QueryBuilder.filtered(name.toString(), FF.equals(FF.property("string"), FF.literal("hop3")))));
+    }
+
 }
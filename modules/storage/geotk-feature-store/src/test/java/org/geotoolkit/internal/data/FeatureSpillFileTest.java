@@ -0,0 +1,108 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2018, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.internal.data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.sis.feature.builder.FeatureTypeBuilder;
+import org.junit.Test;
+import org.opengis.feature.Feature;
+import org.opengis.feature.FeatureType;
+import static org.junit.Assert.*;
+
+/**
+ * Tests {@link FeatureSpillFile}.
+ *
+ * @author Johann Sorel (Geomatys)
+ * @module
+ */
+public class FeatureSpillFileTest extends org.geotoolkit.test.TestBase {
+
+    private static final FeatureType TYPE;
+    static {
+        final FeatureTypeBuilder ftb = new FeatureTypeBuilder();
+        ftb.setName("spill");
+        ftb.addAttribute(Integer.class).setName("id");
+        ftb.addAttribute(Object.class).setName("value");
+        TYPE = ftb.build();
+    }
+
+    private static Feature create(final int id, final Object value) {
+        final Feature feature = TYPE.newInstance();
+        feature.setPropertyValue("id", id);
+        feature.setPropertyValue("value", value);
+        return feature;
+    }
+
+    /**
+     * Refused features must not leave a partial record, following features must be read back.
+     * The number of features spans several blocks.
+     */
+    @Test
+    public void testRefusedFeatures() throws Exception {
+        final List<Integer> expected = new ArrayList<>();
+        try (FeatureSpillFile spill = new FeatureSpillFile()) {
+            for (int i = 0; i < 2500; i++) {
+                final boolean written;
+                if (i % 700 == 5) {
+                    //serializable container with a non serializable element
+                    written = spill.write(create(i, new ArrayList<>(Collections.singletonList(new Object()))));
+                    assertFalse(written);
+                } else if (i % 700 == 6) {
+                    written = spill.write(create(i, new Object()));
+                    assertFalse(written);
+                } else {
+                    written = spill.write(create(i, "v" + i), i * 2);
+                    assertTrue(written);
+                    expected.add(i);
+                }
+            }
+            assertEquals(expected.size(), spill.size());
+
+            //the file can be read several times
+            for (int k = 0; k < 2; k++) {
+                final FeatureSpillFile.Cursor cursor = spill.cursor();
+                for (Integer id : expected) {
+                    assertTrue(cursor.next());
+                    assertEquals(id, cursor.getFeature().getPropertyValue("id"));
+                    assertEquals("v" + id, cursor.getFeature().getPropertyValue("value"));
+                    assertEquals(id * 2, cursor.getHeader());
+                }
+                assertFalse(cursor.next());
+            }
+
+            int count = 0;
+            for (Feature feature : spill) {
+                assertEquals(expected.get(count++), feature.getPropertyValue("id"));
+            }
+            assertEquals(expected.size(), count);
+        }
+    }
+
+    /**
+     * An empty file can be read.
+     */
+    @Test
+    public void testEmpty() throws Exception {
+        try (FeatureSpillFile spill = new FeatureSpillFile()) {
+            assertFalse(spill.write(create(0, new Object())));
+            assertEquals(0, spill.size());
+            assertFalse(spill.iterator().hasNext());
+        }
+    }
+}
@@ -17,6 +17,7 @@
 
 package org.geotoolkit.metadata;
 
+import org.apache.sis.util.ArgumentChecks;
 import org.apache.sis.util.logging.Logging;
 import org.w3c.dom.Node;
 
@@ -25,6 +26,8 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -50,9 +53,9 @@ public abstract class AbstractMetadataReader implements MetadataReader {
     private boolean threadEnabled;
 
     /**
-     * A map containing the metadata already extract from the database.
+     * A cache containing the metadata already extract from the database.
      */
-    private final Map<String, Object> metadatas = new HashMap<>();
+    private volatile MetadataCache metadatas = new MetadataCache();
 
     /**
      * The default level for logging non essential informations (ToSee => finer)
@@ -135,6 +138,56 @@ public abstract class AbstractMetadataReader implements MetadataReader {
         return metadatas.get(identifier);
     }
 
+    /**
+     * @return the metadata cache, never null.
+     */
+    public MetadataCache getCache() {
+        return metadatas;
+    }
+
+    /**
+     * Replace the metadata cache, the previous cache content is discarded.
+     *
+     * @param cache the new metadata cache, not null.
+     */
+    public void setCache(final MetadataCache cache) {
+        ArgumentChecks.ensureNonNull("cache", cache);
+        this.metadatas = cache;
+    }
+
+    /**
+     * Read all the metadata in a background thread to fill the cache.
+     * Does nothing if the cache is disabled.
+     * <br>
+     * The metadata are read with {@link #getMetadata(java.lang.String, org.geotoolkit.metadata.MetadataType) },
+     * implementations are expected to cache the results there.
+     * The warm-up can be stopped by cancelling the returned future.
+     *
+     * @param mode The metadata type to read.
+     * @return the warm-up task, or null if the cache is disabled.
+     */
+    public Future<?> startCacheWarmUp(final MetadataType mode) {
+        if (!cacheEnabled) {
+            return null;
+        }
+        final FutureTask<Object> task = new FutureTask<>(() -> {
+            final Iterator<String> ite = getIdentifierIterator();
+            while (ite.hasNext() && !Thread.currentThread().isInterrupted()) {
+                final String identifier = ite.next();
+                try {
+                    getMetadata(identifier, mode);
+                } catch (MetadataIoException ex) {
+                    LOGGER.log(Level.WARNING, "Unable to read metadata " + identifier + " during cache warm-up", ex);
+                }
+            }
+            return null;
+        });
+        final Thread thread = new Thread(task, "Metadata cache warm-up");
+        thread.setDaemon(true);
+        thread.start();
+        return task;
+    }
+
     /**
      * {@inheritDoc}
      */
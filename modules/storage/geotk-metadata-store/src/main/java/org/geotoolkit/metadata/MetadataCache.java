@@ -0,0 +1,177 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2018, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.metadata;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.sis.util.ArgumentChecks;
+import org.apache.sis.util.collection.Cache;
+
+/**
+ * A thread safe cache of metadata objects, by identifier.
+ * <br>
+ * Metadata are retained by strong references until the cost limit is reached,
+ * the least recently used ones are then retained by soft or weak references.
+ * The cost of an entry is 1 by default, the limit is then a number of entries;
+ * subclasses can override {@link #cost(java.lang.Object)} to limit the cache
+ * by weight instead.
+ * <br>
+ * Entries can also expire after a given time to live.
+ *
+ * @author Johann Sorel (Geomatys)
+ * @module
+ */
+public class MetadataCache {
+
+    /**
+     * Default cost limit.
+     */
+    public static final long DEFAULT_COST_LIMIT = 10000;
+
+    private final Cache<String,Entry> cache;
+    private final long timeToLive;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+
+    /**
+     * Create a cache with default cost limit, using soft references and without expiration.
+     */
+    public MetadataCache() {
+        this(DEFAULT_COST_LIMIT, true, 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Create a cache.
+     *
+     * @param costLimit maximum cost of the metadata retained by strong references.
+     * @param soft true to retain the metadata above the cost limit by soft references,
+     *        false to use weak references.
+     * @param timeToLive time after which an entry is removed, zero for no expiration.
+     * @param unit time to live unit.
+     */
+    public MetadataCache(final long costLimit, final boolean soft, final long timeToLive, final TimeUnit unit) {
+        ArgumentChecks.ensurePositive("costLimit", costLimit);
+        ArgumentChecks.ensurePositive("timeToLive", timeToLive);
+        ArgumentChecks.ensureNonNull("unit", unit);
+        this.timeToLive = unit.toNanos(timeToLive);
+        this.cache = new Cache<String,Entry>(16, costLimit, soft) {
+            @Override
+            protected int cost(final Entry entry) {
+                return MetadataCache.this.cost(entry.metadata);
+            }
+        };
+    }
+
+    /**
+     * Returns an estimation of the cost of a metadata, 1 by default.
+     *
+     * @param metadata cached metadata, never null.
+     * @return cost of the metadata
+     */
+    protected int cost(final Object metadata) {
+        return 1;
+    }
+
+    /**
+     * Return a metadata from the cache.
+     *
+     * @param identifier metadata identifier.
+     * @return cached metadata or null.
+     */
+    public Object get(final String identifier) {
+        final Entry entry = cache.peek(identifier);
+        if (entry != null) {
+            if (timeToLive == 0 || System.nanoTime() - entry.time < timeToLive) {
+                hits.incrementAndGet();
+                return entry.metadata;
+            }
+            if (cache.remove(identifier, entry)) {
+                expired.incrementAndGet();
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Add a metadata in the cache, replacing any previous metadata for this identifier.
+     *
+     * @param identifier metadata identifier.
+     * @param metadata metadata to cache, a null value removes the identifier from the cache.
+     */
+    public void put(final String identifier, final Object metadata) {
+        if (metadata == null) {
+            cache.remove(identifier);
+        } else {
+            cache.put(identifier, new Entry(metadata));
+        }
+    }
+
+    /**
+     * Remove a metadata from the cache.
+     *
+     * @param identifier metadata identifier.
+     */
+    public void remove(final String identifier) {
+        cache.remove(identifier);
+    }
+
+    /**
+     * Remove all metadata from the cache. Statistics are not reset.
+     */
+    public void clear() {
+        cache.clear();
+    }
+
+    /**
+     * @return number of metadata in the cache, including the ones retained by soft or weak references.
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * @return number of requests answered from the cache.
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * @return number of requests for metadata not in the cache.
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * @return number of entries removed because their time to live was exceeded.
+     */
+    public long getExpiredCount() {
+        return expired.get();
+    }
+
+    private static final class Entry {
+        private final Object metadata;
+        private final long time = System.nanoTime();
+
+        private Entry(final Object metadata) {
+            this.metadata = metadata;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2018, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.metadata;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.w3c.dom.Node;
+import static org.junit.Assert.*;
+
+/**
+ * Tests of {@link MetadataCache} and of the {@link AbstractMetadataReader} cache warm-up.
+ *
+ * @author Johann Sorel (Geomatys)
+ * @module
+ */
+public class MetadataCacheTest {
+
+    /**
+     * Test hit and miss counters.
+     */
+    @Test
+    public void testCounters() {
+        final MetadataCache cache = new MetadataCache();
+        cache.put("a", new Object());
+        assertNotNull(cache.get("a"));
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0, cache.getExpiredCount());
+
+        cache.put("a", null);
+        assertNull(cache.get("a"));
+        assertEquals(2, cache.getMissCount());
+        assertEquals(0, cache.size());
+    }
+
+    /**
+     * Test entries are removed once their time to live is exceeded.
+     */
+    @Test
+    public void testTimeToLive() throws InterruptedException {
+        final MetadataCache cache = new MetadataCache(10, true, 50, TimeUnit.MILLISECONDS);
+        cache.put("a", new Object());
+        assertNotNull(cache.get("a"));
+        Thread.sleep(100);
+        assertNull(cache.get("a"));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getExpiredCount());
+        assertEquals(0, cache.size());
+
+        //a new value restarts the time to live
+        cache.put("a", new Object());
+        assertNotNull(cache.get("a"));
+        assertEquals(1, cache.getExpiredCount());
+    }
+
+    /**
+     * Test the least recently used entries above the cost limit are retained
+     * by weak references and can be garbage collected.
+     */
+    @Test
+    public void testWeakEviction() throws InterruptedException {
+        final MetadataCache cache = new MetadataCache(2, false, 0, TimeUnit.MILLISECONDS);
+        final WeakReference<Object> a = putAndWatch(cache, "a");
+        cache.put("b", new Object());
+        cache.put("c", new Object());
+        assertTrue("Entry above the cost limit has not been collected", collect(a));
+        assertNull(cache.get("a"));
+        assertNotNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+    }
+
+    /**
+     * Test the least recently used entries above the cost limit are retained
+     * by soft references and survive a garbage collection without memory pressure.
+     */
+    @Test
+    public void testSoftEviction() throws InterruptedException {
+        final MetadataCache cache = new MetadataCache(1, true, 0, TimeUnit.MILLISECONDS);
+        final WeakReference<Object> a = putAndWatch(cache, "a");
+        cache.put("b", new Object());
+        assertFalse("Softly referenced entry has been collected", collect(a));
+        assertNotNull(cache.get("a"));
+        assertNotNull(cache.get("b"));
+    }
+
+    /**
+     * Test the cost limit is applied on the cost of the metadata.
+     */
+    @Test
+    public void testCostLimit() throws InterruptedException {
+        final MetadataCache cache = new MetadataCache(10, false, 0, TimeUnit.MILLISECONDS) {
+            @Override
+            protected int cost(final Object metadata) {
+                return ((String) metadata).length();
+            }
+        };
+        final WeakReference<Object> a = putAndWatch(cache, "a", new String("123456"));
+        cache.put("b", new String("123"));
+        assertFalse("Entry below the cost limit has been collected", collect(a));
+
+        cache.put("c", new String("123"));
+        assertTrue("Entry above the cost limit has not been collected", collect(a));
+        assertNull(cache.get("a"));
+        assertNotNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+    }
+
+    /**
+     * Test the warm-up reads all metadata in the cache, and does nothing when the cache is disabled.
+     */
+    @Test
+    public void testWarmUp() throws Exception {
+        final MockReader reader = new MockReader(true, "a", "b", "c");
+        reader.startCacheWarmUp(MetadataType.NATIVE).get(10, TimeUnit.SECONDS);
+        assertEquals(3, reader.getCache().size());
+        assertNotNull(reader.getFromCache("a"));
+        assertNotNull(reader.getFromCache("b"));
+        assertNotNull(reader.getFromCache("c"));
+
+        final MockReader disabled = new MockReader(false, "a", "b", "c");
+        assertNull(disabled.startCacheWarmUp(MetadataType.NATIVE));
+        assertEquals(0, disabled.getCache().size());
+    }
+
+    private static WeakReference<Object> putAndWatch(final MetadataCache cache, final String identifier) {
+        return putAndWatch(cache, identifier, new Object());
+    }
+
+    private static WeakReference<Object> putAndWatch(final MetadataCache cache, final String identifier, final Object metadata) {
+        cache.put(identifier, metadata);
+        return new WeakReference<>(metadata);
+    }
+
+    /**
+     * Request garbage collections until the referenced object is collected or a time limit is reached.
+     *
+     * @return true if the object has been collected
+     */
+    private static boolean collect(final WeakReference<?> ref) throws InterruptedException {
+        for (int i = 0; i < 20 && ref.get() != null; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return ref.get() == null;
+    }
+
+    /**
+     * Reader caching a new object for each requested identifier.
+     */
+    private static final class MockReader extends AbstractMetadataReader {
+
+        private final List<String> identifiers;
+
+        private MockReader(final boolean cacheEnabled, final String ... identifiers) {
+            super(cacheEnabled, false);
+            this.identifiers = Arrays.asList(identifiers);
+        }
+
+        @Override
+        public Node getMetadata(final String identifier, final MetadataType mode) throws MetadataIoException {
+            if (isCacheEnabled() && getFromCache(identifier) == null) {
+                addInCache(identifier, new Object());
+            }
+            return null;
+        }
+
+        @Override
+        public boolean existMetadata(final String identifier) throws MetadataIoException {
+            return identifiers.contains(identifier);
+        }
+
+        @Override
+        public int getEntryCount() throws MetadataIoException {
+            return identifiers.size();
+        }
+
+        @Override
+        public List<? extends Object> getAllEntries() throws MetadataIoException {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public List<String> getAllIdentifiers() throws MetadataIoException {
+            return identifiers;
+        }
+
+        @Override
+        public Iterator<String> getIdentifierIterator() throws MetadataIoException {
+            return identifiers.iterator();
+        }
+
+        @Override
+        public List<MetadataType> getSupportedDataTypes() {
+            return Collections.singletonList(MetadataType.NATIVE);
+        }
+
+        @Override
+        public void destroy() {
+        }
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ *    Geotoolkit.org - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2018, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.math;
+
+import java.util.Arrays;
+
+/**
+ * Two dimensional kd-tree used for searching the nearest points of a location.
+ * The tree is stored implicitly in a permutation of the point indices: the node of
+ * a range is the point in the middle of the range, points before it are on the lower
+ * side of the splitting axis and points after it on the upper side. The axis alternates
+ * between <var>x</var> and <var>y</var> at each depth.
+ * <p>
+ * The tree is immutable once built and can be searched by many threads at the same time,
+ * provided that each thread uses its own result arrays.
+ *
+ * @author Johann Sorel (Geomatys)
+ * @module
+ */
+final class KdTree {
+    /**
+     * The point ordinates, not modified by this class.
+     */
+    private final double[] xp, yp;
+
+    /**
+     * Point indices sorted in kd-tree order.
+     */
+    private final int[] index;
+
+    /**
+     * Builds a tree over the given points.
+     *
+     * @param xp The <var>x</var> ordinates of the points.
+     * @param yp The <var>y</var> ordinates of the points.
+     */
+    KdTree(final double[] xp, final double[] yp) {
+        this.xp = xp;
+        this.yp = yp;
+        index = new int[xp.length];
+        for (int i=0; i<index.length; i++) {
+            index[i] = i;
+        }
+        build(0, index.length, false);
+    }
+
+    private double ordinate(final int i, final boolean yAxis) {
+        return yAxis ? yp[index[i]] : xp[index[i]];
+    }
+
+    private void build(final int lo, final int hi, final boolean yAxis) {
+        if (hi - lo <= 1) {
+            return;
+        }
+        final int mid = (lo + hi) >>> 1;
+        select(lo, hi - 1, mid, yAxis);
+        build(lo, mid, !yAxis);
+        build(mid + 1, hi, !yAxis);
+    }
+
+    /**
+     * Partially sorts the [lo &hellip; hi] range so that the element at {@code k} is the one
+     * which would be there if the range was sorted along the given axis.
+     */
+    private void select(int lo, int hi, final int k, final boolean yAxis) {
+        while (hi > lo) {
+            final double pivot = ordinate((lo + hi) >>> 1, yAxis);
+            int i = lo, j = hi;
+            while (i <= j) {
+                while (ordinate(i, yAxis) < pivot) i++;
+                while (ordinate(j, yAxis) > pivot) j--;
+                if (i <= j) {
+                    final int t = index[i];
+                    index[i++] = index[j];
+                    index[j--] = t;
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Searches the points nearest to the given location. The indices of the points
+     * are stored in the {@code result} array in increasing order.
+     *
+     * @param  x The <var>x</var> ordinate of the location.
+     * @param  y The <var>y</var> ordinate of the location.
+     * @param  result Where to store the point indices. The length of this array is the
+     *         maximal number of points to search.
+     * @param  distances Work array of the same length than {@code result}.
+     * @return Number of points found, which is the minimum of the result array length
+     *         and the number of points in the tree.
+     */
+    int nearest(final double x, final double y, final int[] result, final double[] distances) {
+        final int count = search(0, index.length, false, x, y, result, distances, 0);
+        Arrays.sort(result, 0, count);
+        return count;
+    }
+
+    /**
+     * Recursive search in the tree. The result arrays are a max-heap on the squared
+     * distances, so the farthest point found so far is always at index 0.
+     *
+     * @return The number of points in the heap.
+     */
+    private int search(final int lo, final int hi, final boolean yAxis, final double x, final double y,
+            final int[] result, final double[] distances, int count)
+    {
+        if (lo >= hi) {
+            return count;
+        }
+        final int mid = (lo + hi) >>> 1;
+        final int p = index[mid];
+        final double dx = x - xp[p];
+        final double dy = y - yp[p];
+        final double d2 = dx*dx + dy*dy;
+        if (count < result.length) {
+            result[count] = p;
+            distances[count] = d2;
+            siftUp(result, distances, count++);
+        } else if (d2 < distances[0]) {
+            result[0] = p;
+            distances[0] = d2;
+            siftDown(result, distances, count);
+        }
+        final double delta = yAxis ? dy : dx;
+        if (delta < 0) {
+            count = search(lo, mid, !yAxis, x, y, result, distances, count);
+            if (count < result.length || delta*delta < distances[0]) {
+                count = search(mid + 1, hi, !yAxis, x, y, result, distances, count);
+            }
+        } else {
+            count = search(mid + 1, hi, !yAxis, x, y, result, distances, count);
+            if (count < result.length || delta*delta < distances[0]) {
+                count = search(lo, mid, !yAxis, x, y, result, distances, count);
+            }
+        }
+        return count;
+    }
+
+    private static void siftUp(final int[] result, final double[] distances, int i) {
+        while (i > 0) {
+            final int parent = (i - 1) >>> 1;
+            if (distances[parent] >= distances[i]) {
+                break;
+            }
+            swap(result, distances, i, parent);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(final int[] result, final double[] distances, final int count) {
+        int i = 0;
+        while (true) {
+            final int left = 2*i + 1;
+            if (left >= count) {
+                break;
+            }
+            int largest = left;
+            final int right = left + 1;
+            if (right < count && distances[right] > distances[left]) {
+                largest = right;
+            }
+            if (distances[i] >= distances[largest]) {
+                break;
+            }
+            swap(result, distances, i, largest);
+            i = largest;
+        }
+    }
+
+    private static void swap(final int[] result, final double[] distances, final int i, final int j) {
+        final int ti = result[i];
+        result[i] = result[j];
+        result[j] = ti;
+        final double td = distances[i];
+        distances[i] = distances[j];
+        distances[j] = td;
+    }
+}
@@ -26,6 +26,8 @@ import java.awt.image.DataBufferFloat;
 import java.awt.image.ComponentColorModel;
 import java.awt.color.ColorSpace;
 import java.awt.Transparency;
+import java.util.Arrays;
+import java.util.stream.IntStream;
 import javax.vecmath.GVector;
 import javax.vecmath.GMatrix;
 import javax.media.jai.RasterFactory;
@@ -35,6 +37,7 @@ import org.apache.sis.math.Plane;
 import org.geotoolkit.resources.Errors;
 import org.apache.sis.coverage.grid.PixelTranslation;
 
+import static org.apache.sis.util.ArgumentChecks.ensurePositive;
 import static org.apache.sis.util.ArgumentChecks.ensureStrictlyPositive;
 import org.geotoolkit.image.color.ScaledColorSpace;
 
@@ -46,6 +49,15 @@ import org.geotoolkit.image.color.ScaledColorSpace;
  * creating non-regular grids. For creating a non-regular grid, user should subclass
  * {@code ObjectiveAnalysis} and override the {@link #getOutputLocation getOutputLocation(...)}
  * method.
+ * <p>
+ * By default all input values are used for computing each grid cell, which requires the
+ * inversion of a matrix of size <var>N</var>×<var>N</var> where <var>N</var> is the number of
+ * input values. For large inputs, {@link #setNeighborCount(int)} restricts the computation of
+ * each grid cell to the nearest input values.
+ * <p>
+ * Grid cells are computed in parallel, consequently subclasses overriding
+ * {@link #getOutputLocation getOutputLocation(...)} or {@link #correlation correlation(...)}
+ * shall make those methods safe for concurrent calls.
  *
  * @author Martin Desruisseaux (IRD, Geomatys)
  * @author Howard Freeland (MPO, for algorithmic inspiration)
@@ -89,7 +101,13 @@ public class ObjectiveAnalysis {
      * Arbitrary scale factor computed from the grid region,
      * and used by the default implementation of {@link #correlation}
      */
-    private final double scale;
+    private double scale;
+
+    /**
+     * Number of nearest input values used for computing each grid cell,
+     * or 0 for using all input values.
+     */
+    private int neighbors;
 
     /**
      * The input vectors defined by the last call to {@link #setInputs(double[], double[], double[])}.
@@ -142,6 +160,52 @@ public class ObjectiveAnalysis {
         this.zp = zp;
     }
 
+    /**
+     * Returns the distance used by the default implementation of {@link #correlation correlation(...)}
+     * for normalizing the distance between two points. The default value is half the length of the
+     * grid region diagonal.
+     *
+     * @return The correlation distance scale.
+     */
+    public double getCorrelationLength() {
+        return scale;
+    }
+
+    /**
+     * Sets the distance used by the default implementation of {@link #correlation correlation(...)}
+     * for normalizing the distance between two points. Smaller values make the correlation
+     * decrease faster with the distance.
+     *
+     * @param length The correlation distance scale, must be strictly positive.
+     */
+    public void setCorrelationLength(final double length) {
+        ensureStrictlyPositive("length", length);
+        scale = length;
+    }
+
+    /**
+     * Returns the number of nearest input values used for computing each grid cell.
+     *
+     * @return Number of input values used for each grid cell, or 0 if all input values are used.
+     */
+    public int getNeighborCount() {
+        return neighbors;
+    }
+
+    /**
+     * Sets the number of nearest input values used for computing each grid cell.
+     * When this number is smaller than the number of input values, each grid cell is computed
+     * from a system built on the nearest input values only, instead of a single system built on
+     * all input values. This is much faster for large inputs and gives a result close to the
+     * complete computation when the correlation between distant points is small.
+     *
+     * @param count Number of input values to use for each grid cell, or 0 for all input values.
+     */
+    public void setNeighborCount(final int count) {
+        ensurePositive("count", count);
+        neighbors = count;
+    }
+
     /**
      * Returns the number of points to be computed by this instance. This is the number
      * of grid cells. The {@link #interpolate(double[]) interpolate(...)} method will
@@ -253,56 +317,131 @@ public class ObjectiveAnalysis {
          */
         final Plane P = new Plane();
         P.fit(xp, yp, zp);
+        final int N = zp.length;
+        final int n = getOutputLength();
+        final int k = neighbors;
+        final int chunks = (n + ny - 1) / ny;
+        if (k == 0 || k >= N) {
+            /*
+             * Compute (A⁻¹) × (X) once with all input values.
+             */
+            final double[] weights = new double[N];
+            solve(null, N, P, weights);
+            IntStream.range(0, chunks).parallel().forEach((int chunk) -> {
+                final Point2D.Double loc = new Point2D.Double();
+                final Point2D.Double P2 = new Point2D.Double();
+                for (int i=chunk*ny, end=Math.min(i+ny, n); i<end; i++) {
+                    getOutputLocation(i, loc);
+                    final double value = evaluate(loc, P, null, N, weights, P2);
+                    if (dest1 != null) dest1[i] = (float) value;
+                    if (dest2 != null) dest2[i] = value;
+                }
+            });
+        } else {
+            /*
+             * Compute (A⁻¹) × (X) with the nearest input values of each grid cell.
+             * Consecutive cells often have the same neighbors, the previous system
+             * is reused in such case.
+             */
+            final KdTree tree = new KdTree(xp, yp);
+            IntStream.range(0, chunks).parallel().forEach((int chunk) -> {
+                final Point2D.Double loc = new Point2D.Double();
+                final Point2D.Double P2 = new Point2D.Double();
+                final int[] nearest = new int[k];
+                final int[] previous = new int[k];
+                final double[] distances = new double[k];
+                final double[] weights = new double[k];
+                int previousCount = -1;
+                for (int i=chunk*ny, end=Math.min(i+ny, n); i<end; i++) {
+                    getOutputLocation(i, loc);
+                    final int count = tree.nearest(loc.x, loc.y, nearest, distances);
+                    if (count != previousCount || !Arrays.equals(nearest, previous)) {
+                        solve(nearest, count, P, weights);
+                        System.arraycopy(nearest, 0, previous, 0, k);
+                        previousCount = count;
+                    }
+                    final double value = evaluate(loc, P, nearest, count, weights, P2);
+                    if (dest1 != null) dest1[i] = (float) value;
+                    if (dest2 != null) dest2[i] = value;
+                }
+            });
+        }
+    }
+
+    /**
+     * Computes the weights of the given input values. This method computes (A⁻¹) × (X)
+     * where A is the matrix of correlations among the input values and X the differences
+     * between the input values and the regression plane.
+     *
+     * @param points  Indices of the input values to use, or {@code null} for all of them.
+     * @param count   Number of input values to use.
+     * @param P       Regression plane of all input values.
+     * @param weights Where to store the weights.
+     */
+    private void solve(final int[] points, final int count, final Plane P, final double[] weights) {
         /*
          * Create a matrix A(N,N) where N is the number of input data.
          * Note: the object 'GMatrix' is provided with Java3D.
          */
-        final int N = zp.length;
-        final GMatrix A = new GMatrix(N,N);
-        final GVector X = new GVector(N);
+        final GMatrix A = new GMatrix(count, count);
+        final GVector X = new GVector(count);
         /*
          * Set the matrix elements. The square part A(i,j) is
          * the matrix of correlations among observations.
          */
         final Point2D.Double P1 = new Point2D.Double();
         final Point2D.Double P2 = new Point2D.Double();
-        for (int i=0; i<N; i++){
-            P1.x = xp[i];
-            P1.y = yp[i];
-            for (int j=0; j<N; j++) {
-                P2.x = xp[j];
-                P2.y = yp[j];
+        for (int i=0; i<count; i++) {
+            final int pi = (points != null) ? points[i] : i;
+            P1.x = xp[pi];
+            P1.y = yp[pi];
+            for (int j=0; j<count; j++) {
+                final int pj = (points != null) ? points[j] : j;
+                P2.x = xp[pj];
+                P2.y = yp[pj];
                 A.setElement(i, j, correlation(P1, P2));
             }
-            X.setElement(i, zp[i] - P.z(P1.x, P1.y));
+            X.setElement(i, zp[pi] - P.z(P1.x, P1.y));
         }
         /*
          * Compute (A⁻¹) × (X) and stores the result into X.
          */
         A.invert(); // A = A⁻¹
         X.mul(A,X); // X = A*X
-        /*
-         * Now compute values.
-         */
-        final int n = getOutputLength();
-        for (int i=0; i<n; i++) {
-            final Point2D.Double loc = getOutputLocation(i, P1);
-            double value = P.z(loc.x, loc.y);
-            double lowBits = 0;
-            for (int k=0; k<N; k++) {
-                P2.x = xp[k];
-                P2.y = yp[k];
-                double toAdd = X.getElement(k) * correlation(loc, P2);
-                /*
-                 * Compute value += toAdd
-                 * using Kahan summation algorithm.
-                 */
-                toAdd += lowBits;
-                lowBits = toAdd + (value - (value += toAdd));
-            }
-            if (dest1 != null) dest1[i] = (float) value;
-            if (dest2 != null) dest2[i] = value;
+        for (int i=0; i<count; i++) {
+            weights[i] = X.getElement(i);
+        }
+    }
+
+    /**
+     * Computes the value at the given location from the weights of the input values.
+     *
+     * @param loc     The location where to compute the value.
+     * @param P       Regression plane of all input values.
+     * @param points  Indices of the input values to use, or {@code null} for all of them.
+     * @param count   Number of input values to use.
+     * @param weights Weights computed by {@link #solve solve(...)}.
+     * @param P2      A work point.
+     * @return The interpolated value.
+     */
+    private double evaluate(final Point2D.Double loc, final Plane P, final int[] points, final int count,
+            final double[] weights, final Point2D.Double P2)
+    {
+        double value = P.z(loc.x, loc.y);
+        double lowBits = 0;
+        for (int k=0; k<count; k++) {
+            final int pk = (points != null) ? points[k] : k;
+            P2.x = xp[pk];
+            P2.y = yp[pk];
+            double toAdd = weights[k] * correlation(loc, P2);
+            /*
+             * Compute value += toAdd
+             * using Kahan summation algorithm.
+             */
+            toAdd += lowBits;
+            lowBits = toAdd + (value - (value += toAdd));
         }
+        return value;
     }
 
     /**
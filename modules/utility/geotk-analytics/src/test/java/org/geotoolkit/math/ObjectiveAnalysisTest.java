@@ -72,4 +72,63 @@ public final strictfp class ObjectiveAnalysisTest extends org.geotoolkit.test.Te
         final RenderedImage image = ob.createImage();
         assertNotNull(image);
     }
+
+    /**
+     * Tests the Objective Analysis computation restricted to the nearest values.
+     * The computed results at the input locations must still be the original values.
+     */
+    @Test
+    public void testNeighbors() {
+        final int      s = 10;
+        final double[] x = new double[s];
+        final double[] y = new double[s];
+        final double[] z = new double[s];
+        final Random r = new Random(380951990);
+        for (int i=0; i<z.length; i++) {
+            x[i] = r.nextInt(s);
+            y[i] = r.nextInt(s);
+            z[i] = x[i] * y[i];
+        }
+        final ObjectiveAnalysis ob = new ObjectiveAnalysis(
+                new Rectangle(s-1, s-1), s, s, PixelOrientation.UPPER_LEFT);
+        ob.setInputs(x, y, z);
+        ob.setNeighborCount(4);
+        final double[] computed = ob.interpolate((double[]) null);
+        assertEquals(s*s, computed.length);
+        for (int i=0; i<z.length; i++) {
+            final double index = x[i] + x.length * (s-1 - y[i]);
+            assertEquals(z[i], computed[(int) index], EPS);
+        }
+    }
+
+    /**
+     * Tests the Objective Analysis computation restricted to the nearest values on two distant
+     * clusters of values. The correlation between clusters is negligible, so using only the values
+     * of the nearest cluster must give the same results than the complete computation.
+     */
+    @Test
+    public void testNeighborsSameAsComplete() {
+        final double[] x = {10, 12, 10, 12, 11, 88, 90, 88, 90, 89};
+        final double[] y = {10, 10, 12, 12, 11, 88, 88, 90, 90, 89};
+        final double[] z = new double[x.length];
+        for (int i=0; i<z.length; i++) {
+            z[i] = x[i] * y[i] / 10;
+        }
+        final ObjectiveAnalysis ob = new ObjectiveAnalysis(
+                new Rectangle(99, 99), 100, 100, PixelOrientation.UPPER_LEFT);
+        ob.setCorrelationLength(5);
+        ob.setInputs(x, y, z);
+        final double[] complete = ob.interpolate((double[]) null);
+
+        ob.setNeighborCount(5);
+        final double[] computed = ob.interpolate((double[]) null);
+        assertEquals(complete.length, computed.length);
+        for (int i=0; i<complete.length; i++) {
+            assertEquals(complete[i], computed[i], 1E-6);
+        }
+        for (int i=0; i<z.length; i++) {
+            final double index = x[i] + 100 * (99 - y[i]);
+            assertEquals(z[i], computed[(int) index], EPS);
+        }
+    }
 }